@@ -6,10 +6,15 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.training.account.service.model.dto.AccountDto;
+import org.training.account.service.model.dto.AccountStatusBulkUpdate;
 import org.training.account.service.model.dto.AccountStatusUpdate;
+import org.training.account.service.model.dto.BalanceUpdate;
+import org.training.account.service.model.dto.response.BulkStatusResponse;
+import org.training.account.service.model.dto.response.LedgerVerificationReport;
 import org.training.account.service.model.dto.response.Response;
 import org.training.account.service.model.dto.external.TransactionResponse;
 import org.training.account.service.service.AccountService;
+import org.training.account.service.service.LedgerVerificationService;
 
 import java.util.List;
 
@@ -20,6 +25,7 @@ import java.util.List;
 public class AccountController {
 
     private final AccountService accountService;
+    private final LedgerVerificationService ledgerVerificationService;
 
     /**
      * Create an account using the provided accountDto
@@ -44,6 +50,17 @@ public class AccountController {
         return ResponseEntity.ok(accountService.updateStatus(accountNumber, accountStatusUpdate));
     }
 
+    /**
+     * Update the status of many accounts in one request.
+     *
+     * @param bulkUpdate The account numbers or current status filter, and the new status.
+     * @return The response entity with the outcome for each account.
+     */
+    @PatchMapping("/status/bulk")
+    public ResponseEntity<BulkStatusResponse> updateAccountStatusInBulk(@RequestBody AccountStatusBulkUpdate bulkUpdate) {
+        return ResponseEntity.ok(accountService.updateStatusInBulk(bulkUpdate));
+    }
+
     /**
      * Retrieves an account by its account number.
      *
@@ -55,6 +72,30 @@ public class AccountController {
         return ResponseEntity.ok(accountService.readAccountByAccountNumber(accountNumber));
     }
 
+    /**
+     * Retrieves the number, status and balance of many accounts at once.
+     *
+     * @param accountNumbers The account numbers to look up.
+     * @return The accounts that exist; unknown account numbers are left out.
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<List<AccountDto>> readByAccountNumbers(@RequestBody List<String> accountNumbers) {
+        return ResponseEntity.ok(accountService.readAccountsByAccountNumbers(accountNumbers));
+    }
+
+    /**
+     * Retrieves a page of account numbers in ascending order, for services that keep a local index of them.
+     *
+     * @param after The last account number of the previous page; omitted for the first page.
+     * @param size  The maximum number of account numbers on the page.
+     * @return The account numbers that follow the given one.
+     */
+    @GetMapping("/numbers")
+    public ResponseEntity<List<String>> readAccountNumbers(@RequestParam(required = false) String after,
+                                                           @RequestParam(defaultValue = "10000") int size) {
+        return ResponseEntity.ok(accountService.readAccountNumbers(after, size));
+    }
+
     /**
      * Updates an account with the given account number.
      *
@@ -67,6 +108,28 @@ public class AccountController {
         return ResponseEntity.ok(accountService.updateAccount(accountNumber, accountDto));
     }
 
+    /**
+     * Adds a signed amount to the balance of an account.
+     *
+     * @param balanceUpdate The account number and the amount to add, negative for a debit.
+     * @return The response entity with the result of the balance update.
+     */
+    @PatchMapping("/balance")
+    public ResponseEntity<Response> updateBalance(@RequestBody BalanceUpdate balanceUpdate) {
+        return ResponseEntity.ok(accountService.updateBalance(balanceUpdate));
+    }
+
+    /**
+     * Applies a set of balance updates atomically, netted per account.
+     *
+     * @param balanceUpdates The account numbers and the signed amounts to apply.
+     * @return The response entity with the result of the balance updates.
+     */
+    @PatchMapping("/balance/bulk")
+    public ResponseEntity<Response> updateBalances(@RequestBody List<BalanceUpdate> balanceUpdates) {
+        return ResponseEntity.ok(accountService.updateBalances(balanceUpdates));
+    }
+
     /**
      * Retrieves the balance of the specified account.
      *
@@ -100,6 +163,16 @@ public class AccountController {
         return ResponseEntity.ok(accountService.closeAccount(accountNumber));
     }
 
+    /**
+     * Verifies the balance of every account against the sum of its ledger transactions.
+     *
+     * @return The report of the accounts whose balance does not match their ledger.
+     */
+    @PostMapping("/verification")
+    public ResponseEntity<LedgerVerificationReport> verifyLedger() {
+        return ResponseEntity.ok(ledgerVerificationService.verifyLedger());
+    }
+
     /**
      * Retrieves the account for a given user ID.
      *
@@ -109,18 +182,9 @@ public class AccountController {
     @GetMapping("/{userId}")
     public ResponseEntity<AccountDto> readAccountByUserId(@PathVariable Long userId){
         return ResponseEntity.ok(accountService.readAccountByUserId(userId));
+    }
 
-
-
-
-
-
-
-
-
-
-
-/**
+    /**
      * Ping endpoint to check if the service is up and running.
      *
      * @return A simple response indicating the service status.
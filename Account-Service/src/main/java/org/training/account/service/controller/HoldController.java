@@ -0,0 +1,66 @@
+package org.training.account.service.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.training.account.service.model.dto.HoldCapture;
+import org.training.account.service.model.dto.HoldDto;
+import org.training.account.service.model.dto.HoldRequest;
+import org.training.account.service.service.HoldService;
+
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/accounts/holds")
+public class HoldController {
+
+    private final HoldService holdService;
+
+    /**
+     * Place a hold on the available balance of an account.
+     *
+     * @param holdRequest The account, the amount and optionally the reference and expiry of the hold.
+     * @return The response entity with the placed hold and HTTP status code
+     */
+    @PostMapping
+    public ResponseEntity<HoldDto> placeHold(@RequestBody HoldRequest holdRequest) {
+        return new ResponseEntity<>(holdService.placeHold(holdRequest), HttpStatus.CREATED);
+    }
+
+    /**
+     * Retrieves a hold by its reference.
+     *
+     * @param holdReference The reference of the hold.
+     * @return The hold.
+     */
+    @GetMapping("/{holdReference}")
+    public ResponseEntity<HoldDto> readHold(@PathVariable String holdReference) {
+        return ResponseEntity.ok(holdService.readHold(holdReference));
+    }
+
+    /**
+     * Capture all or part of a hold.
+     *
+     * @param holdReference The reference of the hold.
+     * @param holdCapture   The amount to capture; without a body the whole hold is captured.
+     * @return The captured hold.
+     */
+    @PostMapping("/{holdReference}/capture")
+    public ResponseEntity<HoldDto> captureHold(@PathVariable String holdReference,
+                                               @RequestBody(required = false) HoldCapture holdCapture) {
+        return ResponseEntity.ok(holdService.captureHold(holdReference, holdCapture));
+    }
+
+    /**
+     * Release a hold, returning the held amount to the available balance.
+     *
+     * @param holdReference The reference of the hold.
+     * @return The released hold.
+     */
+    @PostMapping("/{holdReference}/release")
+    public ResponseEntity<HoldDto> releaseHold(@PathVariable String holdReference) {
+        return ResponseEntity.ok(holdService.releaseHold(holdReference));
+    }
+}
@@ -0,0 +1,7 @@
+package org.training.account.service.exception;
+
+public class InvalidHoldRequest extends GlobalException {
+    public InvalidHoldRequest(String message) {
+        super(message, GlobalErrorCode.BAD_REQUEST);
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.training.account.service.configuration.FeignConfiguration;
+import org.training.account.service.model.dto.external.LedgerBalance;
 import org.training.account.service.model.dto.external.TransactionResponse;
 
 import java.util.List;
@@ -19,4 +20,15 @@ public interface TransactionService {
      */
     @GetMapping("/transactions")
     List<TransactionResponse> getTransactionsFromAccountId(@RequestParam String accountId);
+
+    /**
+     * Retrieves the ledger balance of every account in a range of account numbers.
+     *
+     * @param fromAccount the first account number of the range, inclusive, or null for no lower bound
+     * @param toAccount   the last account number of the range, exclusive, or null for no upper bound
+     * @return the ledger balances ordered by account number
+     */
+    @GetMapping("/transactions/ledger-balances")
+    List<LedgerBalance> getLedgerBalances(@RequestParam(required = false) String fromAccount,
+                                          @RequestParam(required = false) String toAccount);
 }
@@ -0,0 +1,195 @@
+package org.training.account.service.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.training.common.model.Money;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static org.training.account.service.journal.JournalRecord.HEADER_SIZE;
+
+/**
+ * Append-only binary journal of every balance mutation made by the service.
+ *
+ * <p>Records are written into fixed-size segment files that are memory-mapped for writing, so an append
+ * is a copy into the page cache. Dirty pages are forced to disk by a background task at a fixed interval
+ * and whenever a segment is rolled over. On start-up the last segment is scanned to find the end of the
+ * valid records, so a record torn by a crash is overwritten by the next append.</p>
+ *
+ * <p>Records are appended inside the database transaction that makes the mutation, after its update and
+ * while the row of the account is still locked, so a committed mutation always has its record and the
+ * records of an account are in the order their transactions committed. A transaction that fails to commit
+ * after its append, or whose commit is cut short by a crash, leaves a record for a mutation that did not
+ * happen; the next record of that account then chains from the balance before it, which is how
+ * {@link JournalInspector} tells it apart.</p>
+ */
+@Slf4j
+@Component
+public class AuditJournal {
+
+    private static final int MAX_RECORD_SIZE = 512;
+
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_RECORD_SIZE);
+
+    private MappedByteBuffer segment;
+    private long nextSequence;
+    private final List<MappedByteBuffer> rolledSegments = new ArrayList<>();
+    private long appended;
+    private long forced;
+
+    private ScheduledExecutorService fsyncExecutor;
+
+    @Value("${account.journal.directory:journal}")
+    private String directory;
+
+    @Value("${account.journal.segment-size:67108864}")
+    private int segmentSize;
+
+    @Value("${account.journal.fsync-interval-ms:200}")
+    private long fsyncIntervalMillis;
+
+    @PostConstruct
+    public void open() throws IOException {
+
+        Path journalDirectory = Paths.get(directory);
+        Files.createDirectories(journalDirectory);
+        List<Path> segments = JournalReader.segments(journalDirectory);
+        if (segments.isEmpty()) {
+            segment = mapSegment(journalDirectory.resolve(JournalReader.segmentName(1)));
+            nextSequence = 1;
+        } else {
+            segment = mapSegment(segments.get(segments.size() - 1));
+            long[] lastSequence = {-1};
+            int end = JournalReader.scanSegment(segment, new CRC32(), record -> lastSequence[0] = record.sequence());
+            if (lastSequence[0] < 0) {
+                String name = segments.get(segments.size() - 1).getFileName().toString();
+                lastSequence[0] = Long.parseLong(name.substring(JournalReader.SEGMENT_PREFIX.length(),
+                        name.length() - JournalReader.SEGMENT_SUFFIX.length())) - 1;
+            }
+            if (end + Integer.BYTES <= segment.limit() && segment.getInt(end) != 0) {
+                log.warn("discarding damaged tail of audit journal segment {}", segments.get(segments.size() - 1));
+                for (int offset = end; offset < segment.limit(); offset++) {
+                    segment.put(offset, (byte) 0);
+                }
+            }
+            segment.position(end);
+            nextSequence = lastSequence[0] + 1;
+        }
+
+        fsyncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-journal-fsync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        fsyncExecutor.scheduleWithFixedDelay(this::force, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        log.info("audit journal opened in {}, next sequence {}", journalDirectory.toAbsolutePath(), nextSequence);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        fsyncExecutor.shutdown();
+        fsyncExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        synchronized (this) {
+            rolledSegments.forEach(MappedByteBuffer::force);
+            rolledSegments.clear();
+            segment.force();
+        }
+    }
+
+    /**
+     * Appends a balance mutation to the journal. The record is durable after the next background fsync.
+     * Callers append inside the transaction that makes the mutation, while the account row is locked.
+     *
+     * @param accountNumber the account whose balance changed
+     * @param amount        the signed amount applied to the balance
+     * @param balance       the available balance after the mutation
+     * @return the sequence assigned to the record
+     */
+    public synchronized long append(String accountNumber, Money amount, Money balance) {
+
+        long sequence = nextSequence;
+        JournalRecord record = new JournalRecord(sequence, System.currentTimeMillis(), accountNumber, amount, balance);
+        scratch.clear();
+        record.writePayload(scratch);
+        scratch.flip();
+        crc.reset();
+        crc.update(scratch.duplicate());
+
+        if (segment.remaining() < HEADER_SIZE + scratch.remaining()) {
+            roll(sequence);
+        }
+        segment.putInt(scratch.remaining());
+        segment.putInt((int) crc.getValue());
+        segment.put(scratch);
+        nextSequence++;
+        appended++;
+        return sequence;
+    }
+
+    /**
+     * Closes the current segment and starts a new one beginning at the given sequence.
+     */
+    private void roll(long firstSequence) {
+        MappedByteBuffer previous = segment;
+        try {
+            segment = mapSegment(Paths.get(directory).resolve(JournalReader.segmentName(firstSequence)));
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Unable to roll the audit journal segment", exception);
+        }
+        rolledSegments.add(previous);
+        fsyncExecutor.execute(this::force);
+    }
+
+    /**
+     * Forces the segments rolled over and the current segment to disk if records were appended since the
+     * last successful force. The count of appended records is read together with the segments, and only
+     * marked as forced once every force has returned, so a record appended meanwhile or a failed force is
+     * covered by the next run.
+     */
+    private void force() {
+        List<MappedByteBuffer> segments;
+        long target;
+        synchronized (this) {
+            if (appended == forced) {
+                return;
+            }
+            segments = new ArrayList<>(rolledSegments);
+            segments.add(segment);
+            target = appended;
+        }
+        try {
+            segments.forEach(MappedByteBuffer::force);
+        } catch (RuntimeException exception) {
+            log.error("audit journal could not be forced to disk, retrying on the next run", exception);
+            return;
+        }
+        synchronized (this) {
+            rolledSegments.subList(0, segments.size() - 1).clear();
+            forced = target;
+        }
+    }
+
+    private MappedByteBuffer mapSegment(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.training.account.service.journal;
+
+import org.training.common.model.Money;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Command line tool to inspect an audit journal, for example after an incident.
+ *
+ * <pre>
+ * java -cp account-service.jar org.training.account.service.journal.JournalInspector &lt;directory&gt; [accountNumber]
+ * </pre>
+ *
+ * <p>Without an account number it prints, per account, the number of mutations, their net amount and the
+ * last recorded balance, and flags any account whose records do not chain (previous balance plus amount
+ * differs from the recorded balance). With an account number it prints that account's records.</p>
+ *
+ * <p>Records are appended before their transaction commits, so a record can stand for a mutation that was
+ * rolled back or cut short by a crash. Such a record is recognised when the next record of the account
+ * chains from the balance before it; it is counted as uncommitted and left out of the mutations and the net
+ * amount. The last record of an account cannot be told apart this way and is best checked against the
+ * balance in the database.</p>
+ */
+public class JournalInspector {
+
+    private JournalInspector() {
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 1) {
+            System.err.println("usage: JournalInspector <directory> [accountNumber]");
+            System.exit(2);
+        }
+        Path directory = Paths.get(args[0]);
+        String accountFilter = args.length > 1 ? args[1] : null;
+
+        Map<String, AccountSummary> summaries = new TreeMap<>();
+        JournalReader.Scan scan = JournalReader.scan(directory, record -> {
+            if (accountFilter != null) {
+                if (accountFilter.equals(record.accountNumber())) {
+                    System.out.printf("%d %s %s %s %s%n", record.sequence(), Instant.ofEpochMilli(record.timestamp()),
+                            record.accountNumber(), record.amount(), record.balance());
+                }
+                return;
+            }
+            summaries.computeIfAbsent(record.accountNumber(), accountNumber -> new AccountSummary()).add(record);
+        });
+
+        summaries.forEach((accountNumber, summary) -> System.out.printf("%s mutations=%d net=%s balance=%s uncommitted=%d%s%n",
+                accountNumber, summary.mutations, summary.net, summary.balance, summary.uncommitted,
+                summary.broken ? " BROKEN_CHAIN" : ""));
+        System.out.printf("segments=%d records=%d lastSequence=%d damaged=%s%n",
+                scan.segments(), scan.records(), scan.lastSequence(), scan.damagedSegments());
+        if (!scan.damagedSegments().isEmpty() || summaries.values().stream().anyMatch(summary -> summary.broken)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * The records of one account read so far. A record chains when its balance less its amount is the
+     * balance of the record before it.
+     */
+    static class AccountSummary {
+
+        long mutations;
+        Money net = Money.ZERO;
+        Money balance;
+        long uncommitted;
+        boolean broken;
+
+        private Money previousBalance;
+        private Money previousAmount;
+
+        void add(JournalRecord record) {
+            Money before = record.balance().minus(record.amount());
+            if (balance != null && !before.equals(balance)) {
+                if (before.equals(previousBalance)) {
+                    uncommitted++;
+                    mutations--;
+                    net = net.minus(previousAmount);
+                } else {
+                    broken = true;
+                }
+            }
+            mutations++;
+            net = net.plus(record.amount());
+            previousBalance = before;
+            previousAmount = record.amount();
+            balance = record.balance();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.training.account.service.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.training.account.service.journal.JournalRecord.HEADER_SIZE;
+
+/**
+ * Sequential reader over the segment files of an audit journal. Segments are memory-mapped read-only and
+ * scanned frame by frame; a segment ends at the first empty frame or at the first frame whose checksum
+ * does not match, which is how a torn write after a crash shows up.
+ */
+public final class JournalReader {
+
+    static final String SEGMENT_PREFIX = "journal-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private JournalReader() {
+    }
+
+    /**
+     * Summary of a full journal scan.
+     *
+     * @param segments        the number of segments read
+     * @param records         the number of valid records read
+     * @param lastSequence    the sequence of the last valid record, or 0 if there is none
+     * @param damagedSegments the segments that end in a frame failing its checksum
+     */
+    public record Scan(int segments, long records, long lastSequence, List<Path> damagedSegments) {
+    }
+
+    /**
+     * Reads every valid record of the journal in sequence order.
+     *
+     * @param directory the journal directory
+     * @param consumer  the consumer receiving each record
+     * @return the summary of the scan
+     * @throws IOException if a segment cannot be read
+     */
+    public static Scan scan(Path directory, Consumer<JournalRecord> consumer) throws IOException {
+
+        List<Path> segments = segments(directory);
+        List<Path> damaged = new ArrayList<>();
+        long[] counters = new long[2];
+        CRC32 crc = new CRC32();
+        for (Path segment : segments) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int end = scanSegment(buffer, crc, record -> {
+                    counters[0]++;
+                    counters[1] = record.sequence();
+                    consumer.accept(record);
+                });
+                if (end + Integer.BYTES <= buffer.limit() && buffer.getInt(end) != 0) {
+                    damaged.add(segment);
+                }
+            }
+        }
+        return new Scan(segments.size(), counters[0], counters[1], damaged);
+    }
+
+    /**
+     * Reads the records of one segment until the first empty or damaged frame.
+     *
+     * @param segment  the segment contents, positioned at the first frame
+     * @param crc      the checksum instance to reuse
+     * @param consumer the consumer receiving each record
+     * @return the offset just after the last valid record
+     */
+    static int scanSegment(ByteBuffer segment, CRC32 crc, Consumer<JournalRecord> consumer) {
+
+        while (segment.remaining() >= HEADER_SIZE) {
+            int start = segment.position();
+            int length = segment.getInt();
+            int checksum = segment.getInt();
+            if (length <= 0 || length > segment.remaining()) {
+                return start;
+            }
+            ByteBuffer payload = segment.slice(segment.position(), length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                return start;
+            }
+            consumer.accept(JournalRecord.readPayload(payload));
+            segment.position(start + HEADER_SIZE + length);
+        }
+        return segment.position();
+    }
+
+    /**
+     * Lists the segment files of a journal in sequence order.
+     *
+     * @param directory the journal directory
+     * @return the segment paths, oldest first
+     * @throws IOException if the directory cannot be listed
+     */
+    static List<Path> segments(Path directory) throws IOException {
+
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Builds the file name of the segment whose first record has the given sequence.
+     *
+     * @param firstSequence the sequence of the first record in the segment
+     * @return the segment file name
+     */
+    static String segmentName(long firstSequence) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX);
+    }
+}
@@ -0,0 +1,54 @@
+package org.training.account.service.journal;
+
+import org.training.common.model.Money;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One balance mutation as stored in the audit journal.
+ *
+ * <p>On disk a record is framed as {@code [int length][int crc32][payload]}, where the payload is the
+ * sequence, the epoch-millisecond timestamp, the account number and the signed amount and resulting
+ * balance in minor units. A length of zero marks the end of the written part of a segment.</p>
+ *
+ * @param sequence      the position of the record in the journal, starting at 1
+ * @param timestamp     the time of the mutation in epoch milliseconds
+ * @param accountNumber the account whose balance changed
+ * @param amount        the signed amount applied to the balance
+ * @param balance       the available balance after the mutation
+ */
+public record JournalRecord(long sequence, long timestamp, String accountNumber, Money amount, Money balance) {
+
+    static final int HEADER_SIZE = 8;
+
+    /**
+     * Writes the payload of this record, without the frame header.
+     *
+     * @param buffer the buffer to write to
+     */
+    void writePayload(ByteBuffer buffer) {
+        byte[] account = accountNumber.getBytes(StandardCharsets.UTF_8);
+        buffer.putLong(sequence);
+        buffer.putLong(timestamp);
+        buffer.putShort((short) account.length);
+        buffer.put(account);
+        buffer.putLong(amount.getMinorUnits());
+        buffer.putLong(balance.getMinorUnits());
+    }
+
+    /**
+     * Reads a record payload written by {@link #writePayload(ByteBuffer)}.
+     *
+     * @param buffer the buffer positioned at the start of the payload
+     * @return the decoded record
+     */
+    static JournalRecord readPayload(ByteBuffer buffer) {
+        long sequence = buffer.getLong();
+        long timestamp = buffer.getLong();
+        byte[] account = new byte[buffer.getShort()];
+        buffer.get(account);
+        return new JournalRecord(sequence, timestamp, new String(account, StandardCharsets.UTF_8),
+                Money.ofMinor(buffer.getLong()), Money.ofMinor(buffer.getLong()));
+    }
+}
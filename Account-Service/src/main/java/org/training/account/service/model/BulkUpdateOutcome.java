@@ -0,0 +1,5 @@
+package org.training.account.service.model;
+
+public enum BulkUpdateOutcome {
+    UPDATED, NOT_FOUND, ACCOUNT_ACTIVE, INSUFFICIENT_FUNDS, CONFLICT
+}
@@ -1,9 +1,13 @@
 package org.training.account.service.model;
 
+import org.training.common.model.Money;
+
 public class Constants {
 
     private Constants() {
 
     }
     public static final String ACC_PREFIX = "060014";
+
+    public static final Money MINIMUM_BALANCE = Money.of(1000);
 }
@@ -0,0 +1,5 @@
+package org.training.account.service.model;
+
+public enum DiscrepancyType {
+    BALANCE_MISMATCH, UNKNOWN_ACCOUNT, UNSTABLE
+}
@@ -0,0 +1,5 @@
+package org.training.account.service.model;
+
+public enum HoldStatus {
+    HELD, CAPTURED, RELEASED, EXPIRED
+}
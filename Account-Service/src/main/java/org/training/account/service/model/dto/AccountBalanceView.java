@@ -0,0 +1,12 @@
+package org.training.account.service.model.dto;
+
+import org.training.common.model.Money;
+
+public interface AccountBalanceView {
+
+    String getAccountNumber();
+
+    Money getAvailableBalance();
+
+    Money getHeldBalance();
+}
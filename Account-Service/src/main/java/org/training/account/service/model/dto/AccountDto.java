@@ -4,8 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-
-import java.math.BigDecimal;
+import org.training.common.model.Money;
 
 @Data
 @AllArgsConstructor
@@ -21,7 +20,9 @@ public class AccountDto {
 
     private String accountStatus;
 
-    private BigDecimal availableBalance;
+    private Money availableBalance;
+
+    private Money heldBalance;
 
     private Long userId;
 
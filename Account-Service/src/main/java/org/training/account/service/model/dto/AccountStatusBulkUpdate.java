@@ -0,0 +1,22 @@
+package org.training.account.service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.account.service.model.AccountStatus;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AccountStatusBulkUpdate {
+
+    private List<String> accountNumbers;
+
+    private AccountStatus currentStatus;
+
+    private AccountStatus accountStatus;
+}
@@ -0,0 +1,18 @@
+package org.training.account.service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.account.service.model.BulkUpdateOutcome;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AccountStatusOutcome {
+
+    private String accountNumber;
+
+    private BulkUpdateOutcome outcome;
+}
@@ -0,0 +1,15 @@
+package org.training.account.service.model.dto;
+
+import org.training.account.service.model.AccountStatus;
+import org.training.common.model.Money;
+
+public interface AccountStatusView {
+
+    Long getAccountId();
+
+    String getAccountNumber();
+
+    AccountStatus getAccountStatus();
+
+    Money getAvailableBalance();
+}
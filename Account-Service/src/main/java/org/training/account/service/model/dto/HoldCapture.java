@@ -0,0 +1,19 @@
+package org.training.account.service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.common.model.Money;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class HoldCapture {
+
+    /**
+     * The amount to capture, at most the held amount, or null to capture all of it.
+     */
+    private Money amount;
+}
@@ -0,0 +1,33 @@
+package org.training.account.service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.account.service.model.HoldStatus;
+import org.training.common.model.Money;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class HoldDto {
+
+    private String holdReference;
+
+    private String accountNumber;
+
+    private Money amount;
+
+    private Money capturedAmount;
+
+    private HoldStatus status;
+
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime createdOn;
+
+    private LocalDateTime settledOn;
+}
@@ -0,0 +1,31 @@
+package org.training.account.service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.common.model.Money;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class HoldRequest {
+
+    /**
+     * The reference chosen by the caller, so that a retried request finds the hold it placed. A reference
+     * is generated when none is given.
+     */
+    private String holdReference;
+
+    private String accountNumber;
+
+    private Money amount;
+
+    /**
+     * The time the hold lapses if it has not been captured or released, or null for the default duration.
+     */
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,25 @@
+package org.training.account.service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.account.service.model.DiscrepancyType;
+import org.training.common.model.Money;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LedgerDiscrepancy {
+
+    private String accountNumber;
+
+    private DiscrepancyType discrepancyType;
+
+    private Money accountBalance;
+
+    private Money ledgerBalance;
+
+    private Money difference;
+}
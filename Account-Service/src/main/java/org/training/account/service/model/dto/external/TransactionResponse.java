@@ -4,8 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.training.common.model.Money;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -20,7 +20,7 @@ public class TransactionResponse {
 
     private String transactionType;
 
-    private BigDecimal amount;
+    private Money amount;
 
     private LocalDateTime localDateTime;
 
@@ -0,0 +1,24 @@
+package org.training.account.service.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.account.service.model.dto.AccountStatusOutcome;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkStatusResponse {
+
+    private String responseCode;
+
+    private String message;
+
+    private int updated;
+
+    private List<AccountStatusOutcome> outcomes;
+}
@@ -0,0 +1,25 @@
+package org.training.account.service.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.account.service.model.dto.LedgerDiscrepancy;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LedgerVerificationReport {
+
+    private LocalDateTime startedAt;
+
+    private long durationMillis;
+
+    private long accountsChecked;
+
+    private List<LedgerDiscrepancy> discrepancies;
+}
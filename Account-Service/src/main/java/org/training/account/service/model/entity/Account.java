@@ -4,12 +4,13 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.training.account.service.model.AccountStatus;
 import org.training.account.service.model.AccountType;
+import org.training.common.model.Money;
 
 import javax.persistence.*;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
@@ -17,10 +18,12 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@Table(indexes = @Index(name = "idx_account_account_number", columnList = "accountNumber"))
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_id_generator")
+    @SequenceGenerator(name = "account_id_generator", sequenceName = "account_account_id_seq", allocationSize = 50)
     private Long accountId;
 
     private String accountNumber;
@@ -34,7 +37,15 @@ public class Account {
     @CreationTimestamp
     private LocalDate openingDate;
 
-    private BigDecimal availableBalance;
+    private Money availableBalance;
+
+    /**
+     * The amount reserved by open holds. It is taken out of the available balance when a hold is placed,
+     * so the available balance never needs the holds summed to be read.
+     */
+    @ColumnDefault("0")
+    @Builder.Default
+    private Money heldBalance = Money.ZERO;
 
     private Long userId;
     private Integer age;
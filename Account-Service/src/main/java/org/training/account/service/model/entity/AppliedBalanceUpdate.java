@@ -0,0 +1,37 @@
+package org.training.account.service.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.training.common.model.Money;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A balance update that carried an idempotency key, recorded in the same database transaction as the
+ * balance change it made, so that the update is applied once however often it is delivered. An update that
+ * was cancelled by its reversal before it arrived is recorded with a zero amount.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(indexes = @Index(name = "idx_applied_balance_update_applied_on", columnList = "appliedOn"))
+public class AppliedBalanceUpdate {
+
+    @Id
+    private String idempotencyKey;
+
+    private String accountNumber;
+
+    private Money amount;
+
+    private Money balance;
+
+    @CreationTimestamp
+    private LocalDateTime appliedOn;
+}
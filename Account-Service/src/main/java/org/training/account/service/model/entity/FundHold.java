@@ -0,0 +1,46 @@
+package org.training.account.service.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.training.account.service.model.HoldStatus;
+import org.training.common.model.Money;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(indexes = {
+        @Index(name = "idx_fund_hold_reference", columnList = "holdReference", unique = true),
+        @Index(name = "idx_fund_hold_status_expires_at", columnList = "status, expiresAt, fundHoldId")
+})
+public class FundHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long fundHoldId;
+
+    private String holdReference;
+
+    private String accountNumber;
+
+    private Money amount;
+
+    private Money capturedAmount;
+
+    @Enumerated(EnumType.STRING)
+    private HoldStatus status;
+
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    private LocalDateTime createdOn;
+
+    private LocalDateTime settledOn;
+}
@@ -1,6 +1,8 @@
 package org.training.account.service.model.mapper;
 
 import org.springframework.beans.BeanUtils;
+import org.training.account.service.model.AccountStatus;
+import org.training.account.service.model.AccountType;
 import org.training.account.service.model.dto.AccountDto;
 import org.training.account.service.model.entity.Account;
 
@@ -14,6 +16,12 @@ public class AccountMapper extends BaseMapper<Account, AccountDto> {
         Account account = new Account();
         if(!Objects.isNull(dto)){
             BeanUtils.copyProperties(dto, account);
+            if(!Objects.isNull(dto.getAccountType())) {
+                account.setAccountType(AccountType.valueOf(dto.getAccountType()));
+            }
+            if(!Objects.isNull(dto.getAccountStatus())) {
+                account.setAccountStatus(AccountStatus.valueOf(dto.getAccountStatus()));
+            }
         }
         return account;
     }
@@ -24,6 +32,12 @@ public class AccountMapper extends BaseMapper<Account, AccountDto> {
         AccountDto accountDto = new AccountDto();
         if(!Objects.isNull(entity)) {
             BeanUtils.copyProperties(entity, accountDto);
+            if(!Objects.isNull(entity.getAccountType())) {
+                accountDto.setAccountType(entity.getAccountType().toString());
+            }
+            if(!Objects.isNull(entity.getAccountStatus())) {
+                accountDto.setAccountStatus(entity.getAccountStatus().toString());
+            }
         }
         return accountDto;
     }
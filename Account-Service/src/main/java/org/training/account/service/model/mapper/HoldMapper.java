@@ -0,0 +1,28 @@
+package org.training.account.service.model.mapper;
+
+import org.springframework.beans.BeanUtils;
+import org.training.account.service.model.dto.HoldDto;
+import org.training.account.service.model.entity.FundHold;
+
+import java.util.Objects;
+
+public class HoldMapper extends BaseMapper<FundHold, HoldDto> {
+
+    @Override
+    public FundHold convertToEntity(HoldDto dto, Object... args) {
+        FundHold fundHold = new FundHold();
+        if (!Objects.isNull(dto)) {
+            BeanUtils.copyProperties(dto, fundHold);
+        }
+        return fundHold;
+    }
+
+    @Override
+    public HoldDto convertToDto(FundHold entity, Object... args) {
+        HoldDto holdDto = new HoldDto();
+        if (!Objects.isNull(entity)) {
+            BeanUtils.copyProperties(entity, holdDto);
+        }
+        return holdDto;
+    }
+}
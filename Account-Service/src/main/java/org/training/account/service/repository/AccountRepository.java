@@ -1,9 +1,22 @@
 package org.training.account.service.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.training.account.service.model.AccountStatus;
 import org.training.account.service.model.AccountType;
+import org.training.common.model.Money;
+import org.training.account.service.model.dto.AccountBalanceView;
+import org.training.account.service.model.dto.AccountStatusView;
 import org.training.account.service.model.entity.Account;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
@@ -32,4 +45,139 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
      * @return an optional account object
      */
     Optional<Account> findAccountByUserId(Long userId);
+
+    /**
+     * Reads the status and balance of every account in the given set of account numbers.
+     *
+     * @param accountNumbers the account numbers to look up
+     * @return the status views of the accounts that exist
+     */
+    List<AccountStatusView> findByAccountNumberIn(Collection<String> accountNumbers);
+
+    /**
+     * Reads the next chunk of accounts in the given status, keyed on the account ID.
+     *
+     * @param accountStatus the status to filter on
+     * @param accountId     the last account ID of the previous chunk
+     * @param pageable      the chunk size
+     * @return the status views of the accounts, ordered by account ID
+     */
+    List<AccountStatusView> findByAccountStatusAndAccountIdGreaterThanOrderByAccountIdAsc(
+            AccountStatus accountStatus, Long accountId, Pageable pageable);
+
+    /**
+     * Moves a set of accounts to the target status in a single statement, applying the same guards as a
+     * single status update: accounts that are already active or below the minimum balance are left untouched.
+     *
+     * @param accountNumbers the account numbers to update
+     * @param accountStatus  the target status
+     * @param excluded       the status an account must not currently have
+     * @param minimumBalance the minimum available balance an account must hold
+     * @return the number of accounts updated
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Account a set a.accountStatus = :accountStatus " +
+            "where a.accountNumber in :accountNumbers " +
+            "and a.accountStatus <> :excluded " +
+            "and a.availableBalance >= :minimumBalance")
+    int updateStatusInBulk(@Param("accountNumbers") Collection<String> accountNumbers,
+                           @Param("accountStatus") AccountStatus accountStatus,
+                           @Param("excluded") AccountStatus excluded,
+                           @Param("minimumBalance") Money minimumBalance);
+
+    /**
+     * Reads an account and locks its row until the surrounding transaction ends.
+     *
+     * @param accountNumber the account number
+     * @return an optional containing the locked account, or empty if the account does not exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.accountNumber = :accountNumber")
+    Optional<Account> findAccountForUpdate(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Reads the next chunk of account numbers, keyed on the account number.
+     *
+     * @param after    the last account number of the previous chunk
+     * @param pageable the chunk size
+     * @return the account numbers, in ascending order
+     */
+    @Query("select a.accountNumber from Account a where a.accountNumber > :after order by a.accountNumber")
+    List<String> findAccountNumbersAfter(@Param("after") String after, Pageable pageable);
+
+    /**
+     * Reads a set of accounts and locks their rows until the surrounding transaction ends. The rows are
+     * locked in account number order, so two callers locking overlapping sets cannot deadlock.
+     *
+     * @param accountNumbers the account numbers
+     * @return the locked accounts that exist, ordered by account number
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.accountNumber in :accountNumbers order by a.accountNumber")
+    List<Account> findAccountsForUpdate(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    /**
+     * Adds a signed amount to the available balance of an account in a single statement.
+     *
+     * @param accountNumber the account number
+     * @param amount        the amount to add, negative for a debit
+     * @return the number of accounts updated
+     */
+    @Modifying
+    @Query("update Account a set a.availableBalance = a.availableBalance + :amount where a.accountNumber = :accountNumber")
+    int addToAvailableBalance(@Param("accountNumber") String accountNumber, @Param("amount") Money amount);
+
+    /**
+     * Moves an amount from the available balance of an account to its held balance.
+     *
+     * @param accountNumber the account number
+     * @param amount        the amount to hold
+     * @return the number of accounts updated
+     */
+    @Modifying
+    @Query("update Account a set a.availableBalance = a.availableBalance - :amount, a.heldBalance = a.heldBalance + :amount " +
+            "where a.accountNumber = :accountNumber")
+    int moveToHeld(@Param("accountNumber") String accountNumber, @Param("amount") Money amount);
+
+    /**
+     * Takes an amount off the held balance of an account, returning part of it to the available balance.
+     * The part not returned leaves the account, as a captured hold does.
+     *
+     * @param accountNumber the account number
+     * @param held          the amount taken off the held balance
+     * @param returned      the part of it added back to the available balance
+     * @return the number of accounts updated
+     */
+    @Modifying
+    @Query("update Account a set a.heldBalance = a.heldBalance - :held, a.availableBalance = a.availableBalance + :returned " +
+            "where a.accountNumber = :accountNumber")
+    int releaseFromHeld(@Param("accountNumber") String accountNumber, @Param("held") Money held, @Param("returned") Money returned);
+
+    /**
+     * Reads the available and held balances of every account in a range of account numbers.
+     *
+     * @param fromAccount the first account number of the range, inclusive
+     * @param toAccount   the last account number of the range, exclusive
+     * @return the balance views ordered by account number
+     */
+    @Query("select a.accountNumber as accountNumber, a.availableBalance as availableBalance, a.heldBalance as heldBalance from Account a " +
+            "where a.accountNumber >= :fromAccount and a.accountNumber < :toAccount order by a.accountNumber")
+    List<AccountBalanceView> findBalancesInRange(@Param("fromAccount") String fromAccount, @Param("toAccount") String toAccount);
+
+    /**
+     * Finds the lowest account number.
+     *
+     * @return an optional containing the lowest account number, or empty if there are no accounts
+     */
+    @Query("select min(a.accountNumber) from Account a")
+    Optional<String> findLowestAccountNumber();
+
+    /**
+     * Finds the highest account number.
+     *
+     * @return an optional containing the highest account number, or empty if there are no accounts
+     */
+    @Query("select max(a.accountNumber) from Account a")
+    Optional<String> findHighestAccountNumber();
 }
@@ -0,0 +1,24 @@
+package org.training.account.service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.training.account.service.model.entity.AppliedBalanceUpdate;
+
+import java.time.LocalDateTime;
+
+public interface AppliedBalanceUpdateRepository extends JpaRepository<AppliedBalanceUpdate, String> {
+
+    /**
+     * Forgets the balance updates applied before a point in time.
+     *
+     * @param before the time the updates were applied before
+     * @return the number of updates forgotten
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from AppliedBalanceUpdate u where u.appliedOn < :before")
+    int deleteAppliedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,53 @@
+package org.training.account.service.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.training.account.service.model.HoldStatus;
+import org.training.common.model.Money;
+import org.training.account.service.model.entity.FundHold;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface FundHoldRepository extends JpaRepository<FundHold, Long> {
+
+    /**
+     * Finds a hold by its reference.
+     *
+     * @param holdReference the reference of the hold
+     * @return an optional containing the hold, or empty if there is none
+     */
+    Optional<FundHold> findFundHoldByHoldReference(String holdReference);
+
+    /**
+     * Reads the next chunk of holds in the given status that expire before a point in time, keyed on the
+     * hold ID.
+     *
+     * @param status     the status to filter on
+     * @param horizon    the time the holds expire before
+     * @param fundHoldId the last hold ID of the previous chunk
+     * @param pageable   the chunk size
+     * @return the holds, ordered by hold ID
+     */
+    List<FundHold> findByStatusAndExpiresAtBeforeAndFundHoldIdGreaterThanOrderByFundHoldIdAsc(
+            HoldStatus status, LocalDateTime horizon, Long fundHoldId, Pageable pageable);
+
+    /**
+     * Moves a hold out of the held status, if it is still held.
+     *
+     * @param fundHoldId     the ID of the hold
+     * @param status         the status to move the hold to
+     * @param capturedAmount the amount captured, zero unless the hold is captured
+     * @param settledOn      the time the hold is settled
+     * @return the number of holds updated, zero if the hold had already been settled
+     */
+    @Modifying
+    @Query("update FundHold h set h.status = :status, h.capturedAmount = :capturedAmount, h.settledOn = :settledOn " +
+            "where h.fundHoldId = :fundHoldId and h.status = org.training.account.service.model.HoldStatus.HELD")
+    int settle(@Param("fundHoldId") Long fundHoldId, @Param("status") HoldStatus status,
+               @Param("capturedAmount") Money capturedAmount, @Param("settledOn") LocalDateTime settledOn);
+}
@@ -1,7 +1,10 @@
 package org.training.account.service.service;
 
 import org.training.account.service.model.dto.AccountDto;
+import org.training.account.service.model.dto.AccountStatusBulkUpdate;
 import org.training.account.service.model.dto.AccountStatusUpdate;
+import org.training.account.service.model.dto.BalanceUpdate;
+import org.training.account.service.model.dto.response.BulkStatusResponse;
 import org.training.account.service.model.dto.response.Response;
 import org.training.account.service.model.dto.external.TransactionResponse;
 
@@ -26,6 +29,14 @@ public interface AccountService {
      */
     Response updateStatus(String accountNumber, AccountStatusUpdate accountUpdate);
 
+    /**
+     * Updates the status of a set of accounts, selected by account number or by their current status.
+     *
+     * @param bulkUpdate The accounts to update and the status to apply.
+     * @return The response containing the outcome for each account.
+     */
+    BulkStatusResponse updateStatusInBulk(AccountStatusBulkUpdate bulkUpdate);
+
     /**
      * Retrieves an account by its account number.
      *
@@ -34,6 +45,23 @@ public interface AccountService {
      */
     AccountDto readAccountByAccountNumber(String accountNumber);
 
+    /**
+     * Retrieves the number, status and balance of many accounts at once.
+     *
+     * @param accountNumbers The account numbers to look up.
+     * @return The accounts that exist; unknown account numbers are left out.
+     */
+    List<AccountDto> readAccountsByAccountNumbers(List<String> accountNumbers);
+
+    /**
+     * Retrieves the next page of account numbers, in ascending order.
+     *
+     * @param after The last account number of the previous page, or null for the first page.
+     * @param size  The maximum number of account numbers on the page.
+     * @return The account numbers that follow the given one.
+     */
+    List<String> readAccountNumbers(String after, int size);
+
     /**
      * Updates the account with the specified account number.
      *
@@ -43,6 +71,22 @@ public interface AccountService {
      */
     Response updateAccount(String accountNumber, AccountDto accountDto);
 
+    /**
+     * Adds a signed amount to the balance of an account.
+     *
+     * @param balanceUpdate The account number and the amount to add, negative for a debit.
+     * @return The response indicating the result of the balance update.
+     */
+    Response updateBalance(BalanceUpdate balanceUpdate);
+
+    /**
+     * Applies a set of balance updates atomically, netted per account.
+     *
+     * @param balanceUpdates The account numbers and the signed amounts to apply.
+     * @return The response indicating the result of the balance updates.
+     */
+    Response updateBalances(List<BalanceUpdate> balanceUpdates);
+
     /**
      * Retrieves the balance of the account with the specified account number.
      *
@@ -0,0 +1,51 @@
+package org.training.account.service.service;
+
+import org.training.account.service.model.dto.HoldCapture;
+import org.training.account.service.model.dto.HoldDto;
+import org.training.account.service.model.dto.HoldRequest;
+
+public interface HoldService {
+
+    /**
+     * Reserves an amount of the available balance of an account until it is captured, released or expires.
+     *
+     * @param holdRequest the account, the amount and optionally the reference and expiry of the hold
+     * @return the placed hold
+     */
+    HoldDto placeHold(HoldRequest holdRequest);
+
+    /**
+     * Captures a hold, taking all or part of the held amount out of the account and returning the rest to
+     * its available balance.
+     *
+     * @param holdReference the reference of the hold
+     * @param holdCapture   the amount to capture, or none for the whole hold
+     * @return the captured hold
+     */
+    HoldDto captureHold(String holdReference, HoldCapture holdCapture);
+
+    /**
+     * Releases a hold, returning the held amount to the available balance of the account.
+     *
+     * @param holdReference the reference of the hold
+     * @return the released hold
+     */
+    HoldDto releaseHold(String holdReference);
+
+    /**
+     * Expires a hold whose expiry has passed, returning the held amount to the available balance of the
+     * account. A hold that is not yet due or no longer held is left as it is.
+     *
+     * @param holdReference the reference of the hold
+     * @return the hold
+     */
+    HoldDto expireHold(String holdReference);
+
+    /**
+     * Reads a hold.
+     *
+     * @param holdReference the reference of the hold
+     * @return the hold
+     */
+    HoldDto readHold(String holdReference);
+}
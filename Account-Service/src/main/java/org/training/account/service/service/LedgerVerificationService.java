@@ -0,0 +1,14 @@
+package org.training.account.service.service;
+
+import org.training.account.service.model.dto.response.LedgerVerificationReport;
+
+public interface LedgerVerificationService {
+
+    /**
+     * Verifies that the available and held balances of every account add up to the sum of its ledger
+     * transactions.
+     *
+     * @return the report listing every account whose balance does not match its ledger
+     */
+    LedgerVerificationReport verifyLedger();
+}
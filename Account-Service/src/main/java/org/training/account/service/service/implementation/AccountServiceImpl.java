@@ -4,17 +4,28 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.CollectionUtils;
 import org.training.account.service.exception.*;
 import org.training.account.service.external.SequenceService;
 import org.training.account.service.external.TransactionService;
 import org.training.account.service.external.UserService;
+import org.training.account.service.journal.AuditJournal;
 import org.training.account.service.model.AccountStatus;
 import org.training.account.service.model.AccountType;
+import org.training.account.service.model.BulkUpdateOutcome;
+import org.training.common.model.Money;
 import org.training.account.service.model.dto.AccountDto;
+import org.training.account.service.model.dto.BalanceUpdate;
+import org.training.account.service.model.dto.AccountStatusBulkUpdate;
+import org.training.account.service.model.dto.AccountStatusOutcome;
 import org.training.account.service.model.dto.AccountStatusUpdate;
+import org.training.account.service.model.dto.AccountStatusView;
 import org.training.account.service.model.dto.external.UserDto;
+import org.training.account.service.model.dto.response.BulkStatusResponse;
 import org.training.account.service.model.dto.response.Response;
 import org.training.account.service.model.entity.Account;
 import org.training.account.service.model.mapper.AccountMapper;
@@ -22,11 +33,13 @@ import org.training.account.service.model.dto.external.TransactionResponse;
 import org.training.account.service.repository.AccountRepository;
 import org.training.account.service.service.AccountService;
 
-import java.math.BigDecimal;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.training.account.service.model.Constants.ACC_PREFIX;
+import static org.training.account.service.model.Constants.MINIMUM_BALANCE;
 
 @Slf4j
 @Service
@@ -37,6 +50,9 @@ public class AccountServiceImpl implements AccountService {
     private final AccountRepository accountRepository;
     private final SequenceService sequenceService;
     private final TransactionService transactionService;
+    private final BalanceUpdateCoalescer balanceUpdateCoalescer;
+    private final AuditJournal auditJournal;
+    private final TransactionTemplate transactionTemplate;
 
     private final AccountMapper accountMapper = new AccountMapper();
 
@@ -44,6 +60,12 @@ public class AccountServiceImpl implements AccountService {
     @Value("${spring.application.ok}")
     private String success;
 
+    @Value("${account.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    @Value("${account.numbers.max-page-size:10000}")
+    private int maxAccountNumbersPageSize;
+
     /**
      * Creates an account based on the provided accountDto.
      *
@@ -79,7 +101,8 @@ public class AccountServiceImpl implements AccountService {
         Account account = accountMapper.convertToEntity(accountDto);
         account.setAccountNumber(ACC_PREFIX + String.format("%07d",sequenceService.generateAccountNumber().getAccountNumber()));
         account.setAccountStatus(AccountStatus.PENDING);
-        account.setAvailableBalance(BigDecimal.valueOf(0));
+        account.setAvailableBalance(Money.ZERO);
+        account.setHeldBalance(Money.ZERO);
         account.setAccountType(AccountType.valueOf(accountDto.getAccountType()));
         accountRepository.save(account);
         return Response.builder()
@@ -105,7 +128,7 @@ public class AccountServiceImpl implements AccountService {
                     if(account.getAccountStatus().equals(AccountStatus.ACTIVE)){
                         throw new AccountStatusException("Account is inactive/closed");
                     }
-                    if(account.getAvailableBalance().compareTo(BigDecimal.ZERO) < 0 || account.getAvailableBalance().compareTo(BigDecimal.valueOf(1000)) < 0){
+                    if(account.getAvailableBalance().isNegative() || account.getAvailableBalance().isLessThan(MINIMUM_BALANCE)){
                         throw new InSufficientFunds("Minimum balance of Rs.1000 is required");
                     }
                     account.setAccountStatus(accountUpdate.getAccountStatus());
@@ -115,6 +138,136 @@ public class AccountServiceImpl implements AccountService {
 
     }
 
+    /**
+     * Updates the status of many accounts at once, either by an explicit list of account numbers or by every
+     * account currently in a given status. Accounts are processed in chunks, each chunk being one read of the
+     * current status and balances followed by a single guarded update statement.
+     *
+     * @param bulkUpdate The account numbers or current status filter, and the target status.
+     * @return The response containing the outcome for every account that was considered.
+     * @throws AccountStatusException If no target status, or neither account numbers nor a filter, is given.
+     */
+    @Override
+    public BulkStatusResponse updateStatusInBulk(AccountStatusBulkUpdate bulkUpdate) {
+
+        if (Objects.isNull(bulkUpdate.getAccountStatus())) {
+            throw new AccountStatusException("Target account status is required");
+        }
+        List<AccountStatusOutcome> outcomes = new ArrayList<>();
+        if (!CollectionUtils.isEmpty(bulkUpdate.getAccountNumbers())) {
+            List<String> accountNumbers = bulkUpdate.getAccountNumbers().stream().distinct().toList();
+            for (int from = 0; from < accountNumbers.size(); from += bulkChunkSize) {
+                List<String> chunk = accountNumbers.subList(from, Math.min(from + bulkChunkSize, accountNumbers.size()));
+                outcomes.addAll(updateStatusChunk(chunk, accountRepository.findByAccountNumberIn(chunk), bulkUpdate.getAccountStatus()));
+            }
+        } else if (!Objects.isNull(bulkUpdate.getCurrentStatus())) {
+            long lastAccountId = 0L;
+            List<AccountStatusView> chunk;
+            do {
+                chunk = accountRepository.findByAccountStatusAndAccountIdGreaterThanOrderByAccountIdAsc(
+                        bulkUpdate.getCurrentStatus(), lastAccountId, PageRequest.of(0, bulkChunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                lastAccountId = chunk.get(chunk.size() - 1).getAccountId();
+                outcomes.addAll(updateStatusChunk(chunk.stream().map(AccountStatusView::getAccountNumber).toList(),
+                        chunk, bulkUpdate.getAccountStatus()));
+            } while (chunk.size() == bulkChunkSize);
+        } else {
+            throw new AccountStatusException("Either account numbers or a current status is required");
+        }
+
+        int updated = (int) outcomes.stream()
+                .filter(outcome -> outcome.getOutcome().equals(BulkUpdateOutcome.UPDATED)).count();
+        log.info("bulk status update to {} applied to {} of {} accounts", bulkUpdate.getAccountStatus(), updated, outcomes.size());
+        return BulkStatusResponse.builder()
+                .responseCode(success)
+                .message("Accounts updated successfully")
+                .updated(updated)
+                .outcomes(outcomes).build();
+    }
+
+    /**
+     * Applies the status guards to one chunk of accounts and updates the eligible ones in a single statement.
+     * The guards are repeated in the update itself, so an account that changed after it was read is reported
+     * as a conflict instead of being updated.
+     *
+     * @param accountNumbers The account numbers of the chunk, in request order.
+     * @param accounts       The current status views of the accounts in the chunk that exist.
+     * @param accountStatus  The target status.
+     * @return The outcome for every account number of the chunk.
+     */
+    private List<AccountStatusOutcome> updateStatusChunk(List<String> accountNumbers, List<AccountStatusView> accounts,
+                                                         AccountStatus accountStatus) {
+
+        Map<String, AccountStatusView> found = accounts.stream()
+                .collect(Collectors.toMap(AccountStatusView::getAccountNumber, Function.identity()));
+        List<AccountStatusOutcome> outcomes = new ArrayList<>(accountNumbers.size());
+        List<String> eligible = new ArrayList<>();
+        for (String accountNumber : accountNumbers) {
+            AccountStatusView account = found.get(accountNumber);
+            if (Objects.isNull(account)) {
+                outcomes.add(new AccountStatusOutcome(accountNumber, BulkUpdateOutcome.NOT_FOUND));
+            } else if (AccountStatus.ACTIVE.equals(account.getAccountStatus())) {
+                outcomes.add(new AccountStatusOutcome(accountNumber, BulkUpdateOutcome.ACCOUNT_ACTIVE));
+            } else if (account.getAvailableBalance().isLessThan(MINIMUM_BALANCE)) {
+                outcomes.add(new AccountStatusOutcome(accountNumber, BulkUpdateOutcome.INSUFFICIENT_FUNDS));
+            } else {
+                eligible.add(accountNumber);
+            }
+        }
+        if (eligible.isEmpty()) {
+            return outcomes;
+        }
+
+        int updated = accountRepository.updateStatusInBulk(eligible, accountStatus, AccountStatus.ACTIVE, MINIMUM_BALANCE);
+        Set<String> conflicts = updated == eligible.size() ? Set.of() : accountRepository.findByAccountNumberIn(eligible).stream()
+                .filter(account -> !accountStatus.equals(account.getAccountStatus()))
+                .map(AccountStatusView::getAccountNumber)
+                .collect(Collectors.toSet());
+        eligible.forEach(accountNumber -> outcomes.add(new AccountStatusOutcome(accountNumber,
+                conflicts.contains(accountNumber) ? BulkUpdateOutcome.CONFLICT : BulkUpdateOutcome.UPDATED)));
+        return outcomes;
+    }
+
+    /**
+     * Retrieves the number, status and balance of many accounts, reading them in chunks.
+     *
+     * @param accountNumbers The account numbers to look up.
+     * @return The accounts that exist; unknown account numbers are left out.
+     */
+    @Override
+    public List<AccountDto> readAccountsByAccountNumbers(List<String> accountNumbers) {
+
+        List<String> distinct = accountNumbers.stream().distinct().toList();
+        List<AccountDto> accounts = new ArrayList<>(distinct.size());
+        for (int from = 0; from < distinct.size(); from += bulkChunkSize) {
+            accountRepository.findByAccountNumberIn(distinct.subList(from, Math.min(from + bulkChunkSize, distinct.size())))
+                    .forEach(account -> accounts.add(AccountDto.builder()
+                            .accountId(account.getAccountId())
+                            .accountNumber(account.getAccountNumber())
+                            .accountStatus(account.getAccountStatus().toString())
+                            .availableBalance(account.getAvailableBalance()).build()));
+        }
+        return accounts;
+    }
+
+    /**
+     * Retrieves the next page of account numbers, in ascending order, read from the account number index.
+     * Account numbers are issued in ascending order, so paging from the last number seen also picks up
+     * the accounts opened since.
+     *
+     * @param after The last account number of the previous page, or null for the first page.
+     * @param size  The maximum number of account numbers on the page, capped at the configured maximum.
+     * @return The account numbers that follow the given one.
+     */
+    @Override
+    public List<String> readAccountNumbers(String after, int size) {
+
+        return accountRepository.findAccountNumbersAfter(Objects.isNull(after) ? "" : after,
+                PageRequest.of(0, Math.max(1, Math.min(size, maxAccountNumbersPageSize))));
+    }
+
     @Override
     public AccountDto readAccountByAccountNumber(String accountNumber) {
 
@@ -144,14 +297,64 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public Response updateAccount(String accountNumber, AccountDto accountDto) {
 
-        return accountRepository.findAccountByAccountNumber(accountDto.getAccountNumber())
+        return transactionTemplate.execute(status -> accountRepository.findAccountForUpdate(accountDto.getAccountNumber())
                 .map(account -> {
-                    BeanUtils.copyProperties(accountDto, account);
-                    accountRepository.save(account);
+                    Money previousBalance = account.getAvailableBalance();
+                    BeanUtils.copyProperties(accountDto, account, "heldBalance");
+                    accountRepository.saveAndFlush(account);
+                    if (!Objects.isNull(account.getAvailableBalance()) && !Objects.isNull(previousBalance)
+                            && !account.getAvailableBalance().equals(previousBalance)) {
+                        auditJournal.append(account.getAccountNumber(),
+                                account.getAvailableBalance().minus(previousBalance), account.getAvailableBalance());
+                    }
                     return Response.builder()
                             .responseCode(success)
                             .message("Account updated successfully").build();
-                }).orElseThrow(() -> new ResourceNotFound("Account not found on the server"));
+                }).orElseThrow(() -> new ResourceNotFound("Account not found on the server")));
+    }
+
+    /**
+     * Adds a signed amount to the balance of an account. Updates to the same account arriving close together
+     * are applied as one batch; this call returns once the batch containing the update has committed.
+     *
+     * @param balanceUpdate The account number and the amount to add, negative for a debit.
+     * @return A response indicating the success of the balance update.
+     * @throws InSufficientFunds If the update would take the balance below zero.
+     * @throws ResourceNotFound  If the account is not found on the server.
+     */
+    @Override
+    public Response updateBalance(BalanceUpdate balanceUpdate) {
+
+        try {
+            balanceUpdateCoalescer.submit(balanceUpdate).join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof GlobalException globalException) {
+                throw globalException;
+            }
+            throw exception;
+        }
+        return Response.builder()
+                .responseCode(success)
+                .message("Account balance updated successfully").build();
+    }
+
+    /**
+     * Applies a set of balance updates atomically. The updates are netted per account, so an account
+     * touched by many updates is locked and written once; if any account does not exist or would be
+     * overdrawn, no balance is changed.
+     *
+     * @param balanceUpdates The account numbers and the signed amounts to apply.
+     * @return A response indicating the success of the balance updates.
+     * @throws InSufficientFunds If a net amount would take the balance of an account below zero.
+     * @throws ResourceNotFound  If an account is not found on the server.
+     */
+    @Override
+    public Response updateBalances(List<BalanceUpdate> balanceUpdates) {
+
+        balanceUpdateCoalescer.applyAll(balanceUpdates);
+        return Response.builder()
+                .responseCode(success)
+                .message("Account balances updated successfully").build();
     }
 
     /**
@@ -188,19 +391,24 @@ public class AccountServiceImpl implements AccountService {
      * @param accountNumber The account number of the account to be closed.
      * @return A response indicating the result of the operation.
      * @throws ResourceNotFound If the account with the specified account number is not found.
-     * @throws AccountClosingException If the balance of the account is not zero.
+     * @throws AccountClosingException If the balance of the account is not zero, or funds are still held.
      */
     @Override
     public Response closeAccount(String accountNumber) {
 
         return accountRepository.findAccountByAccountNumber(accountNumber)
                 .map(account -> {
-                    if(BigDecimal.valueOf(Double.parseDouble(getBalance(accountNumber))).compareTo(BigDecimal.ZERO) != 0) {
+                    if(!account.getAvailableBalance().isZero()) {
                         throw new AccountClosingException("Balance should be zero");
                     }
+                    if(!Objects.isNull(account.getHeldBalance()) && !account.getHeldBalance().isZero()) {
+                        throw new AccountClosingException("Held funds should be captured or released");
+                    }
                     account.setAccountStatus(AccountStatus.CLOSED);
+                    accountRepository.save(account);
                     return Response.builder()
-                            .message("Account closed successfully").message(success)
+                            .responseCode(success)
+                            .message("Account closed successfully")
                             .build();
                 }).orElseThrow(ResourceNotFound::new);
 
@@ -0,0 +1,320 @@
+package org.training.account.service.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.account.service.exception.InSufficientFunds;
+import org.training.account.service.exception.ResourceNotFound;
+import org.training.account.service.journal.AuditJournal;
+import org.training.common.model.Money;
+import org.training.account.service.model.dto.BalanceUpdate;
+import org.training.account.service.model.entity.Account;
+import org.training.account.service.model.entity.AppliedBalanceUpdate;
+import org.training.account.service.repository.AccountRepository;
+import org.training.account.service.repository.AppliedBalanceUpdateRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Groups balance updates that hit the same account within a short window and applies them as one
+ * locked read and one update statement. Every update is still checked for overdraft on its own, in
+ * arrival order, against the running balance of the batch; callers are completed once the batch commits.
+ * The net change is written to the audit journal before the commit, while the account is locked.
+ *
+ * <p>An update carrying an idempotency key is recorded in the same database transaction as its balance
+ * change, and a later delivery of the same key completes with the balance recorded then instead of being
+ * applied again. The keys of an account are read and written while its row is locked, so two deliveries
+ * of one key cannot both be applied. A reversal names the key of the update it undoes and is only applied
+ * if that update was; if that update has not arrived, its key is recorded as cancelled so that it will not
+ * be applied when it does. Keys are forgotten after the configured retention.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BalanceUpdateCoalescer {
+
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditJournal auditJournal;
+    private final AppliedBalanceUpdateRepository appliedBalanceUpdateRepository;
+
+    private final Map<String, PendingBatch> pendingBatches = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flushExecutor;
+
+    @Value("${account.balance.coalesce.window-ms:5}")
+    private long windowMillis;
+
+    @Value("${account.balance.coalesce.max-batch:64}")
+    private int maxBatchSize;
+
+    @Value("${account.balance.coalesce.flush-threads:4}")
+    private int flushThreads;
+
+    @Value("${account.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    @Value("${account.balance.idempotency.retention-ms:604800000}")
+    private long keyRetentionMillis;
+
+    @PostConstruct
+    public void start() {
+        flushExecutor = Executors.newScheduledThreadPool(flushThreads, runnable -> {
+            Thread thread = new Thread(runnable, "balance-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        pendingBatches.keySet().forEach(this::flush);
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues a balance update for the next batch of its account.
+     *
+     * @param balanceUpdate The account number and the signed amount to apply, with its optional idempotency key.
+     * @return A future completed with the resulting balance once the batch has committed, or exceptionally
+     *         if the update was rejected or the batch failed. An update whose key was already applied
+     *         completes with the balance recorded when it was.
+     */
+    public CompletableFuture<Money> submit(BalanceUpdate balanceUpdate) {
+
+        PendingUpdate pendingUpdate = new PendingUpdate(balanceUpdate, new CompletableFuture<>());
+        int[] batchSize = new int[1];
+        PendingBatch batch = pendingBatches.compute(balanceUpdate.getAccountNumber(), (accountNumber, current) -> {
+            PendingBatch next = current == null ? new PendingBatch() : current;
+            next.updates.add(pendingUpdate);
+            batchSize[0] = next.updates.size();
+            return next;
+        });
+        if (batchSize[0] == 1) {
+            flushExecutor.schedule(() -> flush(balanceUpdate.getAccountNumber(), batch), windowMillis, TimeUnit.MILLISECONDS);
+        } else if (batchSize[0] == maxBatchSize) {
+            flushExecutor.execute(() -> flush(balanceUpdate.getAccountNumber(), batch));
+        }
+        return pendingUpdate.result;
+    }
+
+    /**
+     * Applies a set of balance updates at once, outside the batching window. The updates are netted per
+     * account and the accounts are locked in account number order; either every net amount is applied or,
+     * if an account does not exist or would be overdrawn, none is. Updates whose idempotency key was already
+     * applied are left out.
+     *
+     * @param balanceUpdates The account numbers and the signed amounts to apply.
+     * @return The resulting balance of every account changed, by account number.
+     * @throws ResourceNotFound  If an account does not exist.
+     * @throws InSufficientFunds If a net amount would take the balance of an account below zero.
+     */
+    public Map<String, Money> applyAll(Collection<BalanceUpdate> balanceUpdates) {
+
+        TreeMap<String, Money> netAmounts = new TreeMap<>();
+        balanceUpdates.forEach(update -> netAmounts.merge(update.getAccountNumber(), update.getAmount(), Money::plus));
+        netAmounts.values().removeIf(Money::isZero);
+        balanceUpdates.stream()
+                .filter(update -> update.getIdempotencyKey() != null || update.getReverses() != null)
+                .forEach(update -> netAmounts.putIfAbsent(update.getAccountNumber(), Money.ZERO));
+        if (netAmounts.isEmpty()) {
+            return Map.of();
+        }
+        List<String> accountNumbers = new ArrayList<>(netAmounts.keySet());
+        netAmounts.clear();
+        Map<String, Money> balances = new LinkedHashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, Money> current = new HashMap<>();
+            for (int from = 0; from < accountNumbers.size(); from += bulkChunkSize) {
+                List<String> chunk = accountNumbers.subList(from, Math.min(from + bulkChunkSize, accountNumbers.size()));
+                List<Account> accounts = accountRepository.findAccountsForUpdate(chunk);
+                if (accounts.size() != chunk.size()) {
+                    Set<String> found = new HashSet<>();
+                    accounts.forEach(account -> found.add(account.getAccountNumber()));
+                    String missing = chunk.stream().filter(accountNumber -> !found.contains(accountNumber)).findFirst().orElseThrow();
+                    throw new ResourceNotFound("Account not found on the server: " + missing);
+                }
+                accounts.forEach(account -> current.put(account.getAccountNumber(), account.getAvailableBalance()));
+            }
+            AppliedKeys keys = new AppliedKeys(balanceUpdates);
+            Map<BalanceUpdate, Money> applied = new IdentityHashMap<>();
+            for (BalanceUpdate update : balanceUpdates) {
+                if (current.containsKey(update.getAccountNumber()) && keys.previous(update) == null) {
+                    Money amount = keys.amountToApply(update, current.get(update.getAccountNumber()));
+                    applied.put(update, amount);
+                    keys.record(update, amount, null);
+                    netAmounts.merge(update.getAccountNumber(), amount, Money::plus);
+                }
+            }
+            netAmounts.values().removeIf(Money::isZero);
+            netAmounts.forEach((accountNumber, amount) -> {
+                Money balance = current.get(accountNumber).plus(amount);
+                if (balance.isNegative()) {
+                    throw new InSufficientFunds("Insufficient funds in account " + accountNumber);
+                }
+                balances.put(accountNumber, balance);
+            });
+            applied.forEach((update, amount) -> keys.record(update, amount,
+                    balances.getOrDefault(update.getAccountNumber(), current.get(update.getAccountNumber()))));
+            keys.save();
+            netAmounts.forEach(accountRepository::addToAvailableBalance);
+            balances.forEach((accountNumber, balance) -> auditJournal.append(accountNumber, netAmounts.get(accountNumber), balance));
+        });
+        log.info("applied {} balance updates as {} net account updates", balanceUpdates.size(), netAmounts.size());
+        return balances;
+    }
+
+    /**
+     * Forgets the idempotency keys applied before the retention, by which time no delivery of them is
+     * still being retried.
+     */
+    @Scheduled(fixedDelayString = "${account.balance.idempotency.purge-interval-ms:3600000}")
+    public void purgeKeys() {
+        int purged = appliedBalanceUpdateRepository.deleteAppliedBefore(LocalDateTime.now().minus(keyRetentionMillis, ChronoUnit.MILLIS));
+        if (purged > 0) {
+            log.info("forgot {} applied balance update keys", purged);
+        }
+    }
+
+    private void flush(String accountNumber) {
+        PendingBatch batch = pendingBatches.get(accountNumber);
+        if (batch != null) {
+            flush(accountNumber, batch);
+        }
+    }
+
+    /**
+     * Applies one batch, unless it has already been taken by the other flush trigger. Removing the batch
+     * from the map happens atomically with appends, so no update can be added after the batch is taken.
+     */
+    private void flush(String accountNumber, PendingBatch batch) {
+
+        if (!pendingBatches.remove(accountNumber, batch)) {
+            return;
+        }
+        List<PendingUpdate> updates = batch.updates;
+        List<Money> balances = new ArrayList<>(updates.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Account account = accountRepository.findAccountForUpdate(accountNumber)
+                        .orElseThrow(() -> new ResourceNotFound("Account not found on the server"));
+                Money running = account.getAvailableBalance();
+                AppliedKeys keys = new AppliedKeys(updates.stream().map(PendingUpdate::balanceUpdate).toList());
+                for (PendingUpdate update : updates) {
+                    AppliedBalanceUpdate previous = keys.previous(update.balanceUpdate);
+                    if (previous != null) {
+                        balances.add(previous.getBalance());
+                        continue;
+                    }
+                    Money amount = keys.amountToApply(update.balanceUpdate, running);
+                    Money next = running.plus(amount);
+                    if (next.isNegative()) {
+                        balances.add(null);
+                        continue;
+                    }
+                    running = next;
+                    balances.add(running);
+                    keys.record(update.balanceUpdate, amount, running);
+                }
+                keys.save();
+                Money net = running.minus(account.getAvailableBalance());
+                if (net.signum() != 0) {
+                    accountRepository.addToAvailableBalance(accountNumber, net);
+                    auditJournal.append(accountNumber, net, running);
+                }
+            });
+        } catch (RuntimeException exception) {
+            log.error("balance batch of {} updates for account {} failed", updates.size(), accountNumber, exception);
+            updates.forEach(update -> update.result.completeExceptionally(exception));
+            return;
+        }
+        for (int i = 0; i < updates.size(); i++) {
+            if (balances.get(i) == null) {
+                updates.get(i).result.completeExceptionally(new InSufficientFunds());
+            } else {
+                updates.get(i).result.complete(balances.get(i));
+            }
+        }
+    }
+
+    private record PendingUpdate(BalanceUpdate balanceUpdate, CompletableFuture<Money> result) {
+    }
+
+    /**
+     * The idempotency keys of a set of updates that have already been applied, read once the accounts they
+     * touch are locked, and the keys applied since, saved with the balance changes.
+     */
+    private final class AppliedKeys {
+
+        private final Map<String, AppliedBalanceUpdate> applied = new HashMap<>();
+        private final Map<String, AppliedBalanceUpdate> recorded = new LinkedHashMap<>();
+
+        private AppliedKeys(Collection<BalanceUpdate> balanceUpdates) {
+            Set<String> keys = new HashSet<>();
+            for (BalanceUpdate update : balanceUpdates) {
+                if (update.getIdempotencyKey() != null) {
+                    keys.add(update.getIdempotencyKey());
+                }
+                if (update.getReverses() != null) {
+                    keys.add(update.getReverses());
+                }
+            }
+            if (!keys.isEmpty()) {
+                appliedBalanceUpdateRepository.findAllById(keys).forEach(key -> applied.put(key.getIdempotencyKey(), key));
+            }
+        }
+
+        /**
+         * Returns the earlier application of an update, or null if it has none.
+         */
+        private AppliedBalanceUpdate previous(BalanceUpdate update) {
+            return update.getIdempotencyKey() == null ? null : applied.get(update.getIdempotencyKey());
+        }
+
+        /**
+         * Returns the amount an update changes the balance by: its own amount, unless it reverses an update
+         * that changed nothing or has not been applied, which is then cancelled.
+         */
+        private Money amountToApply(BalanceUpdate update, Money balance) {
+            if (update.getReverses() == null) {
+                return update.getAmount();
+            }
+            AppliedBalanceUpdate reversed = applied.get(update.getReverses());
+            if (reversed == null) {
+                put(new AppliedBalanceUpdate(update.getReverses(), update.getAccountNumber(), Money.ZERO, balance, null));
+                return Money.ZERO;
+            }
+            return reversed.getAmount().isZero() ? Money.ZERO : update.getAmount();
+        }
+
+        private void record(BalanceUpdate update, Money amount, Money balance) {
+            if (update.getIdempotencyKey() != null) {
+                put(new AppliedBalanceUpdate(update.getIdempotencyKey(), update.getAccountNumber(), amount, balance, null));
+            }
+        }
+
+        private void put(AppliedBalanceUpdate key) {
+            applied.put(key.getIdempotencyKey(), key);
+            recorded.put(key.getIdempotencyKey(), key);
+        }
+
+        private void save() {
+            if (!recorded.isEmpty()) {
+                appliedBalanceUpdateRepository.saveAll(recorded.values());
+            }
+        }
+    }
+
+    private static class PendingBatch {
+        private final List<PendingUpdate> updates = new ArrayList<>();
+    }
+}
@@ -0,0 +1,114 @@
+package org.training.account.service.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.training.account.service.model.HoldStatus;
+import org.training.account.service.model.entity.FundHold;
+import org.training.account.service.repository.FundHoldRepository;
+import org.training.account.service.service.HoldService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Expires holds when they lapse. Only the holds expiring within the lookahead window are read, with a range
+ * scan of the status and expiry index, and each one is scheduled on a single-threaded executor to be
+ * released at its expiry; the bulk of open holds, expiring days ahead, is never scanned. Expiries are run
+ * one at a time.
+ *
+ * <p>A hold placed to expire before the next load is picked up by that load, so its funds come back up
+ * to one load interval late. A capture never succeeds on a hold past its expiry, whether or not it has
+ * been swept yet.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HoldExpiryScheduler {
+
+    private final FundHoldRepository fundHoldRepository;
+    private final HoldService holdService;
+
+    /**
+     * The holds scheduled or being expired, so that a reload does not add them twice.
+     */
+    private final Map<Long, String> scheduled = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService expiryExecutor;
+
+    @Value("${account.holds.lookahead-ms:120000}")
+    private long lookaheadMillis;
+
+    @Value("${account.holds.batch-size:1000}")
+    private int batchSize;
+
+    @PostConstruct
+    public void start() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        expiryExecutor = executor;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        expiryExecutor.shutdown();
+        expiryExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Schedules the holds expiring within the lookahead window. Runs at startup and then
+     * periodically, well within the lookahead window, so holds that lapsed while the service was down are
+     * expired on the first load.
+     */
+    @Scheduled(fixedDelayString = "${account.holds.load-interval-ms:60000}")
+    public void load() {
+
+        LocalDateTime horizon = LocalDateTime.now().plus(lookaheadMillis, ChronoUnit.MILLIS);
+        long lastFundHoldId = 0L;
+        List<FundHold> chunk;
+        do {
+            chunk = fundHoldRepository.findByStatusAndExpiresAtBeforeAndFundHoldIdGreaterThanOrderByFundHoldIdAsc(
+                    HoldStatus.HELD, horizon, lastFundHoldId, PageRequest.of(0, batchSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            lastFundHoldId = chunk.get(chunk.size() - 1).getFundHoldId();
+            chunk.forEach(this::schedule);
+        } while (chunk.size() == batchSize);
+    }
+
+    private void schedule(FundHold fundHold) {
+        if (scheduled.putIfAbsent(fundHold.getFundHoldId(), fundHold.getHoldReference()) != null) {
+            return;
+        }
+        long deadline = fundHold.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        try {
+            expiryExecutor.schedule(() -> expire(fundHold), Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException exception) {
+            scheduled.remove(fundHold.getFundHoldId());
+        }
+    }
+
+    private void expire(FundHold fundHold) {
+        try {
+            holdService.expireHold(fundHold.getHoldReference());
+        } catch (RuntimeException exception) {
+            log.error("hold {} could not be expired, it is retried on the next load", fundHold.getHoldReference(), exception);
+        } finally {
+            scheduled.remove(fundHold.getFundHoldId());
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package org.training.account.service.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.training.account.service.exception.AccountStatusException;
+import org.training.account.service.exception.InSufficientFunds;
+import org.training.account.service.exception.InvalidHoldRequest;
+import org.training.account.service.exception.ResourceConflict;
+import org.training.account.service.exception.ResourceNotFound;
+import org.training.account.service.journal.AuditJournal;
+import org.training.account.service.model.AccountStatus;
+import org.training.account.service.model.HoldStatus;
+import org.training.common.model.Money;
+import org.training.account.service.model.dto.HoldCapture;
+import org.training.account.service.model.dto.HoldDto;
+import org.training.account.service.model.dto.HoldRequest;
+import org.training.account.service.model.entity.Account;
+import org.training.account.service.model.entity.FundHold;
+import org.training.account.service.model.mapper.HoldMapper;
+import org.training.account.service.repository.AccountRepository;
+import org.training.account.service.repository.FundHoldRepository;
+import org.training.account.service.service.HoldService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Places and settles holds on account balances. A held amount is moved from the available balance of the
+ * account to its held balance when the hold is placed, so every balance check and read keeps working on
+ * the available balance alone. Settling a hold takes the amount off the held balance again, returning
+ * whatever is not captured to the available balance.
+ *
+ * <p>A hold is settled once: its status moves out of {@link HoldStatus#HELD} with a compare-and-set in the
+ * same transaction that changes the balances, so a capture racing a release or an expiry changes them only
+ * once. Repeating a capture or release that already happened returns the hold as it is.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HoldServiceImpl implements HoldService {
+
+    private final AccountRepository accountRepository;
+    private final FundHoldRepository fundHoldRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditJournal auditJournal;
+
+    private final HoldMapper holdMapper = new HoldMapper();
+
+    @Value("${account.holds.default-duration-ms:604800000}")
+    private long defaultDurationMillis;
+
+    @Value("${account.holds.max-duration-ms:2592000000}")
+    private long maxDurationMillis;
+
+    /**
+     * Places a hold on the available balance of an active account. A request carrying the reference of a
+     * hold that already exists for the same account and amount returns that hold, so it can be retried.
+     *
+     * @param holdRequest the account, the amount and optionally the reference and expiry of the hold
+     * @return the placed hold
+     * @throws InvalidHoldRequest    If the account, amount or expiry of the request is invalid.
+     * @throws ResourceConflict      If the reference belongs to a different hold.
+     * @throws ResourceNotFound      If the account is not found on the server.
+     * @throws AccountStatusException If the account is not active.
+     * @throws InSufficientFunds     If the available balance is lower than the amount.
+     */
+    @Override
+    public HoldDto placeHold(HoldRequest holdRequest) {
+
+        if (!StringUtils.hasText(holdRequest.getAccountNumber())) {
+            throw new InvalidHoldRequest("account number of the hold is required");
+        }
+        if (Objects.isNull(holdRequest.getAmount()) || holdRequest.getAmount().signum() <= 0) {
+            throw new InvalidHoldRequest("hold amount must be positive");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = Objects.isNull(holdRequest.getExpiresAt())
+                ? now.plus(defaultDurationMillis, ChronoUnit.MILLIS) : holdRequest.getExpiresAt();
+        if (!expiresAt.isAfter(now) || expiresAt.isAfter(now.plus(maxDurationMillis, ChronoUnit.MILLIS))) {
+            throw new InvalidHoldRequest("hold must expire within " + maxDurationMillis + " ms from now");
+        }
+
+        if (StringUtils.hasText(holdRequest.getHoldReference())) {
+            FundHold existing = fundHoldRepository.findFundHoldByHoldReference(holdRequest.getHoldReference()).orElse(null);
+            if (!Objects.isNull(existing)) {
+                return existingHold(existing, holdRequest);
+            }
+        }
+        String holdReference = StringUtils.hasText(holdRequest.getHoldReference())
+                ? holdRequest.getHoldReference() : UUID.randomUUID().toString();
+        String accountNumber = holdRequest.getAccountNumber();
+        Money amount = holdRequest.getAmount();
+
+        FundHold fundHold;
+        try {
+            fundHold = transactionTemplate.execute(status -> {
+                Account account = accountRepository.findAccountForUpdate(accountNumber)
+                        .orElseThrow(() -> new ResourceNotFound("Account not found on the server"));
+                if (!AccountStatus.ACTIVE.equals(account.getAccountStatus())) {
+                    throw new AccountStatusException("Account is inactive or closed");
+                }
+                if (account.getAvailableBalance().isLessThan(amount)) {
+                    throw new InSufficientFunds("Insufficient funds in account " + accountNumber);
+                }
+                accountRepository.moveToHeld(accountNumber, amount);
+                FundHold saved = fundHoldRepository.saveAndFlush(FundHold.builder()
+                        .holdReference(holdReference)
+                        .accountNumber(accountNumber)
+                        .amount(amount)
+                        .capturedAmount(Money.ZERO)
+                        .status(HoldStatus.HELD)
+                        .expiresAt(expiresAt).build());
+                auditJournal.append(accountNumber, amount.negate(), account.getAvailableBalance().minus(amount));
+                return saved;
+            });
+        } catch (DataIntegrityViolationException exception) {
+            return fundHoldRepository.findFundHoldByHoldReference(holdReference)
+                    .map(existing -> existingHold(existing, holdRequest))
+                    .orElseThrow(() -> exception);
+        }
+        log.info("hold {} of {} placed on account {} until {}", holdReference, amount, accountNumber, expiresAt);
+        return holdMapper.convertToDto(fundHold);
+    }
+
+    /**
+     * Captures a hold. Capturing a hold that has already been captured returns it unchanged, whatever
+     * amount is asked for.
+     *
+     * @param holdReference the reference of the hold
+     * @param holdCapture   the amount to capture, or none for the whole hold
+     * @return the captured hold
+     * @throws ResourceNotFound   If the hold is not found on the server.
+     * @throws InvalidHoldRequest If the amount is not positive or is more than the held amount.
+     * @throws ResourceConflict   If the hold has been released or has expired.
+     */
+    @Override
+    public HoldDto captureHold(String holdReference, HoldCapture holdCapture) {
+
+        FundHold fundHold = findHold(holdReference);
+        if (HoldStatus.CAPTURED.equals(fundHold.getStatus())) {
+            return holdMapper.convertToDto(fundHold);
+        }
+        Money amount = Objects.isNull(holdCapture) || Objects.isNull(holdCapture.getAmount())
+                ? fundHold.getAmount() : holdCapture.getAmount();
+        if (amount.signum() <= 0 || fundHold.getAmount().isLessThan(amount)) {
+            throw new InvalidHoldRequest("captured amount must be positive and at most " + fundHold.getAmount());
+        }
+        if (HoldStatus.HELD.equals(fundHold.getStatus()) && !fundHold.getExpiresAt().isAfter(LocalDateTime.now())) {
+            settle(fundHold, HoldStatus.EXPIRED, Money.ZERO);
+        }
+        if (HoldStatus.HELD.equals(fundHold.getStatus()) && !settle(fundHold, HoldStatus.CAPTURED, amount)) {
+            fundHold = findHold(holdReference);
+        }
+        if (!HoldStatus.CAPTURED.equals(fundHold.getStatus())) {
+            throw new ResourceConflict("Hold " + holdReference + " is " + fundHold.getStatus().name().toLowerCase() + " and cannot be captured");
+        }
+        return holdMapper.convertToDto(fundHold);
+    }
+
+    /**
+     * Releases a hold. Releasing a hold that has already been released or has expired returns it unchanged.
+     *
+     * @param holdReference the reference of the hold
+     * @return the released hold
+     * @throws ResourceNotFound If the hold is not found on the server.
+     * @throws ResourceConflict If the hold has been captured.
+     */
+    @Override
+    public HoldDto releaseHold(String holdReference) {
+
+        FundHold fundHold = findHold(holdReference);
+        if (HoldStatus.HELD.equals(fundHold.getStatus()) && !settle(fundHold, HoldStatus.RELEASED, Money.ZERO)) {
+            fundHold = findHold(holdReference);
+        }
+        if (HoldStatus.CAPTURED.equals(fundHold.getStatus())) {
+            throw new ResourceConflict("Hold " + holdReference + " has been captured and cannot be released");
+        }
+        return holdMapper.convertToDto(fundHold);
+    }
+
+    /**
+     * Expires a hold whose expiry has passed.
+     *
+     * @param holdReference the reference of the hold
+     * @return the hold
+     * @throws ResourceNotFound If the hold is not found on the server.
+     */
+    @Override
+    public HoldDto expireHold(String holdReference) {
+
+        FundHold fundHold = findHold(holdReference);
+        if (HoldStatus.HELD.equals(fundHold.getStatus()) && !fundHold.getExpiresAt().isAfter(LocalDateTime.now())
+                && settle(fundHold, HoldStatus.EXPIRED, Money.ZERO)) {
+            log.info("hold {} of {} on account {} expired", holdReference, fundHold.getAmount(), fundHold.getAccountNumber());
+        }
+        return holdMapper.convertToDto(fundHold);
+    }
+
+    /**
+     * Reads a hold.
+     *
+     * @param holdReference the reference of the hold
+     * @return the hold
+     * @throws ResourceNotFound If the hold is not found on the server.
+     */
+    @Override
+    public HoldDto readHold(String holdReference) {
+
+        return holdMapper.convertToDto(findHold(holdReference));
+    }
+
+    private FundHold findHold(String holdReference) {
+        return fundHoldRepository.findFundHoldByHoldReference(holdReference)
+                .orElseThrow(() -> new ResourceNotFound("Hold not found on the server"));
+    }
+
+    private HoldDto existingHold(FundHold existing, HoldRequest holdRequest) {
+        if (!existing.getAccountNumber().equals(holdRequest.getAccountNumber()) || !existing.getAmount().equals(holdRequest.getAmount())) {
+            throw new ResourceConflict("Hold reference " + existing.getHoldReference() + " is already in use");
+        }
+        return holdMapper.convertToDto(existing);
+    }
+
+    /**
+     * Moves a held hold to its final status and takes its amount off the held balance of the account,
+     * returning the part that is not captured to the available balance. The account is locked first, so
+     * the balance written to the journal is the one the change produced.
+     *
+     * @return true if the hold was settled, false if it had been settled by someone else in the meantime
+     */
+    private boolean settle(FundHold fundHold, HoldStatus status, Money capturedAmount) {
+
+        Money returned = fundHold.getAmount().minus(capturedAmount);
+        LocalDateTime settledOn = LocalDateTime.now();
+        Money balance = transactionTemplate.execute(transaction -> {
+            Account account = accountRepository.findAccountForUpdate(fundHold.getAccountNumber())
+                    .orElseThrow(() -> new ResourceNotFound("Account not found on the server"));
+            if (fundHoldRepository.settle(fundHold.getFundHoldId(), status, capturedAmount, settledOn) == 0) {
+                return null;
+            }
+            accountRepository.releaseFromHeld(fundHold.getAccountNumber(), fundHold.getAmount(), returned);
+            Money available = account.getAvailableBalance().plus(returned);
+            if (!returned.isZero()) {
+                auditJournal.append(fundHold.getAccountNumber(), returned, available);
+            }
+            return available;
+        });
+        if (Objects.isNull(balance)) {
+            return false;
+        }
+        fundHold.setStatus(status);
+        fundHold.setCapturedAmount(capturedAmount);
+        fundHold.setSettledOn(settledOn);
+        return true;
+    }
+}
@@ -0,0 +1,235 @@
+package org.training.account.service.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.training.account.service.external.TransactionService;
+import org.training.account.service.model.DiscrepancyType;
+import org.training.common.model.Money;
+import org.training.account.service.model.dto.AccountBalanceView;
+import org.training.account.service.model.dto.LedgerDiscrepancy;
+import org.training.account.service.model.dto.external.LedgerBalance;
+import org.training.account.service.model.dto.response.LedgerVerificationReport;
+import org.training.account.service.repository.AccountRepository;
+import org.training.account.service.service.LedgerVerificationService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerVerificationServiceImpl implements LedgerVerificationService {
+
+    private final AccountRepository accountRepository;
+    private final TransactionService transactionService;
+
+    @Value("${account.verification.range-size:10000}")
+    private long rangeSize;
+
+    @Value("${account.verification.parallelism:4}")
+    private int parallelism;
+
+    @Value("${account.verification.recheck-attempts:3}")
+    private int recheckAttempts;
+
+    /**
+     * Runs the verification on the configured schedule and logs its outcome.
+     */
+    @Scheduled(cron = "${account.verification.cron:-}")
+    public void scheduledVerification() {
+
+        LedgerVerificationReport report = verifyLedger();
+        if (report.getDiscrepancies().isEmpty()) {
+            log.info("ledger verification checked {} accounts in {} ms, no discrepancies",
+                    report.getAccountsChecked(), report.getDurationMillis());
+        } else {
+            log.error("ledger verification checked {} accounts in {} ms, {} discrepancies: {}", report.getAccountsChecked(),
+                    report.getDurationMillis(), report.getDiscrepancies().size(), report.getDiscrepancies());
+        }
+    }
+
+    /**
+     * Verifies every account against its ledger. The account number space is split into ranges that are
+     * checked in parallel on a fork-join pool; for each range the balances are read from the account table
+     * and the per-account sums from Transaction-Service, both ordered by account number, and merge-joined
+     * so no lookup structure is needed. Amounts are compared as long minor units; funds held against an
+     * account are still part of its ledger balance until they are captured. The first and last ranges are
+     * open towards the ledger, so ledger rows of account numbers below the lowest or above the highest
+     * account are still reported as unknown accounts.
+     *
+     * <p>Balances and ledger sums are read at different moments, so an account that changes in between
+     * can look mismatched. Every discrepancy is read again, up to the configured number of times: it is
+     * dropped once both sides agree, reported once two reads in a row find the same values, and reported as
+     * unstable if the values keep changing.</p>
+     *
+     * @return the report listing every account whose balance does not match its ledger
+     */
+    @Override
+    public LedgerVerificationReport verifyLedger() {
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        long started = System.currentTimeMillis();
+        Optional<String> lowest = accountRepository.findLowestAccountNumber();
+        Optional<String> highest = accountRepository.findHighestAccountNumber();
+        RangeResult result = new RangeResult(0, new ArrayList<>());
+        if (lowest.isPresent() && highest.isPresent()) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                long from = Long.parseLong(lowest.get());
+                long to = Long.parseLong(highest.get()) + 1;
+                result = pool.invoke(new VerifyRangeTask(from, to, from, to, lowest.get().length()));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return LedgerVerificationReport.builder()
+                .startedAt(startedAt)
+                .durationMillis(System.currentTimeMillis() - started)
+                .accountsChecked(result.accountsChecked())
+                .discrepancies(result.discrepancies()).build();
+    }
+
+    /**
+     * Merge-joins the balances and ledger sums of one range of accounts.
+     *
+     * @param balances The account balances, ordered by account number.
+     * @param ledger   The ledger sums, ordered by account number.
+     * @return The number of accounts checked and the discrepancies found.
+     */
+    RangeResult compare(List<AccountBalanceView> balances, List<LedgerBalance> ledger) {
+
+        List<LedgerDiscrepancy> discrepancies = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < balances.size() || j < ledger.size()) {
+            int order = i == balances.size() ? 1 : j == ledger.size() ? -1
+                    : balances.get(i).getAccountNumber().compareTo(ledger.get(j).getAccountId());
+            if (order > 0) {
+                LedgerBalance unknown = ledger.get(j++);
+                discrepancies.add(discrepancy(unknown.getAccountId(), DiscrepancyType.UNKNOWN_ACCOUNT, 0, toMinorUnits(unknown.getBalance())));
+                continue;
+            }
+            AccountBalanceView account = balances.get(i++);
+            long accountBalance = Math.addExact(toMinorUnits(account.getAvailableBalance()), toMinorUnits(account.getHeldBalance()));
+            long ledgerBalance = order == 0 ? toMinorUnits(ledger.get(j++).getBalance()) : 0;
+            if (accountBalance != ledgerBalance) {
+                discrepancies.add(discrepancy(account.getAccountNumber(), DiscrepancyType.BALANCE_MISMATCH, accountBalance, ledgerBalance));
+            }
+        }
+        return new RangeResult(balances.size(), discrepancies);
+    }
+
+    /**
+     * Reads the balance and ledger sum of a discrepant account again until the discrepancy goes away,
+     * repeats itself or the attempts run out.
+     *
+     * @param discrepancy  The discrepancy found by the range comparison.
+     * @param fromAccount  The account number itself.
+     * @param toAccount    The account number following it.
+     * @return The discrepancy to report, or empty if the account turned out to match its ledger.
+     */
+    Optional<LedgerDiscrepancy> recheck(LedgerDiscrepancy discrepancy, String fromAccount, String toAccount) {
+
+        LedgerDiscrepancy previous = discrepancy;
+        for (int attempt = 0; attempt < recheckAttempts; attempt++) {
+            List<LedgerDiscrepancy> current = compare(accountRepository.findBalancesInRange(fromAccount, toAccount),
+                    transactionService.getLedgerBalances(fromAccount, toAccount)).discrepancies();
+            if (current.isEmpty()) {
+                return Optional.empty();
+            }
+            if (current.get(0).equals(previous)) {
+                return Optional.of(previous);
+            }
+            previous = current.get(0);
+        }
+        previous.setDiscrepancyType(DiscrepancyType.UNSTABLE);
+        return Optional.of(previous);
+    }
+
+    private static LedgerDiscrepancy discrepancy(String accountNumber, DiscrepancyType discrepancyType, long accountBalance, long ledgerBalance) {
+        return LedgerDiscrepancy.builder()
+                .accountNumber(accountNumber)
+                .discrepancyType(discrepancyType)
+                .accountBalance(Money.ofMinor(accountBalance))
+                .ledgerBalance(Money.ofMinor(ledgerBalance))
+                .difference(Money.ofMinor(Math.subtractExact(accountBalance, ledgerBalance))).build();
+    }
+
+    private static long toMinorUnits(Money amount) {
+        return amount == null ? 0 : amount.getMinorUnits();
+    }
+
+    record RangeResult(long accountsChecked, List<LedgerDiscrepancy> discrepancies) {
+    }
+
+    /**
+     * Checks the accounts numbered {@code [from, to)}, splitting the range in halves until it is no larger
+     * than the configured range size. The range starting at the lowest account and the range ending after
+     * the highest read the ledger without that bound.
+     */
+    private class VerifyRangeTask extends RecursiveTask<RangeResult> {
+
+        private final long from;
+        private final long to;
+        private final long lowest;
+        private final long end;
+        private final int width;
+
+        private VerifyRangeTask(long from, long to, long lowest, long end, int width) {
+            this.from = from;
+            this.to = to;
+            this.lowest = lowest;
+            this.end = end;
+            this.width = width;
+        }
+
+        @Override
+        protected RangeResult compute() {
+
+            if (to - from <= rangeSize) {
+                RangeResult result = compare(accountRepository.findBalancesInRange(format(from), format(to)),
+                        transactionService.getLedgerBalances(from == lowest ? null : format(from), to == end ? null : format(to)));
+                List<LedgerDiscrepancy> discrepancies = new ArrayList<>(result.discrepancies().size());
+                for (LedgerDiscrepancy discrepancy : result.discrepancies()) {
+                    String next = next(discrepancy.getAccountNumber());
+                    if (next == null) {
+                        discrepancies.add(discrepancy);
+                    } else {
+                        recheck(discrepancy, discrepancy.getAccountNumber(), next).ifPresent(discrepancies::add);
+                    }
+                }
+                return new RangeResult(result.accountsChecked(), discrepancies);
+            }
+            long middle = from + (to - from) / 2;
+            VerifyRangeTask lower = new VerifyRangeTask(from, middle, lowest, end, width);
+            lower.fork();
+            RangeResult upper = new VerifyRangeTask(middle, to, lowest, end, width).compute();
+            RangeResult lowerResult = lower.join();
+            List<LedgerDiscrepancy> discrepancies = new ArrayList<>(lowerResult.discrepancies());
+            discrepancies.addAll(upper.discrepancies());
+            return new RangeResult(lowerResult.accountsChecked() + upper.accountsChecked(), discrepancies);
+        }
+
+        private String format(long accountNumber) {
+            return String.format("%0" + width + "d", accountNumber);
+        }
+
+        /**
+         * Returns the account number following the given one, or null if it is not a number of the width
+         * of the account numbers, so that it can only be read again as part of its range.
+         */
+        private String next(String accountNumber) {
+            if (accountNumber.length() != width || !accountNumber.chars().allMatch(Character::isDigit)) {
+                return null;
+            }
+            return format(Long.parseLong(accountNumber) + 1);
+        }
+    }
+}
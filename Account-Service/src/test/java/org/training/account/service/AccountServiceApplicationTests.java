@@ -1,11 +1,13 @@
 package org.training.account.service;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@SpringBootTest
+@SpringBootTest(properties = {"eureka.client.enabled=false", "account.journal.directory=target/journal"})
+@AutoConfigureTestDatabase
 class AccountServiceApplicationTests {
 
     @Test
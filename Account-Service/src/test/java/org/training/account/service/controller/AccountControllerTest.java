@@ -9,15 +9,22 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.training.account.service.model.dto.AccountDto;
+import org.training.account.service.model.AccountStatus;
+import org.training.account.service.model.BulkUpdateOutcome;
+import org.training.common.model.Money;
+import org.training.account.service.model.dto.AccountStatusBulkUpdate;
+import org.training.account.service.model.dto.AccountStatusOutcome;
 import org.training.account.service.model.dto.AccountStatusUpdate;
 import org.training.account.service.model.dto.external.TransactionResponse;
+import org.training.account.service.model.dto.response.BulkStatusResponse;
 import org.training.account.service.model.dto.response.Response;
 import org.training.account.service.service.AccountService;
+import org.training.account.service.service.LedgerVerificationService;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -31,6 +38,9 @@ class AccountControllerTest {
     @MockBean
     private AccountService accountService;
 
+    @MockBean
+    private LedgerVerificationService ledgerVerificationService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -44,7 +54,7 @@ class AccountControllerTest {
                 .accountNumber("0600140000001")
                 .accountType("SAVINGS_ACCOUNT")
                 .accountStatus("ACTIVE")
-                .availableBalance(BigDecimal.valueOf(1000.00))
+                .availableBalance(Money.of(1000))
                 .userId(100L)
                 .age(25)
                 .Salary(60000.0)
@@ -85,6 +95,28 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.responseCode").value("200"));
     }
 
+    @Test
+    void updateAccountStatusInBulk_ShouldReturnOutcomes() throws Exception {
+        // Given
+        AccountStatusBulkUpdate bulkUpdate = AccountStatusBulkUpdate.builder()
+                .accountNumbers(List.of("0600140000001"))
+                .accountStatus(AccountStatus.ACTIVE)
+                .build();
+        when(accountService.updateStatusInBulk(any(AccountStatusBulkUpdate.class))).thenReturn(BulkStatusResponse.builder()
+                .responseCode("200")
+                .updated(1)
+                .outcomes(List.of(new AccountStatusOutcome("0600140000001", BulkUpdateOutcome.UPDATED)))
+                .build());
+
+        // When & Then
+        mockMvc.perform(patch("/accounts/status/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bulkUpdate)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.outcomes[0].outcome").value("UPDATED"));
+    }
+
     @Test
     void readByAccountNumber_ShouldReturnAccountDto() throws Exception {
         // Given
@@ -98,6 +130,20 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.accountType").value("SAVINGS_ACCOUNT"));
     }
 
+    @Test
+    void readAccountNumbers_ShouldReturnPageAfterGivenNumber() throws Exception {
+        // Given
+        when(accountService.readAccountNumbers("0600140000001", 2)).thenReturn(List.of("0600140000002", "0600140000003"));
+
+        // When & Then
+        mockMvc.perform(get("/accounts/numbers")
+                        .param("after", "0600140000001")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("0600140000002"))
+                .andExpect(jsonPath("$[1]").value("0600140000003"));
+    }
+
     @Test
     void updateAccount_ShouldReturnOk() throws Exception {
         // Given
@@ -112,6 +158,16 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.message").value("Success"));
     }
 
+    @Test
+    void updateBalance_ShouldReturnBadRequest_WhenAmountHasMoreThanTwoDecimals() throws Exception {
+        // When & Then
+        mockMvc.perform(patch("/accounts/balance")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountNumber\":\"0600140000001\",\"amount\":10.005}"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(accountService);
+    }
+
     @Test
     void accountBalance_ShouldReturnBalance() throws Exception {
         // Given
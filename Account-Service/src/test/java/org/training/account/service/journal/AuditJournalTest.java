@@ -0,0 +1,110 @@
+package org.training.account.service.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.training.common.model.Money;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private AuditJournal journal;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journal = openJournal();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        journal.close();
+    }
+
+    @Test
+    void append_ShouldRollSegments_AndReadBackInOrder() throws IOException {
+        // Given
+        for (int i = 1; i <= 20; i++) {
+            journal.append("0600140000001", Money.of(10), Money.of(10L * i));
+        }
+
+        // When
+        List<JournalRecord> records = new ArrayList<>();
+        JournalReader.Scan scan = JournalReader.scan(directory, records::add);
+
+        // Then
+        assertTrue(scan.segments() > 1);
+        assertEquals(20, scan.records());
+        assertEquals(20, scan.lastSequence());
+        assertTrue(scan.damagedSegments().isEmpty());
+        assertEquals(Money.of(200), records.get(19).balance());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i + 1, records.get(i).sequence());
+        }
+    }
+
+    @Test
+    void open_ShouldContinueSequenceAfterRestart() throws Exception {
+        // Given
+        journal.append("0600140000001", Money.of(5), Money.of(5));
+        journal.append("0600140000001", Money.ofMinor(-250), Money.ofMinor(250));
+        journal.close();
+
+        // When
+        journal = openJournal();
+        long sequence = journal.append("0600140000002", Money.of(1), Money.of(1));
+
+        // Then
+        List<JournalRecord> records = new ArrayList<>();
+        JournalReader.scan(directory, records::add);
+        assertEquals(3, sequence);
+        assertEquals(3, records.size());
+        assertEquals(Money.ofMinor(-250), records.get(1).amount());
+    }
+
+    @Test
+    void scan_ShouldStopAtDamagedRecord() throws Exception {
+        // Given
+        journal.append("0600140000001", Money.of(1), Money.of(1));
+        journal.append("0600140000001", Money.of(1), Money.of(2));
+        journal.close();
+        Path segment = JournalReader.segments(directory).get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            int firstLength = file.readInt();
+            file.seek(JournalRecord.HEADER_SIZE + firstLength + JournalRecord.HEADER_SIZE + 3);
+            file.write(0x7f);
+        }
+
+        // When
+        JournalReader.Scan scan = JournalReader.scan(directory, record -> { });
+
+        // Then
+        assertEquals(1, scan.records());
+        assertEquals(List.of(segment), scan.damagedSegments());
+
+        // And a reopened journal overwrites the damaged tail
+        journal = openJournal();
+        assertEquals(2, journal.append("0600140000001", Money.of(1), Money.of(2)));
+        assertTrue(JournalReader.scan(directory, record -> { }).damagedSegments().isEmpty());
+    }
+
+    private AuditJournal openJournal() throws IOException {
+        AuditJournal auditJournal = new AuditJournal();
+        ReflectionTestUtils.setField(auditJournal, "directory", directory.toString());
+        ReflectionTestUtils.setField(auditJournal, "segmentSize", 256);
+        ReflectionTestUtils.setField(auditJournal, "fsyncIntervalMillis", 10L);
+        auditJournal.open();
+        return auditJournal;
+    }
+}
@@ -0,0 +1,68 @@
+package org.training.account.service.journal;
+
+import org.junit.jupiter.api.Test;
+import org.training.common.model.Money;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalInspectorTest {
+
+    private static final String ACCOUNT_NUMBER = "0600140000001";
+
+    private long sequence;
+
+    @Test
+    void add_ShouldChainRecordsFromTheirPreviousBalance() {
+        // Given
+        JournalInspector.AccountSummary summary = new JournalInspector.AccountSummary();
+
+        // When
+        summary.add(record(100, 100));
+        summary.add(record(-30, 70));
+        summary.add(record(5, 75));
+
+        // Then
+        assertFalse(summary.broken);
+        assertEquals(3, summary.mutations);
+        assertEquals(Money.of(75), summary.net);
+        assertEquals(Money.of(75), summary.balance);
+        assertEquals(0, summary.uncommitted);
+    }
+
+    @Test
+    void add_ShouldSkipRecordWhoseTransactionDidNotCommit() {
+        // Given
+        JournalInspector.AccountSummary summary = new JournalInspector.AccountSummary();
+        summary.add(record(100, 100));
+
+        // When
+        summary.add(record(-30, 70));
+        summary.add(record(-40, 60));
+        summary.add(record(10, 70));
+
+        // Then
+        assertFalse(summary.broken);
+        assertEquals(1, summary.uncommitted);
+        assertEquals(3, summary.mutations);
+        assertEquals(Money.of(70), summary.net);
+        assertEquals(Money.of(70), summary.balance);
+    }
+
+    @Test
+    void add_ShouldFlagRecordThatDoesNotChain() {
+        // Given
+        JournalInspector.AccountSummary summary = new JournalInspector.AccountSummary();
+        summary.add(record(100, 100));
+        summary.add(record(-30, 70));
+
+        // When
+        summary.add(record(10, 90));
+
+        // Then
+        assertTrue(summary.broken);
+    }
+
+    private JournalRecord record(long amount, long balance) {
+        return new JournalRecord(++sequence, System.currentTimeMillis(), ACCOUNT_NUMBER, Money.of(amount), Money.of(balance));
+    }
+}
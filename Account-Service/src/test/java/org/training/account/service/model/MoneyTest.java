@@ -0,0 +1,74 @@
+package org.training.account.service.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.training.account.service.model.dto.BalanceUpdate;
+import org.training.common.model.Money;
+import org.training.common.model.MoneyConverter;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void arithmetic_ShouldWorkOnMinorUnits() {
+        // Given
+        Money balance = Money.of(new BigDecimal("1000.50"));
+
+        // When
+        Money result = balance.minus(Money.ofMinor(75)).plus(Money.of(2));
+
+        // Then
+        assertEquals(100175, result.getMinorUnits());
+        assertEquals("1001.75", result.toString());
+        assertTrue(Money.ofMinor(-1).isNegative());
+        assertTrue(Money.of(999).isLessThan(Constants.MINIMUM_BALANCE));
+        assertEquals(Money.of(new BigDecimal("3")), Money.of(new BigDecimal("3.00")));
+    }
+
+    @Test
+    void arithmetic_ShouldThrowOnOverflow() {
+        // Given
+        Money maximum = Money.ofMinor(Long.MAX_VALUE);
+
+        // When / Then
+        assertThrows(ArithmeticException.class, () -> maximum.plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).negate());
+    }
+
+    @Test
+    void of_ShouldRejectFractionsOfMinorUnits() {
+        // When / Then
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("10.005")));
+    }
+
+    @Test
+    void json_ShouldRoundTripAsDecimalNumber() throws Exception {
+        // Given
+        BalanceUpdate balanceUpdate = new BalanceUpdate("0600140000001", Money.ofMinor(-1050));
+
+        // When
+        String json = objectMapper.writeValueAsString(balanceUpdate);
+        BalanceUpdate read = objectMapper.readValue("{\"accountNumber\":\"0600140000001\",\"amount\":-10.5}", BalanceUpdate.class);
+
+        // Then
+        assertEquals("{\"accountNumber\":\"0600140000001\",\"amount\":-10.50}", json);
+        assertEquals(balanceUpdate, read);
+    }
+
+    @Test
+    void converter_ShouldMapToDecimalColumn() {
+        // Given
+        MoneyConverter converter = new MoneyConverter();
+
+        // When / Then
+        assertEquals(new BigDecimal("12.30"), converter.convertToDatabaseColumn(Money.ofMinor(1230)));
+        assertEquals(Money.ofMinor(1230), converter.convertToEntityAttribute(new BigDecimal("12.3")));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
@@ -3,10 +3,10 @@ package org.training.account.service.model.mapper;
 import org.junit.jupiter.api.Test;
 import org.training.account.service.model.AccountStatus;
 import org.training.account.service.model.AccountType;
+import org.training.common.model.Money;
 import org.training.account.service.model.dto.AccountDto;
 import org.training.account.service.model.entity.Account;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,7 +23,7 @@ class AccountMapperTest {
                 .accountNumber("123456")
                 .accountType("SAVINGS_ACCOUNT")
                 .accountStatus("ACTIVE")
-                .availableBalance(BigDecimal.valueOf(1000.00))
+                .availableBalance(Money.of(1000))
                 .userId(100L)
                 .age(30)
                 .Salary(50000.0)
@@ -47,7 +47,7 @@ class AccountMapperTest {
     @Test
     void convertToEntity_ShouldReturnEmptyEntityWhenDtoIsNull() {
         // When
-        Account entity = mapper.convertToEntity(null);
+        Account entity = mapper.convertToEntity((AccountDto) null);
 
         // Then
         assertNotNull(entity);
@@ -63,7 +63,7 @@ class AccountMapperTest {
                 .accountType(AccountType.SAVINGS_ACCOUNT)
                 .accountStatus(AccountStatus.ACTIVE)
                 .openingDate(LocalDate.now())
-                .availableBalance(BigDecimal.valueOf(1000.00))
+                .availableBalance(Money.of(1000))
                 .userId(100L)
                 .age(30)
                 .Salary(50000.0)
@@ -87,7 +87,7 @@ class AccountMapperTest {
     @Test
     void convertToDto_ShouldReturnEmptyDtoWhenEntityIsNull() {
         // When
-        AccountDto dto = mapper.convertToDto(null);
+        AccountDto dto = mapper.convertToDto((Account) null);
 
         // Then
         assertNotNull(dto);
@@ -0,0 +1,59 @@
+package org.training.account.service.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.training.account.service.model.AccountStatus;
+import org.training.account.service.model.AccountType;
+import org.training.common.model.Money;
+import org.training.account.service.model.entity.Account;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "spring.jpa.show-sql=false"})
+class AccountRepositoryBatchingTest {
+
+    private static final int ACCOUNTS = 200;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void saveAll_insertsInBatches() {
+
+        List<Account> accounts = IntStream.range(0, ACCOUNTS)
+                .mapToObj(i -> Account.builder()
+                        .accountNumber(String.format("06001%08d", i))
+                        .accountType(AccountType.SAVINGS_ACCOUNT)
+                        .accountStatus(AccountStatus.ACTIVE)
+                        .availableBalance(Money.of(100))
+                        .userId((long) i)
+                        .build())
+                .collect(Collectors.toList());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        accountRepository.saveAll(accounts);
+        entityManager.flush();
+
+        assertEquals(ACCOUNTS, statistics.getEntityInsertCount());
+        // one statement per batch of 50 inserts and one sequence call per 50 IDs, instead of one insert per account
+        assertTrue(statistics.getPrepareStatementCount() <= 10,
+                "expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+    }
+}
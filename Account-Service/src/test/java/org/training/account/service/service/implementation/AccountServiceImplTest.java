@@ -6,23 +6,31 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.training.account.service.exception.*;
 import org.training.account.service.external.SequenceService;
 import org.training.account.service.external.TransactionService;
 import org.training.account.service.external.UserService;
 import org.training.account.service.model.AccountStatus;
 import org.training.account.service.model.AccountType;
+import org.training.account.service.model.BulkUpdateOutcome;
+import org.training.common.model.Money;
 import org.training.account.service.model.dto.AccountDto;
+import org.training.account.service.model.dto.AccountStatusBulkUpdate;
+import org.training.account.service.model.dto.AccountStatusOutcome;
 import org.training.account.service.model.dto.AccountStatusUpdate;
+import org.training.account.service.model.dto.AccountStatusView;
+import org.training.account.service.model.dto.external.SequenceDto;
 import org.training.account.service.model.dto.external.TransactionResponse;
 import org.training.account.service.model.dto.external.UserDto;
+import org.training.account.service.model.dto.response.BulkStatusResponse;
 import org.training.account.service.model.dto.response.Response;
 import org.training.account.service.model.entity.Account;
 import org.training.account.service.model.mapper.AccountMapper;
 import org.training.account.service.repository.AccountRepository;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -61,7 +69,7 @@ class AccountServiceImplTest {
                 .accountNumber("0600140000001")
                 .accountType("SAVINGS_ACCOUNT")
                 .accountStatus("ACTIVE")
-                .availableBalance(BigDecimal.valueOf(1000.00))
+                .availableBalance(Money.of(1000))
                 .userId(100L)
                 .age(25)
                 .Salary(60000.0)
@@ -72,13 +80,14 @@ class AccountServiceImplTest {
                 .accountNumber("0600140000001")
                 .accountType(AccountType.SAVINGS_ACCOUNT)
                 .accountStatus(AccountStatus.ACTIVE)
-                .availableBalance(BigDecimal.valueOf(1000.00))
+                .availableBalance(Money.of(1000))
                 .userId(100L)
                 .age(25)
                 .Salary(60000.0)
                 .build();
 
         userDto = new UserDto(); // Assume UserDto has necessary fields
+        ReflectionTestUtils.setField(accountService, "success", "200");
     }
 
     @Test
@@ -87,7 +96,9 @@ class AccountServiceImplTest {
         when(userService.readUserById(accountDto.getUserId())).thenReturn(ResponseEntity.ok(userDto));
         when(accountRepository.findAccountByUserIdAndAccountType(accountDto.getUserId(), AccountType.valueOf(accountDto.getAccountType())))
                 .thenReturn(Optional.empty());
-        when(sequenceService.generateAccountNumber()).thenReturn(new org.training.account.service.model.dto.external.SequenceResponse(1L)); // Assume SequenceResponse
+        SequenceDto sequenceDto = new SequenceDto();
+        sequenceDto.setAccountNumber(1L);
+        when(sequenceService.generateAccountNumber()).thenReturn(sequenceDto);
         when(accountRepository.save(any(Account.class))).thenReturn(account);
 
         // When
@@ -179,7 +190,7 @@ class AccountServiceImplTest {
         AccountStatusUpdate statusUpdate = new AccountStatusUpdate();
         statusUpdate.setAccountStatus(AccountStatus.ACTIVE);
         account.setAccountStatus(AccountStatus.PENDING);
-        account.setAvailableBalance(BigDecimal.valueOf(500.00));
+        account.setAvailableBalance(Money.of(500));
         when(accountRepository.findAccountByAccountNumber(accountDto.getAccountNumber())).thenReturn(Optional.of(account));
 
         // When & Then
@@ -237,7 +248,7 @@ class AccountServiceImplTest {
     @Test
     void closeAccount_ShouldCloseAccountSuccessfully() {
         // Given
-        account.setAvailableBalance(BigDecimal.ZERO);
+        account.setAvailableBalance(Money.ZERO);
         when(accountRepository.findAccountByAccountNumber(accountDto.getAccountNumber())).thenReturn(Optional.of(account));
         when(accountRepository.save(any(Account.class))).thenReturn(account);
 
@@ -281,4 +292,93 @@ class AccountServiceImplTest {
         // When & Then
         assertThrows(AccountStatusException.class, () -> accountService.readAccountByUserId(100L));
     }
+
+    @Test
+    void updateStatusInBulk_ShouldReportOutcomePerAccount() {
+        // Given
+        ReflectionTestUtils.setField(accountService, "bulkChunkSize", 500);
+        AccountStatusBulkUpdate bulkUpdate = AccountStatusBulkUpdate.builder()
+                .accountNumbers(List.of("0600140000001", "0600140000002", "0600140000003", "0600140000004"))
+                .accountStatus(AccountStatus.ACTIVE)
+                .build();
+        when(accountRepository.findByAccountNumberIn(bulkUpdate.getAccountNumbers())).thenReturn(List.of(
+                statusView(1L, "0600140000001", AccountStatus.PENDING, Money.of(1500)),
+                statusView(2L, "0600140000002", AccountStatus.ACTIVE, Money.of(1500)),
+                statusView(3L, "0600140000003", AccountStatus.PENDING, Money.of(500))));
+        when(accountRepository.updateStatusInBulk(List.of("0600140000001"), AccountStatus.ACTIVE, AccountStatus.ACTIVE, Money.of(1000)))
+                .thenReturn(1);
+
+        // When
+        BulkStatusResponse response = accountService.updateStatusInBulk(bulkUpdate);
+
+        // Then
+        assertEquals(1, response.getUpdated());
+        assertEquals(List.of(
+                new AccountStatusOutcome("0600140000002", BulkUpdateOutcome.ACCOUNT_ACTIVE),
+                new AccountStatusOutcome("0600140000003", BulkUpdateOutcome.INSUFFICIENT_FUNDS),
+                new AccountStatusOutcome("0600140000004", BulkUpdateOutcome.NOT_FOUND),
+                new AccountStatusOutcome("0600140000001", BulkUpdateOutcome.UPDATED)), response.getOutcomes());
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    void updateStatusInBulk_ShouldReportConflict_WhenAccountChangedConcurrently() {
+        // Given
+        ReflectionTestUtils.setField(accountService, "bulkChunkSize", 500);
+        AccountStatusBulkUpdate bulkUpdate = AccountStatusBulkUpdate.builder()
+                .currentStatus(AccountStatus.PENDING)
+                .accountStatus(AccountStatus.ACTIVE)
+                .build();
+        AccountStatusView first = statusView(1L, "0600140000001", AccountStatus.PENDING, Money.of(1500));
+        AccountStatusView second = statusView(2L, "0600140000002", AccountStatus.PENDING, Money.of(1500));
+        when(accountRepository.findByAccountStatusAndAccountIdGreaterThanOrderByAccountIdAsc(eq(AccountStatus.PENDING), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        when(accountRepository.updateStatusInBulk(List.of("0600140000001", "0600140000002"), AccountStatus.ACTIVE, AccountStatus.ACTIVE, Money.of(1000)))
+                .thenReturn(1);
+        when(accountRepository.findByAccountNumberIn(List.of("0600140000001", "0600140000002"))).thenReturn(List.of(
+                statusView(1L, "0600140000001", AccountStatus.ACTIVE, Money.of(1500)),
+                statusView(2L, "0600140000002", AccountStatus.BLOCKED, Money.of(1500))));
+
+        // When
+        BulkStatusResponse response = accountService.updateStatusInBulk(bulkUpdate);
+
+        // Then
+        assertEquals(1, response.getUpdated());
+        assertEquals(BulkUpdateOutcome.CONFLICT, response.getOutcomes().get(1).getOutcome());
+    }
+
+    @Test
+    void updateStatusInBulk_ShouldThrowAccountStatusException_WhenNoSelectionGiven() {
+        // Given
+        AccountStatusBulkUpdate bulkUpdate = AccountStatusBulkUpdate.builder()
+                .accountStatus(AccountStatus.ACTIVE)
+                .build();
+
+        // When & Then
+        assertThrows(AccountStatusException.class, () -> accountService.updateStatusInBulk(bulkUpdate));
+    }
+
+    private AccountStatusView statusView(Long accountId, String accountNumber, AccountStatus accountStatus, Money availableBalance) {
+        return new AccountStatusView() {
+            @Override
+            public Long getAccountId() {
+                return accountId;
+            }
+
+            @Override
+            public String getAccountNumber() {
+                return accountNumber;
+            }
+
+            @Override
+            public AccountStatus getAccountStatus() {
+                return accountStatus;
+            }
+
+            @Override
+            public Money getAvailableBalance() {
+                return availableBalance;
+            }
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,307 @@
+package org.training.account.service.service.implementation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.account.service.exception.InSufficientFunds;
+import org.training.account.service.exception.ResourceNotFound;
+import org.training.account.service.journal.AuditJournal;
+import org.training.account.service.model.dto.BalanceUpdate;
+import org.training.account.service.model.entity.Account;
+import org.training.account.service.model.entity.AppliedBalanceUpdate;
+import org.training.account.service.repository.AccountRepository;
+import org.training.account.service.repository.AppliedBalanceUpdateRepository;
+import org.training.common.model.Money;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceUpdateCoalescerTest {
+
+    private static final String ACCOUNT_NUMBER = "0600140000001";
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private AuditJournal auditJournal;
+
+    @Mock
+    private AppliedBalanceUpdateRepository appliedBalanceUpdateRepository;
+
+    @InjectMocks
+    private BalanceUpdateCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(coalescer, "windowMillis", 50L);
+        ReflectionTestUtils.setField(coalescer, "maxBatchSize", 3);
+        ReflectionTestUtils.setField(coalescer, "flushThreads", 1);
+        ReflectionTestUtils.setField(coalescer, "bulkChunkSize", 2);
+        coalescer.start();
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        coalescer.stop();
+    }
+
+    @Test
+    void submit_ShouldApplyNetAmountOnce_AndRejectOverdraftPerUpdate() throws Exception {
+        // Given
+        when(accountRepository.findAccountForUpdate(ACCOUNT_NUMBER))
+                .thenReturn(Optional.of(Account.builder().accountNumber(ACCOUNT_NUMBER).availableBalance(Money.of(100)).build()));
+
+        // When
+        CompletableFuture<Money> first = coalescer.submit(new BalanceUpdate(ACCOUNT_NUMBER, Money.of(-50)));
+        CompletableFuture<Money> second = coalescer.submit(new BalanceUpdate(ACCOUNT_NUMBER, Money.of(-80)));
+        CompletableFuture<Money> third = coalescer.submit(new BalanceUpdate(ACCOUNT_NUMBER, Money.of(20)));
+
+        // Then
+        assertEquals(Money.of(50), first.get(1, TimeUnit.SECONDS));
+        ExecutionException rejected = assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(InSufficientFunds.class, rejected.getCause());
+        assertEquals(Money.of(70), third.get(1, TimeUnit.SECONDS));
+        verify(accountRepository, times(1)).findAccountForUpdate(ACCOUNT_NUMBER);
+        verify(accountRepository, times(1)).addToAvailableBalance(ACCOUNT_NUMBER, Money.of(-30));
+        verify(auditJournal).append(ACCOUNT_NUMBER, Money.of(-30), Money.of(70));
+    }
+
+    @Test
+    void submit_ShouldFailBatch_WhenJournalAppendFailsBeforeCommit() {
+        // Given
+        when(accountRepository.findAccountForUpdate(ACCOUNT_NUMBER))
+                .thenReturn(Optional.of(Account.builder().accountNumber(ACCOUNT_NUMBER).availableBalance(Money.of(100)).build()));
+        when(auditJournal.append(ACCOUNT_NUMBER, Money.of(-50), Money.of(50))).thenThrow(new IllegalStateException("journal full"));
+
+        // When
+        CompletableFuture<Money> update = coalescer.submit(new BalanceUpdate(ACCOUNT_NUMBER, Money.of(-50)));
+
+        // Then
+        ExecutionException failed = assertThrows(ExecutionException.class, () -> update.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failed.getCause());
+        InOrder inOrder = inOrder(accountRepository, auditJournal);
+        inOrder.verify(accountRepository).addToAvailableBalance(ACCOUNT_NUMBER, Money.of(-50));
+        inOrder.verify(auditJournal).append(ACCOUNT_NUMBER, Money.of(-50), Money.of(50));
+    }
+
+    @Test
+    void submit_ShouldFlushSeparateBatchesPerAccount() throws Exception {
+        // Given
+        when(accountRepository.findAccountForUpdate(anyString()))
+                .thenAnswer(invocation -> Optional.of(Account.builder()
+                        .accountNumber(invocation.getArgument(0))
+                        .availableBalance(Money.of(10)).build()));
+
+        // When
+        CompletableFuture<Money> first = coalescer.submit(new BalanceUpdate(ACCOUNT_NUMBER, Money.of(1)));
+        CompletableFuture<Money> second = coalescer.submit(new BalanceUpdate("0600140000002", Money.of(1)));
+
+        // Then
+        assertEquals(Money.of(11), first.get(1, TimeUnit.SECONDS));
+        assertEquals(Money.of(11), second.get(1, TimeUnit.SECONDS));
+        verify(accountRepository).addToAvailableBalance(ACCOUNT_NUMBER, Money.of(1));
+        verify(accountRepository).addToAvailableBalance("0600140000002", Money.of(1));
+    }
+
+    @Test
+    void submit_ShouldFailEveryUpdate_WhenAccountNotFound() {
+        // Given
+        when(accountRepository.findAccountForUpdate(ACCOUNT_NUMBER)).thenReturn(Optional.empty());
+
+        // When
+        CompletableFuture<Money> first = coalescer.submit(new BalanceUpdate(ACCOUNT_NUMBER, Money.of(1)));
+        CompletableFuture<Money> second = coalescer.submit(new BalanceUpdate(ACCOUNT_NUMBER, Money.of(1)));
+
+        // Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> first.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(ResourceNotFound.class, failure.getCause());
+        assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+        verify(accountRepository, never()).addToAvailableBalance(anyString(), any());
+        verifyNoInteractions(auditJournal);
+    }
+
+    @Test
+    void applyAll_ShouldLockEachAccountOnce_AndApplyNetAmounts() {
+        // Given
+        when(accountRepository.findAccountsForUpdate(any())).thenAnswer(invocation -> invocation.<List<String>>getArgument(0).stream()
+                .map(accountNumber -> Account.builder().accountNumber(accountNumber).availableBalance(Money.of(100)).build())
+                .toList());
+
+        // When
+        Map<String, Money> balances = coalescer.applyAll(List.of(
+                new BalanceUpdate(ACCOUNT_NUMBER, Money.of(-30)),
+                new BalanceUpdate("0600140000002", Money.of(10)),
+                new BalanceUpdate(ACCOUNT_NUMBER, Money.of(-40)),
+                new BalanceUpdate("0600140000003", Money.of(20)),
+                new BalanceUpdate("0600140000003", Money.of(-20)),
+                new BalanceUpdate("0600140000004", Money.of(40))));
+
+        // Then
+        assertEquals(Map.of(ACCOUNT_NUMBER, Money.of(30), "0600140000002", Money.of(110), "0600140000004", Money.of(140)), balances);
+        verify(accountRepository).findAccountsForUpdate(List.of(ACCOUNT_NUMBER, "0600140000002"));
+        verify(accountRepository).findAccountsForUpdate(List.of("0600140000004"));
+        verify(accountRepository).addToAvailableBalance(ACCOUNT_NUMBER, Money.of(-70));
+        verify(accountRepository, never()).addToAvailableBalance(eq("0600140000003"), any());
+        verify(auditJournal).append(ACCOUNT_NUMBER, Money.of(-70), Money.of(30));
+    }
+
+    @Test
+    void applyAll_ShouldApplyNothing_WhenAnyAccountWouldBeOverdrawn() {
+        // Given
+        when(accountRepository.findAccountsForUpdate(any())).thenReturn(List.of(
+                Account.builder().accountNumber(ACCOUNT_NUMBER).availableBalance(Money.of(50)).build(),
+                Account.builder().accountNumber("0600140000002").availableBalance(Money.of(50)).build()));
+
+        // When / Then
+        assertThrows(InSufficientFunds.class, () -> coalescer.applyAll(List.of(
+                new BalanceUpdate(ACCOUNT_NUMBER, Money.of(-60)),
+                new BalanceUpdate("0600140000002", Money.of(60)))));
+        verify(accountRepository, never()).addToAvailableBalance(anyString(), any());
+        verifyNoInteractions(auditJournal);
+    }
+
+    @Test
+    void applyAll_ShouldThrowResourceNotFound_WhenAccountMissing() {
+        // Given
+        when(accountRepository.findAccountsForUpdate(any())).thenReturn(List.of(
+                Account.builder().accountNumber(ACCOUNT_NUMBER).availableBalance(Money.of(50)).build()));
+
+        // When / Then
+        assertThrows(ResourceNotFound.class, () -> coalescer.applyAll(List.of(
+                new BalanceUpdate(ACCOUNT_NUMBER, Money.of(-10)),
+                new BalanceUpdate("0600140000002", Money.of(10)))));
+        verify(accountRepository, never()).addToAvailableBalance(anyString(), any());
+    }
+
+    @Test
+    void submit_ShouldNotApplyAgain_WhenIdempotencyKeyAlreadyApplied() throws Exception {
+        // Given
+        when(accountRepository.findAccountForUpdate(ACCOUNT_NUMBER))
+                .thenReturn(Optional.of(Account.builder().accountNumber(ACCOUNT_NUMBER).availableBalance(Money.of(50)).build()));
+        when(appliedBalanceUpdateRepository.findAllById(any())).thenReturn(List.of(
+                new AppliedBalanceUpdate("ref:DEBIT", ACCOUNT_NUMBER, Money.of(-50), Money.of(50), null)));
+
+        // When
+        CompletableFuture<Money> retry = coalescer.submit(new BalanceUpdate(ACCOUNT_NUMBER, Money.of(-50), "ref:DEBIT", null));
+
+        // Then
+        assertEquals(Money.of(50), retry.get(1, TimeUnit.SECONDS));
+        verify(accountRepository, never()).addToAvailableBalance(anyString(), any());
+        verifyNoInteractions(auditJournal);
+    }
+
+    @Test
+    void submit_ShouldApplyOnce_AndRecordKey_WhenKeyDeliveredTwiceInOneBatch() throws Exception {
+        // Given
+        when(accountRepository.findAccountForUpdate(ACCOUNT_NUMBER))
+                .thenReturn(Optional.of(Account.builder().accountNumber(ACCOUNT_NUMBER).availableBalance(Money.of(100)).build()));
+
+        // When
+        CompletableFuture<Money> first = coalescer.submit(new BalanceUpdate(ACCOUNT_NUMBER, Money.of(-30), "ref:DEBIT", null));
+        CompletableFuture<Money> second = coalescer.submit(new BalanceUpdate(ACCOUNT_NUMBER, Money.of(-30), "ref:DEBIT", null));
+
+        // Then
+        assertEquals(Money.of(70), first.get(1, TimeUnit.SECONDS));
+        assertEquals(Money.of(70), second.get(1, TimeUnit.SECONDS));
+        verify(accountRepository).addToAvailableBalance(ACCOUNT_NUMBER, Money.of(-30));
+        List<AppliedBalanceUpdate> saved = savedKeys();
+        assertEquals(1, saved.size());
+        assertEquals("ref:DEBIT", saved.get(0).getIdempotencyKey());
+        assertEquals(Money.of(-30), saved.get(0).getAmount());
+        assertEquals(Money.of(70), saved.get(0).getBalance());
+    }
+
+    @Test
+    void submit_ShouldCancelReversedUpdate_WhenItHasNotBeenApplied() throws Exception {
+        // Given
+        when(accountRepository.findAccountForUpdate(ACCOUNT_NUMBER))
+                .thenReturn(Optional.of(Account.builder().accountNumber(ACCOUNT_NUMBER).availableBalance(Money.of(100)).build()));
+
+        // When
+        CompletableFuture<Money> reversal = coalescer.submit(new BalanceUpdate(ACCOUNT_NUMBER, Money.of(30), "ref:REVERSE_DEBIT", "ref:DEBIT"));
+        CompletableFuture<Money> late = coalescer.submit(new BalanceUpdate(ACCOUNT_NUMBER, Money.of(-30), "ref:DEBIT", null));
+
+        // Then
+        assertEquals(Money.of(100), reversal.get(1, TimeUnit.SECONDS));
+        assertEquals(Money.of(100), late.get(1, TimeUnit.SECONDS));
+        verify(accountRepository, never()).addToAvailableBalance(anyString(), any());
+        List<AppliedBalanceUpdate> saved = savedKeys();
+        assertEquals(List.of("ref:DEBIT", "ref:REVERSE_DEBIT"), saved.stream().map(AppliedBalanceUpdate::getIdempotencyKey).toList());
+        assertTrue(saved.stream().allMatch(key -> key.getAmount().isZero()));
+    }
+
+    @Test
+    void submit_ShouldApplyReversal_WhenReversedUpdateWasApplied() throws Exception {
+        // Given
+        when(accountRepository.findAccountForUpdate(ACCOUNT_NUMBER))
+                .thenReturn(Optional.of(Account.builder().accountNumber(ACCOUNT_NUMBER).availableBalance(Money.of(70)).build()));
+        when(appliedBalanceUpdateRepository.findAllById(any())).thenReturn(List.of(
+                new AppliedBalanceUpdate("ref:DEBIT", ACCOUNT_NUMBER, Money.of(-30), Money.of(70), null)));
+
+        // When
+        CompletableFuture<Money> reversal = coalescer.submit(new BalanceUpdate(ACCOUNT_NUMBER, Money.of(30), "ref:REVERSE_DEBIT", "ref:DEBIT"));
+
+        // Then
+        assertEquals(Money.of(100), reversal.get(1, TimeUnit.SECONDS));
+        verify(accountRepository).addToAvailableBalance(ACCOUNT_NUMBER, Money.of(30));
+        assertEquals(List.of("ref:REVERSE_DEBIT"), savedKeys().stream().map(AppliedBalanceUpdate::getIdempotencyKey).toList());
+    }
+
+    @Test
+    void applyAll_ShouldLeaveOutUpdates_WhoseKeyWasAlreadyApplied() {
+        // Given
+        when(accountRepository.findAccountsForUpdate(any())).thenAnswer(invocation -> invocation.<List<String>>getArgument(0).stream()
+                .map(accountNumber -> Account.builder().accountNumber(accountNumber).availableBalance(Money.of(100)).build())
+                .toList());
+        when(appliedBalanceUpdateRepository.findAllById(any())).thenReturn(List.of(
+                new AppliedBalanceUpdate("batch:1", ACCOUNT_NUMBER, Money.of(-30), Money.of(70), null)));
+
+        // When
+        Map<String, Money> balances = coalescer.applyAll(List.of(
+                new BalanceUpdate(ACCOUNT_NUMBER, Money.of(-30), "batch:1", null),
+                new BalanceUpdate("0600140000002", Money.of(10), "batch:2", null)));
+
+        // Then
+        assertEquals(Map.of("0600140000002", Money.of(110)), balances);
+        verify(accountRepository, never()).addToAvailableBalance(eq(ACCOUNT_NUMBER), any());
+        verify(accountRepository).addToAvailableBalance("0600140000002", Money.of(10));
+        assertEquals(List.of("batch:2"), savedKeys().stream().map(AppliedBalanceUpdate::getIdempotencyKey).toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AppliedBalanceUpdate> savedKeys() {
+        ArgumentCaptor<Collection<AppliedBalanceUpdate>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(appliedBalanceUpdateRepository).saveAll(saved.capture());
+        return List.copyOf(saved.getValue());
+    }
+}
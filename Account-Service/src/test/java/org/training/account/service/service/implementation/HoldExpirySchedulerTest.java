@@ -0,0 +1,123 @@
+package org.training.account.service.service.implementation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.training.account.service.model.HoldStatus;
+import org.training.account.service.model.entity.FundHold;
+import org.training.account.service.repository.FundHoldRepository;
+import org.training.account.service.service.HoldService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldExpirySchedulerTest {
+
+    @Mock
+    private FundHoldRepository fundHoldRepository;
+
+    @Mock
+    private HoldService holdService;
+
+    @InjectMocks
+    private HoldExpiryScheduler holdExpiryScheduler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(holdExpiryScheduler, "lookaheadMillis", 120_000L);
+        ReflectionTestUtils.setField(holdExpiryScheduler, "batchSize", 1000);
+        holdExpiryScheduler.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        holdExpiryScheduler.stop();
+    }
+
+    @Test
+    void load_ShouldExpireLapsedHoldRightAway() {
+        // Given
+        loads(List.of(hold(1L, "hold-1", LocalDateTime.now().minusMinutes(5))));
+
+        // When
+        holdExpiryScheduler.load();
+
+        // Then
+        verify(holdService, timeout(5_000)).expireHold("hold-1");
+    }
+
+    @Test
+    void load_ShouldExpireHoldAtItsExpiry_AndNotBefore() {
+        // Given
+        loads(List.of(hold(1L, "hold-1", LocalDateTime.now().plusNanos(300_000_000L))));
+
+        // When
+        holdExpiryScheduler.load();
+
+        // Then
+        verify(holdService, after(100).never()).expireHold(any());
+        verify(holdService, timeout(5_000)).expireHold("hold-1");
+    }
+
+    @Test
+    void load_ShouldNotScheduleHoldTwice_WhenReloadedBeforeItExpires() {
+        // Given
+        loads(List.of(hold(1L, "hold-1", LocalDateTime.now().plusNanos(300_000_000L))));
+
+        // When
+        holdExpiryScheduler.load();
+        holdExpiryScheduler.load();
+
+        // Then
+        verify(holdService, timeout(5_000)).expireHold("hold-1");
+        verify(holdService, after(300).times(1)).expireHold("hold-1");
+    }
+
+    @Test
+    void load_ShouldRescheduleHold_WhenItsExpiryFailed() throws InterruptedException {
+        // Given
+        loads(List.of(hold(1L, "hold-1", LocalDateTime.now().minusMinutes(5))));
+        when(holdService.expireHold("hold-1")).thenThrow(new IllegalStateException("database unavailable")).thenReturn(null);
+        holdExpiryScheduler.load();
+        awaitNothingScheduled();
+
+        // When
+        holdExpiryScheduler.load();
+
+        // Then
+        verify(holdService, timeout(5_000).times(2)).expireHold("hold-1");
+    }
+
+    private void awaitNothingScheduled() throws InterruptedException {
+        Map<?, ?> scheduled = (Map<?, ?>) ReflectionTestUtils.getField(holdExpiryScheduler, "scheduled");
+        for (int attempt = 0; attempt < 500 && !scheduled.isEmpty(); attempt++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void loads(List<FundHold> holds) {
+        when(fundHoldRepository.findByStatusAndExpiresAtBeforeAndFundHoldIdGreaterThanOrderByFundHoldIdAsc(
+                eq(HoldStatus.HELD), any(LocalDateTime.class), anyLong(), any(Pageable.class))).thenReturn(holds);
+    }
+
+    private static FundHold hold(Long fundHoldId, String holdReference, LocalDateTime expiresAt) {
+        return FundHold.builder()
+                .fundHoldId(fundHoldId)
+                .holdReference(holdReference)
+                .status(HoldStatus.HELD)
+                .expiresAt(expiresAt).build();
+    }
+}
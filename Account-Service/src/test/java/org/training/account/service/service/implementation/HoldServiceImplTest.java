@@ -0,0 +1,186 @@
+package org.training.account.service.service.implementation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.account.service.exception.InSufficientFunds;
+import org.training.account.service.exception.ResourceConflict;
+import org.training.account.service.journal.AuditJournal;
+import org.training.account.service.model.AccountStatus;
+import org.training.account.service.model.HoldStatus;
+import org.training.common.model.Money;
+import org.training.account.service.model.dto.HoldCapture;
+import org.training.account.service.model.dto.HoldDto;
+import org.training.account.service.model.dto.HoldRequest;
+import org.training.account.service.model.entity.Account;
+import org.training.account.service.model.entity.FundHold;
+import org.training.account.service.repository.AccountRepository;
+import org.training.account.service.repository.FundHoldRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldServiceImplTest {
+
+    private static final String ACCOUNT_NUMBER = "0600140000001";
+    private static final String HOLD_REFERENCE = "hold-1";
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private FundHoldRepository fundHoldRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private AuditJournal auditJournal;
+
+    @InjectMocks
+    private HoldServiceImpl holdService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(holdService, "defaultDurationMillis", 60_000L);
+        ReflectionTestUtils.setField(holdService, "maxDurationMillis", 3_600_000L);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void placeHold_ShouldMoveAmountToHeldBalance_AndJournalAvailableBalance() {
+        // Given
+        when(accountRepository.findAccountForUpdate(ACCOUNT_NUMBER)).thenReturn(Optional.of(account(100)));
+        when(fundHoldRepository.saveAndFlush(any(FundHold.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        HoldDto hold = holdService.placeHold(HoldRequest.builder().accountNumber(ACCOUNT_NUMBER).amount(Money.of(30)).build());
+
+        // Then
+        assertEquals(HoldStatus.HELD, hold.getStatus());
+        assertNotNull(hold.getHoldReference());
+        assertTrue(hold.getExpiresAt().isAfter(LocalDateTime.now()));
+        verify(accountRepository).moveToHeld(ACCOUNT_NUMBER, Money.of(30));
+        verify(auditJournal).append(ACCOUNT_NUMBER, Money.of(-30), Money.of(70));
+    }
+
+    @Test
+    void placeHold_ShouldReturnExistingHold_WhenReferenceIsRetried() {
+        // Given
+        when(fundHoldRepository.findFundHoldByHoldReference(HOLD_REFERENCE)).thenReturn(Optional.of(hold(HoldStatus.HELD, 30)));
+
+        // When
+        HoldDto hold = holdService.placeHold(HoldRequest.builder()
+                .holdReference(HOLD_REFERENCE).accountNumber(ACCOUNT_NUMBER).amount(Money.of(30)).build());
+
+        // Then
+        assertEquals(HOLD_REFERENCE, hold.getHoldReference());
+        verifyNoInteractions(accountRepository, auditJournal);
+    }
+
+    @Test
+    void placeHold_ShouldRejectHold_WhenAvailableBalanceIsTooLow() {
+        // Given
+        when(accountRepository.findAccountForUpdate(ACCOUNT_NUMBER)).thenReturn(Optional.of(account(20)));
+
+        // When / Then
+        assertThrows(InSufficientFunds.class, () -> holdService.placeHold(
+                HoldRequest.builder().accountNumber(ACCOUNT_NUMBER).amount(Money.of(30)).build()));
+        verify(accountRepository, never()).moveToHeld(anyString(), any());
+        verifyNoInteractions(auditJournal);
+    }
+
+    @Test
+    void captureHold_ShouldReturnRemainder_AndBeIdempotent() {
+        // Given
+        FundHold fundHold = hold(HoldStatus.HELD, 30);
+        when(fundHoldRepository.findFundHoldByHoldReference(HOLD_REFERENCE)).thenReturn(Optional.of(fundHold));
+        when(accountRepository.findAccountForUpdate(ACCOUNT_NUMBER)).thenReturn(Optional.of(account(70)));
+        when(fundHoldRepository.settle(eq(1L), eq(HoldStatus.CAPTURED), eq(Money.of(25)), any())).thenReturn(1);
+
+        // When
+        HoldDto captured = holdService.captureHold(HOLD_REFERENCE, new HoldCapture(Money.of(25)));
+        HoldDto retried = holdService.captureHold(HOLD_REFERENCE, new HoldCapture(Money.of(25)));
+
+        // Then
+        assertEquals(HoldStatus.CAPTURED, captured.getStatus());
+        assertEquals(Money.of(25), captured.getCapturedAmount());
+        assertEquals(HoldStatus.CAPTURED, retried.getStatus());
+        verify(accountRepository, times(1)).releaseFromHeld(ACCOUNT_NUMBER, Money.of(30), Money.of(5));
+        verify(auditJournal, times(1)).append(ACCOUNT_NUMBER, Money.of(5), Money.of(75));
+    }
+
+    @Test
+    void captureHold_ShouldConflict_WhenHoldHasExpired() {
+        // Given
+        FundHold fundHold = hold(HoldStatus.HELD, 30);
+        fundHold.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        when(fundHoldRepository.findFundHoldByHoldReference(HOLD_REFERENCE)).thenReturn(Optional.of(fundHold));
+        when(accountRepository.findAccountForUpdate(ACCOUNT_NUMBER)).thenReturn(Optional.of(account(70)));
+        when(fundHoldRepository.settle(eq(1L), eq(HoldStatus.EXPIRED), eq(Money.ZERO), any())).thenReturn(1);
+
+        // When / Then
+        assertThrows(ResourceConflict.class, () -> holdService.captureHold(HOLD_REFERENCE, null));
+        verify(accountRepository).releaseFromHeld(ACCOUNT_NUMBER, Money.of(30), Money.of(30));
+        verify(fundHoldRepository, never()).settle(anyLong(), eq(HoldStatus.CAPTURED), any(), any());
+    }
+
+    @Test
+    void releaseHold_ShouldConflict_WhenCaptureWonTheRace() {
+        // Given
+        when(fundHoldRepository.findFundHoldByHoldReference(HOLD_REFERENCE))
+                .thenReturn(Optional.of(hold(HoldStatus.HELD, 30)), Optional.of(hold(HoldStatus.CAPTURED, 30)));
+        when(accountRepository.findAccountForUpdate(ACCOUNT_NUMBER)).thenReturn(Optional.of(account(70)));
+        when(fundHoldRepository.settle(eq(1L), eq(HoldStatus.RELEASED), eq(Money.ZERO), any())).thenReturn(0);
+
+        // When / Then
+        assertThrows(ResourceConflict.class, () -> holdService.releaseHold(HOLD_REFERENCE));
+        verify(accountRepository, never()).releaseFromHeld(anyString(), any(), any());
+        verifyNoInteractions(auditJournal);
+    }
+
+    @Test
+    void expireHold_ShouldLeaveHoldThatIsNotYetDue() {
+        // Given
+        when(fundHoldRepository.findFundHoldByHoldReference(HOLD_REFERENCE)).thenReturn(Optional.of(hold(HoldStatus.HELD, 30)));
+
+        // When
+        HoldDto hold = holdService.expireHold(HOLD_REFERENCE);
+
+        // Then
+        assertEquals(HoldStatus.HELD, hold.getStatus());
+        verify(fundHoldRepository, never()).settle(anyLong(), any(), any(), any());
+    }
+
+    private Account account(long availableBalance) {
+        return Account.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .accountStatus(AccountStatus.ACTIVE)
+                .availableBalance(Money.of(availableBalance)).build();
+    }
+
+    private FundHold hold(HoldStatus status, long amount) {
+        return FundHold.builder()
+                .fundHoldId(1L)
+                .holdReference(HOLD_REFERENCE)
+                .accountNumber(ACCOUNT_NUMBER)
+                .amount(Money.of(amount))
+                .capturedAmount(status == HoldStatus.CAPTURED ? Money.of(amount) : Money.ZERO)
+                .status(status)
+                .expiresAt(LocalDateTime.now().plusMinutes(5)).build();
+    }
+}
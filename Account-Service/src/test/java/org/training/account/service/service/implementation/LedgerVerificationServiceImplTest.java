@@ -0,0 +1,187 @@
+package org.training.account.service.service.implementation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.training.account.service.external.TransactionService;
+import org.training.account.service.model.DiscrepancyType;
+import org.training.common.model.Money;
+import org.training.account.service.model.dto.AccountBalanceView;
+import org.training.account.service.model.dto.LedgerDiscrepancy;
+import org.training.account.service.model.dto.external.LedgerBalance;
+import org.training.account.service.model.dto.response.LedgerVerificationReport;
+import org.training.account.service.repository.AccountRepository;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerVerificationServiceImplTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @InjectMocks
+    private LedgerVerificationServiceImpl ledgerVerificationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ledgerVerificationService, "rangeSize", 2L);
+        ReflectionTestUtils.setField(ledgerVerificationService, "parallelism", 2);
+        ReflectionTestUtils.setField(ledgerVerificationService, "recheckAttempts", 2);
+    }
+
+    @Test
+    void verifyLedger_ShouldReportMismatchesAcrossRanges() {
+        // Given
+        when(accountRepository.findLowestAccountNumber()).thenReturn(Optional.of("0600140000001"));
+        when(accountRepository.findHighestAccountNumber()).thenReturn(Optional.of("0600140000005"));
+        List<AccountBalanceView> balances = List.of(
+                balance("0600140000001", "100.00"),
+                balance("0600140000002", "50.00"),
+                balance("0600140000004", "0.00"),
+                balance("0600140000005", "10.00"));
+        List<LedgerBalance> ledger = List.of(
+                new LedgerBalance("0600140000001", Money.ofMinor(10000), 2),
+                new LedgerBalance("0600140000002", Money.ofMinor(4550), 3),
+                new LedgerBalance("0600140000003", Money.ofMinor(700), 1));
+        when(accountRepository.findBalancesInRange(anyString(), anyString())).thenAnswer(invocation -> balances.stream()
+                .filter(view -> inRange(view.getAccountNumber(), invocation.getArgument(0), invocation.getArgument(1))).toList());
+        when(transactionService.getLedgerBalances(any(), any())).thenAnswer(invocation -> ledger.stream()
+                .filter(sum -> inRange(sum.getAccountId(), invocation.getArgument(0), invocation.getArgument(1))).toList());
+
+        // When
+        LedgerVerificationReport report = ledgerVerificationService.verifyLedger();
+
+        // Then
+        assertEquals(4, report.getAccountsChecked());
+        List<LedgerDiscrepancy> discrepancies = report.getDiscrepancies().stream()
+                .sorted(Comparator.comparing(LedgerDiscrepancy::getAccountNumber)).toList();
+        assertEquals(3, discrepancies.size());
+        assertEquals(new LedgerDiscrepancy("0600140000002", DiscrepancyType.BALANCE_MISMATCH,
+                Money.ofMinor(5000), Money.ofMinor(4550), Money.ofMinor(450)), discrepancies.get(0));
+        assertEquals(DiscrepancyType.UNKNOWN_ACCOUNT, discrepancies.get(1).getDiscrepancyType());
+        assertEquals(Money.ofMinor(-700), discrepancies.get(1).getDifference());
+        assertEquals("0600140000005", discrepancies.get(2).getAccountNumber());
+        verify(transactionService, atLeast(3)).getLedgerBalances(any(), any());
+    }
+
+    @Test
+    void verifyLedger_ShouldReportLedgerRowsOutsideTheAccountNumberRange() {
+        // Given
+        when(accountRepository.findLowestAccountNumber()).thenReturn(Optional.of("0600140000002"));
+        when(accountRepository.findHighestAccountNumber()).thenReturn(Optional.of("0600140000003"));
+        List<AccountBalanceView> balances = List.of(balance("0600140000002", "1.00"), balance("0600140000003", "2.00"));
+        List<LedgerBalance> ledger = List.of(
+                new LedgerBalance("0600140000001", Money.ofMinor(500), 1),
+                new LedgerBalance("0600140000002", Money.ofMinor(100), 1),
+                new LedgerBalance("0600140000003", Money.ofMinor(200), 1),
+                new LedgerBalance("0600140000009", Money.ofMinor(900), 1));
+        when(accountRepository.findBalancesInRange(anyString(), anyString())).thenAnswer(invocation -> balances.stream()
+                .filter(view -> inRange(view.getAccountNumber(), invocation.getArgument(0), invocation.getArgument(1))).toList());
+        when(transactionService.getLedgerBalances(any(), any())).thenAnswer(invocation -> ledger.stream()
+                .filter(sum -> inRange(sum.getAccountId(), invocation.getArgument(0), invocation.getArgument(1))).toList());
+
+        // When
+        LedgerVerificationReport report = ledgerVerificationService.verifyLedger();
+
+        // Then
+        assertEquals(List.of("0600140000001", "0600140000009"), report.getDiscrepancies().stream()
+                .filter(discrepancy -> discrepancy.getDiscrepancyType() == DiscrepancyType.UNKNOWN_ACCOUNT)
+                .map(LedgerDiscrepancy::getAccountNumber).sorted().toList());
+        assertEquals(2, report.getDiscrepancies().size());
+    }
+
+    @Test
+    void verifyLedger_ShouldDropMismatchThatGoesAwayWhenReadAgain() {
+        // Given
+        when(accountRepository.findLowestAccountNumber()).thenReturn(Optional.of("0600140000001"));
+        when(accountRepository.findHighestAccountNumber()).thenReturn(Optional.of("0600140000001"));
+        when(accountRepository.findBalancesInRange(anyString(), anyString()))
+                .thenReturn(List.of(balance("0600140000001", "80.00")));
+        when(transactionService.getLedgerBalances(any(), any()))
+                .thenReturn(List.of(new LedgerBalance("0600140000001", Money.ofMinor(10000), 2)))
+                .thenReturn(List.of(new LedgerBalance("0600140000001", Money.ofMinor(8000), 3)));
+
+        // When
+        LedgerVerificationReport report = ledgerVerificationService.verifyLedger();
+
+        // Then
+        assertEquals(1, report.getAccountsChecked());
+        assertTrue(report.getDiscrepancies().isEmpty());
+    }
+
+    @Test
+    void verifyLedger_ShouldReportUnstable_WhenAccountKeepsChanging() {
+        // Given
+        when(accountRepository.findLowestAccountNumber()).thenReturn(Optional.of("0600140000001"));
+        when(accountRepository.findHighestAccountNumber()).thenReturn(Optional.of("0600140000001"));
+        when(accountRepository.findBalancesInRange(anyString(), anyString()))
+                .thenReturn(List.of(balance("0600140000001", "80.00")))
+                .thenReturn(List.of(balance("0600140000001", "70.00")))
+                .thenReturn(List.of(balance("0600140000001", "60.00")));
+        when(transactionService.getLedgerBalances(any(), any()))
+                .thenReturn(List.of(new LedgerBalance("0600140000001", Money.ofMinor(10000), 2)));
+
+        // When
+        LedgerVerificationReport report = ledgerVerificationService.verifyLedger();
+
+        // Then
+        assertEquals(1, report.getDiscrepancies().size());
+        assertEquals(DiscrepancyType.UNSTABLE, report.getDiscrepancies().get(0).getDiscrepancyType());
+        verify(transactionService, times(3)).getLedgerBalances(any(), any());
+    }
+
+    @Test
+    void verifyLedger_ShouldReturnEmptyReport_WhenThereAreNoAccounts() {
+        // Given
+        when(accountRepository.findLowestAccountNumber()).thenReturn(Optional.empty());
+        when(accountRepository.findHighestAccountNumber()).thenReturn(Optional.empty());
+
+        // When
+        LedgerVerificationReport report = ledgerVerificationService.verifyLedger();
+
+        // Then
+        assertEquals(0, report.getAccountsChecked());
+        assertTrue(report.getDiscrepancies().isEmpty());
+        verifyNoInteractions(transactionService);
+    }
+
+    private boolean inRange(String accountNumber, String fromAccount, String toAccount) {
+        return (fromAccount == null || accountNumber.compareTo(fromAccount) >= 0)
+                && (toAccount == null || accountNumber.compareTo(toAccount) < 0);
+    }
+
+    private AccountBalanceView balance(String accountNumber, String availableBalance) {
+        return new AccountBalanceView() {
+            @Override
+            public String getAccountNumber() {
+                return accountNumber;
+            }
+
+            @Override
+            public Money getAvailableBalance() {
+                return Money.of(new BigDecimal(availableBalance));
+            }
+
+            @Override
+            public Money getHeldBalance() {
+                return Money.ZERO;
+            }
+        };
+    }
+}
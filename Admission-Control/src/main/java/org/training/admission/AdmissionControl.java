@@ -0,0 +1,135 @@
+package org.training.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits requests by priority against a fixed number of in-flight slots. Critical requests may use every
+ * slot and, when none is free, wait a short while for one; normal and low priority requests never wait and
+ * may only use a share of the slots, so a spike of reads is turned away while there is still room for
+ * the requests that move money.
+ *
+ * <p>The time critical requests wait for a slot is the queueing delay of the service, kept as a moving
+ * average that halves for every second without a critical request. Once it rises above its target, low
+ * priority requests are shed whatever the number of requests in flight, and once it rises above twice its
+ * target, normal priority requests are shed as well. The average is updated without a lock, so concurrent
+ * updates may lose a sample, which only makes it slightly less smooth.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionControl {
+
+    /**
+     * The priority tiers of requests, from the first to be shed to the last.
+     */
+    public enum Priority {
+        LOW, NORMAL, CRITICAL
+    }
+
+    private static final double SMOOTHING = 0.2;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Priority, Counter> shed = new EnumMap<>(Priority.class);
+
+    private Semaphore slots;
+
+    private volatile double queueDelayMillis;
+
+    private volatile long sampledAt = System.nanoTime();
+
+    @Value("${admission.max-in-flight:200}")
+    private int maxInFlight;
+
+    @Value("${admission.normal-share:0.8}")
+    private double normalShare;
+
+    @Value("${admission.low-share:0.5}")
+    private double lowShare;
+
+    @Value("${admission.queue-timeout-ms:200}")
+    private long queueTimeoutMillis;
+
+    @Value("${admission.target-queue-delay-ms:20}")
+    private double targetQueueDelayMillis;
+
+    @PostConstruct
+    public void start() {
+        slots = new Semaphore(maxInFlight, true);
+        for (Priority priority : Priority.values()) {
+            shed.put(priority, Counter.builder("http.admission.shed")
+                    .description("Requests turned away by admission control")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("http.admission.in.flight", this, AdmissionControl::inFlight)
+                .description("Requests admitted and not yet completed")
+                .register(meterRegistry);
+        Gauge.builder("http.admission.queue.delay", this, AdmissionControl::queueDelay)
+                .description("Moving average of the time critical requests wait for a slot, in milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a request, waiting for a slot if it is critical.
+     *
+     * @param priority the priority of the request
+     * @return true if the request was admitted and must be completed with {@link #complete()}, false if it is shed
+     */
+    public boolean admit(Priority priority) {
+
+        boolean admitted = switch (priority) {
+            case LOW -> queueDelay() <= targetQueueDelayMillis && inFlight() < maxInFlight * lowShare && slots.tryAcquire();
+            case NORMAL -> queueDelay() <= 2 * targetQueueDelayMillis && inFlight() < maxInFlight * normalShare && slots.tryAcquire();
+            case CRITICAL -> acquireCritical();
+        };
+        if (!admitted) {
+            shed.get(priority).increment();
+        }
+        return admitted;
+    }
+
+    /**
+     * Frees the slot of an admitted request.
+     */
+    public void complete() {
+        slots.release();
+    }
+
+    private boolean acquireCritical() {
+        long started = System.nanoTime();
+        boolean acquired = slots.tryAcquire();
+        if (!acquired) {
+            try {
+                acquired = slots.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        long now = System.nanoTime();
+        double waitedMillis = (now - started) / 1_000_000.0;
+        double previous = queueDelay();
+        queueDelayMillis = previous + SMOOTHING * (waitedMillis - previous);
+        sampledAt = now;
+        return acquired;
+    }
+
+    private double queueDelay() {
+        double idleSeconds = (System.nanoTime() - sampledAt) / 1_000_000_000.0;
+        return queueDelayMillis * Math.pow(0.5, idleSeconds);
+    }
+
+    private int inFlight() {
+        return maxInFlight - slots.availablePermits();
+    }
+}
@@ -0,0 +1,17 @@
+package org.training.admission;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Registers the admission control and its filter in every servlet service that has this module on its
+ * class path, unless admission.enabled is set to false.
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+@Import({AdmissionControl.class, AdmissionControlFilter.class})
+public class AdmissionControlAutoConfiguration {
+}
@@ -0,0 +1,157 @@
+package org.training.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Puts every request through {@link AdmissionControl} before it reaches a controller, and answers a shed
+ * request with 503, a Retry-After header and the error body of the services. Requests are classified by rules of the form
+ * "METHOD /path/pattern", optionally followed by "?name=value" to match a request parameter, tried in the
+ * order low then normal priority; a request matching no rule is critical. Actuator endpoints are never shed.
+ *
+ * <p>The slot of a request handled asynchronously is held until the response completes, not until the
+ * request thread is given back.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdmissionControl admissionControl;
+    private final ObjectMapper objectMapper;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final List<Rule> lowPriority = new ArrayList<>();
+    private final List<Rule> normalPriority = new ArrayList<>();
+
+    @Value("${admission.low-priority:}")
+    private List<String> lowPriorityRules;
+
+    @Value("${admission.normal-priority:}")
+    private List<String> normalPriorityRules;
+
+    @Value("${admission.retry-after-seconds:1}")
+    private String retryAfterSeconds;
+
+    @PostConstruct
+    public void start() {
+        lowPriorityRules.stream().filter(rule -> !rule.isBlank()).map(Rule::parse).forEach(lowPriority::add);
+        normalPriorityRules.stream().filter(rule -> !rule.isBlank()).map(Rule::parse).forEach(normalPriority::add);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        AdmissionControl.Priority priority = classify(request);
+        if (!admissionControl.admit(priority)) {
+            log.warn("shedding {} priority request {} {}", priority.name().toLowerCase(), request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    new ErrorResponse(String.valueOf(HttpStatus.SERVICE_UNAVAILABLE.value()), "service is overloaded, retry later"));
+            return;
+        }
+        AtomicBoolean completed = new AtomicBoolean();
+        Runnable complete = () -> {
+            if (completed.compareAndSet(false, true)) {
+                admissionControl.complete();
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(complete));
+            } else {
+                complete.run();
+            }
+        }
+    }
+
+    private AdmissionControl.Priority classify(HttpServletRequest request) {
+        if (lowPriority.stream().anyMatch(rule -> rule.matches(request, pathMatcher))) {
+            return AdmissionControl.Priority.LOW;
+        }
+        if (normalPriority.stream().anyMatch(rule -> rule.matches(request, pathMatcher))) {
+            return AdmissionControl.Priority.NORMAL;
+        }
+        return AdmissionControl.Priority.CRITICAL;
+    }
+
+    private record Rule(String method, String pattern, String parameter, String value) {
+
+        private static Rule parse(String rule) {
+            String[] parts = rule.trim().split("\\s+", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("admission rule '" + rule + "' must be METHOD /path");
+            }
+            String path = parts[1];
+            int query = path.indexOf('?');
+            if (query < 0) {
+                return new Rule(parts[0], path, null, null);
+            }
+            String[] parameter = path.substring(query + 1).split("=", 2);
+            return new Rule(parts[0], path.substring(0, query), parameter[0], parameter.length == 2 ? parameter[1] : "");
+        }
+
+        private boolean matches(HttpServletRequest request, AntPathMatcher pathMatcher) {
+            return method.equalsIgnoreCase(request.getMethod())
+                    && pathMatcher.match(pattern, request.getRequestURI())
+                    && (parameter == null || value.equals(request.getParameter(parameter)));
+        }
+    }
+
+    private record ErrorResponse(String errorCode, String message) {
+    }
+
+    private record CompletionListener(Runnable complete) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            complete.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            complete.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            complete.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
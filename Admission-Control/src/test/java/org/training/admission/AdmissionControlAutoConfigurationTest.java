@@ -0,0 +1,34 @@
+package org.training.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlAutoConfigurationTest {
+
+    private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(AdmissionControlAutoConfiguration.class))
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withBean(ObjectMapper.class, ObjectMapper::new);
+
+    @Test
+    void autoConfiguration_ShouldRegisterAdmissionControlAndFilter() {
+        contextRunner.run(context -> {
+            assertThat(context).hasSingleBean(AdmissionControl.class);
+            assertThat(context).hasSingleBean(AdmissionControlFilter.class);
+        });
+    }
+
+    @Test
+    void autoConfiguration_ShouldRegisterNothing_WhenDisabled() {
+        contextRunner.withPropertyValues("admission.enabled=false").run(context -> {
+            assertThat(context).doesNotHaveBean(AdmissionControl.class);
+            assertThat(context).doesNotHaveBean(AdmissionControlFilter.class);
+        });
+    }
+}
@@ -0,0 +1,149 @@
+package org.training.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlFilterTest {
+
+    @Mock
+    private AdmissionControl admissionControl;
+
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new AdmissionControlFilter(admissionControl, new ObjectMapper());
+        ReflectionTestUtils.setField(filter, "lowPriorityRules", List.of("GET /transactions", "POST /fund-transfers?dryRun=true"));
+        ReflectionTestUtils.setField(filter, "normalPriorityRules", List.of("GET /**", "POST /fund-transfers/bulk"));
+        ReflectionTestUtils.setField(filter, "retryAfterSeconds", "1");
+        filter.start();
+    }
+
+    @Test
+    void doFilter_ShouldClassifyRequestsByFirstMatchingTier() throws Exception {
+        // Given
+        when(admissionControl.admit(any())).thenReturn(true);
+
+        // When
+        filter.doFilter(request("GET", "/transactions"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(dryRun(), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(request("GET", "/transactions/42"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(request("POST", "/fund-transfers/bulk"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(request("POST", "/fund-transfers"), new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        verify(admissionControl, times(2)).admit(AdmissionControl.Priority.LOW);
+        verify(admissionControl, times(2)).admit(AdmissionControl.Priority.NORMAL);
+        verify(admissionControl).admit(AdmissionControl.Priority.CRITICAL);
+        verify(admissionControl, times(5)).complete();
+    }
+
+    @Test
+    void doFilter_ShouldAnswer503WithRetryAfter_AndSkipChain_WhenShed() throws Exception {
+        // Given
+        when(admissionControl.admit(AdmissionControl.Priority.LOW)).thenReturn(false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        // When
+        filter.doFilter(request("GET", "/transactions"), response, chain);
+
+        // Then
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertEquals("{\"errorCode\":\"503\",\"message\":\"service is overloaded, retry later\"}", response.getContentAsString());
+        verifyNoInteractions(chain);
+        verify(admissionControl, never()).complete();
+    }
+
+    @Test
+    void doFilter_ShouldNotFilterActuatorEndpoints() throws Exception {
+        // When
+        filter.doFilter(request("GET", "/actuator/health"), new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        verifyNoInteractions(admissionControl);
+    }
+
+    @Test
+    void doFilter_ShouldFreeSlot_WhenChainThrows() {
+        // Given
+        when(admissionControl.admit(AdmissionControl.Priority.CRITICAL)).thenReturn(true);
+        FilterChain chain = (request, response) -> {
+            throw new IllegalStateException("controller failed");
+        };
+
+        // When
+        assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(request("POST", "/fund-transfers"), new MockHttpServletResponse(), chain));
+
+        // Then
+        verify(admissionControl).complete();
+    }
+
+    @Test
+    void doFilter_ShouldHoldSlotOfAsyncRequest_UntilResponseCompletes() throws Exception {
+        // Given
+        when(admissionControl.admit(AdmissionControl.Priority.CRITICAL)).thenReturn(true);
+        MockHttpServletRequest request = request("POST", "/fund-transfers/reactive");
+        request.setAsyncSupported(true);
+        FilterChain chain = (servletRequest, servletResponse) -> servletRequest.startAsync();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Then
+        verify(admissionControl, never()).complete();
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        verify(admissionControl).complete();
+    }
+
+    @Test
+    void doFilter_ShouldFreeSlotOfAsyncRequestOnce_WhenItTimesOutAndThenCompletes() throws Exception {
+        // Given
+        when(admissionControl.admit(AdmissionControl.Priority.CRITICAL)).thenReturn(true);
+        MockHttpServletRequest request = request("POST", "/fund-transfers/reactive");
+        request.setAsyncSupported(true);
+        FilterChain chain = (servletRequest, servletResponse) -> servletRequest.startAsync();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+
+        // When
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        asyncContext.complete();
+
+        // Then
+        verify(admissionControl, times(1)).complete();
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+
+    private static MockHttpServletRequest dryRun() {
+        MockHttpServletRequest request = request("POST", "/fund-transfers");
+        request.setParameter("dryRun", "true");
+        return request;
+    }
+}
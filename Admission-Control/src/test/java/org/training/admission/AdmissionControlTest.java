@@ -0,0 +1,169 @@
+package org.training.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AdmissionControl admissionControl;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        admissionControl = new AdmissionControl(meterRegistry);
+        ReflectionTestUtils.setField(admissionControl, "maxInFlight", 10);
+        ReflectionTestUtils.setField(admissionControl, "normalShare", 0.8);
+        ReflectionTestUtils.setField(admissionControl, "lowShare", 0.5);
+        ReflectionTestUtils.setField(admissionControl, "queueTimeoutMillis", 50L);
+        ReflectionTestUtils.setField(admissionControl, "targetQueueDelayMillis", 20.0);
+        admissionControl.start();
+    }
+
+    @Test
+    void admit_ShouldShedLowPriority_WhenItsShareOfSlotsIsInUse() {
+        // Given
+        admitAll(AdmissionControl.Priority.CRITICAL, 5);
+
+        // When
+        boolean admitted = admissionControl.admit(AdmissionControl.Priority.LOW);
+
+        // Then
+        assertFalse(admitted);
+        assertEquals(1.0, shed(AdmissionControl.Priority.LOW));
+    }
+
+    @Test
+    void admit_ShouldAdmitNormalPriority_UntilItsShareOfSlotsIsInUse() {
+        // Given
+        admitAll(AdmissionControl.Priority.CRITICAL, 5);
+
+        // When
+        boolean third = admitAll(AdmissionControl.Priority.NORMAL, 3);
+        boolean fourth = admissionControl.admit(AdmissionControl.Priority.NORMAL);
+
+        // Then
+        assertTrue(third);
+        assertFalse(fourth);
+        assertEquals(1.0, shed(AdmissionControl.Priority.NORMAL));
+    }
+
+    @Test
+    void admit_ShouldLetCriticalUseEverySlot_AndShedItOnlyAfterWaiting() {
+        // Given
+        assertTrue(admitAll(AdmissionControl.Priority.CRITICAL, 10));
+        long started = System.nanoTime();
+
+        // When
+        boolean admitted = admissionControl.admit(AdmissionControl.Priority.CRITICAL);
+
+        // Then
+        assertFalse(admitted);
+        assertTrue(System.nanoTime() - started >= 50_000_000L);
+        assertEquals(1.0, shed(AdmissionControl.Priority.CRITICAL));
+    }
+
+    @Test
+    void admit_ShouldGiveSlotToWaitingCritical_WhenAnotherCompletes() throws InterruptedException {
+        // Given
+        ReflectionTestUtils.setField(admissionControl, "queueTimeoutMillis", 5_000L);
+        admitAll(AdmissionControl.Priority.CRITICAL, 10);
+        Thread completer = new Thread(() -> {
+            sleep(20);
+            admissionControl.complete();
+        });
+        completer.start();
+
+        // When
+        boolean admitted = admissionControl.admit(AdmissionControl.Priority.CRITICAL);
+
+        // Then
+        completer.join();
+        assertTrue(admitted);
+    }
+
+    @Test
+    void admit_ShouldShedLowButNotNormal_WhenQueueDelayIsAboveTarget() {
+        // Given
+        queueDelay(30.0);
+
+        // When
+        boolean low = admissionControl.admit(AdmissionControl.Priority.LOW);
+        boolean normal = admissionControl.admit(AdmissionControl.Priority.NORMAL);
+
+        // Then
+        assertFalse(low);
+        assertTrue(normal);
+    }
+
+    @Test
+    void admit_ShouldShedNormal_WhenQueueDelayIsAboveTwiceTarget() {
+        // Given
+        queueDelay(50.0);
+
+        // When
+        boolean normal = admissionControl.admit(AdmissionControl.Priority.NORMAL);
+        boolean critical = admissionControl.admit(AdmissionControl.Priority.CRITICAL);
+
+        // Then
+        assertFalse(normal);
+        assertTrue(critical);
+    }
+
+    @Test
+    void admit_ShouldAdmitLowAgain_OnceQueueDelayHasDecayed() {
+        // Given
+        ReflectionTestUtils.setField(admissionControl, "queueDelayMillis", 30.0);
+        ReflectionTestUtils.setField(admissionControl, "sampledAt", System.nanoTime() - 2_000_000_000L);
+
+        // When
+        boolean admitted = admissionControl.admit(AdmissionControl.Priority.LOW);
+
+        // Then
+        assertTrue(admitted);
+    }
+
+    @Test
+    void complete_ShouldFreeSlotForLowPriority() {
+        // Given
+        admitAll(AdmissionControl.Priority.CRITICAL, 5);
+        assertFalse(admissionControl.admit(AdmissionControl.Priority.LOW));
+
+        // When
+        admissionControl.complete();
+
+        // Then
+        assertTrue(admissionControl.admit(AdmissionControl.Priority.LOW));
+        assertEquals(5.0, meterRegistry.get("http.admission.in.flight").gauge().value());
+    }
+
+    private boolean admitAll(AdmissionControl.Priority priority, int requests) {
+        boolean admitted = true;
+        for (int request = 0; request < requests; request++) {
+            admitted = admissionControl.admit(priority);
+        }
+        return admitted;
+    }
+
+    private void queueDelay(double millis) {
+        ReflectionTestUtils.setField(admissionControl, "queueDelayMillis", millis);
+        ReflectionTestUtils.setField(admissionControl, "sampledAt", System.nanoTime());
+    }
+
+    private double shed(AdmissionControl.Priority priority) {
+        return meterRegistry.get("http.admission.shed").tag("priority", priority.name().toLowerCase()).counter().count();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.training.common.configuration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Aligns the increment of the ID sequences of a service with the allocation size of their entities. The
+ * IDs are drawn from the sequences that used to back the identity columns, so the IDs of existing rows are
+ * never handed out again; those sequences were created with an increment of 1, and Hibernate takes every
+ * value it reads as the end of a block of allocation-size IDs, so they are widened before the first insert.
+ * On a new database Hibernate creates the sequences with the right increment and this changes nothing.
+ */
+@Slf4j
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class IdSequences {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${id-sequences.names}")
+    private String[] sequences;
+
+    @Value("${id-sequences.allocation-size:50}")
+    private int allocationSize;
+
+    @PostConstruct
+    public void align() {
+        for (String sequence : sequences) {
+            try {
+                jdbcTemplate.execute("alter sequence " + sequence + " increment by " + allocationSize);
+            } catch (DataAccessException exception) {
+                log.warn("increment of sequence {} could not be set to {}", sequence, allocationSize, exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.training.common.configuration;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Registers the {@link IdSequences} in every service that lists its ID sequences in id-sequences.names.
+ */
+@AutoConfiguration(after = {HibernateJpaAutoConfiguration.class, JdbcTemplateAutoConfiguration.class})
+@ConditionalOnProperty(name = "id-sequences.names")
+@Import(IdSequences.class)
+public class IdSequencesAutoConfiguration {
+}
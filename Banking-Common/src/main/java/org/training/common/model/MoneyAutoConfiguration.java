@@ -0,0 +1,15 @@
+package org.training.common.model;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+
+/**
+ * Adds this package to the packages JPA scans in every service that has this module on its class path, so
+ * that the {@link MoneyConverter} is applied to their {@link Money} attributes. It runs before the JPA
+ * auto-configuration, whose repository scanning reads the list of packages once.
+ */
+@AutoConfiguration(before = HibernateJpaAutoConfiguration.class)
+@AutoConfigurationPackage
+public class MoneyAutoConfiguration {
+}
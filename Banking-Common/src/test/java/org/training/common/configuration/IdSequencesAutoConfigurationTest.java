@@ -0,0 +1,51 @@
+package org.training.common.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class IdSequencesAutoConfigurationTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(IdSequencesAutoConfiguration.class))
+            .withBean(JdbcTemplate.class, () -> jdbcTemplate)
+            .withBean("entityManagerFactory", Object.class, Object::new);
+
+    @Test
+    void autoConfiguration_ShouldWidenEveryConfiguredSequence() {
+        contextRunner.withPropertyValues("id-sequences.names=account_account_id_seq, fund_hold_id_seq", "id-sequences.allocation-size=25")
+                .run(context -> {
+                    assertNotNull(context.getBean(IdSequences.class));
+                    verify(jdbcTemplate).execute("alter sequence account_account_id_seq increment by 25");
+                    verify(jdbcTemplate).execute("alter sequence fund_hold_id_seq increment by 25");
+                });
+    }
+
+    @Test
+    void autoConfiguration_ShouldWidenRemainingSequences_WhenOneCannotBeAltered() {
+        doThrow(new DataAccessResourceFailureException("sequence does not exist"))
+                .when(jdbcTemplate).execute("alter sequence missing_seq increment by 50");
+
+        contextRunner.withPropertyValues("id-sequences.names=missing_seq,transaction_transaction_id_seq")
+                .run(context -> {
+                    assertNull(context.getStartupFailure());
+                    verify(jdbcTemplate).execute("alter sequence transaction_transaction_id_seq increment by 50");
+                });
+    }
+
+    @Test
+    void autoConfiguration_ShouldBackOff_WhenNoSequencesAreConfigured() {
+        contextRunner.run(context -> {
+            assertTrue(context.getBeansOfType(IdSequences.class).isEmpty());
+            verify(jdbcTemplate, never()).execute(anyString());
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package org.training.common.jpa;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.training.common.model.Money;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Persists an entity of a package other than this module's, the way a service does, and checks that its
+ * {@link Money} attribute is stored through the converter rather than serialized.
+ */
+@DataJpaTest
+class MoneyConverterJpaTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void persist_ShouldStoreMoneyInNumericColumn() {
+        // Given
+        Wallet wallet = new Wallet();
+        wallet.setBalance(Money.ofMinor(12345));
+
+        // When
+        entityManager.persist(wallet);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then
+        Object stored = entityManager.createNativeQuery("select balance from wallet").getSingleResult();
+        assertEquals(new BigDecimal("123.45"), stored);
+        assertEquals(Money.ofMinor(12345), entityManager.find(Wallet.class, wallet.getId()).getBalance());
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    static class Application {
+    }
+
+    @Entity
+    @Table(name = "wallet")
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    static class Wallet {
+
+        @Id
+        @GeneratedValue
+        private Long id;
+
+        private Money balance;
+    }
+}
@@ -0,0 +1,37 @@
+package org.training.common.model;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyAutoConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(MoneyAutoConfiguration.class));
+
+    @Test
+    void autoConfiguration_ShouldAddMoneyPackageToScannedPackages() {
+        contextRunner.run(context -> assertTrue(AutoConfigurationPackages.get(context.getBeanFactory())
+                .contains(MoneyConverter.class.getPackageName())));
+    }
+
+    @Test
+    void converter_ShouldStoreMoneyAsDecimalWithTwoPlaces() {
+        // Given
+        MoneyConverter converter = new MoneyConverter();
+
+        // When
+        BigDecimal column = converter.convertToDatabaseColumn(Money.ofMinor(-12345));
+
+        // Then
+        assertEquals(new BigDecimal("-123.45"), column);
+        assertEquals(Money.ofMinor(-12345), converter.convertToEntityAttribute(column));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
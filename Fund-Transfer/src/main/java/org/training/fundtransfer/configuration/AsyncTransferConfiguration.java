@@ -0,0 +1,41 @@
+package org.training.fundtransfer.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.time.Duration;
+
+@Configuration
+public class AsyncTransferConfiguration {
+
+    /**
+     * Returns the client used to notify callers at their callback URL once an asynchronous transfer completes.
+     * Redirects are not followed, so a callback only ever reaches the host that was checked.
+     *
+     * @param builder       the rest template builder
+     * @param timeoutMillis the connect and read timeout of a callback
+     * @return the callback rest template
+     */
+    @Bean
+    public RestTemplate callbackRestTemplate(RestTemplateBuilder builder,
+                                             @Value("${fund-transfer.async.callback-timeout-ms:2000}") long timeoutMillis) {
+
+        return builder
+                .requestFactory(() -> new SimpleClientHttpRequestFactory() {
+                    @Override
+                    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+                        super.prepareConnection(connection, httpMethod);
+                        connection.setInstanceFollowRedirects(false);
+                    }
+                })
+                .setConnectTimeout(Duration.ofMillis(timeoutMillis))
+                .setReadTimeout(Duration.ofMillis(timeoutMillis))
+                .build();
+    }
+}
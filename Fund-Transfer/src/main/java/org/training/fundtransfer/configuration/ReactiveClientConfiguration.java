@@ -0,0 +1,40 @@
+package org.training.fundtransfer.configuration;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+public class ReactiveClientConfiguration {
+
+    /**
+     * Returns the builder of the non-blocking clients of the other services, resolving service names through
+     * the load balancer. Their calls share one pool of connections, and a call waiting for a connection
+     * holds no thread.
+     *
+     * @param maxConnections      the largest number of open connections
+     * @param connectTimeoutMillis the connect timeout of a call
+     * @return the web client builder
+     */
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder(@Value("${fund-transfer.reactive.max-connections:500}") int maxConnections,
+                                                          @Value("${fund-transfer.reactive.connect-timeout-ms:2000}") int connectTimeoutMillis) {
+
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("fund-transfer-reactive")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis);
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(new WebClientErrorFilter());
+    }
+}
@@ -0,0 +1,40 @@
+package org.training.fundtransfer.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.training.fundtransfer.exception.ErrorResponse;
+import org.training.fundtransfer.exception.GlobalException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Decodes the error responses of the non-blocking clients as {@link FeignClientErrorDecoder} does for the
+ * Feign clients: a bad request carries the {@link GlobalException} raised by the other service, and any
+ * other error becomes a general exception.
+ */
+@Slf4j
+public class WebClientErrorFilter implements ExchangeFilterFunction {
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+
+        return next.exchange(request).flatMap(response -> {
+            if (response.statusCode() == HttpStatus.BAD_REQUEST) {
+                return response.bodyToMono(ErrorResponse.class)
+                        .defaultIfEmpty(new ErrorResponse())
+                        .flatMap(error -> {
+                            log.error(error.getErrorCode() + " - " + error.getMessage());
+                            return Mono.error(new GlobalException(error.getErrorCode(), error.getMessage()));
+                        });
+            }
+            if (response.statusCode().isError()) {
+                log.error("general exception occurred, {} {} returned {}", request.method(), request.url(), response.rawStatusCode());
+                return response.releaseBody().then(Mono.error(new IllegalStateException("general exception occurred")));
+            }
+            return Mono.just(response);
+        });
+    }
+}
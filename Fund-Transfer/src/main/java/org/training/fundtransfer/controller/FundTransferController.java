@@ -1,14 +1,28 @@
 package org.training.fundtransfer.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.training.fundtransfer.model.AccountLookup;
+import org.training.fundtransfer.model.TransferDirection;
 import org.training.fundtransfer.model.dto.FundTransferDto;
+import org.training.fundtransfer.model.dto.request.BulkFundTransferRequest;
+import org.training.fundtransfer.model.dto.request.FundTransferAuthorisationRequest;
 import org.training.fundtransfer.model.dto.request.FundTransferRequest;
+import org.training.fundtransfer.model.dto.response.BulkFundTransferResponse;
+import org.training.fundtransfer.model.dto.response.DryRunResponse;
 import org.training.fundtransfer.model.dto.response.FundTransferResponse;
+import org.training.fundtransfer.model.dto.response.ReconciliationReport;
+import org.training.fundtransfer.model.dto.response.TransferHistoryResponse;
 import org.training.fundtransfer.service.FundTransferService;
+import reactor.core.publisher.Mono;
 
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -29,6 +43,155 @@ public class FundTransferController {
         return new ResponseEntity<>(fundTransferService.fundTransfer(fundTransferRequest), HttpStatus.CREATED);
     }
 
+    /**
+     * Runs the fund transfer request as a dry run, which checks and times it without moving any money.
+     *
+     * @param fundTransferRequest The fund transfer request object.
+     * @param accountLookup How the accounts are read, BLOCKING or REACTIVE.
+     * @return The response entity containing the time taken by every stage.
+     */
+    @PostMapping(params = "dryRun=true")
+    public ResponseEntity<DryRunResponse> dryRunFundTransfer(@RequestBody FundTransferRequest fundTransferRequest,
+                                                             @RequestParam(defaultValue = "BLOCKING") AccountLookup accountLookup) {
+        return new ResponseEntity<>(fundTransferService.dryRunFundTransfer(fundTransferRequest, accountLookup), HttpStatus.OK);
+    }
+
+    /**
+     * Handles the fund transfer request on the reactive transfer path, which releases the request thread
+     * while the other services are called.
+     *
+     * @param fundTransferRequest The fund transfer request object.
+     * @return A Mono of the response entity containing the fund transfer response.
+     */
+    @PostMapping("/reactive")
+    public Mono<ResponseEntity<FundTransferResponse>> reactiveFundTransfer(@RequestBody FundTransferRequest fundTransferRequest) {
+        return fundTransferService.reactiveFundTransfer(fundTransferRequest)
+                .map(response -> new ResponseEntity<>(response, HttpStatus.CREATED));
+    }
+
+    /**
+     * Accepts a fund transfer request for asynchronous processing. The transfer can be followed through
+     * the returned location, or the optional callback URL of the request is notified when it completes.
+     *
+     * @param fundTransferRequest The fund transfer request object.
+     * @return The response entity containing the reference of the accepted transfer.
+     */
+    @PostMapping("/async")
+    public ResponseEntity<FundTransferResponse> submitFundTransfer(@RequestBody FundTransferRequest fundTransferRequest) {
+        FundTransferResponse response = fundTransferService.submitFundTransfer(fundTransferRequest);
+        return ResponseEntity.accepted()
+                .location(URI.create("/fund-transfers/" + response.getTransactionId()))
+                .body(response);
+    }
+
+    /**
+     * Authorises a cheque or external transfer. Its amount is held on the debited account until the
+     * transfer is captured or released through the returned location, or the hold expires.
+     *
+     * @param authorisationRequest The authorisation request object.
+     * @return The response entity containing the reference of the authorised transfer.
+     */
+    @PostMapping("/authorisations")
+    public ResponseEntity<FundTransferResponse> authoriseFundTransfer(@RequestBody FundTransferAuthorisationRequest authorisationRequest) {
+        FundTransferResponse response = fundTransferService.authoriseFundTransfer(authorisationRequest);
+        return ResponseEntity.created(URI.create("/fund-transfers/" + response.getTransactionId()))
+                .body(response);
+    }
+
+    /**
+     * Captures an authorised transfer. The transfer is then completed asynchronously and can be followed
+     * through the returned location.
+     *
+     * @param referenceId the reference ID of the authorised transfer
+     * @return the response entity containing the status of the transfer
+     */
+    @PostMapping("/{referenceId}/capture")
+    public ResponseEntity<FundTransferResponse> captureFundTransfer(@PathVariable String referenceId) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/fund-transfers/" + referenceId))
+                .body(fundTransferService.captureFundTransfer(referenceId));
+    }
+
+    /**
+     * Releases an authorised transfer, returning the held funds to the debited account.
+     *
+     * @param referenceId the reference ID of the authorised transfer
+     * @return the response entity containing the status of the transfer
+     */
+    @PostMapping("/{referenceId}/release")
+    public ResponseEntity<FundTransferResponse> releaseFundTransfer(@PathVariable String referenceId) {
+        return new ResponseEntity<>(fundTransferService.releaseFundTransfer(referenceId), HttpStatus.OK);
+    }
+
+    /**
+     * Handles a bulk fund transfer request, such as a salary run.
+     *
+     * @param bulkFundTransferRequest The transfers of the batch.
+     * @return The response entity containing the batch reference and the outcome of every transfer.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkFundTransferResponse> bulkFundTransfer(@RequestBody BulkFundTransferRequest bulkFundTransferRequest) {
+        return new ResponseEntity<>(fundTransferService.bulkFundTransfer(bulkFundTransferRequest), HttpStatus.CREATED);
+    }
+
+    /**
+     * Handles a bulk fund transfer uploaded as a CSV file of fromAccount,toAccount,amount lines. The file
+     * is read from the request body as it arrives.
+     *
+     * @param file The request body.
+     * @return The response entity containing the batch reference and the outcome of every transfer.
+     */
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<BulkFundTransferResponse> bulkFundTransferFromFile(InputStream file) {
+        return new ResponseEntity<>(fundTransferService.bulkFundTransfer(file), HttpStatus.CREATED);
+    }
+
+    /**
+     * Retrieves the transfers of a bulk transfer.
+     *
+     * @param batchReference the reference of the batch
+     * @return the transfers of the batch
+     */
+    @GetMapping("/bulk/{batchReference}")
+    public ResponseEntity<List<FundTransferDto>> getTransfersByBatchReference(@PathVariable String batchReference) {
+        return new ResponseEntity<>(fundTransferService.getTransfersByBatchReference(batchReference), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves a page of the transfer history of an account, newest first, covering the transfers it sent,
+     * received or both.
+     *
+     * @param accountId the ID of the account
+     * @param direction INCOMING, OUTGOING or BOTH
+     * @param from      the earliest transfer time, inclusive
+     * @param to        the latest transfer time, exclusive
+     * @param cursor    the cursor returned with the previous page
+     * @param size      the maximum number of transfers on the page
+     * @return the page of transfers and the cursor of the next page
+     */
+    @GetMapping("/history")
+    public ResponseEntity<TransferHistoryResponse> getTransferHistory(@RequestParam String accountId,
+                                                                      @RequestParam(defaultValue = "BOTH") TransferDirection direction,
+                                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(defaultValue = "50") int size) {
+        return new ResponseEntity<>(fundTransferService.getTransferHistory(accountId, direction, from, to, cursor, size), HttpStatus.OK);
+    }
+
+    /**
+     * Reconciles the fund transfers made in a time range against the ledger, on demand.
+     *
+     * @param from the earliest transfer time, inclusive
+     * @param to   the latest transfer time, exclusive
+     * @return the report of the reconciliation
+     */
+    @PostMapping("/reconciliation")
+    public ResponseEntity<ReconciliationReport> reconcile(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return new ResponseEntity<>(fundTransferService.reconcile(from, to), HttpStatus.OK);
+    }
+
     /**
      * Retrieves the transfer details from the given reference ID.
      *
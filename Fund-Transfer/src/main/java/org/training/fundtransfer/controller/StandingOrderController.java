@@ -0,0 +1,64 @@
+package org.training.fundtransfer.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.training.fundtransfer.model.dto.StandingOrderDto;
+import org.training.fundtransfer.model.dto.request.StandingOrderRequest;
+import org.training.fundtransfer.model.dto.response.Response;
+import org.training.fundtransfer.service.StandingOrderService;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/standing-orders")
+public class StandingOrderController {
+
+    private final StandingOrderService standingOrderService;
+
+    /**
+     * Creates a standing order for a future-dated or recurring transfer.
+     *
+     * @param standingOrderRequest The standing order request object.
+     * @return The response entity containing the created standing order.
+     */
+    @PostMapping
+    public ResponseEntity<StandingOrderDto> createStandingOrder(@RequestBody StandingOrderRequest standingOrderRequest) {
+        return new ResponseEntity<>(standingOrderService.createStandingOrder(standingOrderRequest), HttpStatus.CREATED);
+    }
+
+    /**
+     * Retrieves a standing order by its reference.
+     *
+     * @param standingOrderReference the reference of the standing order
+     * @return the standing order
+     */
+    @GetMapping("/{standingOrderReference}")
+    public ResponseEntity<StandingOrderDto> getStandingOrder(@PathVariable String standingOrderReference) {
+        return new ResponseEntity<>(standingOrderService.getStandingOrder(standingOrderReference), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the standing orders debiting an account.
+     *
+     * @param accountId the ID of the account
+     * @return the standing orders of the account
+     */
+    @GetMapping
+    public ResponseEntity<List<StandingOrderDto>> getStandingOrdersByAccountId(@RequestParam String accountId) {
+        return new ResponseEntity<>(standingOrderService.getStandingOrdersByAccountId(accountId), HttpStatus.OK);
+    }
+
+    /**
+     * Cancels a standing order.
+     *
+     * @param standingOrderReference the reference of the standing order
+     * @return the response of the cancellation
+     */
+    @DeleteMapping("/{standingOrderReference}")
+    public ResponseEntity<Response> cancelStandingOrder(@PathVariable String standingOrderReference) {
+        return new ResponseEntity<>(standingOrderService.cancelStandingOrder(standingOrderReference), HttpStatus.OK);
+    }
+}
@@ -2,6 +2,8 @@ package org.training.fundtransfer.exception;
 
 public class GlobalErrorCode {
 
+    public static final String BAD_REQUEST = "400";
     public static final String NOT_FOUND = "404";
     public static final String NOT_ACCEPTABLE = "406";
+    public static final String SERVICE_UNAVAILABLE = "503";
 }
@@ -16,6 +16,9 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     @Value("${spring.application.bad_request}")
     private String badRequest;
 
+    @Value("${fund-transfer.lanes.retry-after-seconds:1}")
+    private String retryAfterSeconds;
+
     /**
      * Handles the method argument validation exception.
      *
@@ -47,4 +50,22 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                         .message(globalException.getMessage())
                         .build());
     }
-}
+
+    /**
+     * Handles a transfer turned away because its transfer lane is saturated, telling the client to retry later.
+     *
+     * @param transferRejected the TransferRejected exception to be handled
+     * @return a ResponseEntity object representing the error response with HttpStatus.SERVICE_UNAVAILABLE
+     */
+    @ExceptionHandler(TransferRejected.class)
+    public ResponseEntity<Object> handleTransferRejected(TransferRejected transferRejected) {
+
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                .body(ErrorResponse.builder()
+                        .errorCode(transferRejected.getErrorCode())
+                        .message(transferRejected.getMessage())
+                        .build());
+    }
+}
\ No newline at end of file
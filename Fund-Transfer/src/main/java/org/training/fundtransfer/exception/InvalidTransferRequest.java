@@ -0,0 +1,7 @@
+package org.training.fundtransfer.exception;
+
+public class InvalidTransferRequest extends GlobalException {
+    public InvalidTransferRequest(String errorCode, String message) {
+        super(errorCode, message);
+    }
+}
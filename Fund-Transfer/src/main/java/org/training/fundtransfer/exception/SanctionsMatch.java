@@ -0,0 +1,7 @@
+package org.training.fundtransfer.exception;
+
+public class SanctionsMatch extends GlobalException {
+    public SanctionsMatch(String errorCode, String message) {
+        super(errorCode, message);
+    }
+}
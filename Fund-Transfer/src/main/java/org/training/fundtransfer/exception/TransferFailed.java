@@ -0,0 +1,7 @@
+package org.training.fundtransfer.exception;
+
+public class TransferFailed extends GlobalException {
+    public TransferFailed(String errorCode, String message) {
+        super(errorCode, message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.training.fundtransfer.exception;
+
+public class TransferLimitExceeded extends GlobalException {
+    public TransferLimitExceeded(String errorCode, String message) {
+        super(errorCode, message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.training.fundtransfer.exception;
+
+public class TransferRejected extends GlobalException {
+    public TransferRejected(String errorCode, String message) {
+        super(errorCode, message);
+    }
+}
@@ -3,13 +3,20 @@ package org.training.fundtransfer.external;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.training.fundtransfer.configuration.FeignClientConfiguration;
 import org.training.fundtransfer.model.dto.Account;
+import org.training.fundtransfer.model.dto.BalanceUpdate;
+import org.training.fundtransfer.model.dto.Hold;
 import org.training.fundtransfer.model.dto.response.Response;
 
+import java.util.List;
+
 @FeignClient(name = "account-service", configuration = FeignClientConfiguration.class)
 public interface AccountService {
 
@@ -31,4 +38,80 @@ public interface AccountService {
      */
     @PutMapping("/accounts")
     ResponseEntity<Response> updateAccount(@RequestParam String accountNumber, @RequestBody Account account);
+
+    /**
+     * Adds a signed amount to the balance of an account.
+     *
+     * @param balanceUpdate The account number and the amount to add, negative for a debit.
+     * @return The response entity containing the response.
+     */
+    @PatchMapping("/accounts/balance")
+    ResponseEntity<Response> updateBalance(@RequestBody BalanceUpdate balanceUpdate);
+
+    /**
+     * Retrieves the number, status and balance of many accounts at once.
+     *
+     * @param accountNumbers The account numbers to look up.
+     * @return The accounts that exist; unknown account numbers are left out.
+     */
+    @PostMapping("/accounts/lookup")
+    ResponseEntity<List<Account>> readByAccountNumbers(@RequestBody List<String> accountNumbers);
+
+    /**
+     * Applies a set of balance updates atomically, netted per account.
+     *
+     * @param balanceUpdates The account numbers and the signed amounts to apply.
+     * @return The response entity containing the response.
+     */
+    @PatchMapping("/accounts/balance/bulk")
+    ResponseEntity<Response> updateBalances(@RequestBody List<BalanceUpdate> balanceUpdates);
+
+    /**
+     * Places a hold on the available balance of an account. Placing a hold again under the same reference
+     * returns the hold already placed.
+     *
+     * @param hold The reference, account, amount and optional expiry of the hold.
+     * @return The response entity containing the placed hold.
+     */
+    @PostMapping("/accounts/holds")
+    ResponseEntity<Hold> placeHold(@RequestBody Hold hold);
+
+    /**
+     * Retrieves a hold by its reference.
+     *
+     * @param holdReference The reference of the hold.
+     * @return The response entity containing the hold.
+     */
+    @GetMapping("/accounts/holds/{holdReference}")
+    ResponseEntity<Hold> readHold(@PathVariable("holdReference") String holdReference);
+
+    /**
+     * Captures the whole amount of a hold. Capturing a captured hold returns it unchanged.
+     *
+     * @param holdReference The reference of the hold.
+     * @return The response entity containing the captured hold.
+     */
+    @PostMapping("/accounts/holds/{holdReference}/capture")
+    ResponseEntity<Hold> captureHold(@PathVariable("holdReference") String holdReference);
+
+    /**
+     * Releases a hold, returning the held amount to the account. Releasing a released hold returns it
+     * unchanged.
+     *
+     * @param holdReference The reference of the hold.
+     * @return The response entity containing the released hold.
+     */
+    @PostMapping("/accounts/holds/{holdReference}/release")
+    ResponseEntity<Hold> releaseHold(@PathVariable("holdReference") String holdReference);
+
+    /**
+     * Retrieves a page of account numbers in ascending order.
+     *
+     * @param after The account number to start after, or null to start from the first one.
+     * @param size The largest number of account numbers to return.
+     * @return The response entity containing the account numbers.
+     */
+    @GetMapping("/accounts/numbers")
+    ResponseEntity<List<String>> readAccountNumbers(@RequestParam(value = "after", required = false) String after,
+                                                    @RequestParam("size") int size);
 }
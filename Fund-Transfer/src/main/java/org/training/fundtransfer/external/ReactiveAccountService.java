@@ -0,0 +1,62 @@
+package org.training.fundtransfer.external;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.training.fundtransfer.model.dto.Account;
+import org.training.fundtransfer.model.dto.BalanceUpdate;
+import org.training.fundtransfer.model.dto.Hold;
+import reactor.core.publisher.Mono;
+
+/**
+ * The non-blocking client of Account-Service, for the calls of the reactive transfer path. Errors are
+ * decoded as they are for {@link AccountService}.
+ */
+@Component
+public class ReactiveAccountService {
+
+    private final WebClient webClient;
+
+    public ReactiveAccountService(WebClient.Builder loadBalancedWebClientBuilder) {
+        this.webClient = loadBalancedWebClientBuilder.clone().baseUrl("http://account-service").build();
+    }
+
+    /**
+     * Retrieves an account by account number.
+     *
+     * @param accountNumber The account number to search for.
+     * @return The account matching the account number, or empty if the response has no body.
+     */
+    public Mono<Account> readByAccountNumber(String accountNumber) {
+        return webClient.get()
+                .uri(uri -> uri.path("/accounts").queryParam("accountNumber", accountNumber).build())
+                .retrieve()
+                .bodyToMono(Account.class);
+    }
+
+    /**
+     * Adds a signed amount to the balance of an account.
+     *
+     * @param balanceUpdate The account number and the amount to add, negative for a debit.
+     * @return A Mono completing once the balance has been updated.
+     */
+    public Mono<Void> updateBalance(BalanceUpdate balanceUpdate) {
+        return webClient.patch()
+                .uri("/accounts/balance")
+                .bodyValue(balanceUpdate)
+                .retrieve()
+                .bodyToMono(Void.class);
+    }
+
+    /**
+     * Captures the whole amount of a hold. Capturing a captured hold returns it unchanged.
+     *
+     * @param holdReference The reference of the hold.
+     * @return The captured hold.
+     */
+    public Mono<Hold> captureHold(String holdReference) {
+        return webClient.post()
+                .uri("/accounts/holds/{holdReference}/capture", holdReference)
+                .retrieve()
+                .bodyToMono(Hold.class);
+    }
+}
@@ -0,0 +1,40 @@
+package org.training.fundtransfer.external;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.training.fundtransfer.model.dto.Transaction;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The non-blocking client of Transaction-Service, for the calls of the reactive transfer path. Errors are
+ * decoded as they are for {@link TransactionService}.
+ */
+@Component
+public class ReactiveTransactionService {
+
+    private final WebClient webClient;
+
+    public ReactiveTransactionService(WebClient.Builder loadBalancedWebClientBuilder) {
+        this.webClient = loadBalancedWebClientBuilder.clone().baseUrl("http://transaction-service").build();
+    }
+
+    /**
+     * Make internal transactions.
+     *
+     * @param transactions         The list of transactions to be processed.
+     * @param transactionReference The reference for the transaction.
+     * @param idempotencyKey       The key under which the transactions are recorded once; a request
+     *                             delivered again with the same key records nothing.
+     * @return A Mono completing once the transactions have been recorded.
+     */
+    public Mono<Void> makeInternalTransactions(List<Transaction> transactions, String transactionReference, String idempotencyKey) {
+        return webClient.post()
+                .uri(uri -> uri.path("/transactions/internal").queryParam("transactionReference", transactionReference)
+                        .queryParam("idempotencyKey", idempotencyKey).build())
+                .bodyValue(transactions)
+                .retrieve()
+                .bodyToMono(Void.class);
+    }
+}
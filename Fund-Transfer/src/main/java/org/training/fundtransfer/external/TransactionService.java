@@ -2,6 +2,7 @@ package org.training.fundtransfer.external;
 
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -32,4 +33,28 @@ public interface TransactionService {
      */
     @PostMapping("/transactions/internal")
     ResponseEntity<Response> makeInternalTransactions(@RequestBody List<Transaction> transactions,@RequestParam String transactionReference);
+
+    /**
+     * Make internal transactions once: a request delivered again with the same idempotency key records nothing.
+     *
+     * @param transactions         The list of transactions to be processed.
+     * @param transactionReference The reference for the transaction.
+     * @param idempotencyKey       The key under which the transactions are recorded once.
+     * @return The response entity containing the response.
+     */
+    @PostMapping("/transactions/internal")
+    ResponseEntity<Response> makeInternalTransactions(@RequestBody List<Transaction> transactions, @RequestParam String transactionReference,
+                                                      @RequestParam String idempotencyKey);
+
+    /**
+     * Streams the internal transfer entries of the ledger recorded in a time range, as CSV lines of
+     * referenceId,accountId,amount in minor units ordered by reference. The body is left unread for the
+     * caller, who must close the response.
+     *
+     * @param from The earliest transaction date, inclusive, as an ISO date-time.
+     * @param to   The latest transaction date, exclusive, as an ISO date-time.
+     * @return The raw response.
+     */
+    @GetMapping(value = "/transactions/ledger", produces = "text/csv")
+    feign.Response streamLedgerEntries(@RequestParam("from") String from, @RequestParam("to") String to);
 }
@@ -0,0 +1,10 @@
+package org.training.fundtransfer.model;
+
+/**
+ * How the accounts of a transfer are read: one after the other through the blocking Feign client, as on
+ * the transfer lanes, or at once through the non-blocking client of the reactive path.
+ */
+public enum AccountLookup {
+
+    BLOCKING, REACTIVE
+}
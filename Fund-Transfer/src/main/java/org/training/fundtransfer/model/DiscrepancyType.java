@@ -0,0 +1,6 @@
+package org.training.fundtransfer.model;
+
+public enum DiscrepancyType {
+
+    MISSING_LEG, AMOUNT_MISMATCH, UNEXPECTED_LEG, ORPHAN_LEG, STUCK
+}
@@ -0,0 +1,6 @@
+package org.training.fundtransfer.model;
+
+public enum OutboxStatus {
+
+    PENDING, IN_FLIGHT, DONE, FAILED
+}
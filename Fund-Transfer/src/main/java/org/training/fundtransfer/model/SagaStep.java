@@ -0,0 +1,6 @@
+package org.training.fundtransfer.model;
+
+public enum SagaStep {
+
+    DEBIT, CAPTURE, CREDIT, LEDGER, REVERSE_CREDIT, REVERSE_DEBIT
+}
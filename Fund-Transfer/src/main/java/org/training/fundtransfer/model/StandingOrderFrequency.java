@@ -0,0 +1,26 @@
+package org.training.fundtransfer.model;
+
+import java.time.LocalDateTime;
+
+public enum StandingOrderFrequency {
+
+    ONCE, DAILY, WEEKLY, MONTHLY;
+
+    /**
+     * Returns an occurrence of an order, counted from its first execution rather than from the previous
+     * occurrence, so that a monthly order on the 31st runs on the last day of shorter months without
+     * drifting to the 28th for good.
+     *
+     * @param firstExecution the first execution of the order
+     * @param occurrence     the number of the occurrence, 0 for the first execution
+     * @return the time of the occurrence, or null if a one-off order has no such occurrence
+     */
+    public LocalDateTime occurrence(LocalDateTime firstExecution, int occurrence) {
+        return switch (this) {
+            case ONCE -> occurrence == 0 ? firstExecution : null;
+            case DAILY -> firstExecution.plusDays(occurrence);
+            case WEEKLY -> firstExecution.plusWeeks(occurrence);
+            case MONTHLY -> firstExecution.plusMonths(occurrence);
+        };
+    }
+}
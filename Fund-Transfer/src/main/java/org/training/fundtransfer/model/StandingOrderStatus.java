@@ -0,0 +1,6 @@
+package org.training.fundtransfer.model;
+
+public enum StandingOrderStatus {
+
+    ACTIVE, COMPLETED, CANCELLED
+}
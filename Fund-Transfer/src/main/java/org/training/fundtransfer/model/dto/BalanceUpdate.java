@@ -0,0 +1,36 @@
+package org.training.fundtransfer.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.common.model.Money;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BalanceUpdate {
+
+    private String accountNumber;
+
+    private Money amount;
+
+    /**
+     * Identifies the update across deliveries; Account-Service applies an update with a given key once.
+     * Optional.
+     */
+    private String idempotencyKey;
+
+    /**
+     * The idempotency key of the update this one undoes; the amount is only applied if that update was.
+     * Optional.
+     */
+    private String reverses;
+
+    public BalanceUpdate(String accountNumber, Money amount) {
+        this(accountNumber, amount, null, null);
+    }
+}
@@ -0,0 +1,22 @@
+package org.training.fundtransfer.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.fundtransfer.model.TransactionStatus;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkTransferOutcome {
+
+    private int index;
+
+    private String transactionReference;
+
+    private TransactionStatus status;
+
+    private String message;
+}
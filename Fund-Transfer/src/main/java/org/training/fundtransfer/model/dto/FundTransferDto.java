@@ -6,8 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.training.fundtransfer.model.TransactionStatus;
 import org.training.fundtransfer.model.TransferType;
+import org.training.common.model.Money;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -22,11 +22,19 @@ public class FundTransferDto {
 
     private String toAccount;
 
-    private BigDecimal amount;
+    private Money amount;
 
     private TransactionStatus status;
 
     private TransferType transferType;
 
+    private String failureReason;
+
+    private String batchReference;
+
+    private String beneficiaryName;
+
+    private String holdReference;
+
     private LocalDateTime transferredOn;
 }
@@ -0,0 +1,28 @@
+package org.training.fundtransfer.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.common.model.Money;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class Hold {
+
+    private String holdReference;
+
+    private String accountNumber;
+
+    private Money amount;
+
+    private Money capturedAmount;
+
+    private String status;
+
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,22 @@
+package org.training.fundtransfer.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.fundtransfer.model.DiscrepancyType;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ReconciliationDiscrepancy {
+
+    private String transactionReference;
+
+    private DiscrepancyType type;
+
+    private String detail;
+
+    private boolean repaired;
+}
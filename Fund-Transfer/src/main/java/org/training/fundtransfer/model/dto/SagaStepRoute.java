@@ -0,0 +1,12 @@
+package org.training.fundtransfer.model.dto;
+
+import org.training.fundtransfer.model.SagaStep;
+
+public interface SagaStepRoute {
+
+    SagaStep getStep();
+
+    String getFromAccount();
+
+    String getToAccount();
+}
@@ -0,0 +1,39 @@
+package org.training.fundtransfer.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.common.model.Money;
+import org.training.fundtransfer.model.StandingOrderFrequency;
+import org.training.fundtransfer.model.StandingOrderStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StandingOrderDto {
+
+    private String standingOrderReference;
+
+    private String fromAccount;
+
+    private String toAccount;
+
+    private Money amount;
+
+    private StandingOrderFrequency frequency;
+
+    private LocalDateTime firstExecution;
+
+    private LocalDate endDate;
+
+    private LocalDateTime nextExecution;
+
+    private StandingOrderStatus status;
+
+    private String lastTransactionReference;
+}
@@ -4,8 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-
-import java.math.BigDecimal;
+import org.training.common.model.Money;
 
 @Data
 @AllArgsConstructor
@@ -17,7 +16,9 @@ public class Transaction {
 
     private String transactionType;
 
-    private BigDecimal amount;
+    private Money amount;
 
     private String description;
+
+    private String referenceId;
 }
@@ -0,0 +1,17 @@
+package org.training.fundtransfer.model.dto;
+
+import org.training.common.model.Money;
+import org.training.fundtransfer.model.TransferType;
+
+import java.time.LocalDateTime;
+
+public interface TransferUsage {
+
+    String getFromAccount();
+
+    TransferType getTransferType();
+
+    Money getAmount();
+
+    LocalDateTime getTransferredOn();
+}
@@ -0,0 +1,17 @@
+package org.training.fundtransfer.model.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkFundTransferRequest {
+
+    private List<FundTransferRequest> transfers;
+}
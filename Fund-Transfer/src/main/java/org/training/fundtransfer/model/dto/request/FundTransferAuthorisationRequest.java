@@ -0,0 +1,38 @@
+package org.training.fundtransfer.model.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.common.model.Money;
+import org.training.fundtransfer.model.TransferType;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FundTransferAuthorisationRequest {
+
+    private String fromAccount;
+
+    private String toAccount;
+
+    private Money amount;
+
+    private TransferType transferType;
+
+    /**
+     * The name of the beneficiary, screened against the sanctions list; required for external transfers.
+     */
+    private String beneficiaryName;
+
+    /**
+     * The time the held funds return to the account if the transfer is neither captured nor released, or
+     * null for the default of Account-Service.
+     */
+    private LocalDateTime expiresAt;
+
+    private String callbackUrl;
+}
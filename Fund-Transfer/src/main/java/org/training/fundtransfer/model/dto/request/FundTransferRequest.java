@@ -4,8 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-
-import java.math.BigDecimal;
+import org.training.common.model.Money;
 
 @Data
 @AllArgsConstructor
@@ -17,5 +16,7 @@ public class FundTransferRequest {
 
     private String toAccount;
 
-    private BigDecimal amount;
+    private Money amount;
+
+    private String callbackUrl;
 }
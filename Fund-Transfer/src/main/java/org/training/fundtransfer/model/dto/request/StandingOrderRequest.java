@@ -0,0 +1,30 @@
+package org.training.fundtransfer.model.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.common.model.Money;
+import org.training.fundtransfer.model.StandingOrderFrequency;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StandingOrderRequest {
+
+    private String fromAccount;
+
+    private String toAccount;
+
+    private Money amount;
+
+    private StandingOrderFrequency frequency;
+
+    private LocalDateTime firstExecution;
+
+    private LocalDate endDate;
+}
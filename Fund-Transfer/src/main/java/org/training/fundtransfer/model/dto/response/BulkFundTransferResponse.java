@@ -0,0 +1,28 @@
+package org.training.fundtransfer.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.fundtransfer.model.dto.BulkTransferOutcome;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkFundTransferResponse {
+
+    private String batchReference;
+
+    private String responseCode;
+
+    private String message;
+
+    private int accepted;
+
+    private int rejected;
+
+    private List<BulkTransferOutcome> outcomes;
+}
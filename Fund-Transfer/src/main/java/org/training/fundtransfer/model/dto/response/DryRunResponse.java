@@ -0,0 +1,27 @@
+package org.training.fundtransfer.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.fundtransfer.model.AccountLookup;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DryRunResponse {
+
+    private String message;
+
+    private AccountLookup accountLookup;
+
+    /**
+     * The time taken by every stage of the dry run, in microseconds, in the order the stages ran.
+     */
+    private Map<String, Long> stageMicros;
+
+    private long totalMicros;
+}
@@ -0,0 +1,33 @@
+package org.training.fundtransfer.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.fundtransfer.model.dto.ReconciliationDiscrepancy;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ReconciliationReport {
+
+    private LocalDateTime from;
+
+    private LocalDateTime to;
+
+    private long transfers;
+
+    private long ledgerEntries;
+
+    private long matched;
+
+    private long discrepancyCount;
+
+    private long repaired;
+
+    private List<ReconciliationDiscrepancy> discrepancies;
+}
@@ -7,9 +7,9 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.training.fundtransfer.model.TransactionStatus;
 import org.training.fundtransfer.model.TransferType;
+import org.training.common.model.Money;
 
 import javax.persistence.*;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -17,10 +17,17 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Builder
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_fund_transfer_batch_reference", columnList = "batchReference"),
+        @Index(name = "idx_fund_transfer_transferred_on", columnList = "transferredOn"),
+        @Index(name = "idx_fund_transfer_from_account_transferred_on", columnList = "fromAccount, transferredOn, fundTransferId"),
+        @Index(name = "idx_fund_transfer_to_account_transferred_on", columnList = "toAccount, transferredOn, fundTransferId")
+})
 public class FundTransfer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fund_transfer_id_generator")
+    @SequenceGenerator(name = "fund_transfer_id_generator", sequenceName = "fund_transfer_fund_transfer_id_seq", allocationSize = 50)
     private Long fundTransferId;
 
     private String transactionReference;
@@ -29,7 +36,7 @@ public class FundTransfer {
 
     private String toAccount;
 
-    private BigDecimal amount;
+    private Money amount;
 
     @Enumerated(EnumType.STRING)
     private TransactionStatus status;
@@ -37,6 +44,25 @@ public class FundTransfer {
     @Enumerated(EnumType.STRING)
     private TransferType transferType;
 
+    private String failureReason;
+
+    /**
+     * The error code of the business failure that failed the transfer, reported to a caller waiting for its
+     * outcome; null if it failed for any other reason.
+     */
+    private String failureCode;
+
+    private String callbackUrl;
+
+    private String batchReference;
+
+    private String beneficiaryName;
+
+    /**
+     * The reference of the hold reserving the amount of an authorised transfer until it is captured.
+     */
+    private String holdReference;
+
     @CreationTimestamp
     private LocalDateTime transferredOn;
 }
\ No newline at end of file
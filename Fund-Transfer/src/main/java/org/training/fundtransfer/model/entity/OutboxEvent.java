@@ -0,0 +1,44 @@
+package org.training.fundtransfer.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.training.fundtransfer.model.OutboxStatus;
+import org.training.fundtransfer.model.SagaStep;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(indexes = @Index(name = "idx_outbox_event_status_available_at", columnList = "status, availableAt"))
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long outboxEventId;
+
+    private Long fundTransferId;
+
+    @Enumerated(EnumType.STRING)
+    private SagaStep step;
+
+    @Enumerated(EnumType.STRING)
+    private OutboxStatus status;
+
+    private int attempts;
+
+    private LocalDateTime availableAt;
+
+    private LocalDateTime claimedAt;
+
+    private String lastError;
+
+    @CreationTimestamp
+    private LocalDateTime createdOn;
+}
@@ -0,0 +1,54 @@
+package org.training.fundtransfer.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.training.common.model.Money;
+import org.training.fundtransfer.model.StandingOrderFrequency;
+import org.training.fundtransfer.model.StandingOrderStatus;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(indexes = @Index(name = "idx_standing_order_status_next_execution", columnList = "status, nextExecution"))
+public class StandingOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long standingOrderId;
+
+    private String standingOrderReference;
+
+    private String fromAccount;
+
+    private String toAccount;
+
+    private Money amount;
+
+    @Enumerated(EnumType.STRING)
+    private StandingOrderFrequency frequency;
+
+    private LocalDateTime firstExecution;
+
+    private LocalDate endDate;
+
+    private int nextOccurrence;
+
+    private LocalDateTime nextExecution;
+
+    @Enumerated(EnumType.STRING)
+    private StandingOrderStatus status;
+
+    private String lastTransactionReference;
+
+    @CreationTimestamp
+    private LocalDateTime createdOn;
+}
@@ -0,0 +1,33 @@
+package org.training.fundtransfer.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.common.model.Money;
+import org.training.fundtransfer.model.TransferType;
+
+import javax.persistence.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_transfer_limit_usage_account_type_hour",
+        columnNames = {"accountNumber", "transferType", "epochHour"}))
+public class TransferLimitUsage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long transferLimitUsageId;
+
+    private String accountNumber;
+
+    @Enumerated(EnumType.STRING)
+    private TransferType transferType;
+
+    private long epochHour;
+
+    private Money amount;
+}
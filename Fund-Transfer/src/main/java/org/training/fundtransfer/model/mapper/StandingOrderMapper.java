@@ -0,0 +1,44 @@
+package org.training.fundtransfer.model.mapper;
+
+import org.springframework.beans.BeanUtils;
+import org.training.fundtransfer.model.dto.StandingOrderDto;
+import org.training.fundtransfer.model.entity.StandingOrder;
+
+import java.util.Objects;
+
+public class StandingOrderMapper extends BaseMapper<StandingOrder, StandingOrderDto> {
+
+    /**
+     * Converts a StandingOrderDto object to a StandingOrder entity.
+     *
+     * @param  dto   the StandingOrderDto object to be converted
+     * @param  args  additional arguments (not used in this function)
+     * @return       the converted StandingOrder entity
+     */
+    @Override
+    public StandingOrder convertToEntity(StandingOrderDto dto, Object... args) {
+
+        StandingOrder standingOrder = new StandingOrder();
+        if (!Objects.isNull(dto)) {
+            BeanUtils.copyProperties(dto, standingOrder);
+        }
+        return standingOrder;
+    }
+
+    /**
+     * Converts the given StandingOrder entity to a StandingOrderDto object.
+     *
+     * @param  entity  the StandingOrder entity to be converted
+     * @param  args    additional arguments (optional)
+     * @return         the converted StandingOrderDto object
+     */
+    @Override
+    public StandingOrderDto convertToDto(StandingOrder entity, Object... args) {
+
+        StandingOrderDto standingOrderDto = new StandingOrderDto();
+        if (!Objects.isNull(entity)) {
+            BeanUtils.copyProperties(entity, standingOrderDto);
+        }
+        return standingOrderDto;
+    }
+}
@@ -1,10 +1,24 @@
 package org.training.fundtransfer.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.training.fundtransfer.model.TransactionStatus;
+import org.training.fundtransfer.model.dto.TransferUsage;
 import org.training.fundtransfer.model.entity.FundTransfer;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface FundTransferRepository extends JpaRepository<FundTransfer, Long> {
 
@@ -23,4 +37,121 @@ public interface FundTransferRepository extends JpaRepository<FundTransfer, Long
      * @return A list of FundTransfer objects.
      */
     List<FundTransfer> findFundTransferByFromAccount(String accountId);
+
+    /**
+     * Reads a page of the transfers debiting an account, newest first, starting after a keyset position.
+     * Served from the index on the debited account, the transfer time and the ID.
+     *
+     * @param accountId      the account number of the debited account
+     * @param from           the earliest transfer time, inclusive
+     * @param beforeOn       the transfer time of the keyset position
+     * @param beforeId       the ID of the keyset position
+     * @param pageable       the page size
+     * @return the transfers older than the keyset position and not older than the given time
+     */
+    @Query("select f from FundTransfer f where f.fromAccount = :accountId and f.transferredOn >= :from " +
+            "and (f.transferredOn < :beforeOn or (f.transferredOn = :beforeOn and f.fundTransferId < :beforeId)) " +
+            "order by f.transferredOn desc, f.fundTransferId desc")
+    List<FundTransfer> findOutgoingPage(@Param("accountId") String accountId, @Param("from") LocalDateTime from,
+                                        @Param("beforeOn") LocalDateTime beforeOn, @Param("beforeId") Long beforeId,
+                                        Pageable pageable);
+
+    /**
+     * Reads a page of the transfers crediting an account, newest first, starting after a keyset position.
+     * Served from the index on the credited account, the transfer time and the ID.
+     *
+     * @param accountId      the account number of the credited account
+     * @param from           the earliest transfer time, inclusive
+     * @param beforeOn       the transfer time of the keyset position
+     * @param beforeId       the ID of the keyset position
+     * @param pageable       the page size
+     * @return the transfers older than the keyset position and not older than the given time
+     */
+    @Query("select f from FundTransfer f where f.toAccount = :accountId and f.transferredOn >= :from " +
+            "and (f.transferredOn < :beforeOn or (f.transferredOn = :beforeOn and f.fundTransferId < :beforeId)) " +
+            "order by f.transferredOn desc, f.fundTransferId desc")
+    List<FundTransfer> findIncomingPage(@Param("accountId") String accountId, @Param("from") LocalDateTime from,
+                                        @Param("beforeOn") LocalDateTime beforeOn, @Param("beforeId") Long beforeId,
+                                        Pageable pageable);
+
+    /**
+     * Retrieves the fund transfers submitted together in a bulk transfer.
+     *
+     * @param batchReference the reference of the bulk transfer
+     * @return the fund transfers of the batch
+     */
+    List<FundTransfer> findFundTransferByBatchReference(String batchReference);
+
+    /**
+     * Finds the bulk transfers still processing with a failure reason starting with the given prefix,
+     * submitted before the given time.
+     *
+     * @param prefix the start of the failure reason
+     * @param before the time the transfers were submitted before
+     * @return the references of the batches holding such transfers
+     */
+    @Query("select distinct f.batchReference from FundTransfer f where f.batchReference is not null " +
+            "and f.status = org.training.fundtransfer.model.TransactionStatus.PROCESSING " +
+            "and f.failureReason like concat(:prefix, '%') and f.transferredOn < :before")
+    List<String> findBatchesProcessingWith(@Param("prefix") String prefix, @Param("before") LocalDateTime before);
+
+    /**
+     * Sets the status and failure reason of a set of fund transfers in a single statement.
+     *
+     * @param fundTransferIds the IDs of the fund transfers
+     * @param status          the new status
+     * @param failureReason   the failure reason, or null
+     * @return the number of fund transfers updated
+     */
+    @Transactional
+    @Modifying
+    @Query("update FundTransfer f set f.status = :status, f.failureReason = :failureReason where f.fundTransferId in :fundTransferIds")
+    int updateStatus(@Param("fundTransferIds") Collection<Long> fundTransferIds, @Param("status") TransactionStatus status,
+                     @Param("failureReason") String failureReason);
+
+    /**
+     * Moves a fund transfer to a new status, provided it still has the status and failure reason it was
+     * read with, so that only one caller acting on what it read can win.
+     *
+     * @param fundTransferId        the ID of the fund transfer
+     * @param expectedStatus        the status the transfer was read with
+     * @param expectedFailureReason the failure reason the transfer was read with, or an empty string for none
+     * @param status                the new status
+     * @param failureReason         the new failure reason, or null
+     * @return 1 if the transfer was moved, 0 if it had changed in the meantime
+     */
+    @Transactional
+    @Modifying
+    @Query("update FundTransfer f set f.status = :status, f.failureReason = :failureReason " +
+            "where f.fundTransferId = :fundTransferId and f.status = :expectedStatus " +
+            "and coalesce(f.failureReason, '') = :expectedFailureReason")
+    int transition(@Param("fundTransferId") Long fundTransferId, @Param("expectedStatus") TransactionStatus expectedStatus,
+                   @Param("expectedFailureReason") String expectedFailureReason, @Param("status") TransactionStatus status,
+                   @Param("failureReason") String failureReason);
+
+    /**
+     * Streams the fund transfers made in a time range, ordered by reference. The rows are fetched from the
+     * database in batches as the stream is consumed; the stream must be consumed within a transaction and
+     * closed.
+     *
+     * @param from the earliest transfer time, inclusive
+     * @param to   the latest transfer time, exclusive
+     * @return the fund transfers, ordered by transaction reference
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select f from FundTransfer f where f.transferredOn >= :from and f.transferredOn < :to order by f.transactionReference")
+    Stream<FundTransfer> streamByTransferredOn(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Streams the debited account, type, amount and time of the transfers made since the given time that
+     * have not failed, in no particular order. The stream must be consumed within a transaction and closed.
+     *
+     * @param from the earliest transfer time, inclusive
+     * @return the usage of each transfer
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select f.fromAccount as fromAccount, f.transferType as transferType, f.amount as amount, f.transferredOn as transferredOn " +
+            "from FundTransfer f where f.transferredOn >= :from " +
+            "and f.status <> org.training.fundtransfer.model.TransactionStatus.FAILED")
+    Stream<TransferUsage> streamUsageSince(@Param("from") LocalDateTime from);
 }
@@ -0,0 +1,71 @@
+package org.training.fundtransfer.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.training.fundtransfer.model.dto.SagaStepRoute;
+import org.training.fundtransfer.model.entity.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Finds the outbox events that are ready to be run: pending events whose retry time has come, and events
+     * whose claim has expired because the worker running them died.
+     *
+     * @param now         the current time
+     * @param staleBefore claims taken before this time are considered expired
+     * @param pageable    the batch size
+     * @return the IDs of the due events, oldest first
+     */
+    @Query("select e.outboxEventId from OutboxEvent e " +
+            "where (e.status = org.training.fundtransfer.model.OutboxStatus.PENDING and e.availableAt <= :now) " +
+            "or (e.status = org.training.fundtransfer.model.OutboxStatus.IN_FLIGHT and e.claimedAt < :staleBefore) " +
+            "order by e.outboxEventId")
+    List<Long> findDueEventIds(@Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore, Pageable pageable);
+
+    /**
+     * Claims a due outbox event for the caller, so that only one worker across all instances runs it.
+     *
+     * @param outboxEventId the ID of the outbox event
+     * @param now           the current time, recorded as the claim time
+     * @param staleBefore   claims taken before this time are considered expired and may be taken over
+     * @return 1 if the event was claimed, 0 if it is not due or is claimed by another worker
+     */
+    @Transactional
+    @Modifying
+    @Query("update OutboxEvent e set e.status = org.training.fundtransfer.model.OutboxStatus.IN_FLIGHT, e.claimedAt = :now " +
+            "where e.outboxEventId = :outboxEventId " +
+            "and ((e.status = org.training.fundtransfer.model.OutboxStatus.PENDING and e.availableAt <= :now) " +
+            "or (e.status = org.training.fundtransfer.model.OutboxStatus.IN_FLIGHT and e.claimedAt < :staleBefore))")
+    int claim(@Param("outboxEventId") Long outboxEventId, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Gives up the claim on an outbox event that could not be handed to a worker, so the relay picks it up again.
+     *
+     * @param outboxEventId the ID of the outbox event
+     * @return the number of events released
+     */
+    @Transactional
+    @Modifying
+    @Query("update OutboxEvent e set e.status = org.training.fundtransfer.model.OutboxStatus.PENDING, e.claimedAt = null " +
+            "where e.outboxEventId = :outboxEventId and e.status = org.training.fundtransfer.model.OutboxStatus.IN_FLIGHT")
+    int release(@Param("outboxEventId") Long outboxEventId);
+
+    /**
+     * Reads the step of an outbox event together with the accounts of its transfer.
+     *
+     * @param outboxEventId the ID of the outbox event
+     * @return an optional containing the route of the step, or empty if the event does not exist
+     */
+    @Query("select e.step as step, f.fromAccount as fromAccount, f.toAccount as toAccount " +
+            "from OutboxEvent e, FundTransfer f " +
+            "where f.fundTransferId = e.fundTransferId and e.outboxEventId = :outboxEventId")
+    Optional<SagaStepRoute> findRoute(@Param("outboxEventId") Long outboxEventId);
+}
@@ -0,0 +1,79 @@
+package org.training.fundtransfer.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.training.fundtransfer.model.StandingOrderStatus;
+import org.training.fundtransfer.model.entity.StandingOrder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface StandingOrderRepository extends JpaRepository<StandingOrder, Long> {
+
+    /**
+     * Finds a standing order by its reference.
+     *
+     * @param standingOrderReference the reference of the standing order
+     * @return an optional standing order object
+     */
+    Optional<StandingOrder> findStandingOrderByStandingOrderReference(String standingOrderReference);
+
+    /**
+     * Retrieves the standing orders debiting the given account.
+     *
+     * @param accountId the account number of the debited account
+     * @return the standing orders of the account
+     */
+    List<StandingOrder> findStandingOrderByFromAccount(String accountId);
+
+    /**
+     * Reads the next chunk of active standing orders due before the given time, keyed on the ID.
+     *
+     * @param status           the status to filter on
+     * @param horizon          orders due at or after this time are left out
+     * @param standingOrderId  the last ID of the previous chunk
+     * @param pageable         the chunk size
+     * @return the standing orders, ordered by ID
+     */
+    List<StandingOrder> findByStatusAndNextExecutionBeforeAndStandingOrderIdGreaterThanOrderByStandingOrderIdAsc(
+            StandingOrderStatus status, LocalDateTime horizon, Long standingOrderId, Pageable pageable);
+
+    /**
+     * Moves an active standing order past an occurrence, provided the occurrence is still the next one. Only
+     * one caller can win for a given occurrence, which is what keeps it from running twice.
+     *
+     * @param standingOrderId          the ID of the standing order
+     * @param expected                 the occurrence being run
+     * @param nextOccurrence           the number of the following occurrence, counted from the first execution
+     * @param nextExecution            the time of the following occurrence, or null if there is none
+     * @param status                   the status after this occurrence
+     * @param lastTransactionReference the reference of the transfer of this occurrence
+     * @return 1 if the occurrence was claimed, 0 if it had already been run or the order is no longer active
+     */
+    @Modifying
+    @Query("update StandingOrder s set s.nextExecution = :nextExecution, s.nextOccurrence = :nextOccurrence, s.status = :status, " +
+            "s.lastTransactionReference = :lastTransactionReference " +
+            "where s.standingOrderId = :standingOrderId and s.nextExecution = :expected " +
+            "and s.status = org.training.fundtransfer.model.StandingOrderStatus.ACTIVE")
+    int advance(@Param("standingOrderId") Long standingOrderId, @Param("expected") LocalDateTime expected,
+                @Param("nextOccurrence") int nextOccurrence, @Param("nextExecution") LocalDateTime nextExecution,
+                @Param("status") StandingOrderStatus status, @Param("lastTransactionReference") String lastTransactionReference);
+
+    /**
+     * Cancels an active standing order.
+     *
+     * @param standingOrderReference the reference of the standing order
+     * @return 1 if the order was cancelled, 0 if it was not active
+     */
+    @Transactional
+    @Modifying
+    @Query("update StandingOrder s set s.status = org.training.fundtransfer.model.StandingOrderStatus.CANCELLED, s.nextExecution = null " +
+            "where s.standingOrderReference = :standingOrderReference " +
+            "and s.status = org.training.fundtransfer.model.StandingOrderStatus.ACTIVE")
+    int cancel(@Param("standingOrderReference") String standingOrderReference);
+}
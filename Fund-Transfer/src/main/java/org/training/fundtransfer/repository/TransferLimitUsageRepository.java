@@ -0,0 +1,79 @@
+package org.training.fundtransfer.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.training.fundtransfer.model.entity.TransferLimitUsage;
+
+import java.math.BigDecimal;
+
+public interface TransferLimitUsageRepository extends JpaRepository<TransferLimitUsage, Long> {
+
+    /**
+     * Adds an amount to the usage of an account and transfer type in an hour, creating it if there is none.
+     * The row of the hour stays locked until the end of the transaction, so the reservations of an account
+     * in the same hour are made one after the other.
+     *
+     * @param accountNumber the debited account
+     * @param transferType  the name of the transfer type
+     * @param epochHour     the hour since the epoch
+     * @param amount        the amount to add, negative to take it back
+     */
+    @Modifying
+    @Query(value = "insert into transfer_limit_usage (account_number, transfer_type, epoch_hour, amount) " +
+            "values (:accountNumber, :transferType, :epochHour, :amount) " +
+            "on conflict (account_number, transfer_type, epoch_hour) do update set " +
+            "amount = transfer_limit_usage.amount + excluded.amount", nativeQuery = true)
+    void add(@Param("accountNumber") String accountNumber, @Param("transferType") String transferType,
+             @Param("epochHour") long epochHour, @Param("amount") BigDecimal amount);
+
+    /**
+     * Sums the usage of an account and transfer type over the hours after the given one.
+     *
+     * @param accountNumber the debited account
+     * @param transferType  the name of the transfer type
+     * @param afterHour     the hour since the epoch, exclusive
+     * @return the amount used, zero if there is none
+     */
+    @Query(value = "select coalesce(sum(amount), 0) from transfer_limit_usage " +
+            "where account_number = :accountNumber and transfer_type = :transferType and epoch_hour > :afterHour", nativeQuery = true)
+    BigDecimal usedAfter(@Param("accountNumber") String accountNumber, @Param("transferType") String transferType,
+                         @Param("afterHour") long afterHour);
+
+    /**
+     * Takes an amount back from the usage of an account and transfer type in an hour, if that hour is still
+     * kept.
+     *
+     * @param accountNumber the debited account
+     * @param transferType  the name of the transfer type
+     * @param epochHour     the hour since the epoch
+     * @param amount        the amount to take back
+     * @return 1 if the usage was updated, 0 if the hour is no longer kept
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update transfer_limit_usage set amount = amount - :amount " +
+            "where account_number = :accountNumber and transfer_type = :transferType and epoch_hour = :epochHour", nativeQuery = true)
+    int subtract(@Param("accountNumber") String accountNumber, @Param("transferType") String transferType,
+                 @Param("epochHour") long epochHour, @Param("amount") BigDecimal amount);
+
+    /**
+     * Deletes the usage of the hours up to the given one.
+     *
+     * @param epochHour the last hour to delete, inclusive
+     * @return the number of rows deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from TransferLimitUsage u where u.epochHour <= :epochHour")
+    int deleteUpTo(@Param("epochHour") long epochHour);
+
+    /**
+     * Locks the usage table against concurrent writes until the end of the transaction.
+     */
+    @Modifying
+    @Query(value = "lock table transfer_limit_usage in share row exclusive mode", nativeQuery = true)
+    void lock();
+}
@@ -1,9 +1,20 @@
 package org.training.fundtransfer.service;
 
+import org.training.fundtransfer.model.AccountLookup;
+import org.training.fundtransfer.model.TransferDirection;
 import org.training.fundtransfer.model.dto.FundTransferDto;
+import org.training.fundtransfer.model.dto.request.BulkFundTransferRequest;
+import org.training.fundtransfer.model.dto.request.FundTransferAuthorisationRequest;
 import org.training.fundtransfer.model.dto.request.FundTransferRequest;
+import org.training.fundtransfer.model.dto.response.BulkFundTransferResponse;
+import org.training.fundtransfer.model.dto.response.DryRunResponse;
 import org.training.fundtransfer.model.dto.response.FundTransferResponse;
+import org.training.fundtransfer.model.dto.response.ReconciliationReport;
+import org.training.fundtransfer.model.dto.response.TransferHistoryResponse;
+import reactor.core.publisher.Mono;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface FundTransferService {
@@ -16,6 +27,80 @@ public interface FundTransferService {
      */
     FundTransferResponse fundTransfer(FundTransferRequest fundTransferRequest);
 
+    /**
+     * Transfers funds from one account to another without blocking while the other services are called.
+     *
+     * @param fundTransferRequest The request object containing the details of the fund transfer.
+     * @return A Mono of the response object containing the result of the fund transfer.
+     */
+    Mono<FundTransferResponse> reactiveFundTransfer(FundTransferRequest fundTransferRequest);
+
+    /**
+     * Runs a fund transfer without moving money, timing every stage.
+     *
+     * @param fundTransferRequest The request object containing the details of the fund transfer.
+     * @param accountLookup How the accounts are read.
+     * @return The response object containing the time taken by every stage.
+     */
+    DryRunResponse dryRunFundTransfer(FundTransferRequest fundTransferRequest, AccountLookup accountLookup);
+
+    /**
+     * Accepts a fund transfer for asynchronous processing.
+     *
+     * @param fundTransferRequest The request object containing the details of the fund transfer.
+     * @return The response object containing the reference under which the transfer can be polled.
+     */
+    FundTransferResponse submitFundTransfer(FundTransferRequest fundTransferRequest);
+
+    /**
+     * Authorises a cheque or external transfer, holding its amount on the debited account until the
+     * transfer is captured or released.
+     *
+     * @param authorisationRequest The request object containing the details of the transfer.
+     * @return The response object containing the reference under which the transfer is captured or released.
+     */
+    FundTransferResponse authoriseFundTransfer(FundTransferAuthorisationRequest authorisationRequest);
+
+    /**
+     * Captures an authorised transfer, settling it from the held funds.
+     *
+     * @param referenceId The reference of the authorised transfer.
+     * @return The response object containing the status of the transfer.
+     */
+    FundTransferResponse captureFundTransfer(String referenceId);
+
+    /**
+     * Releases an authorised transfer, returning the held funds to the debited account.
+     *
+     * @param referenceId The reference of the authorised transfer.
+     * @return The response object containing the status of the transfer.
+     */
+    FundTransferResponse releaseFundTransfer(String referenceId);
+
+    /**
+     * Transfers funds for a batch of transfers, netting the balance changes per account.
+     *
+     * @param bulkFundTransferRequest The request object containing the transfers of the batch.
+     * @return The response object containing the batch reference and the outcome of every transfer.
+     */
+    BulkFundTransferResponse bulkFundTransfer(BulkFundTransferRequest bulkFundTransferRequest);
+
+    /**
+     * Transfers funds for a batch of transfers read from a CSV file of fromAccount,toAccount,amount lines.
+     *
+     * @param file The CSV file, with an optional header line.
+     * @return The response object containing the batch reference and the outcome of every transfer.
+     */
+    BulkFundTransferResponse bulkFundTransfer(InputStream file);
+
+    /**
+     * Retrieves the transfers of a batch.
+     *
+     * @param batchReference The reference of the batch.
+     * @return The transfers of the batch as FundTransferDto objects.
+     */
+    List<FundTransferDto> getTransfersByBatchReference(String batchReference);
+
     /**
      * Retrieve transfer details based on the provided reference ID.
      *
@@ -31,4 +116,27 @@ public interface FundTransferService {
      * @return a list of FundTransferDto objects representing the fund transfers
      */
     List<FundTransferDto> getAllTransfersByAccountId(String accountId);
+
+    /**
+     * Retrieves a page of the transfer history of an account, newest first.
+     *
+     * @param accountId the ID of the account
+     * @param direction whether to include the transfers debiting the account, crediting it, or both
+     * @param from      the earliest transfer time, inclusive, or null
+     * @param to        the latest transfer time, exclusive, or null
+     * @param cursor    the cursor returned with the previous page, or null for the first page
+     * @param size      the maximum number of transfers on the page
+     * @return the page of transfers and the cursor of the next page, if there is one
+     */
+    TransferHistoryResponse getTransferHistory(String accountId, TransferDirection direction, LocalDateTime from,
+                                               LocalDateTime to, String cursor, int size);
+
+    /**
+     * Reconciles the fund transfers made in a time range against the ledger of Transaction-Service.
+     *
+     * @param from The earliest transfer time, inclusive.
+     * @param to   The latest transfer time, exclusive.
+     * @return The report of the reconciliation.
+     */
+    ReconciliationReport reconcile(LocalDateTime from, LocalDateTime to);
 }
@@ -0,0 +1,25 @@
+package org.training.fundtransfer.service;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface SagaStepPublisher {
+
+    /**
+     * Hands a claimed saga step over for execution.
+     *
+     * @param outboxEventId The ID of the claimed outbox event.
+     * @return A future completed once the steps that follow from this one stop running on this instance,
+     *         because the transfer finished or a step was left to the outbox relay; or null if the step could
+     *         not be taken and must be released.
+     */
+    CompletableFuture<Void> publish(Long outboxEventId);
+
+    /**
+     * Tells whether a new transfer debiting the given account can be taken now, so that callers are pushed
+     * back before anything is written.
+     *
+     * @param accountNumber The account number of the debited account.
+     * @return true if the transfer can be taken.
+     */
+    boolean canAccept(String accountNumber);
+}
@@ -0,0 +1,42 @@
+package org.training.fundtransfer.service;
+
+import org.training.fundtransfer.model.dto.StandingOrderDto;
+import org.training.fundtransfer.model.dto.request.StandingOrderRequest;
+import org.training.fundtransfer.model.dto.response.Response;
+
+import java.util.List;
+
+public interface StandingOrderService {
+
+    /**
+     * Creates a standing order for a future-dated or recurring transfer.
+     *
+     * @param standingOrderRequest The request object containing the details of the standing order.
+     * @return The created standing order.
+     */
+    StandingOrderDto createStandingOrder(StandingOrderRequest standingOrderRequest);
+
+    /**
+     * Retrieves a standing order by its reference.
+     *
+     * @param standingOrderReference The reference of the standing order.
+     * @return The standing order.
+     */
+    StandingOrderDto getStandingOrder(String standingOrderReference);
+
+    /**
+     * Retrieves the standing orders debiting the given account.
+     *
+     * @param accountId The account number of the debited account.
+     * @return The standing orders of the account.
+     */
+    List<StandingOrderDto> getStandingOrdersByAccountId(String accountId);
+
+    /**
+     * Cancels a standing order, so none of its remaining occurrences are run.
+     *
+     * @param standingOrderReference The reference of the standing order.
+     * @return The response object indicating the cancellation.
+     */
+    Response cancelStandingOrder(String standingOrderReference);
+}
@@ -0,0 +1,127 @@
+package org.training.fundtransfer.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+import org.training.fundtransfer.external.AccountService;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Tells account numbers that certainly do not exist from those that may, without a call to the account
+ * service. Every account number is kept in a {@link BloomFilter} seeded from the account service with a
+ * paged scan of its account numbers once the service is up, so a transfer naming an unknown account is
+ * turned down locally and only the accounts that may exist are looked up remotely.
+ *
+ * <p>Account numbers are issued in ascending order, so the filter is kept up to date by asking periodically
+ * for the numbers after the highest one it holds, and a number above that watermark is taken to exist until
+ * it has been loaded. Each refresh starts from the watermark of the refresh before it, so an account whose
+ * number was issued before that of another account but committed after it is still picked up. Once the
+ * filter holds more numbers than it was sized for, a filter twice the size is seeded and replaces it.</p>
+ *
+ * <p>Until the first seed succeeds every account number may exist, so an unreachable account service only
+ * costs the fast rejection, never a valid transfer.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountNumberFilter {
+
+    private final AccountService accountService;
+
+    private volatile Loaded loaded;
+
+    @Value("${fund-transfer.accounts.expected-accounts:1000000}")
+    private long expectedAccounts;
+
+    @Value("${fund-transfer.accounts.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${fund-transfer.accounts.page-size:10000}")
+    private int pageSize;
+
+    /**
+     * Tells whether an account may exist.
+     *
+     * @param accountNumber the account number
+     * @return false if the account certainly does not exist, true if it may
+     */
+    public boolean mightExist(String accountNumber) {
+
+        Loaded current = loaded;
+        if (Objects.isNull(current) || Objects.isNull(current.watermark()) || accountNumber.compareTo(current.watermark()) > 0) {
+            return true;
+        }
+        return current.filter().mightContain(accountNumber);
+    }
+
+    /**
+     * Seeds the filter if it has not been seeded yet or has outgrown its size, and otherwise adds the account
+     * numbers issued since the last refresh. Runs right after startup and then periodically.
+     */
+    @Scheduled(fixedDelayString = "${fund-transfer.accounts.refresh-interval-ms:10000}")
+    public void refresh() {
+
+        Loaded current = loaded;
+        try {
+            if (Objects.isNull(current)) {
+                loaded = seed(expectedAccounts);
+            } else if (current.filter().size() > current.filter().capacity()) {
+                loaded = seed(current.filter().capacity() * 2);
+            } else {
+                String watermark = load(current.filter(), current.previousWatermark());
+                loaded = new Loaded(current.filter(), max(watermark, current.watermark()), current.watermark());
+            }
+        } catch (RuntimeException exception) {
+            log.error("account numbers could not be loaded, {}", Objects.isNull(current)
+                    ? "unknown accounts are looked up remotely until they are" : "retrying on the next refresh", exception);
+        }
+    }
+
+    private Loaded seed(long capacity) {
+        long started = System.currentTimeMillis();
+        BloomFilter filter = new BloomFilter(capacity, falsePositiveRate);
+        String watermark = load(filter, null);
+        log.info("account number filter seeded with {} accounts for {} in {} ms", filter.size(), capacity, System.currentTimeMillis() - started);
+        return new Loaded(filter, watermark, watermark);
+    }
+
+    /**
+     * Adds the account numbers after the given one to the filter, page by page.
+     *
+     * @return the highest account number read, or the given one if there are none after it
+     */
+    private String load(BloomFilter filter, String after) {
+        List<String> page;
+        do {
+            page = accountService.readAccountNumbers(after, pageSize).getBody();
+            if (CollectionUtils.isEmpty(page)) {
+                break;
+            }
+            for (String accountNumber : page) {
+                if (!filter.mightContain(accountNumber)) {
+                    filter.add(accountNumber);
+                }
+            }
+            after = page.get(page.size() - 1);
+        } while (page.size() == pageSize);
+        return after;
+    }
+
+    private static String max(String first, String second) {
+        if (Objects.isNull(first)) {
+            return second;
+        }
+        return Objects.isNull(second) || first.compareTo(second) > 0 ? first : second;
+    }
+
+    /**
+     * A filter with the highest account number it holds and the watermark of the refresh before.
+     */
+    private record Loaded(BloomFilter filter, String watermark, String previousWatermark) {
+    }
+}
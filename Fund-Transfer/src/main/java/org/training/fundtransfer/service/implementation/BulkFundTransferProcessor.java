@@ -0,0 +1,246 @@
+package org.training.fundtransfer.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.fundtransfer.exception.GlobalErrorCode;
+import org.training.fundtransfer.exception.GlobalException;
+import org.training.fundtransfer.external.AccountService;
+import org.training.fundtransfer.external.TransactionService;
+import org.training.common.model.Money;
+import org.training.fundtransfer.model.TransactionStatus;
+import org.training.fundtransfer.model.dto.Account;
+import org.training.fundtransfer.model.dto.BalanceUpdate;
+import org.training.fundtransfer.model.dto.Transaction;
+import org.training.fundtransfer.model.entity.FundTransfer;
+import org.training.fundtransfer.repository.FundTransferRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Settles a batch of transfers, such as a salary run, with a handful of remote calls instead of four per
+ * transfer. The accounts of the batch are read in chunks, every transfer is checked against the running
+ * balance of its debited account, and the accepted transfers are netted into one balance change per
+ * account, applied atomically by Account-Service in a single call. The ledger entries are then recorded
+ * in chunks, each entry carrying the reference of its own transfer.
+ *
+ * <p>Credits received within the batch are not counted towards the debits of the same batch, so a
+ * transfer is only accepted if its account holds the amount before the batch is applied.</p>
+ *
+ * <p>Every net balance change carries the idempotency key of its batch and account. When the outcome of
+ * the balance call is unknown, the accepted transfers are left processing and the call is later made again
+ * with the same keys: Account-Service leaves out the changes it has already applied, so the call either
+ * confirms the first one or applies the batch now, and the transfers are then recorded, or failed if the
+ * batch is refused.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BulkFundTransferProcessor {
+
+    /**
+     * The start of the failure reason of accepted transfers whose balances were applied but whose ledger
+     * entries were not recorded. Reconciliation records the entries of such transfers.
+     */
+    static final String LEDGER_NOT_RECORDED = "ledger entries not recorded: ";
+
+    /**
+     * The start of the failure reason of accepted transfers whose balance changes may or may not have been
+     * applied. They are resolved by {@link #resolveUnknownOutcomes()}.
+     */
+    static final String BALANCE_OUTCOME_UNKNOWN = "balance update outcome unknown: ";
+
+    private final FundTransferRepository fundTransferRepository;
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferLimits transferLimits;
+
+    @Value("${fund-transfer.bulk.lookup-chunk-size:1000}")
+    private int lookupChunkSize;
+
+    @Value("${fund-transfer.bulk.ledger-chunk-size:500}")
+    private int ledgerChunkSize;
+
+    @Value("${fund-transfer.bulk.settle-ms:60000}")
+    private long settleMillis;
+
+    /**
+     * Checks, applies and records a batch of pending transfers. Each transfer is left SUCCESS, FAILED with
+     * its failure reason, or PROCESSING if its balance change or ledger entries could not be confirmed.
+     *
+     * @param fundTransfers the pending transfers of the batch, in request order
+     */
+    public void process(List<FundTransfer> fundTransfers) {
+
+        Map<String, Account> accounts = readAccounts(fundTransfers);
+        Map<String, Money> available = new HashMap<>();
+        List<FundTransfer> accepted = new ArrayList<>(fundTransfers.size());
+        for (FundTransfer fundTransfer : fundTransfers) {
+            String reason = check(fundTransfer, accounts, available);
+            if (Objects.isNull(reason)) {
+                fundTransfer.setStatus(TransactionStatus.PROCESSING);
+                accepted.add(fundTransfer);
+            } else {
+                fundTransfer.setStatus(TransactionStatus.FAILED);
+                fundTransfer.setFailureReason(reason);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> fundTransferRepository.saveAll(fundTransfers));
+        if (!accepted.isEmpty() && applyBalances(accepted)) {
+            recordLedger(accepted);
+        }
+    }
+
+    /**
+     * Makes the balance call of every batch whose outcome was unknown again, once it has settled, and
+     * records or fails its transfers. A batch whose outcome is still unknown is tried again on the next run.
+     */
+    @Scheduled(initialDelayString = "${fund-transfer.bulk.resolve-interval-ms:60000}",
+            fixedDelayString = "${fund-transfer.bulk.resolve-interval-ms:60000}")
+    public void resolveUnknownOutcomes() {
+
+        List<String> batchReferences = fundTransferRepository.findBatchesProcessingWith(BALANCE_OUTCOME_UNKNOWN,
+                LocalDateTime.now().minus(settleMillis, ChronoUnit.MILLIS));
+        for (String batchReference : batchReferences) {
+            List<FundTransfer> accepted = fundTransferRepository.findFundTransferByBatchReference(batchReference).stream()
+                    .filter(fundTransfer -> fundTransfer.getStatus() == TransactionStatus.PROCESSING
+                            && !Objects.isNull(fundTransfer.getFailureReason())
+                            && fundTransfer.getFailureReason().startsWith(BALANCE_OUTCOME_UNKNOWN))
+                    .sorted(Comparator.comparing(FundTransfer::getFundTransferId))
+                    .toList();
+            if (!accepted.isEmpty() && applyBalances(accepted)) {
+                log.info("balance updates of batch {} confirmed for {} transfers", batchReference, accepted.size());
+                recordLedger(accepted);
+            }
+        }
+    }
+
+    private Map<String, Account> readAccounts(List<FundTransfer> fundTransfers) {
+
+        Set<String> accountNumbers = new LinkedHashSet<>();
+        fundTransfers.forEach(fundTransfer -> {
+            accountNumbers.add(fundTransfer.getFromAccount());
+            accountNumbers.add(fundTransfer.getToAccount());
+        });
+        List<String> numbers = new ArrayList<>(accountNumbers);
+        Map<String, Account> accounts = new HashMap<>();
+        for (int from = 0; from < numbers.size(); from += lookupChunkSize) {
+            List<Account> chunk = accountService.readByAccountNumbers(
+                    numbers.subList(from, Math.min(from + lookupChunkSize, numbers.size()))).getBody();
+            if (!Objects.isNull(chunk)) {
+                chunk.forEach(account -> accounts.put(account.getAccountNumber(), account));
+            }
+        }
+        return accounts;
+    }
+
+    /**
+     * Checks one transfer against the accounts of the batch and reserves its amount from the running
+     * balance and the limits of the debited account.
+     *
+     * @return the failure reason, or null if the transfer is accepted
+     */
+    private String check(FundTransfer fundTransfer, Map<String, Account> accounts, Map<String, Money> available) {
+
+        Account fromAccount = accounts.get(fundTransfer.getFromAccount());
+        if (Objects.isNull(fromAccount)) {
+            return GlobalErrorCode.NOT_FOUND + " - account " + fundTransfer.getFromAccount() + " not found on the server";
+        }
+        if (!"ACTIVE".equals(fromAccount.getAccountStatus())) {
+            return GlobalErrorCode.NOT_ACCEPTABLE + " - account " + fundTransfer.getFromAccount() + " is not active";
+        }
+        if (!accounts.containsKey(fundTransfer.getToAccount())) {
+            return GlobalErrorCode.NOT_FOUND + " - account " + fundTransfer.getToAccount() + " not found on the server";
+        }
+        Money balance = available.computeIfAbsent(fundTransfer.getFromAccount(), accountNumber -> fromAccount.getAvailableBalance());
+        if (balance.isLessThan(fundTransfer.getAmount())) {
+            return GlobalErrorCode.NOT_ACCEPTABLE + " - insufficient balance in account " + fundTransfer.getFromAccount();
+        }
+        if (!transferLimits.tryReserve(fundTransfer.getFromAccount(), fundTransfer.getTransferType(), fundTransfer.getAmount())) {
+            return GlobalErrorCode.NOT_ACCEPTABLE + " - transfer limit exceeded for account " + fundTransfer.getFromAccount();
+        }
+        available.put(fundTransfer.getFromAccount(), balance.minus(fundTransfer.getAmount()));
+        return null;
+    }
+
+    /**
+     * Nets the accepted transfers into one balance change per account and applies them in one call.
+     *
+     * @return true if the balances were updated
+     */
+    private boolean applyBalances(List<FundTransfer> accepted) {
+
+        Map<String, Money> netAmounts = new LinkedHashMap<>();
+        accepted.forEach(fundTransfer -> {
+            netAmounts.merge(fundTransfer.getFromAccount(), fundTransfer.getAmount().negate(), Money::plus);
+            netAmounts.merge(fundTransfer.getToAccount(), fundTransfer.getAmount(), Money::plus);
+        });
+        List<BalanceUpdate> balanceUpdates = netAmounts.entrySet().stream()
+                .filter(entry -> !entry.getValue().isZero())
+                .map(entry -> new BalanceUpdate(entry.getKey(), entry.getValue(),
+                        idempotencyKey(accepted.get(0).getBatchReference(), entry.getKey()), null))
+                .toList();
+        try {
+            accountService.updateBalances(balanceUpdates);
+        } catch (GlobalException exception) {
+            updateStatus(accepted, TransactionStatus.FAILED, exception.getErrorCode() + " - " + exception.getMessage());
+            accepted.forEach(fundTransfer -> transferLimits.release(fundTransfer.getFromAccount(), fundTransfer.getTransferType(),
+                    fundTransfer.getAmount(), fundTransfer.getTransferredOn()));
+            return false;
+        } catch (RuntimeException exception) {
+            log.error("balance updates of a batch of {} transfers may or may not have been applied, retried later under the same keys",
+                    accepted.size(), exception);
+            updateStatus(accepted, TransactionStatus.PROCESSING, BALANCE_OUTCOME_UNKNOWN + exception.getMessage());
+            return false;
+        }
+        log.info("applied {} transfers as {} balance updates", accepted.size(), balanceUpdates.size());
+        return true;
+    }
+
+    /**
+     * The idempotency key of the net balance change of an account in a batch, the same on every call.
+     */
+    static String idempotencyKey(String batchReference, String accountNumber) {
+        return batchReference + ":" + accountNumber;
+    }
+
+    private void recordLedger(List<FundTransfer> accepted) {
+
+        String batchReference = accepted.get(0).getBatchReference();
+        for (int from = 0; from < accepted.size(); from += ledgerChunkSize) {
+            List<FundTransfer> chunk = accepted.subList(from, Math.min(from + ledgerChunkSize, accepted.size()));
+            List<Transaction> entries = new ArrayList<>(chunk.size() * 2);
+            chunk.forEach(fundTransfer -> entries.addAll(FundTransferSaga.ledgerEntries(fundTransfer)));
+            try {
+                transactionService.makeInternalTransactions(entries, batchReference);
+            } catch (RuntimeException exception) {
+                log.error("ledger entries of {} transfers of batch {} were not recorded, left for reconciliation",
+                        chunk.size(), batchReference, exception);
+                updateStatus(chunk, TransactionStatus.PROCESSING, LEDGER_NOT_RECORDED + exception.getMessage());
+                continue;
+            }
+            updateStatus(chunk, TransactionStatus.SUCCESS, null);
+        }
+    }
+
+    /**
+     * Records a new status for a set of saved transfers, in statements of at most one ledger chunk each.
+     */
+    private void updateStatus(List<FundTransfer> fundTransfers, TransactionStatus status, String failureReason) {
+
+        fundTransfers.forEach(fundTransfer -> {
+            fundTransfer.setStatus(status);
+            fundTransfer.setFailureReason(failureReason);
+        });
+        for (int from = 0; from < fundTransfers.size(); from += ledgerChunkSize) {
+            fundTransferRepository.updateStatus(fundTransfers.subList(from, Math.min(from + ledgerChunkSize, fundTransfers.size())).stream()
+                    .map(FundTransfer::getFundTransferId).toList(), status, failureReason);
+        }
+    }
+}
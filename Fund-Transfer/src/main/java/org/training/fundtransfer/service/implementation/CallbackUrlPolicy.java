@@ -0,0 +1,114 @@
+package org.training.fundtransfer.service.implementation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.training.fundtransfer.exception.GlobalErrorCode;
+import org.training.fundtransfer.exception.InvalidTransferRequest;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Decides which callback URLs the service may post the outcome of a transfer to. A callback must be an http
+ * or https URL without user information, whose host is on the configured allowlist, either by its exact name
+ * or, for an entry starting with {@code *.}, as a subdomain of it. With an empty allowlist no callback is
+ * accepted.
+ *
+ * <p>The host must also resolve only to public addresses: loopback, link-local, private, carrier-grade NAT,
+ * unique-local, wildcard and multicast addresses are refused, so a callback cannot reach the services,
+ * registry or cloud metadata endpoint on the internal network. The check is made when the transfer is
+ * submitted and again right before the callback is sent, as the name may resolve differently by then.</p>
+ */
+@Component
+public class CallbackUrlPolicy {
+
+    @Value("${fund-transfer.async.callback-hosts:}")
+    private List<String> allowedHosts;
+
+    /**
+     * Checks a callback URL supplied with a transfer request.
+     *
+     * @param callbackUrl the callback URL
+     * @throws InvalidTransferRequest if the URL may not be called back
+     */
+    public void check(String callbackUrl) {
+        String problem = problem(callbackUrl);
+        if (!Objects.isNull(problem)) {
+            throw new InvalidTransferRequest(problem, GlobalErrorCode.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Tells why a callback URL may not be called back.
+     *
+     * @param callbackUrl the callback URL
+     * @return the reason, or null if the URL may be called back
+     */
+    public String problem(String callbackUrl) {
+
+        URI uri;
+        try {
+            uri = new URI(callbackUrl);
+        } catch (URISyntaxException exception) {
+            return "callback URL is not a valid URL";
+        }
+        String scheme = Objects.isNull(uri.getScheme()) ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!scheme.equals("https") && !scheme.equals("http")) {
+            return "callback URL must be an http or https URL";
+        }
+        if (Objects.isNull(uri.getHost()) || !Objects.isNull(uri.getRawUserInfo())) {
+            return "callback URL must name a host and no user";
+        }
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        if (!allowed(host)) {
+            return "callback host " + host + " is not allowed";
+        }
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException exception) {
+            return "callback host " + host + " cannot be resolved";
+        }
+        for (InetAddress address : addresses) {
+            if (!isPublic(address)) {
+                return "callback host " + host + " resolves to a non-public address";
+            }
+        }
+        return null;
+    }
+
+    private boolean allowed(String host) {
+        for (String entry : allowedHosts) {
+            String allowed = entry.strip().toLowerCase(Locale.ROOT);
+            if (allowed.startsWith("*.") ? host.endsWith(allowed.substring(1)) : host.equals(allowed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isPublic(InetAddress address) {
+
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            int first = bytes[0] & 0xff;
+            int second = bytes[1] & 0xff;
+            return first != 0 && !(first == 100 && second >= 64 && second < 128);
+        }
+        if (address instanceof Inet6Address) {
+            return (bytes[0] & 0xfe) != 0xfc;
+        }
+        return true;
+    }
+}
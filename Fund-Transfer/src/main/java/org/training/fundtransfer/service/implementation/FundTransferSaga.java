@@ -0,0 +1,440 @@
+package org.training.fundtransfer.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.training.fundtransfer.exception.AccountUpdateException;
+import org.training.fundtransfer.exception.GlobalErrorCode;
+import org.training.fundtransfer.exception.GlobalException;
+import org.training.fundtransfer.exception.ResourceNotFound;
+import org.training.fundtransfer.external.AccountService;
+import org.training.fundtransfer.external.TransactionService;
+import org.training.fundtransfer.model.OutboxStatus;
+import org.training.fundtransfer.model.SagaStep;
+import org.training.fundtransfer.model.TransactionStatus;
+import org.training.fundtransfer.model.dto.Account;
+import org.training.fundtransfer.model.dto.BalanceUpdate;
+import org.training.fundtransfer.model.dto.Hold;
+import org.training.fundtransfer.model.dto.SagaStepRoute;
+import org.training.fundtransfer.model.dto.Transaction;
+import org.training.fundtransfer.model.entity.FundTransfer;
+import org.training.fundtransfer.model.entity.OutboxEvent;
+import org.training.fundtransfer.model.mapper.FundTransferMapper;
+import org.training.fundtransfer.repository.FundTransferRepository;
+import org.training.fundtransfer.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Drives a fund transfer through its debit, credit and ledger steps. An authorised transfer, whose amount
+ * is already held on the debited account, starts with a capture of the hold in place of the debit. Every step is an outbox event written
+ * in the same local transaction as the state change that led to it, so a transfer can always be resumed
+ * from the outbox, whatever point a crash interrupted it at.
+ *
+ * <p>Delivery is at least once, so a step interrupted between its remote call and the commit of its
+ * outcome is run again, and so is a step whose call timed out after it took effect. Every remote call
+ * therefore carries an idempotency key made of the transfer reference and the step, which Account-Service
+ * and Transaction-Service record in the same database transaction as the change, so a step takes effect
+ * once however often it is run. A reversal names the key of the update it undoes, and Account-Service only
+ * applies it if that update was applied.</p>
+ *
+ * <p>A step failing for a business reason has not taken effect; a failed debit or capture fails the
+ * transfer, a failed credit refunds the debit, and a failed ledger write reverses the credit and then the
+ * debit. A step failing transiently more than the configured number of times may or may not have taken
+ * effect: the debit and the credit are then reversed as above, the reversal of what was not applied being a
+ * no-op, a capture is refunded if its hold reads back as captured and retried while the hold cannot be
+ * read, and a ledger write is left to the {@link TransferReconciler}, which records the entries under the
+ * same key and completes the transfer.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FundTransferSaga {
+
+    private static final String HOLD_CAPTURED = "CAPTURED";
+
+    private final FundTransferRepository fundTransferRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    private final TransactionTemplate transactionTemplate;
+    private final RestTemplate callbackRestTemplate;
+    private final CallbackUrlPolicy callbackUrlPolicy;
+    private final TransferLimits transferLimits;
+
+    private final FundTransferMapper fundTransferMapper = new FundTransferMapper();
+
+    @Value("${fund-transfer.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${fund-transfer.outbox.retry-backoff-ms:1000}")
+    private long retryBackoffMillis;
+
+    @Value("${fund-transfer.outbox.lease-ms:300000}")
+    private long leaseMillis;
+
+    /**
+     * Saves a new transfer together with its debit step, in one local transaction. The debit step is
+     * returned already claimed by the caller.
+     *
+     * @param fundTransfer the pending transfer
+     * @return the ID of the claimed debit step
+     */
+    public Long begin(FundTransfer fundTransfer) {
+        return transactionTemplate.execute(status -> {
+            fundTransferRepository.save(fundTransfer);
+            return enqueue(fundTransfer, SagaStep.DEBIT);
+        });
+    }
+
+    /**
+     * Moves an authorised transfer from pending to processing and saves its capture step, in one local
+     * transaction. The capture step is returned already claimed by the caller.
+     *
+     * @param fundTransfer the authorised transfer
+     * @return the ID of the claimed capture step, or null if the transfer was no longer pending
+     */
+    public Long capture(FundTransfer fundTransfer) {
+        return transactionTemplate.execute(status -> fundTransferRepository.transition(fundTransfer.getFundTransferId(),
+                TransactionStatus.PENDING, "", TransactionStatus.PROCESSING, null) == 1
+                ? enqueue(fundTransfer, SagaStep.CAPTURE) : null);
+    }
+
+    /**
+     * Claims a due step, so that only one worker runs it.
+     *
+     * @param outboxEventId the ID of the outbox event
+     * @return true if the caller now owns the step
+     */
+    public boolean claim(Long outboxEventId) {
+        LocalDateTime now = LocalDateTime.now();
+        return outboxEventRepository.claim(outboxEventId, now, now.minus(leaseMillis, ChronoUnit.MILLIS)) == 1;
+    }
+
+    /**
+     * Releases a claimed step that could not be run, leaving it to the relay.
+     *
+     * @param outboxEventId the ID of the outbox event
+     */
+    public void release(Long outboxEventId) {
+        outboxEventRepository.release(outboxEventId);
+    }
+
+    /**
+     * Returns the account whose balance a step changes. The ledger step changes no balance and is
+     * attributed to the debited account.
+     *
+     * @param outboxEventId the ID of the outbox event
+     * @return the account number
+     */
+    public String accountOf(Long outboxEventId) {
+
+        SagaStepRoute route = outboxEventRepository.findRoute(outboxEventId)
+                .orElseThrow(() -> new ResourceNotFound("Outbox event not found", GlobalErrorCode.NOT_FOUND));
+        return switch (route.getStep()) {
+            case DEBIT, CAPTURE, LEDGER, REVERSE_DEBIT -> route.getFromAccount();
+            case CREDIT, REVERSE_CREDIT -> route.getToAccount();
+        };
+    }
+
+    /**
+     * Runs a claimed step and records its outcome.
+     *
+     * @param outboxEventId the ID of the claimed outbox event
+     * @return the ID of the next step, already claimed by the caller, or null if the transfer has finished
+     *         or the step was rescheduled for a retry
+     */
+    public Long handle(Long outboxEventId) {
+
+        ClaimedStep step = load(outboxEventId);
+        try {
+            execute(step.event().getStep(), step.fundTransfer());
+        } catch (RuntimeException exception) {
+            return record(step, exception);
+        }
+        return record(step, null);
+    }
+
+    /**
+     * Reads a claimed step and its transfer, for a caller that runs the remote call of the step itself.
+     *
+     * @param outboxEventId the ID of the claimed outbox event
+     * @return the step and its transfer
+     */
+    ClaimedStep load(Long outboxEventId) {
+
+        OutboxEvent event = outboxEventRepository.findById(outboxEventId)
+                .orElseThrow(() -> new ResourceNotFound("Outbox event not found", GlobalErrorCode.NOT_FOUND));
+        FundTransfer fundTransfer = fundTransferRepository.findById(event.getFundTransferId())
+                .orElseThrow(() -> new ResourceNotFound("Fund transfer not found", GlobalErrorCode.NOT_FOUND));
+        return new ClaimedStep(event, fundTransfer);
+    }
+
+    /**
+     * Records the outcome of the remote call of a claimed step. A {@link GlobalException} is a business
+     * failure and is compensated straight away; any other failure is retried until the attempts run out.
+     *
+     * @param step    the claimed step
+     * @param failure the failure of the call, or null if it succeeded
+     * @return the ID of the next step, already claimed by the caller, or null if the transfer has finished
+     *         or the step was rescheduled for a retry
+     */
+    Long record(ClaimedStep step, Throwable failure) {
+
+        OutboxEvent event = step.event();
+        FundTransfer fundTransfer = step.fundTransfer();
+        if (Objects.isNull(failure)) {
+            return succeed(event, fundTransfer);
+        }
+        if (failure instanceof GlobalException exception) {
+            fundTransfer.setFailureCode(exception.getMessage());
+            return fail(event, fundTransfer, exception.getErrorCode() + " - " + exception.getMessage(), false);
+        }
+        if (event.getAttempts() + 1 < maxAttempts) {
+            retry(event, failure);
+            return null;
+        }
+        String reason = event.getStep() + " failed after " + maxAttempts + " attempts: " + failure.getMessage();
+        if (event.getStep() == SagaStep.CAPTURE) {
+            Boolean captured = holdCaptured(fundTransfer);
+            if (Objects.isNull(captured)) {
+                retry(event, failure);
+                return null;
+            }
+            return fail(event, fundTransfer, reason, captured);
+        }
+        return fail(event, fundTransfer, reason, true);
+    }
+
+    /**
+     * Tells whether the hold of an authorised transfer has been captured, for a capture whose outcome is
+     * unknown. A capture cannot be undone by a reversal that is a no-op when it was not applied, so its
+     * outcome is read from the hold itself, and the capture is retried until it can be.
+     *
+     * @return true if the hold is captured, false if it is not, or null if the hold could not be read
+     */
+    private Boolean holdCaptured(FundTransfer fundTransfer) {
+        try {
+            Hold hold = accountService.readHold(fundTransfer.getHoldReference()).getBody();
+            return Objects.isNull(hold) ? null : HOLD_CAPTURED.equals(hold.getStatus());
+        } catch (RuntimeException exception) {
+            log.warn("hold {} of fund transfer {} could not be read, retrying the capture: {}", fundTransfer.getHoldReference(),
+                    fundTransfer.getTransactionReference(), exception.getMessage());
+            return null;
+        }
+    }
+
+    private void execute(SagaStep step, FundTransfer fundTransfer) {
+
+        switch (step) {
+            case DEBIT -> {
+                checkAccounts(fundTransfer);
+                accountService.updateBalance(balanceUpdate(fundTransfer, step));
+            }
+            case CAPTURE -> accountService.captureHold(fundTransfer.getHoldReference());
+            case CREDIT, REVERSE_CREDIT, REVERSE_DEBIT -> accountService.updateBalance(balanceUpdate(fundTransfer, step));
+            case LEDGER -> transactionService.makeInternalTransactions(ledgerEntries(fundTransfer), fundTransfer.getTransactionReference(),
+                    idempotencyKey(fundTransfer, step));
+        }
+    }
+
+    /**
+     * The idempotency key of a step of a transfer, the same on every run of the step.
+     */
+    static String idempotencyKey(FundTransfer fundTransfer, SagaStep step) {
+        return fundTransfer.getTransactionReference() + ":" + step;
+    }
+
+    /**
+     * Builds the balance update of a debit, credit or reversal step. A reversal undoes its step only if that
+     * step was applied, except the refund of a captured hold, whose capture has always been applied.
+     */
+    static BalanceUpdate balanceUpdate(FundTransfer fundTransfer, SagaStep step) {
+        return switch (step) {
+            case DEBIT -> new BalanceUpdate(fundTransfer.getFromAccount(), fundTransfer.getAmount().negate(),
+                    idempotencyKey(fundTransfer, step), null);
+            case CREDIT -> new BalanceUpdate(fundTransfer.getToAccount(), fundTransfer.getAmount(), idempotencyKey(fundTransfer, step), null);
+            case REVERSE_CREDIT -> new BalanceUpdate(fundTransfer.getToAccount(), fundTransfer.getAmount().negate(),
+                    idempotencyKey(fundTransfer, step), idempotencyKey(fundTransfer, SagaStep.CREDIT));
+            case REVERSE_DEBIT -> new BalanceUpdate(fundTransfer.getFromAccount(), fundTransfer.getAmount(), idempotencyKey(fundTransfer, step),
+                    Objects.isNull(fundTransfer.getHoldReference()) ? idempotencyKey(fundTransfer, SagaStep.DEBIT) : null);
+            case CAPTURE, LEDGER -> throw new IllegalArgumentException(step + " is not a balance update");
+        };
+    }
+
+    /**
+     * Checks that the debited account is active and the credited account exists before any money moves.
+     * Sufficient funds are enforced by Account-Service when the debit is applied.
+     */
+    void checkAccounts(FundTransfer fundTransfer) {
+
+        ResponseEntity<Account> response = accountService.readByAccountNumber(fundTransfer.getFromAccount());
+        if (Objects.isNull(response.getBody())) {
+            log.error("requested account " + fundTransfer.getFromAccount() + " is not found on the server");
+            throw new ResourceNotFound("requested account not found on the server", GlobalErrorCode.NOT_FOUND);
+        }
+        if (!response.getBody().getAccountStatus().equals("ACTIVE")) {
+            log.error("account status is pending or inactive, please update the account status");
+            throw new AccountUpdateException("account is status is :pending", GlobalErrorCode.NOT_ACCEPTABLE);
+        }
+        if (Objects.isNull(accountService.readByAccountNumber(fundTransfer.getToAccount()).getBody())) {
+            log.error("requested account " + fundTransfer.getToAccount() + " is not found on the server");
+            throw new ResourceNotFound("requested account not found on the server", GlobalErrorCode.NOT_FOUND);
+        }
+    }
+
+    /**
+     * A claimed step together with the transfer it belongs to.
+     */
+    record ClaimedStep(OutboxEvent event, FundTransfer fundTransfer) {
+    }
+
+    /**
+     * Builds the debit and credit ledger entries of a transfer, each carrying the reference of the transfer.
+     */
+    static List<Transaction> ledgerEntries(FundTransfer fundTransfer) {
+        return List.of(
+                Transaction.builder()
+                        .accountId(fundTransfer.getFromAccount())
+                        .transactionType("INTERNAL_TRANSFER")
+                        .amount(fundTransfer.getAmount().negate())
+                        .description("Internal fund transfer from " + fundTransfer.getFromAccount() + " to " + fundTransfer.getToAccount())
+                        .referenceId(fundTransfer.getTransactionReference())
+                        .build(),
+                Transaction.builder()
+                        .accountId(fundTransfer.getToAccount())
+                        .transactionType("INTERNAL_TRANSFER")
+                        .amount(fundTransfer.getAmount())
+                        .description("Internal fund transfer received from: " + fundTransfer.getFromAccount())
+                        .referenceId(fundTransfer.getTransactionReference()).build());
+    }
+
+    private Long succeed(OutboxEvent event, FundTransfer fundTransfer) {
+
+        SagaStep next = switch (event.getStep()) {
+            case DEBIT, CAPTURE -> SagaStep.CREDIT;
+            case CREDIT -> SagaStep.LEDGER;
+            case REVERSE_CREDIT -> SagaStep.REVERSE_DEBIT;
+            case LEDGER, REVERSE_DEBIT -> null;
+        };
+        switch (event.getStep()) {
+            case DEBIT, CAPTURE -> fundTransfer.setStatus(TransactionStatus.PROCESSING);
+            case LEDGER -> fundTransfer.setStatus(TransactionStatus.SUCCESS);
+            case REVERSE_DEBIT -> fundTransfer.setStatus(TransactionStatus.FAILED);
+            default -> {
+            }
+        }
+        return complete(event, OutboxStatus.DONE, fundTransfer, next);
+    }
+
+    /**
+     * Records the failure of a step and queues its compensation. A step that may have taken effect, having
+     * failed transiently, is undone with a reversal that is a no-op if it had not; a capture is only
+     * reported as applied once its hold was read back as captured, and is then refunded.
+     */
+    private Long fail(OutboxEvent event, FundTransfer fundTransfer, String reason, boolean mayHaveApplied) {
+
+        event.setLastError(reason);
+        SagaStep compensation = switch (event.getStep()) {
+            case DEBIT -> mayHaveApplied ? SagaStep.REVERSE_DEBIT : null;
+            case CREDIT -> mayHaveApplied ? SagaStep.REVERSE_CREDIT : SagaStep.REVERSE_DEBIT;
+            case CAPTURE -> mayHaveApplied ? SagaStep.REVERSE_DEBIT : null;
+            case LEDGER -> mayHaveApplied ? null : SagaStep.REVERSE_CREDIT;
+            case REVERSE_CREDIT, REVERSE_DEBIT -> null;
+        };
+        switch (event.getStep()) {
+            case DEBIT, CAPTURE -> {
+                if (Objects.isNull(compensation)) {
+                    fundTransfer.setStatus(TransactionStatus.FAILED);
+                }
+                fundTransfer.setFailureReason(reason);
+            }
+            case CREDIT -> fundTransfer.setFailureReason(reason);
+            case LEDGER -> fundTransfer.setFailureReason(mayHaveApplied ? BulkFundTransferProcessor.LEDGER_NOT_RECORDED + reason : reason);
+            case REVERSE_CREDIT, REVERSE_DEBIT -> {
+                log.error("compensation {} of fund transfer {} failed, manual correction required: {}",
+                        event.getStep(), fundTransfer.getTransactionReference(), reason);
+                fundTransfer.setStatus(TransactionStatus.FAILED);
+                fundTransfer.setFailureReason("compensation " + event.getStep() + " failed: " + reason);
+            }
+        }
+        return complete(event, OutboxStatus.FAILED, fundTransfer, compensation);
+    }
+
+    /**
+     * Records the outcome of a step, the new state of the transfer and the step that follows, in one local
+     * transaction, and notifies the caller's callback once the transfer has reached a final status. A failed
+     * transfer no longer counts towards the limits of its account.
+     */
+    private Long complete(OutboxEvent event, OutboxStatus outcome, FundTransfer fundTransfer, SagaStep next) {
+
+        event.setStatus(outcome);
+        Long nextEventId = transactionTemplate.execute(status -> {
+            outboxEventRepository.save(event);
+            fundTransferRepository.save(fundTransfer);
+            return next == null ? null : enqueue(fundTransfer, next);
+        });
+        if (nextEventId == null && fundTransfer.getStatus() == TransactionStatus.PROCESSING) {
+            log.warn("ledger entries of fund transfer {} are left to reconciliation: {}", fundTransfer.getTransactionReference(),
+                    fundTransfer.getFailureReason());
+        } else if (nextEventId == null) {
+            log.info("fund transfer {} finished with status {}", fundTransfer.getTransactionReference(), fundTransfer.getStatus());
+            if (fundTransfer.getStatus() == TransactionStatus.FAILED) {
+                transferLimits.release(fundTransfer.getFromAccount(), fundTransfer.getTransferType(), fundTransfer.getAmount(),
+                        fundTransfer.getTransferredOn());
+            }
+            notifyCallback(fundTransfer);
+        }
+        return nextEventId;
+    }
+
+    private void retry(OutboxEvent event, Throwable exception) {
+
+        int attempts = event.getAttempts() + 1;
+        long backoff = retryBackoffMillis << Math.min(attempts - 1, 10);
+        log.warn("step {} of fund transfer {} failed, attempt {} of {}, retrying in {} ms: {}", event.getStep(),
+                event.getFundTransferId(), attempts, maxAttempts, backoff, exception.getMessage());
+        event.setAttempts(attempts);
+        event.setStatus(OutboxStatus.PENDING);
+        event.setClaimedAt(null);
+        event.setAvailableAt(LocalDateTime.now().plus(backoff, ChronoUnit.MILLIS));
+        event.setLastError(exception.getMessage());
+        outboxEventRepository.save(event);
+    }
+
+    private Long enqueue(FundTransfer fundTransfer, SagaStep step) {
+        LocalDateTime now = LocalDateTime.now();
+        return outboxEventRepository.save(OutboxEvent.builder()
+                .fundTransferId(fundTransfer.getFundTransferId())
+                .step(step)
+                .status(OutboxStatus.IN_FLIGHT)
+                .availableAt(now)
+                .claimedAt(now).build()).getOutboxEventId();
+    }
+
+    private void notifyCallback(FundTransfer fundTransfer) {
+        if (!StringUtils.hasText(fundTransfer.getCallbackUrl())) {
+            return;
+        }
+        String problem = callbackUrlPolicy.problem(fundTransfer.getCallbackUrl());
+        if (!Objects.isNull(problem)) {
+            log.warn("callback for fund transfer {} not sent: {}", fundTransfer.getTransactionReference(), problem);
+            return;
+        }
+        try {
+            callbackRestTemplate.postForEntity(fundTransfer.getCallbackUrl(), fundTransferMapper.convertToDto(fundTransfer), Void.class);
+        } catch (RestClientException exception) {
+            log.warn("callback to {} for fund transfer {} failed: {}", fundTransfer.getCallbackUrl(),
+                    fundTransfer.getTransactionReference(), exception.getMessage());
+        }
+    }
+}
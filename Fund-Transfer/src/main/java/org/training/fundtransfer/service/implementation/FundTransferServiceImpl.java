@@ -1,129 +1,622 @@
 package org.training.fundtransfer.service.implementation;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.training.fundtransfer.exception.AccountUpdateException;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 import org.training.fundtransfer.exception.GlobalErrorCode;
-import org.training.fundtransfer.exception.InsufficientBalance;
+import org.training.fundtransfer.exception.GlobalException;
+import org.training.fundtransfer.exception.InvalidTransferRequest;
 import org.training.fundtransfer.exception.ResourceNotFound;
+import org.training.fundtransfer.exception.SanctionsMatch;
+import org.training.fundtransfer.exception.TransferFailed;
+import org.training.fundtransfer.exception.TransferLimitExceeded;
+import org.training.fundtransfer.exception.TransferRejected;
 import org.training.fundtransfer.external.AccountService;
-import org.training.fundtransfer.external.TransactionService;
+import org.training.fundtransfer.model.AccountLookup;
+import org.training.common.model.Money;
 import org.training.fundtransfer.model.mapper.FundTransferMapper;
 import org.training.fundtransfer.model.TransactionStatus;
+import org.training.fundtransfer.model.TransferDirection;
 import org.training.fundtransfer.model.TransferType;
-import org.training.fundtransfer.model.dto.Account;
+import org.training.fundtransfer.model.dto.BulkTransferOutcome;
 import org.training.fundtransfer.model.dto.FundTransferDto;
-import org.training.fundtransfer.model.dto.Transaction;
+import org.training.fundtransfer.model.dto.Hold;
+import org.training.fundtransfer.model.dto.request.BulkFundTransferRequest;
+import org.training.fundtransfer.model.dto.request.FundTransferAuthorisationRequest;
 import org.training.fundtransfer.model.dto.request.FundTransferRequest;
+import org.training.fundtransfer.model.dto.response.BulkFundTransferResponse;
+import org.training.fundtransfer.model.dto.response.DryRunResponse;
 import org.training.fundtransfer.model.dto.response.FundTransferResponse;
+import org.training.fundtransfer.model.dto.response.ReconciliationReport;
+import org.training.fundtransfer.model.dto.response.TransferHistoryResponse;
 import org.training.fundtransfer.model.entity.FundTransfer;
 import org.training.fundtransfer.repository.FundTransferRepository;
 import org.training.fundtransfer.service.FundTransferService;
+import org.training.fundtransfer.service.SagaStepPublisher;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FundTransferServiceImpl implements FundTransferService {
 
-    private final AccountService accountService;
     private final FundTransferRepository fundTransferRepository;
-    private final TransactionService transactionService;
+    private final FundTransferSaga fundTransferSaga;
+    private final SagaStepPublisher sagaStepPublisher;
+    private final BulkFundTransferProcessor bulkFundTransferProcessor;
+    private final TransferReconciler transferReconciler;
+    private final TransferLimits transferLimits;
+    private final AccountService accountService;
+    private final SanctionsScreener sanctionsScreener;
+    private final AccountNumberFilter accountNumberFilter;
+    private final CallbackUrlPolicy callbackUrlPolicy;
+    private final ReactiveFundTransferSaga reactiveFundTransferSaga;
+    private final TransferShadow transferShadow;
+    private final MeterRegistry meterRegistry;
 
     @Value("${spring.application.ok}")
     private String ok;
 
+    @Value("${fund-transfer.bulk.max-transfers:50000}")
+    private int maxBulkTransfers;
+
+    @Value("${fund-transfer.lanes.sync-timeout-ms:30000}")
+    private long syncTimeoutMillis;
+
+    @Value("${fund-transfer.reactive.response-timeout-ms:30000}")
+    private long reactiveResponseTimeoutMillis;
+
+    @Value("${fund-transfer.shadow.account-lookup:REACTIVE}")
+    private AccountLookup shadowAccountLookup;
+
+    @Value("${fund-transfer.history.max-page-size:500}")
+    private int maxHistoryPageSize;
+
+    /**
+     * The bounds used for an open end of a history range, well within what the database can store.
+     */
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private static final String AUTHORISATION_RELEASED = "authorisation released";
+
+    private static final Comparator<FundTransfer> NEWEST_FIRST = Comparator
+            .comparing(FundTransfer::getTransferredOn)
+            .thenComparing(FundTransfer::getFundTransferId)
+            .reversed();
+
     private final FundTransferMapper fundTransferMapper = new FundTransferMapper();
 
     /**
-     * Transfers funds from one account to another.
+     * Transfers funds from one account to another. The transfer and its first step are saved in one local
+     * transaction and the steps are then run on the transfer lanes of the accounts while the caller waits,
+     * so a failure at any point is completed or compensated from the outbox instead of leaving the balances
+     * and the ledger out of step. A transfer still running when the wait ends is reported as being processed.
      *
      * @param fundTransferRequest The request object containing the details of the fund transfer.
      * @return The response object indicating the status of the fund transfer.
-     * @throws ResourceNotFound If the requested account is not found on the server.
-     * @throws AccountUpdateException If the account status is pending or inactive.
-     * @throws InsufficientBalance If the required amount to transfer is not available.
+     * @throws InvalidTransferRequest If the accounts, amount or callback URL of the request are invalid.
+     * @throws TransferRejected If the transfer lane of the debited account is saturated.
+     * @throws TransferLimitExceeded If the transfer is over the per-transaction or daily limit of the account.
+     * @throws TransferFailed If the transfer failed, carrying the error code of the failure: 404 if an account
+     *                        was not found, 406 if the debited account was not active or did not hold the amount.
      */
     @Override
     public FundTransferResponse fundTransfer(FundTransferRequest fundTransferRequest) {
 
-        Account fromAccount;
-        ResponseEntity<Account> response = accountService.readByAccountNumber(fundTransferRequest.getFromAccount());
-        if(Objects.isNull(response.getBody())){
-            log.error("requested account "+fundTransferRequest.getFromAccount()+" is not found on the server");
-            throw new ResourceNotFound("requested account not found on the server", GlobalErrorCode.NOT_FOUND);
+        validate(fundTransferRequest);
+        transferShadow.mirror(() -> dryRun(fundTransferRequest, shadowAccountLookup, "shadow"));
+        checkCapacity(fundTransferRequest);
+        FundTransfer fundTransfer = pendingTransfer(fundTransferRequest);
+        Long debit = begin(fundTransfer);
+        CompletableFuture<Void> done = sagaStepPublisher.publish(debit);
+        if (Objects.isNull(done)) {
+            fundTransferSaga.release(debit);
+        } else {
+            try {
+                done.get(syncTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException exception) {
+                log.warn("fund transfer {} still running after {} ms", fundTransfer.getTransactionReference(), syncTimeoutMillis);
+            }
+        }
+
+        return outcome(fundTransferRepository.findById(fundTransfer.getFundTransferId()).orElseThrow());
+    }
+
+    /**
+     * Transfers funds from one account to another without holding a thread while the other services are
+     * called. The transfer and its first step are saved as on the blocking path, and the steps are then run
+     * with non-blocking calls, the debit step reading both accounts at once. A transfer still running when
+     * the wait ends is reported as being processed and completed in the background, or by the outbox relay.
+     *
+     * @param fundTransferRequest The request object containing the details of the fund transfer.
+     * @return A Mono of the response object indicating the status of the fund transfer.
+     * @throws InvalidTransferRequest If the accounts, amount or callback URL of the request are invalid.
+     * @throws TransferLimitExceeded If the transfer is over the per-transaction or daily limit of the account.
+     * @throws TransferFailed If the transfer failed, for example because an account was not found, was not
+     *                        active or did not hold the amount.
+     */
+    @Override
+    public Mono<FundTransferResponse> reactiveFundTransfer(FundTransferRequest fundTransferRequest) {
+
+        validate(fundTransferRequest);
+        transferShadow.mirror(() -> dryRun(fundTransferRequest, shadowAccountLookup, "shadow"));
+        FundTransfer fundTransfer = pendingTransfer(fundTransferRequest);
+        return Mono.fromCallable(() -> begin(fundTransfer))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(debit -> reactiveFundTransferSaga.start(debit)
+                        .timeout(Duration.ofMillis(reactiveResponseTimeoutMillis), Mono.fromRunnable(() ->
+                                log.warn("fund transfer {} still running after {} ms", fundTransfer.getTransactionReference(), reactiveResponseTimeoutMillis))))
+                .then(Mono.fromCallable(() -> outcome(fundTransferRepository.findById(fundTransfer.getFundTransferId()).orElseThrow()))
+                        .subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    /**
+     * Runs a fund transfer as far as it goes without moving money, timing every stage. The request is
+     * validated, the transfer lane and the limits of the debited account are checked without reserving
+     * anything, and both accounts are read as the debit step reads them. The transfer is not saved, and no
+     * balance or ledger entry is changed. The timings are also published as metrics.
+     *
+     * @param fundTransferRequest The request object containing the details of the fund transfer.
+     * @param accountLookup How the accounts are read.
+     * @return The response object containing the time taken by every stage.
+     * @throws InvalidTransferRequest If the accounts, amount or callback URL of the request are invalid.
+     * @throws TransferRejected If the transfer lane of the debited account is saturated.
+     * @throws TransferLimitExceeded If the transfer is over the per-transaction or daily limit of the account.
+     * @throws TransferFailed If an account was not found or the debited account is not active.
+     */
+    @Override
+    public DryRunResponse dryRunFundTransfer(FundTransferRequest fundTransferRequest, AccountLookup accountLookup) {
+
+        return dryRun(fundTransferRequest, accountLookup, "dry-run");
+    }
+
+    private DryRunResponse dryRun(FundTransferRequest fundTransferRequest, AccountLookup accountLookup, String mode) {
+
+        Map<String, Long> stageNanos = new LinkedHashMap<>();
+        long started = System.nanoTime();
+        String outcome = "failed";
+        try {
+            stage(stageNanos, "validation", () -> validate(fundTransferRequest));
+            stage(stageNanos, "capacity", () -> checkCapacity(fundTransferRequest));
+            FundTransfer fundTransfer = pendingTransfer(fundTransferRequest);
+            stage(stageNanos, "limits", () -> transferLimits.check(fundTransfer.getFromAccount(), fundTransfer.getTransferType(), fundTransfer.getAmount()));
+            stage(stageNanos, "lookups", () -> lookUpAccounts(fundTransfer, accountLookup));
+            outcome = "passed";
+        } finally {
+            String lookup = accountLookup.name().toLowerCase();
+            stageNanos.forEach((stage, nanos) -> Timer.builder("fund.transfer.dry.run.stage")
+                    .description("Time taken by a stage of a dry-run transfer")
+                    .tags("mode", mode, "lookup", lookup, "stage", stage)
+                    .register(meterRegistry)
+                    .record(nanos, TimeUnit.NANOSECONDS));
+            Timer.builder("fund.transfer.dry.run")
+                    .description("Time taken by a dry-run transfer")
+                    .tags("mode", mode, "lookup", lookup, "outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        Map<String, Long> stageMicros = new LinkedHashMap<>();
+        stageNanos.forEach((stage, nanos) -> stageMicros.put(stage, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        return DryRunResponse.builder()
+                .message("Fund transfer dry run passed, no funds were moved")
+                .accountLookup(accountLookup)
+                .stageMicros(stageMicros)
+                .totalMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started)).build();
+    }
+
+    private static void stage(Map<String, Long> stageNanos, String stage, Runnable check) {
+        long started = System.nanoTime();
+        try {
+            check.run();
+        } finally {
+            stageNanos.put(stage, System.nanoTime() - started);
+        }
+    }
+
+    private void lookUpAccounts(FundTransfer fundTransfer, AccountLookup accountLookup) {
+        try {
+            if (accountLookup == AccountLookup.REACTIVE) {
+                reactiveFundTransferSaga.checkAccounts(fundTransfer).block();
+            } else {
+                fundTransferSaga.checkAccounts(fundTransfer);
+            }
+        } catch (GlobalException exception) {
+            throw new TransferFailed(exception.getErrorCode() + " - " + exception.getMessage(), GlobalErrorCode.NOT_ACCEPTABLE);
+        }
+    }
+
+    private FundTransferResponse outcome(FundTransfer fundTransfer) {
+        if (fundTransfer.getStatus().equals(TransactionStatus.FAILED)) {
+            throw new TransferFailed(fundTransfer.getFailureReason(),
+                    Objects.requireNonNullElse(fundTransfer.getFailureCode(), GlobalErrorCode.NOT_ACCEPTABLE));
         }
-        fromAccount = response.getBody();
-        if (!fromAccount.getAccountStatus().equals("ACTIVE")) {
-            log.error("account status is pending or inactive, please update the account status");
-            throw new AccountUpdateException("account is status is :pending", GlobalErrorCode.NOT_ACCEPTABLE);
+        return FundTransferResponse.builder()
+                .transactionId(fundTransfer.getTransactionReference())
+                .message(fundTransfer.getStatus().equals(TransactionStatus.SUCCESS)
+                        ? "Fund transfer was successful" : "Fund transfer is being processed").build();
+    }
+
+    /**
+     * Accepts a fund transfer for asynchronous processing. Only the request itself is validated here; the
+     * transfer is then saved as pending together with its first step and queued on the transfer lane of the
+     * debited account, where the accounts are read and the funds moved. If the lane filled up in the
+     * meantime, the outbox relay picks the transfer up.
+     *
+     * @param fundTransferRequest The request object containing the details of the fund transfer.
+     * @return The response object containing the reference under which the transfer can be polled.
+     * @throws InvalidTransferRequest If the accounts, amount or callback URL of the request are invalid.
+     * @throws TransferRejected If the transfer lane of the debited account is saturated.
+     * @throws TransferLimitExceeded If the transfer is over the per-transaction or daily limit of the account.
+     */
+    @Override
+    public FundTransferResponse submitFundTransfer(FundTransferRequest fundTransferRequest) {
+
+        validate(fundTransferRequest);
+        transferShadow.mirror(() -> dryRun(fundTransferRequest, shadowAccountLookup, "shadow"));
+        checkCapacity(fundTransferRequest);
+        FundTransfer fundTransfer = pendingTransfer(fundTransferRequest);
+        Long debit = begin(fundTransfer);
+        if (Objects.isNull(sagaStepPublisher.publish(debit))) {
+            fundTransferSaga.release(debit);
         }
-        if (fromAccount.getAvailableBalance().compareTo(fundTransferRequest.getAmount()) < 0) {
-            log.error("required amount to transfer is not available");
-            throw new InsufficientBalance("requested amount is not available", GlobalErrorCode.NOT_ACCEPTABLE);
+        return FundTransferResponse.builder()
+                .transactionId(fundTransfer.getTransactionReference())
+                .message("Fund transfer accepted for processing").build();
+    }
+
+    /**
+     * Authorises a cheque or external transfer. The beneficiary of an external transfer is first screened
+     * against the sanctions list. The amount is reserved against the limits of the debited
+     * account and held on its available balance by Account-Service, under the reference of the transfer, and
+     * the transfer is saved as pending. No money moves until the transfer is captured; if it is neither
+     * captured nor released, Account-Service returns the held funds when the hold expires.
+     *
+     * @param authorisationRequest The request object containing the details of the transfer.
+     * @return The response object containing the reference of the authorised transfer.
+     * @throws InvalidTransferRequest If the accounts, amount, type, beneficiary or callback URL of the request
+     *                                are invalid.
+     * @throws SanctionsMatch If the beneficiary name matches the sanctions list.
+     * @throws TransferRejected If the sanctions list has not been loaded.
+     * @throws ResourceNotFound If the credited account is not found.
+     * @throws TransferLimitExceeded If the transfer is over the per-transaction or daily limit of the account.
+     */
+    @Override
+    public FundTransferResponse authoriseFundTransfer(FundTransferAuthorisationRequest authorisationRequest) {
+
+        FundTransferRequest fundTransferRequest = FundTransferRequest.builder()
+                .fromAccount(authorisationRequest.getFromAccount())
+                .toAccount(authorisationRequest.getToAccount())
+                .amount(authorisationRequest.getAmount())
+                .callbackUrl(authorisationRequest.getCallbackUrl()).build();
+        validate(fundTransferRequest);
+        TransferType transferType = authorisationRequest.getTransferType();
+        if (transferType != TransferType.CHEQUE && transferType != TransferType.EXTERNAL) {
+            throw new InvalidTransferRequest("only cheque and external transfers are authorised before they are settled", GlobalErrorCode.BAD_REQUEST);
         }
-        Account toAccount;
-        response = accountService.readByAccountNumber(fundTransferRequest.getToAccount());
-        if(Objects.isNull(response.getBody())) {
-            log.error("requested account "+fundTransferRequest.getToAccount()+" is not found on the server");
+        if (transferType == TransferType.EXTERNAL) {
+            if (!StringUtils.hasText(authorisationRequest.getBeneficiaryName())) {
+                throw new InvalidTransferRequest("beneficiary name is required for an external transfer", GlobalErrorCode.BAD_REQUEST);
+            }
+            sanctionsScreener.screen(authorisationRequest.getBeneficiaryName());
+        }
+        if (Objects.isNull(accountService.readByAccountNumber(fundTransferRequest.getToAccount()).getBody())) {
             throw new ResourceNotFound("requested account not found on the server", GlobalErrorCode.NOT_FOUND);
         }
-        //My Name is Akash Kumar is first commit
-        toAccount = response.getBody();
-        String transactionId = internalTransfer(fromAccount, toAccount, fundTransferRequest.getAmount());
-        FundTransfer fundTransfer = FundTransfer.builder()
-                .transferType(TransferType.INTERNAL)
-                .amount(fundTransferRequest.getAmount())
-                .fromAccount(fromAccount.getAccountNumber())
-                .transactionReference(transactionId)
-                .status(TransactionStatus.SUCCESS)
-                .toAccount(toAccount.getAccountNumber()).build();
 
-        fundTransferRepository.save(fundTransfer);
+        FundTransfer fundTransfer = pendingTransfer(fundTransferRequest);
+        fundTransfer.setTransferType(transferType);
+        fundTransfer.setBeneficiaryName(authorisationRequest.getBeneficiaryName());
+        fundTransfer.setHoldReference(fundTransfer.getTransactionReference());
+        transferLimits.reserve(fundTransfer.getFromAccount(), transferType, fundTransfer.getAmount());
+        try {
+            accountService.placeHold(Hold.builder()
+                    .holdReference(fundTransfer.getHoldReference())
+                    .accountNumber(fundTransfer.getFromAccount())
+                    .amount(fundTransfer.getAmount())
+                    .expiresAt(authorisationRequest.getExpiresAt()).build());
+        } catch (RuntimeException exception) {
+            transferLimits.release(fundTransfer.getFromAccount(), transferType, fundTransfer.getAmount(), LocalDateTime.now());
+            throw exception;
+        }
+        try {
+            fundTransferRepository.save(fundTransfer);
+        } catch (RuntimeException exception) {
+            releaseHold(fundTransfer);
+            transferLimits.release(fundTransfer.getFromAccount(), transferType, fundTransfer.getAmount(), LocalDateTime.now());
+            throw exception;
+        }
+        log.info("fund transfer {} of {} from account {} authorised", fundTransfer.getTransactionReference(),
+                fundTransfer.getAmount(), fundTransfer.getFromAccount());
+        return FundTransferResponse.builder()
+                .transactionId(fundTransfer.getTransactionReference())
+                .message("Fund transfer authorised, funds are held until it is captured or released").build();
+    }
+
+    /**
+     * Captures an authorised transfer. The transfer is moved to processing together with its capture step,
+     * which takes the held funds out of the debited account on the transfer lane of that account; the
+     * credit and ledger steps follow as for any other transfer. Capturing a transfer that is already being
+     * processed or has succeeded reports its status.
+     *
+     * @param referenceId The reference of the authorised transfer.
+     * @return The response object containing the status of the transfer.
+     * @throws ResourceNotFound If the transfer is not found.
+     * @throws InvalidTransferRequest If the transfer was not authorised with a hold.
+     * @throws TransferFailed If the transfer has been released or has failed.
+     */
+    @Override
+    public FundTransferResponse captureFundTransfer(String referenceId) {
+
+        FundTransfer fundTransfer = authorisedTransfer(referenceId);
+        if (fundTransfer.getStatus() == TransactionStatus.PENDING) {
+            Long capture = fundTransferSaga.capture(fundTransfer);
+            if (!Objects.isNull(capture) && Objects.isNull(sagaStepPublisher.publish(capture))) {
+                fundTransferSaga.release(capture);
+            }
+            fundTransfer = authorisedTransfer(referenceId);
+        }
+        if (fundTransfer.getStatus() == TransactionStatus.FAILED) {
+            throw new TransferFailed(fundTransfer.getFailureReason(),
+                    Objects.requireNonNullElse(fundTransfer.getFailureCode(), GlobalErrorCode.NOT_ACCEPTABLE));
+        }
+        return FundTransferResponse.builder()
+                .transactionId(fundTransfer.getTransactionReference())
+                .message(fundTransfer.getStatus() == TransactionStatus.SUCCESS
+                        ? "Fund transfer was successful" : "Fund transfer captured, it is being processed").build();
+    }
+
+    /**
+     * Releases an authorised transfer that has not been captured. The transfer is marked as failed first,
+     * so a capture arriving at the same time cannot start, and the hold is then released. A hold that could
+     * not be released is left to expire. Releasing a released transfer reports it again.
+     *
+     * @param referenceId The reference of the authorised transfer.
+     * @return The response object containing the status of the transfer.
+     * @throws ResourceNotFound If the transfer is not found.
+     * @throws InvalidTransferRequest If the transfer was not authorised with a hold, or has been captured.
+     * @throws TransferFailed If the transfer failed after it was captured.
+     */
+    @Override
+    public FundTransferResponse releaseFundTransfer(String referenceId) {
+
+        FundTransfer fundTransfer = authorisedTransfer(referenceId);
+        if (fundTransfer.getStatus() == TransactionStatus.PENDING && fundTransferRepository.transition(fundTransfer.getFundTransferId(),
+                TransactionStatus.PENDING, "", TransactionStatus.FAILED, AUTHORISATION_RELEASED) == 1) {
+            releaseHold(fundTransfer);
+            transferLimits.release(fundTransfer.getFromAccount(), fundTransfer.getTransferType(), fundTransfer.getAmount(),
+                    fundTransfer.getTransferredOn());
+            fundTransfer = authorisedTransfer(referenceId);
+        }
+        if (fundTransfer.getStatus() != TransactionStatus.FAILED) {
+            throw new InvalidTransferRequest("fund transfer has been captured and cannot be released", GlobalErrorCode.NOT_ACCEPTABLE);
+        }
+        if (!AUTHORISATION_RELEASED.equals(fundTransfer.getFailureReason())) {
+            throw new TransferFailed(fundTransfer.getFailureReason(),
+                    Objects.requireNonNullElse(fundTransfer.getFailureCode(), GlobalErrorCode.NOT_ACCEPTABLE));
+        }
         return FundTransferResponse.builder()
-                .transactionId(transactionId)
-                .message("Fund transfer was successful").build();
+                .transactionId(fundTransfer.getTransactionReference())
+                .message("Fund transfer released, held funds returned to the account").build();
+    }
+
+    private FundTransfer authorisedTransfer(String referenceId) {
+        FundTransfer fundTransfer = fundTransferRepository.findFundTransferByTransactionReference(referenceId)
+                .orElseThrow(() -> new ResourceNotFound("Fund transfer not found", GlobalErrorCode.NOT_FOUND));
+        if (Objects.isNull(fundTransfer.getHoldReference())) {
+            throw new InvalidTransferRequest("fund transfer was not authorised with a hold", GlobalErrorCode.BAD_REQUEST);
+        }
+        return fundTransfer;
+    }
+
+    private void releaseHold(FundTransfer fundTransfer) {
+        try {
+            accountService.releaseHold(fundTransfer.getHoldReference());
+        } catch (RuntimeException exception) {
+            log.warn("hold {} of fund transfer {} could not be released, it is returned when it expires: {}",
+                    fundTransfer.getHoldReference(), fundTransfer.getTransactionReference(), exception.getMessage());
+        }
     }
 
     /**
-     * Transfers funds from one account to another within the system.
+     * Transfers funds for a batch of transfers. Every transfer is validated and checked on its own, but
+     * the accepted transfers are settled together: one balance change per account and the ledger entries
+     * in chunks. A transfer that fails its checks is reported in the outcomes and does not affect the rest.
      *
-     * @param fromAccount The account to transfer funds from.
-     * @param toAccount The account to transfer funds to.
-     * @param amount The amount of funds to transfer.
-     * @return The transaction reference number.
+     * @param bulkFundTransferRequest The request object containing the transfers of the batch.
+     * @return The response object containing the batch reference and the outcome of every transfer, by
+     *         its index in the request.
+     * @throws InvalidTransferRequest If the batch is empty or holds more transfers than allowed.
      */
-    private String internalTransfer(Account fromAccount, Account toAccount, BigDecimal amount) {
+    @Override
+    public BulkFundTransferResponse bulkFundTransfer(BulkFundTransferRequest bulkFundTransferRequest) {
 
-        fromAccount.setAvailableBalance(fromAccount.getAvailableBalance().subtract(amount));
-        accountService.updateAccount(fromAccount.getAccountNumber(), fromAccount);
+        List<FundTransferRequest> transfers = bulkFundTransferRequest.getTransfers();
+        if (CollectionUtils.isEmpty(transfers)) {
+            throw new InvalidTransferRequest("a bulk transfer needs at least one transfer", GlobalErrorCode.BAD_REQUEST);
+        }
+        if (transfers.size() > maxBulkTransfers) {
+            throw new InvalidTransferRequest("a bulk transfer holds at most " + maxBulkTransfers + " transfers", GlobalErrorCode.BAD_REQUEST);
+        }
+
+        String batchReference = UUID.randomUUID().toString();
+        String[] rejections = new String[transfers.size()];
+        FundTransfer[] fundTransfers = new FundTransfer[transfers.size()];
+        List<FundTransfer> pending = new ArrayList<>(transfers.size());
+        for (int index = 0; index < transfers.size(); index++) {
+            FundTransferRequest transfer = transfers.get(index);
+            try {
+                validate(transfer);
+            } catch (InvalidTransferRequest exception) {
+                rejections[index] = exception.getErrorCode() + " - " + exception.getMessage();
+                continue;
+            }
+            FundTransfer fundTransfer = pendingTransfer(transfer);
+            fundTransfer.setCallbackUrl(null);
+            fundTransfer.setBatchReference(batchReference);
+            fundTransfers[index] = fundTransfer;
+            pending.add(fundTransfer);
+        }
+        if (!pending.isEmpty()) {
+            bulkFundTransferProcessor.process(pending);
+        }
 
-        toAccount.setAvailableBalance(toAccount.getAvailableBalance().add(amount));
-        accountService.updateAccount(toAccount.getAccountNumber(), toAccount);
+        List<BulkTransferOutcome> outcomes = new ArrayList<>(transfers.size());
+        int accepted = 0;
+        for (int index = 0; index < transfers.size(); index++) {
+            FundTransfer fundTransfer = fundTransfers[index];
+            if (Objects.isNull(fundTransfer)) {
+                outcomes.add(new BulkTransferOutcome(index, null, TransactionStatus.FAILED, rejections[index]));
+                continue;
+            }
+            if (!fundTransfer.getStatus().equals(TransactionStatus.FAILED)) {
+                accepted++;
+            }
+            outcomes.add(new BulkTransferOutcome(index, fundTransfer.getTransactionReference(), fundTransfer.getStatus(),
+                    switch (fundTransfer.getStatus()) {
+                        case SUCCESS -> "Fund transfer was successful";
+                        case FAILED -> fundTransfer.getFailureReason();
+                        default -> "Fund transfer is being processed";
+                    }));
+        }
+        log.info("bulk transfer {} accepted {} of {} transfers", batchReference, accepted, transfers.size());
+        return BulkFundTransferResponse.builder()
+                .batchReference(batchReference)
+                .responseCode(ok)
+                .message("Bulk fund transfer processed")
+                .accepted(accepted)
+                .rejected(transfers.size() - accepted)
+                .outcomes(outcomes).build();
+    }
 
-        List<Transaction> transactions = List.of(
-                Transaction.builder()
-                        .accountId(fromAccount.getAccountNumber())
-                        .transactionType("INTERNAL_TRANSFER")
-                        .amount(amount.negate())
-                        .description("Internal fund transfer from "+fromAccount.getAccountNumber()+" to "+toAccount.getAccountNumber())
-                        .build(),
-                Transaction.builder()
-                        .accountId(toAccount.getAccountNumber())
-                        .transactionType("INTERNAL_TRANSFER")
-                        .amount(amount)
-                        .description("Internal fund transfer received from: "+fromAccount.getAccountNumber()).build());
+    /**
+     * Transfers funds for a batch of transfers read from a CSV file. Each line holds the debited account,
+     * the credited account and the amount, separated by commas; blank lines and a header line starting
+     * with "fromAccount" are skipped.
+     *
+     * @param file The CSV file.
+     * @return The response object containing the batch reference and the outcome of every transfer, by
+     *         its index among the transfer lines of the file.
+     * @throws InvalidTransferRequest If a line is malformed, or the file is empty or too large.
+     */
+    @Override
+    public BulkFundTransferResponse bulkFundTransfer(InputStream file) {
+
+        List<FundTransferRequest> transfers = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file, StandardCharsets.UTF_8))) {
+            int lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (!StringUtils.hasText(line) || (lineNumber == 1 && line.startsWith("fromAccount"))) {
+                    continue;
+                }
+                if (transfers.size() == maxBulkTransfers) {
+                    throw new InvalidTransferRequest("a bulk transfer holds at most " + maxBulkTransfers + " transfers", GlobalErrorCode.BAD_REQUEST);
+                }
+                transfers.add(parseTransfer(line, lineNumber));
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return bulkFundTransfer(new BulkFundTransferRequest(transfers));
+    }
+
+    private FundTransferRequest parseTransfer(String line, int lineNumber) {
+
+        String[] fields = line.split(",", -1);
+        if (fields.length != 3) {
+            throw new InvalidTransferRequest("line " + lineNumber + " must hold fromAccount,toAccount,amount", GlobalErrorCode.BAD_REQUEST);
+        }
+        try {
+            return FundTransferRequest.builder()
+                    .fromAccount(fields[0].trim())
+                    .toAccount(fields[1].trim())
+                    .amount(Money.of(new BigDecimal(fields[2].trim()))).build();
+        } catch (NumberFormatException | ArithmeticException exception) {
+            throw new InvalidTransferRequest("line " + lineNumber + " holds an invalid amount", GlobalErrorCode.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Reserves the amount of a transfer against the limits of its account and saves the transfer with its
+     * debit step, giving the amount back if the transfer could not be saved.
+     */
+    private Long begin(FundTransfer fundTransfer) {
+        transferLimits.reserve(fundTransfer.getFromAccount(), fundTransfer.getTransferType(), fundTransfer.getAmount());
+        try {
+            return fundTransferSaga.begin(fundTransfer);
+        } catch (RuntimeException exception) {
+            transferLimits.release(fundTransfer.getFromAccount(), fundTransfer.getTransferType(), fundTransfer.getAmount(), LocalDateTime.now());
+            throw exception;
+        }
+    }
+
+    private void checkCapacity(FundTransferRequest fundTransferRequest) {
+        if (!sagaStepPublisher.canAccept(fundTransferRequest.getFromAccount())) {
+            log.warn("transfer lane of account {} is saturated, rejecting transfer", fundTransferRequest.getFromAccount());
+            throw new TransferRejected("too many transfers in progress for the account, retry later", GlobalErrorCode.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private FundTransfer pendingTransfer(FundTransferRequest fundTransferRequest) {
+        return FundTransfer.builder()
+                .transferType(TransferType.INTERNAL)
+                .amount(fundTransferRequest.getAmount())
+                .fromAccount(fundTransferRequest.getFromAccount())
+                .transactionReference(UUID.randomUUID().toString())
+                .status(TransactionStatus.PENDING)
+                .toAccount(fundTransferRequest.getToAccount())
+                .callbackUrl(fundTransferRequest.getCallbackUrl()).build();
+    }
 
-        String transactionReference = UUID.randomUUID().toString();
-        transactionService.makeInternalTransactions(transactions, transactionReference);
-        return transactionReference;
+    private void validate(FundTransferRequest fundTransferRequest) {
+        if (!StringUtils.hasText(fundTransferRequest.getFromAccount()) || !StringUtils.hasText(fundTransferRequest.getToAccount())) {
+            throw new InvalidTransferRequest("both accounts of the transfer are required", GlobalErrorCode.BAD_REQUEST);
+        }
+        if (fundTransferRequest.getFromAccount().equals(fundTransferRequest.getToAccount())) {
+            throw new InvalidTransferRequest("cannot transfer funds to the same account", GlobalErrorCode.BAD_REQUEST);
+        }
+        if (Objects.isNull(fundTransferRequest.getAmount()) || fundTransferRequest.getAmount().signum() <= 0) {
+            throw new InvalidTransferRequest("transfer amount must be positive", GlobalErrorCode.BAD_REQUEST);
+        }
+        if (StringUtils.hasText(fundTransferRequest.getCallbackUrl())) {
+            callbackUrlPolicy.check(fundTransferRequest.getCallbackUrl());
+        }
+        if (!accountNumberFilter.mightExist(fundTransferRequest.getFromAccount()) || !accountNumberFilter.mightExist(fundTransferRequest.getToAccount())) {
+            throw new InvalidTransferRequest("requested account not found on the server", GlobalErrorCode.NOT_FOUND);
+        }
     }
 
     /**
@@ -152,4 +645,109 @@ public class FundTransferServiceImpl implements FundTransferService {
 
         return fundTransferMapper.convertToDtoList(fundTransferRepository.findFundTransferByFromAccount(accountId));
     }
+
+    /**
+     * Retrieves the transfers of a batch.
+     *
+     * @param batchReference The reference of the batch.
+     * @return The transfers of the batch as FundTransferDto objects.
+     * @throws ResourceNotFound if no transfer belongs to the batch.
+     */
+    @Override
+    public List<FundTransferDto> getTransfersByBatchReference(String batchReference) {
+
+        List<FundTransfer> fundTransfers = fundTransferRepository.findFundTransferByBatchReference(batchReference);
+        if (fundTransfers.isEmpty()) {
+            throw new ResourceNotFound("Bulk transfer not found", GlobalErrorCode.NOT_FOUND);
+        }
+        return fundTransferMapper.convertToDtoList(fundTransfers);
+    }
+
+    /**
+     * Retrieves a page of the transfer history of an account, newest first. Pages are addressed by the
+     * transfer time and ID of the last transfer of the previous page rather than by an offset, so every
+     * page costs the same however deep the history is browsed. With both directions, a page of each is read
+     * from the index of its own account column and the two are merged.
+     *
+     * @param accountId the ID of the account
+     * @param direction whether to include the transfers debiting the account, crediting it, or both
+     * @param from      the earliest transfer time, inclusive, or null
+     * @param to        the latest transfer time, exclusive, or null
+     * @param cursor    the cursor returned with the previous page, or null for the first page
+     * @param size      the maximum number of transfers on the page
+     * @return the page of transfers and the cursor of the next page, or a null cursor on the last page
+     * @throws InvalidTransferRequest if the page size, the range or the cursor is invalid.
+     */
+    @Override
+    public TransferHistoryResponse getTransferHistory(String accountId, TransferDirection direction, LocalDateTime from,
+                                                      LocalDateTime to, String cursor, int size) {
+
+        if (size <= 0 || size > maxHistoryPageSize) {
+            throw new InvalidTransferRequest("page size must be between 1 and " + maxHistoryPageSize, GlobalErrorCode.BAD_REQUEST);
+        }
+        LocalDateTime earliest = Objects.isNull(from) ? EARLIEST : from;
+        LocalDateTime beforeOn = Objects.isNull(to) ? LATEST : to;
+        Long beforeId = Long.MIN_VALUE;
+        if (!earliest.isBefore(beforeOn)) {
+            throw new InvalidTransferRequest("start of the range must be before its end", GlobalErrorCode.BAD_REQUEST);
+        }
+        if (StringUtils.hasText(cursor)) {
+            String[] position = decodeCursor(cursor);
+            beforeOn = LocalDateTime.parse(position[0]);
+            beforeId = Long.parseLong(position[1]);
+        }
+
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<FundTransfer> fundTransfers = new ArrayList<>(2 * (size + 1));
+        if (direction != TransferDirection.INCOMING) {
+            fundTransfers.addAll(fundTransferRepository.findOutgoingPage(accountId, earliest, beforeOn, beforeId, page));
+        }
+        if (direction != TransferDirection.OUTGOING) {
+            fundTransfers.addAll(fundTransferRepository.findIncomingPage(accountId, earliest, beforeOn, beforeId, page));
+        }
+        fundTransfers.sort(NEWEST_FIRST);
+
+        String nextCursor = null;
+        if (fundTransfers.size() > size) {
+            fundTransfers = fundTransfers.subList(0, size);
+            FundTransfer last = fundTransfers.get(size - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.getTransferredOn() + "," + last.getFundTransferId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return TransferHistoryResponse.builder()
+                .transfers(fundTransferMapper.convertToDtoList(fundTransfers))
+                .nextCursor(nextCursor).build();
+    }
+
+    /**
+     * Reconciles the fund transfers made in a time range against the ledger of Transaction-Service, and
+     * records the missing ledger entries of transfers whose balances are known to have been applied.
+     *
+     * @param from The earliest transfer time, inclusive.
+     * @param to   The latest transfer time, exclusive.
+     * @return The report of the reconciliation.
+     * @throws InvalidTransferRequest if the range is empty.
+     */
+    @Override
+    public ReconciliationReport reconcile(LocalDateTime from, LocalDateTime to) {
+
+        if (!from.isBefore(to)) {
+            throw new InvalidTransferRequest("start of the range must be before its end", GlobalErrorCode.BAD_REQUEST);
+        }
+        return transferReconciler.reconcile(from, to);
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",");
+            if (position.length != 2) {
+                throw new IllegalArgumentException(cursor);
+            }
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException exception) {
+            throw new InvalidTransferRequest("invalid history cursor", GlobalErrorCode.BAD_REQUEST);
+        }
+    }
 }
@@ -0,0 +1,55 @@
+package org.training.fundtransfer.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.training.fundtransfer.service.SagaStepPublisher;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs saga steps on the transfer lanes of this instance, in place of a message broker. Every step runs on
+ * the lane of the account whose balance it changes, and once it succeeds the next step of the transfer is
+ * queued on the lane of its own account. Steps touching the same account therefore run in order, and steps
+ * on unrelated accounts run in parallel. A step whose lane is full is released to the outbox relay.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LaneSagaStepPublisher implements SagaStepPublisher {
+
+    private final TransferLanes transferLanes;
+    private final FundTransferSaga fundTransferSaga;
+
+    @Override
+    public CompletableFuture<Void> publish(Long outboxEventId) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        return dispatch(outboxEventId, done) ? done : null;
+    }
+
+    @Override
+    public boolean canAccept(String accountNumber) {
+        return !transferLanes.isSaturated(accountNumber);
+    }
+
+    private boolean dispatch(Long outboxEventId, CompletableFuture<Void> done) {
+        return transferLanes.execute(fundTransferSaga.accountOf(outboxEventId), () -> run(outboxEventId, done));
+    }
+
+    private void run(Long outboxEventId, CompletableFuture<Void> done) {
+        try {
+            Long next = fundTransferSaga.handle(outboxEventId);
+            if (next != null && !dispatch(next, done)) {
+                log.warn("transfer lane saturated, saga step {} is left to the outbox relay", next);
+                fundTransferSaga.release(next);
+                next = null;
+            }
+            if (next == null) {
+                done.complete(null);
+            }
+        } catch (RuntimeException exception) {
+            log.error("saga step {} could not be recorded, it is retried once its claim expires", outboxEventId, exception);
+            done.complete(null);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.training.fundtransfer.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.training.fundtransfer.repository.OutboxEventRepository;
+import org.training.fundtransfer.service.SagaStepPublisher;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Drains the outbox: picks up saga steps that are due for a retry, were left behind by a crashed worker, or
+ * could not be handed to a worker when they were written, and publishes them in batches.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final FundTransferSaga fundTransferSaga;
+    private final SagaStepPublisher sagaStepPublisher;
+
+    @Value("${fund-transfer.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${fund-transfer.outbox.lease-ms:300000}")
+    private long leaseMillis;
+
+    @Scheduled(fixedDelayString = "${fund-transfer.outbox.poll-interval-ms:500}")
+    public void drain() {
+
+        int published = 0;
+        List<Long> due;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            due = outboxEventRepository.findDueEventIds(now, now.minus(leaseMillis, ChronoUnit.MILLIS), PageRequest.of(0, batchSize));
+            for (Long outboxEventId : due) {
+                if (!fundTransferSaga.claim(outboxEventId)) {
+                    continue;
+                }
+                if (Objects.isNull(sagaStepPublisher.publish(outboxEventId))) {
+                    fundTransferSaga.release(outboxEventId);
+                    log.warn("transfer lane saturated after relaying {} outbox events", published);
+                    return;
+                }
+                published++;
+            }
+        } while (due.size() == batchSize);
+        if (published > 0) {
+            log.info("relayed {} outbox events", published);
+        }
+    }
+}
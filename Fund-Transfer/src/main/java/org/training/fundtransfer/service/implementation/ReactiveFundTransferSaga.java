@@ -0,0 +1,145 @@
+package org.training.fundtransfer.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.training.fundtransfer.exception.AccountUpdateException;
+import org.training.fundtransfer.exception.GlobalErrorCode;
+import org.training.fundtransfer.exception.ResourceNotFound;
+import org.training.fundtransfer.external.ReactiveAccountService;
+import org.training.fundtransfer.external.ReactiveTransactionService;
+import org.training.fundtransfer.model.SagaStep;
+import org.training.fundtransfer.model.dto.Account;
+import org.training.fundtransfer.model.dto.BalanceUpdate;
+import org.training.fundtransfer.model.entity.FundTransfer;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the steps of a fund transfer with non-blocking calls to the other services, in place of the
+ * transfer lanes. The debit step reads both accounts concurrently before it debits, and every call has a
+ * timeout of its own; a call that times out counts as a transient failure of its step, which is retried by
+ * the outbox relay. Every call carries the idempotency key of its step, so a retry of a call that did reach
+ * the other service changes nothing.
+ *
+ * <p>The outcome of every step is still recorded by {@link FundTransferSaga}, in the same outbox and with
+ * the same compensations as on the blocking path. Those local writes run on the bounded elastic scheduler,
+ * so a transfer only holds a thread while it writes to its own database, never while it waits on another
+ * service. Steps of the same account are not ordered as they are on the lanes; every balance update is
+ * applied atomically by Account-Service, so running them concurrently only affects contention.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReactiveFundTransferSaga {
+
+    private final FundTransferSaga fundTransferSaga;
+    private final ReactiveAccountService reactiveAccountService;
+    private final ReactiveTransactionService reactiveTransactionService;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Value("${fund-transfer.reactive.max-in-flight:10000}")
+    private int maxInFlight;
+
+    @Value("${fund-transfer.reactive.lookup-timeout-ms:2000}")
+    private long lookupTimeoutMillis;
+
+    @Value("${fund-transfer.reactive.balance-timeout-ms:5000}")
+    private long balanceTimeoutMillis;
+
+    @Value("${fund-transfer.reactive.ledger-timeout-ms:10000}")
+    private long ledgerTimeoutMillis;
+
+    /**
+     * Starts running a claimed step and the steps after it. The steps keep running if the caller stops
+     * waiting for them. When the largest number of transfers is already in flight, the step is released to
+     * the outbox relay instead.
+     *
+     * @param outboxEventId the ID of the claimed outbox event
+     * @return a Mono completing once the transfer has finished, a step has been left for a retry, or the
+     *         step has been released
+     */
+    public Mono<Void> start(Long outboxEventId) {
+
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            log.warn("{} transfers in flight, saga step {} is left to the outbox relay", maxInFlight, outboxEventId);
+            return Mono.fromRunnable(() -> fundTransferSaga.release(outboxEventId))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .then();
+        }
+        Sinks.Empty<Void> done = Sinks.empty();
+        run(outboxEventId)
+                .doFinally(signal -> inFlight.decrementAndGet())
+                .subscribe(null, exception -> {
+                    log.error("saga step {} could not be recorded, it is left to the outbox relay", outboxEventId, exception);
+                    done.tryEmitError(exception);
+                }, done::tryEmitEmpty);
+        return done.asMono();
+    }
+
+    private Mono<Void> run(Long outboxEventId) {
+
+        return Mono.fromCallable(() -> fundTransferSaga.load(outboxEventId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(step -> execute(step.event().getStep(), step.fundTransfer())
+                        .then(Mono.<Optional<Throwable>>empty())
+                        .onErrorResume(failure -> Mono.just(Optional.of(failure)))
+                        .defaultIfEmpty(Optional.empty())
+                        .publishOn(Schedulers.boundedElastic())
+                        .flatMap(failure -> Mono.justOrEmpty(fundTransferSaga.record(step, failure.orElse(null)))))
+                .flatMap(this::run);
+    }
+
+    private Mono<Void> execute(SagaStep step, FundTransfer fundTransfer) {
+
+        return switch (step) {
+            case DEBIT -> checkAccounts(fundTransfer)
+                    .then(updateBalance(FundTransferSaga.balanceUpdate(fundTransfer, step)));
+            case CAPTURE -> reactiveAccountService.captureHold(fundTransfer.getHoldReference())
+                    .timeout(Duration.ofMillis(balanceTimeoutMillis))
+                    .then();
+            case CREDIT, REVERSE_CREDIT, REVERSE_DEBIT -> updateBalance(FundTransferSaga.balanceUpdate(fundTransfer, step));
+            case LEDGER -> reactiveTransactionService.makeInternalTransactions(FundTransferSaga.ledgerEntries(fundTransfer),
+                            fundTransfer.getTransactionReference(), FundTransferSaga.idempotencyKey(fundTransfer, step))
+                    .timeout(Duration.ofMillis(ledgerTimeoutMillis));
+        };
+    }
+
+    /**
+     * Checks, with both accounts read at once, that the debited account is active and the credited account
+     * exists before any money moves. Sufficient funds are enforced by Account-Service when the debit is applied.
+     */
+    Mono<Void> checkAccounts(FundTransfer fundTransfer) {
+
+        return Mono.zip(readAccount(fundTransfer.getFromAccount()), readAccount(fundTransfer.getToAccount()))
+                .flatMap(accounts -> {
+                    if (!accounts.getT1().getAccountStatus().equals("ACTIVE")) {
+                        log.error("account status is pending or inactive, please update the account status");
+                        return Mono.error(new AccountUpdateException("account is status is :pending", GlobalErrorCode.NOT_ACCEPTABLE));
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Account> readAccount(String accountNumber) {
+        return reactiveAccountService.readByAccountNumber(accountNumber)
+                .timeout(Duration.ofMillis(lookupTimeoutMillis))
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.error("requested account " + accountNumber + " is not found on the server");
+                    return Mono.error(new ResourceNotFound("requested account not found on the server", GlobalErrorCode.NOT_FOUND));
+                }));
+    }
+
+    private Mono<Void> updateBalance(BalanceUpdate balanceUpdate) {
+        return reactiveAccountService.updateBalance(balanceUpdate)
+                .timeout(Duration.ofMillis(balanceTimeoutMillis));
+    }
+}
@@ -0,0 +1,268 @@
+package org.training.fundtransfer.service.implementation;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable Aho-Corasick automaton over the names of a sanctions list. Screening a name is one pass
+ * over its characters, whatever the size of the list, and reports a listed name that occurs in it as a
+ * whole sequence of words.
+ *
+ * <p>Names are compared after normalisation: accents are dropped, letters are upper-cased and every run of
+ * other characters becomes a single space, so "José  O'Brien" and "JOSE O BRIEN" are the same name. Each
+ * listed name is also indexed with its words in sorted order and each screened name is also searched that
+ * way, so a reordered name such as "DOE, JOHN" still matches "John Doe".</p>
+ *
+ * <p>The trie is stored in flat arrays numbered breadth first, so the children of a node are a contiguous,
+ * sorted run found by binary search, and the index takes a few bytes per character of the list and no
+ * object per node. It is built from the sorted names, so every insertion only ever extends the last
+ * branch added.</p>
+ */
+final class SanctionsIndex {
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    private final String[] entries;
+    private final char[] labels;
+    private final int[] childStart;
+    private final int[] fail;
+    private final int[] output;
+    private final int[] outputLink;
+
+    private SanctionsIndex(String[] entries, char[] labels, int[] childStart, int[] fail, int[] output, int[] outputLink) {
+        this.entries = entries;
+        this.labels = labels;
+        this.childStart = childStart;
+        this.fail = fail;
+        this.output = output;
+        this.outputLink = outputLink;
+    }
+
+    /**
+     * Returns the number of listed names in the index.
+     */
+    int size() {
+        return entries.length;
+    }
+
+    /**
+     * Screens a name against the list.
+     *
+     * @param name the name to screen
+     * @return the listed name found in it, as it appears in the list, or null if there is none
+     */
+    String match(String name) {
+        String normalised = normalise(name);
+        if (normalised.length() <= 2) {
+            return null;
+        }
+        String found = search(normalised);
+        return found != null ? found : search(sortWords(normalised));
+    }
+
+    private String search(String text) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next = child(state, c);
+            while (next == NONE && state != ROOT) {
+                state = fail[state];
+                next = child(state, c);
+            }
+            state = next == NONE ? ROOT : next;
+            int hit = output[state] != NONE ? state : outputLink[state];
+            if (hit != NONE) {
+                return entries[output[hit]];
+            }
+        }
+        return null;
+    }
+
+    private int child(int node, char c) {
+        return child(labels, childStart, node, c);
+    }
+
+    private static int child(char[] labels, int[] childStart, int node, char c) {
+        int low = childStart[node];
+        int high = childStart[node + 1] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (labels[middle] < c) {
+                low = middle + 1;
+            } else if (labels[middle] > c) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Normalises a name to single-spaced, upper-case words without accents, with a space at each end so
+     * that a match always starts and ends on a word boundary.
+     */
+    static String normalise(String name) {
+        String decomposed = Normalizer.normalize(name == null ? "" : name, Normalizer.Form.NFKD);
+        StringBuilder normalised = new StringBuilder(decomposed.length() + 2).append(' ');
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                normalised.append(Character.toUpperCase(c));
+            } else if (normalised.charAt(normalised.length() - 1) != ' ') {
+                normalised.append(' ');
+            }
+        }
+        if (normalised.charAt(normalised.length() - 1) != ' ') {
+            normalised.append(' ');
+        }
+        return normalised.toString();
+    }
+
+    private static String sortWords(String normalised) {
+        String[] words = normalised.trim().split(" ");
+        Arrays.sort(words);
+        return " " + String.join(" ", words) + " ";
+    }
+
+    /**
+     * Builds the index of a list of names. Blank names are skipped.
+     *
+     * @param names the listed names
+     * @return the index
+     */
+    static SanctionsIndex build(List<String> names) {
+        List<String> entries = new ArrayList<>(names.size());
+        List<Pattern> patterns = new ArrayList<>(names.size() * 2);
+        for (String name : names) {
+            String normalised = normalise(name);
+            if (normalised.length() <= 2) {
+                continue;
+            }
+            int entry = entries.size();
+            entries.add(name.trim());
+            patterns.add(new Pattern(normalised, entry));
+            String sorted = sortWords(normalised);
+            if (!sorted.equals(normalised)) {
+                patterns.add(new Pattern(sorted, entry));
+            }
+        }
+        patterns.sort(Comparator.comparing(Pattern::text));
+
+        Trie trie = new Trie();
+        patterns.forEach(pattern -> trie.add(pattern.text(), pattern.entry()));
+        return trie.compile(entries.toArray(new String[0]));
+    }
+
+    private record Pattern(String text, int entry) {
+    }
+
+    /**
+     * The trie under construction. Its nodes are numbered in insertion order and the children of a node
+     * are a list of siblings, latest first; as the patterns arrive sorted, the child a pattern continues
+     * with is always the latest one.
+     */
+    private static final class Trie {
+
+        private char[] labels = new char[1024];
+        private int[] firstChild = new int[1024];
+        private int[] nextSibling = new int[1024];
+        private int[] output = new int[1024];
+        private int size;
+
+        private Trie() {
+            newNode('\0');
+        }
+
+        private void add(String pattern, int entry) {
+            int node = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                int child = firstChild[node];
+                if (child == NONE || labels[child] != c) {
+                    int added = newNode(c);
+                    nextSibling[added] = firstChild[node];
+                    firstChild[node] = added;
+                    child = added;
+                }
+                node = child;
+            }
+            if (output[node] == NONE) {
+                output[node] = entry;
+            }
+        }
+
+        private int newNode(char label) {
+            if (size == labels.length) {
+                int capacity = labels.length * 2;
+                labels = Arrays.copyOf(labels, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                output = Arrays.copyOf(output, capacity);
+            }
+            labels[size] = label;
+            firstChild[size] = NONE;
+            nextSibling[size] = NONE;
+            output[size] = NONE;
+            return size++;
+        }
+
+        /**
+         * Renumbers the nodes breadth first, with the children of every node in ascending order, and then
+         * computes the failure links in that order, so the link of every node points to a shallower node
+         * whose own link is already known.
+         */
+        private SanctionsIndex compile(String[] entries) {
+            int[] order = new int[size];
+            char[] compiledLabels = new char[size];
+            int[] compiledOutput = new int[size];
+            int[] childStart = new int[size + 1];
+            int tail = 1;
+            int[] children = new int[64];
+            for (int node = 0; node < size; node++) {
+                int original = order[node];
+                compiledLabels[node] = labels[original];
+                compiledOutput[node] = output[original];
+                childStart[node] = tail;
+                int count = 0;
+                for (int child = firstChild[original]; child != NONE; child = nextSibling[child]) {
+                    if (count == children.length) {
+                        children = Arrays.copyOf(children, count * 2);
+                    }
+                    children[count++] = child;
+                }
+                while (count > 0) {
+                    order[tail++] = children[--count];
+                }
+            }
+            childStart[size] = tail;
+
+            int[] fail = new int[size];
+            int[] outputLink = new int[size];
+            outputLink[ROOT] = NONE;
+            for (int node = 0; node < size; node++) {
+                for (int child = childStart[node]; child < childStart[node + 1]; child++) {
+                    int target = NONE;
+                    if (node != ROOT) {
+                        int state = fail[node];
+                        target = child(compiledLabels, childStart, state, compiledLabels[child]);
+                        while (target == NONE && state != ROOT) {
+                            state = fail[state];
+                            target = child(compiledLabels, childStart, state, compiledLabels[child]);
+                        }
+                    }
+                    fail[child] = target == NONE ? ROOT : target;
+                    outputLink[child] = compiledOutput[fail[child]] != NONE ? fail[child] : outputLink[fail[child]];
+                }
+            }
+            return new SanctionsIndex(entries, compiledLabels, childStart, fail, compiledOutput, outputLink);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.training.fundtransfer.service.implementation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.training.fundtransfer.exception.GlobalErrorCode;
+import org.training.fundtransfer.exception.SanctionsMatch;
+import org.training.fundtransfer.exception.TransferRejected;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Screens beneficiary names against a sanctions list read from a local file, one name per line, with
+ * blank lines and lines starting with '#' skipped. The list is compiled into a {@link SanctionsIndex},
+ * which screens a name in a single pass over it without touching the database.
+ *
+ * <p>The file is checked for changes periodically; a changed file is compiled into a new index off the
+ * request path, which then replaces the old one atomically, so every screening sees one complete version
+ * of the list. A file that cannot be read leaves the current index in place. Until a list has been loaded
+ * at least once, screening fails closed.</p>
+ */
+@Slf4j
+@Component
+public class SanctionsScreener {
+
+    private final AtomicReference<SanctionsIndex> index = new AtomicReference<>();
+
+    private volatile FileTime loadedVersion;
+
+    @Value("${fund-transfer.sanctions.list-file:sanctions.txt}")
+    private String listFile;
+
+    @PostConstruct
+    public void start() {
+        reload();
+    }
+
+    /**
+     * Screens the name of a beneficiary.
+     *
+     * @param beneficiaryName the name to screen
+     * @throws SanctionsMatch    if the name matches a listed name
+     * @throws TransferRejected if no sanctions list has been loaded yet
+     */
+    public void screen(String beneficiaryName) {
+
+        SanctionsIndex current = index.get();
+        if (Objects.isNull(current)) {
+            throw new TransferRejected("sanctions list is not available, retry later", GlobalErrorCode.SERVICE_UNAVAILABLE);
+        }
+        String match = current.match(beneficiaryName);
+        if (!Objects.isNull(match)) {
+            log.warn("beneficiary name '{}' matches sanctions list entry '{}'", beneficiaryName, match);
+            throw new SanctionsMatch("beneficiary name matches a sanctions list entry", GlobalErrorCode.NOT_ACCEPTABLE);
+        }
+    }
+
+    /**
+     * Reloads the list if the file has changed since it was last loaded.
+     */
+    @Scheduled(initialDelayString = "${fund-transfer.sanctions.reload-interval-ms:60000}",
+            fixedDelayString = "${fund-transfer.sanctions.reload-interval-ms:60000}")
+    public void reload() {
+
+        Path path = Paths.get(listFile);
+        try {
+            FileTime version = Files.getLastModifiedTime(path);
+            if (version.equals(loadedVersion)) {
+                return;
+            }
+            long started = System.currentTimeMillis();
+            List<String> names = new ArrayList<>();
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    if (!line.isBlank() && !line.startsWith("#")) {
+                        names.add(line);
+                    }
+                }
+            }
+            SanctionsIndex loaded = SanctionsIndex.build(names);
+            index.set(loaded);
+            loadedVersion = version;
+            log.info("sanctions list {} loaded with {} names in {} ms", path, loaded.size(), System.currentTimeMillis() - started);
+        } catch (IOException exception) {
+            log.error("sanctions list {} could not be read, {}", path,
+                    Objects.isNull(index.get()) ? "external transfers are rejected until it is" : "keeping the list loaded before", exception);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package org.training.fundtransfer.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.training.fundtransfer.model.StandingOrderStatus;
+import org.training.fundtransfer.model.TransactionStatus;
+import org.training.fundtransfer.model.TransferType;
+import org.training.fundtransfer.model.entity.FundTransfer;
+import org.training.fundtransfer.model.entity.StandingOrder;
+import org.training.fundtransfer.repository.StandingOrderRepository;
+import org.training.fundtransfer.service.SagaStepPublisher;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Runs standing orders when they fall due. Orders due within the lookahead window are loaded from the
+ * database into a {@link TimingWheel} owned by a single thread, and released occurrences are run by a
+ * small fixed pool, so that a midnight peak is worked off at a bounded rate. Each order is offset from its
+ * due time by a stable amount within the spread window, so that orders due at the same time do not all
+ * start together.
+ *
+ * <p>An occurrence is claimed by moving the order to its following occurrence, with a compare-and-set on
+ * the occurrence being run, in the same local transaction that saves the transfer and its first saga step.
+ * An occurrence is therefore run once however often it is loaded, by however many instances, and across
+ * restarts; one missed while the service was down is run once on startup, and the occurrences that fell
+ * behind it are skipped. An occurrence that would take the account over its transfer limits, or that fails
+ * the checks made on a transfer request, is skipped as well.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StandingOrderScheduler {
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final FundTransferSaga fundTransferSaga;
+    private final SagaStepPublisher sagaStepPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferLimits transferLimits;
+    private final AccountNumberFilter accountNumberFilter;
+
+    /**
+     * The occurrence each order is scheduled or running for, so that a reload does not add it twice.
+     */
+    private final Map<Long, LocalDateTime> scheduled = new ConcurrentHashMap<>();
+
+    /**
+     * The handle of the occurrence each order has in the wheel, only touched by the wheel thread.
+     */
+    private final Map<Long, TimingWheel.Timeout> timeouts = new HashMap<>();
+
+    private TimingWheel<Occurrence> wheel;
+
+    private ScheduledExecutorService wheelExecutor;
+
+    private ExecutorService runExecutor;
+
+    @Value("${fund-transfer.standing-orders.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${fund-transfer.standing-orders.wheel-size:60}")
+    private int wheelSize;
+
+    @Value("${fund-transfer.standing-orders.lookahead-ms:120000}")
+    private long lookaheadMillis;
+
+    @Value("${fund-transfer.standing-orders.spread-ms:60000}")
+    private long spreadMillis;
+
+    @Value("${fund-transfer.standing-orders.parallelism:4}")
+    private int parallelism;
+
+    @Value("${fund-transfer.standing-orders.batch-size:1000}")
+    private int batchSize;
+
+    @PostConstruct
+    public void start() {
+        wheel = new TimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+        wheelExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "standing-order-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        runExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "standing-order-run");
+            thread.setDaemon(true);
+            return thread;
+        });
+        wheelExecutor.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Advances the wheel to the current time and hands the occurrences due to the run pool. A failure is
+     * logged and the next tick goes on, as an exception escaping a periodic task would cancel every later
+     * tick; an occurrence lost this way is scheduled again by the next load.
+     */
+    private void tick() {
+        try {
+            wheel.advance(System.currentTimeMillis(), occurrence -> {
+                timeouts.remove(occurrence.standingOrderId());
+                runExecutor.execute(() -> run(occurrence));
+            });
+        } catch (RuntimeException exception) {
+            log.error("standing order wheel could not be advanced, due occurrences are picked up by the next load", exception);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        wheelExecutor.shutdownNow();
+        runExecutor.shutdown();
+        runExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Loads the active standing orders due within the lookahead window into the wheel. Runs at startup and
+     * then periodically, well within the lookahead window.
+     */
+    @Scheduled(fixedDelayString = "${fund-transfer.standing-orders.load-interval-ms:60000}")
+    public void load() {
+
+        LocalDateTime horizon = LocalDateTime.now().plus(lookaheadMillis, ChronoUnit.MILLIS);
+        long lastStandingOrderId = 0L;
+        List<StandingOrder> chunk;
+        do {
+            chunk = standingOrderRepository.findByStatusAndNextExecutionBeforeAndStandingOrderIdGreaterThanOrderByStandingOrderIdAsc(
+                    StandingOrderStatus.ACTIVE, horizon, lastStandingOrderId, PageRequest.of(0, batchSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            lastStandingOrderId = chunk.get(chunk.size() - 1).getStandingOrderId();
+            chunk.forEach(this::schedule);
+        } while (chunk.size() == batchSize);
+    }
+
+    /**
+     * Schedules the next occurrence of an order, if it falls within the lookahead window and is not
+     * scheduled already.
+     *
+     * @param standingOrder the standing order
+     */
+    public void schedule(StandingOrder standingOrder) {
+
+        LocalDateTime nextExecution = standingOrder.getNextExecution();
+        if (Objects.isNull(nextExecution) || nextExecution.isAfter(LocalDateTime.now().plus(lookaheadMillis, ChronoUnit.MILLIS))
+                || nextExecution.equals(scheduled.put(standingOrder.getStandingOrderId(), nextExecution))) {
+            return;
+        }
+        long offset = spreadMillis > 0 ? Math.floorMod(standingOrder.getStandingOrderReference().hashCode(), spreadMillis) : 0L;
+        long deadline = nextExecution.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + offset;
+        Occurrence occurrence = new Occurrence(standingOrder.getStandingOrderId(), nextExecution);
+        wheelExecutor.execute(() -> {
+            TimingWheel.Timeout previous = timeouts.put(standingOrder.getStandingOrderId(), wheel.schedule(deadline, occurrence));
+            if (!Objects.isNull(previous)) {
+                wheel.cancel(previous);
+            }
+        });
+    }
+
+    /**
+     * Takes the scheduled occurrence of a cancelled order out of the wheel. An occurrence already released
+     * keeps running and finds the order cancelled.
+     *
+     * @param standingOrderId the ID of the standing order
+     */
+    public void unschedule(Long standingOrderId) {
+        wheelExecutor.execute(() -> {
+            TimingWheel.Timeout timeout = timeouts.remove(standingOrderId);
+            if (!Objects.isNull(timeout) && wheel.cancel(timeout)) {
+                scheduled.remove(standingOrderId);
+            }
+        });
+    }
+
+    /**
+     * Runs one occurrence: claims it, saves the transfer with its first saga step and hands the step to the
+     * transfer lanes, exactly as an asynchronous transfer request would.
+     */
+    private void run(Occurrence occurrence) {
+
+        try {
+            StandingOrder standingOrder = standingOrderRepository.findById(occurrence.standingOrderId()).orElse(null);
+            if (Objects.isNull(standingOrder) || !StandingOrderStatus.ACTIVE.equals(standingOrder.getStatus())
+                    || !occurrence.execution().equals(standingOrder.getNextExecution())) {
+                return;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            int nextOccurrence = standingOrder.getNextOccurrence();
+            LocalDateTime nextExecution;
+            do {
+                nextExecution = standingOrder.getFrequency().occurrence(standingOrder.getFirstExecution(), ++nextOccurrence);
+            } while (!Objects.isNull(nextExecution) && !nextExecution.isAfter(now));
+            if (!Objects.isNull(nextExecution) && !Objects.isNull(standingOrder.getEndDate())
+                    && nextExecution.toLocalDate().isAfter(standingOrder.getEndDate())) {
+                nextExecution = null;
+            }
+
+            FundTransfer fundTransfer = FundTransfer.builder()
+                    .transferType(TransferType.INTERNAL)
+                    .amount(standingOrder.getAmount())
+                    .fromAccount(standingOrder.getFromAccount())
+                    .toAccount(standingOrder.getToAccount())
+                    .transactionReference(UUID.randomUUID().toString())
+                    .status(TransactionStatus.PENDING).build();
+            String problem = problem(standingOrder);
+            boolean withinLimits = Objects.isNull(problem)
+                    && transferLimits.tryReserve(fundTransfer.getFromAccount(), fundTransfer.getTransferType(), fundTransfer.getAmount());
+            int claimedOccurrence = nextOccurrence;
+            LocalDateTime claimedNextExecution = nextExecution;
+            Long debit;
+            try {
+                debit = transactionTemplate.execute(status -> {
+                    int claimed = standingOrderRepository.advance(standingOrder.getStandingOrderId(), occurrence.execution(),
+                            claimedOccurrence, claimedNextExecution,
+                            Objects.isNull(claimedNextExecution) ? StandingOrderStatus.COMPLETED : StandingOrderStatus.ACTIVE,
+                            withinLimits ? fundTransfer.getTransactionReference() : null);
+                    return claimed == 1 && withinLimits ? fundTransferSaga.begin(fundTransfer) : null;
+                });
+            } catch (RuntimeException exception) {
+                releaseIf(withinLimits, fundTransfer);
+                throw exception;
+            }
+            if (Objects.isNull(debit)) {
+                releaseIf(withinLimits, fundTransfer);
+                if (!Objects.isNull(problem)) {
+                    log.warn("standing order {} due {} skipped: {}", standingOrder.getStandingOrderReference(), occurrence.execution(), problem);
+                } else if (!withinLimits) {
+                    log.warn("standing order {} due {} skipped, it would exceed the transfer limits of account {}",
+                            standingOrder.getStandingOrderReference(), occurrence.execution(), standingOrder.getFromAccount());
+                }
+                return;
+            }
+            if (Objects.isNull(sagaStepPublisher.publish(debit))) {
+                fundTransferSaga.release(debit);
+            }
+            log.info("standing order {} due {} started fund transfer {}", standingOrder.getStandingOrderReference(),
+                    occurrence.execution(), fundTransfer.getTransactionReference());
+        } catch (RuntimeException exception) {
+            log.error("standing order {} due {} could not be run, it is retried on the next load",
+                    occurrence.standingOrderId(), occurrence.execution(), exception);
+        } finally {
+            scheduled.remove(occurrence.standingOrderId(), occurrence.execution());
+        }
+    }
+
+    /**
+     * Checks the order as a transfer request is checked before it is started, as its accounts may have
+     * changed since it was created.
+     *
+     * @return why the order cannot be run, or null if it can
+     */
+    private String problem(StandingOrder standingOrder) {
+        if (!StringUtils.hasText(standingOrder.getFromAccount()) || !StringUtils.hasText(standingOrder.getToAccount())) {
+            return "both accounts of the standing order are required";
+        }
+        if (standingOrder.getFromAccount().equals(standingOrder.getToAccount())) {
+            return "cannot transfer funds to the same account";
+        }
+        if (Objects.isNull(standingOrder.getAmount()) || standingOrder.getAmount().signum() <= 0) {
+            return "transfer amount must be positive";
+        }
+        if (!accountNumberFilter.mightExist(standingOrder.getFromAccount()) || !accountNumberFilter.mightExist(standingOrder.getToAccount())) {
+            return "requested account not found on the server";
+        }
+        return null;
+    }
+
+    private void releaseIf(boolean reserved, FundTransfer fundTransfer) {
+        if (reserved) {
+            transferLimits.release(fundTransfer.getFromAccount(), fundTransfer.getTransferType(), fundTransfer.getAmount(), LocalDateTime.now());
+        }
+    }
+
+    private record Occurrence(Long standingOrderId, LocalDateTime execution) {
+    }
+}
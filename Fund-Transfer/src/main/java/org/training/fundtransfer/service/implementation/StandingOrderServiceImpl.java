@@ -0,0 +1,145 @@
+package org.training.fundtransfer.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.training.fundtransfer.exception.GlobalErrorCode;
+import org.training.fundtransfer.exception.InvalidTransferRequest;
+import org.training.fundtransfer.exception.ResourceNotFound;
+import org.training.fundtransfer.model.StandingOrderStatus;
+import org.training.fundtransfer.model.dto.StandingOrderDto;
+import org.training.fundtransfer.model.dto.request.StandingOrderRequest;
+import org.training.fundtransfer.model.dto.response.Response;
+import org.training.fundtransfer.model.entity.StandingOrder;
+import org.training.fundtransfer.model.mapper.StandingOrderMapper;
+import org.training.fundtransfer.repository.StandingOrderRepository;
+import org.training.fundtransfer.service.StandingOrderService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StandingOrderServiceImpl implements StandingOrderService {
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final StandingOrderScheduler standingOrderScheduler;
+    private final AccountNumberFilter accountNumberFilter;
+
+    @Value("${spring.application.ok}")
+    private String ok;
+
+    private final StandingOrderMapper standingOrderMapper = new StandingOrderMapper();
+
+    /**
+     * Creates a standing order. The order is saved with its first execution as its next occurrence and,
+     * if that falls within the lookahead window of the scheduler, scheduled straight away instead of on the
+     * next load.
+     *
+     * @param standingOrderRequest The request object containing the details of the standing order.
+     * @return The created standing order.
+     * @throws InvalidTransferRequest If the accounts, amount, frequency or dates of the request are invalid.
+     */
+    @Override
+    public StandingOrderDto createStandingOrder(StandingOrderRequest standingOrderRequest) {
+
+        validate(standingOrderRequest);
+        StandingOrder standingOrder = StandingOrder.builder()
+                .standingOrderReference(UUID.randomUUID().toString())
+                .fromAccount(standingOrderRequest.getFromAccount())
+                .toAccount(standingOrderRequest.getToAccount())
+                .amount(standingOrderRequest.getAmount())
+                .frequency(standingOrderRequest.getFrequency())
+                .firstExecution(standingOrderRequest.getFirstExecution())
+                .endDate(standingOrderRequest.getEndDate())
+                .nextOccurrence(0)
+                .nextExecution(standingOrderRequest.getFirstExecution())
+                .status(StandingOrderStatus.ACTIVE).build();
+        standingOrder = standingOrderRepository.save(standingOrder);
+        standingOrderScheduler.schedule(standingOrder);
+        log.info("standing order {} created, first execution at {}", standingOrder.getStandingOrderReference(),
+                standingOrder.getFirstExecution());
+        return standingOrderMapper.convertToDto(standingOrder);
+    }
+
+    /**
+     * Retrieves a standing order by its reference.
+     *
+     * @param standingOrderReference The reference of the standing order.
+     * @return The standing order.
+     * @throws ResourceNotFound if the standing order is not found.
+     */
+    @Override
+    public StandingOrderDto getStandingOrder(String standingOrderReference) {
+
+        return standingOrderRepository.findStandingOrderByStandingOrderReference(standingOrderReference)
+                .map(standingOrderMapper::convertToDto)
+                .orElseThrow(() -> new ResourceNotFound("Standing order not found", GlobalErrorCode.NOT_FOUND));
+    }
+
+    /**
+     * Retrieves the standing orders debiting the given account.
+     *
+     * @param accountId The account number of the debited account.
+     * @return The standing orders of the account.
+     */
+    @Override
+    public List<StandingOrderDto> getStandingOrdersByAccountId(String accountId) {
+
+        return standingOrderMapper.convertToDtoList(standingOrderRepository.findStandingOrderByFromAccount(accountId));
+    }
+
+    /**
+     * Cancels a standing order. An occurrence already started keeps running; a scheduled one is taken out
+     * of the scheduler.
+     *
+     * @param standingOrderReference The reference of the standing order.
+     * @return The response object indicating the cancellation.
+     * @throws ResourceNotFound if the standing order is not found.
+     * @throws InvalidTransferRequest if the standing order is no longer active.
+     */
+    @Override
+    public Response cancelStandingOrder(String standingOrderReference) {
+
+        if (standingOrderRepository.cancel(standingOrderReference) == 0) {
+            standingOrderRepository.findStandingOrderByStandingOrderReference(standingOrderReference)
+                    .orElseThrow(() -> new ResourceNotFound("Standing order not found", GlobalErrorCode.NOT_FOUND));
+            throw new InvalidTransferRequest("standing order is no longer active", GlobalErrorCode.BAD_REQUEST);
+        }
+        standingOrderRepository.findStandingOrderByStandingOrderReference(standingOrderReference)
+                .ifPresent(standingOrder -> standingOrderScheduler.unschedule(standingOrder.getStandingOrderId()));
+        return Response.builder()
+                .responseCode(ok)
+                .message("Standing order cancelled").build();
+    }
+
+    private void validate(StandingOrderRequest standingOrderRequest) {
+        if (!StringUtils.hasText(standingOrderRequest.getFromAccount()) || !StringUtils.hasText(standingOrderRequest.getToAccount())) {
+            throw new InvalidTransferRequest("both accounts of the standing order are required", GlobalErrorCode.BAD_REQUEST);
+        }
+        if (standingOrderRequest.getFromAccount().equals(standingOrderRequest.getToAccount())) {
+            throw new InvalidTransferRequest("cannot transfer funds to the same account", GlobalErrorCode.BAD_REQUEST);
+        }
+        if (Objects.isNull(standingOrderRequest.getAmount()) || standingOrderRequest.getAmount().signum() <= 0) {
+            throw new InvalidTransferRequest("transfer amount must be positive", GlobalErrorCode.BAD_REQUEST);
+        }
+        if (Objects.isNull(standingOrderRequest.getFrequency())) {
+            throw new InvalidTransferRequest("frequency of the standing order is required", GlobalErrorCode.BAD_REQUEST);
+        }
+        LocalDateTime firstExecution = standingOrderRequest.getFirstExecution();
+        if (Objects.isNull(firstExecution) || firstExecution.isBefore(LocalDateTime.now())) {
+            throw new InvalidTransferRequest("first execution must not be in the past", GlobalErrorCode.BAD_REQUEST);
+        }
+        if (!Objects.isNull(standingOrderRequest.getEndDate()) && standingOrderRequest.getEndDate().isBefore(firstExecution.toLocalDate())) {
+            throw new InvalidTransferRequest("end date must not be before the first execution", GlobalErrorCode.BAD_REQUEST);
+        }
+        if (!accountNumberFilter.mightExist(standingOrderRequest.getFromAccount()) || !accountNumberFilter.mightExist(standingOrderRequest.getToAccount())) {
+            throw new InvalidTransferRequest("requested account not found on the server", GlobalErrorCode.NOT_FOUND);
+        }
+    }
+}
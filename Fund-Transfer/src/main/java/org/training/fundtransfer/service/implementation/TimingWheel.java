@@ -0,0 +1,195 @@
+package org.training.fundtransfer.service.implementation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel. The first level has {@code wheelSize} buckets of one tick each; every level
+ * above it has as many buckets, each as wide as the whole level below, and is only created once something
+ * is scheduled that far ahead. Scheduling is constant time whatever the number of pending items, and
+ * advancing the clock only touches the buckets that come due: when a bucket of a higher level starts, its
+ * items cascade down into the finer buckets below.
+ *
+ * <p>Items are released no earlier than their deadline and at most one tick after it. A cancelled item is
+ * only marked, and dropped when its bucket comes due. The wheel is not thread-safe; its owner serialises
+ * access.</p>
+ *
+ * @param <T> the type of the scheduled items
+ */
+final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final boolean firstLevel;
+    private final List<List<Entry<T>>> buckets;
+    private final PriorityQueue<Entry<T>> due;
+    private TimingWheel<T> overflow;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Creates the first level of a wheel.
+     *
+     * @param tickMillis the width of a bucket of the first level, which is the precision of the wheel
+     * @param wheelSize  the number of buckets of every level
+     * @param nowMillis  the current time
+     */
+    TimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+        this(tickMillis, wheelSize, nowMillis, true);
+    }
+
+    private TimingWheel(long tickMillis, int wheelSize, long nowMillis, boolean firstLevel) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.firstLevel = firstLevel;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.due = firstLevel ? new PriorityQueue<>(Comparator.comparingLong(Entry::deadlineMillis)) : null;
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedules an item. An item whose deadline has already passed is released by the next advance.
+     *
+     * @param deadlineMillis the time the item is due
+     * @param item           the item
+     * @return the handle to cancel the item with
+     */
+    Timeout schedule(long deadlineMillis, T item) {
+        Entry<T> entry = new Entry<>(deadlineMillis, item);
+        if (!place(entry)) {
+            due.add(entry);
+        }
+        size++;
+        return entry;
+    }
+
+    /**
+     * Cancels a scheduled item, so that it is not released.
+     *
+     * @param timeout the handle returned when the item was scheduled
+     * @return false if the item had already been released or cancelled
+     */
+    boolean cancel(Timeout timeout) {
+        Entry<?> entry = (Entry<?>) timeout;
+        if (entry.done) {
+            return false;
+        }
+        entry.done = true;
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the clock forward and releases every item whose deadline has been reached, earliest first.
+     *
+     * @param nowMillis the current time
+     * @param expired   receives the released items
+     */
+    void advance(long nowMillis, Consumer<T> expired) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            if (overflow != null && currentTick % wheelSize == 0) {
+                overflow.tick(entry -> {
+                    if (!place(entry)) {
+                        due.add(entry);
+                    }
+                });
+            }
+            drain(due::add);
+        }
+        while (!due.isEmpty() && due.peek().deadlineMillis() <= nowMillis) {
+            Entry<T> entry = due.poll();
+            if (!entry.done) {
+                entry.done = true;
+                size--;
+                expired.accept(entry.item());
+            }
+        }
+    }
+
+    /**
+     * Returns the number of items waiting in the wheel.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Puts an entry in the bucket covering its deadline, on this level or a higher one.
+     *
+     * @return false if the deadline falls within the current tick of the first level, so no bucket is left
+     */
+    private boolean place(Entry<T> entry) {
+        long tick = entry.deadlineMillis() / tickMillis;
+        if (firstLevel && tick <= currentTick) {
+            return false;
+        }
+        if (tick < currentTick + wheelSize) {
+            buckets.get((int) Math.floorMod(tick, (long) wheelSize)).add(entry);
+            return true;
+        }
+        return overflow().place(entry);
+    }
+
+    /**
+     * Moves a higher level on by one of its buckets and hands the entries of the bucket that starts to the
+     * level below.
+     */
+    private void tick(Consumer<Entry<T>> lower) {
+        currentTick++;
+        if (overflow != null && currentTick % wheelSize == 0) {
+            overflow.tick(this::place);
+        }
+        drain(lower);
+    }
+
+    private void drain(Consumer<Entry<T>> sink) {
+        List<Entry<T>> bucket = buckets.get((int) Math.floorMod(currentTick, (long) wheelSize));
+        if (bucket.isEmpty()) {
+            return;
+        }
+        List<Entry<T>> entries = new ArrayList<>(bucket);
+        bucket.clear();
+        entries.stream().filter(entry -> !entry.done).forEach(sink);
+    }
+
+    private TimingWheel<T> overflow() {
+        if (overflow == null) {
+            overflow = new TimingWheel<>(tickMillis * wheelSize, wheelSize, currentTick * tickMillis, false);
+        }
+        return overflow;
+    }
+
+    /**
+     * The handle of a scheduled item.
+     */
+    interface Timeout {
+    }
+
+    private static final class Entry<T> implements Timeout {
+
+        private final long deadlineMillis;
+        private final T item;
+        private boolean done;
+
+        private Entry(long deadlineMillis, T item) {
+            this.deadlineMillis = deadlineMillis;
+            this.item = item;
+        }
+
+        private long deadlineMillis() {
+            return deadlineMillis;
+        }
+
+        private T item() {
+            return item;
+        }
+    }
+}
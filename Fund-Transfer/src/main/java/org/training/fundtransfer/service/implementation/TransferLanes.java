@@ -0,0 +1,107 @@
+package org.training.fundtransfer.service.implementation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fixed set of single-threaded lanes, each with a bounded queue. Work on an account always runs on the
+ * lane chosen by the hash of its account number, so the balance changes of one account are applied one at
+ * a time and in submission order without any lock, while different accounts spread over all lanes.
+ *
+ * <p>A lane whose queue is full rejects further work instead of growing; the depth and rejections of every
+ * lane are published as metrics.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransferLanes {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fund-transfer.lanes.count:8}")
+    private int laneCount;
+
+    @Value("${fund-transfer.lanes.queue-capacity:1000}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor[] lanes;
+
+    private Counter[] rejections;
+
+    @PostConstruct
+    public void start() {
+        lanes = new ThreadPoolExecutor[laneCount];
+        rejections = new Counter[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String name = "transfer-lane-" + i;
+            ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> new Thread(runnable, name));
+            lanes[i] = lane;
+            String laneTag = String.valueOf(i);
+            Gauge.builder("fund.transfer.lane.queue.depth", lane, executor -> executor.getQueue().size())
+                    .description("Saga steps waiting on a transfer lane")
+                    .tag("lane", laneTag)
+                    .register(meterRegistry);
+            rejections[i] = Counter.builder("fund.transfer.lane.rejected")
+                    .description("Saga steps turned away by a full transfer lane")
+                    .tag("lane", laneTag)
+                    .register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("transfer lane did not drain before shutdown, {} steps are left to the outbox", lane.getQueue().size());
+            }
+        }
+    }
+
+    /**
+     * Queues a task on the lane of an account.
+     *
+     * @param accountNumber the account the task works on
+     * @param task          the task
+     * @return true if the task was queued, false if the lane is full
+     */
+    public boolean execute(String accountNumber, Runnable task) {
+        int lane = laneOf(accountNumber);
+        try {
+            lanes[lane].execute(task);
+            return true;
+        } catch (RejectedExecutionException exception) {
+            rejections[lane].increment();
+            return false;
+        }
+    }
+
+    /**
+     * Tells whether the lane of an account has no room left in its queue.
+     *
+     * @param accountNumber the account number
+     * @return true if a task for the account would currently be rejected
+     */
+    public boolean isSaturated(String accountNumber) {
+        return lanes[laneOf(accountNumber)].getQueue().remainingCapacity() == 0;
+    }
+
+    private int laneOf(String accountNumber) {
+        return Math.floorMod(accountNumber.hashCode(), laneCount);
+    }
+}
@@ -0,0 +1,204 @@
+package org.training.fundtransfer.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.fundtransfer.exception.GlobalErrorCode;
+import org.training.fundtransfer.exception.TransferLimitExceeded;
+import org.training.common.model.Money;
+import org.training.fundtransfer.model.TransferType;
+import org.training.fundtransfer.model.dto.TransferUsage;
+import org.training.fundtransfer.model.entity.TransferLimitUsage;
+import org.training.fundtransfer.repository.FundTransferRepository;
+import org.training.fundtransfer.repository.TransferLimitUsageRepository;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Enforces the per-transaction and daily transfer limits of every account and transfer type. The amount
+ * sent by each account over the last 24 hours is kept in the usage table in hourly rows shared by every
+ * instance, so the daily limit applies to a rolling day at a granularity of an hour, whichever instance
+ * serves a transfer.
+ *
+ * <p>A reservation adds its amount to the row of the current hour with an upsert and then sums the day; if
+ * the sum is over the limit it takes the amount back in the same database transaction. The upsert keeps the
+ * row locked until the commit, so concurrent reservations of the same account are made one after the other
+ * and never take it over its limit, while those of different accounts never contend. A release subtracts
+ * from the row of the hour the amount was reserved in. Rows older than a day are deleted periodically.</p>
+ *
+ * <p>When the usage table is empty at startup, it is filled from the last day of transfers.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransferLimits {
+
+    private static final int HOURS = 24;
+
+    private final FundTransferRepository fundTransferRepository;
+    private final TransferLimitUsageRepository transferLimitUsageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Environment environment;
+
+    private final Map<TransferType, Money> perTransactionLimits = new EnumMap<>(TransferType.class);
+
+    private final Map<TransferType, Money> dailyLimits = new EnumMap<>(TransferType.class);
+
+    @Value("${fund-transfer.limits.per-transaction:100000.00}")
+    private BigDecimal perTransactionLimit;
+
+    @Value("${fund-transfer.limits.daily:500000.00}")
+    private BigDecimal dailyLimit;
+
+    @PostConstruct
+    public void start() {
+
+        for (TransferType transferType : TransferType.values()) {
+            String prefix = "fund-transfer.limits." + transferType.name().toLowerCase() + ".";
+            perTransactionLimits.put(transferType, Money.of(environment.getProperty(prefix + "per-transaction", BigDecimal.class, perTransactionLimit)));
+            dailyLimits.put(transferType, Money.of(environment.getProperty(prefix + "daily", BigDecimal.class, dailyLimit)));
+        }
+        backfill();
+    }
+
+    /**
+     * Reserves the amount of a transfer against the limits of its account.
+     *
+     * @param accountNumber the debited account
+     * @param transferType  the type of the transfer
+     * @param amount        the amount of the transfer
+     * @throws TransferLimitExceeded if the amount is over the per-transaction limit, or would take the
+     *                               account over its daily limit
+     */
+    public void reserve(String accountNumber, TransferType transferType, Money amount) {
+
+        if (perTransactionLimits.get(transferType).isLessThan(amount)) {
+            throw new TransferLimitExceeded("transfer amount exceeds the per-transaction limit of "
+                    + perTransactionLimits.get(transferType), GlobalErrorCode.NOT_ACCEPTABLE);
+        }
+        if (!tryReserve(accountNumber, transferType, amount)) {
+            throw new TransferLimitExceeded("transfer would exceed the daily limit of " + dailyLimits.get(transferType)
+                    + " for account " + accountNumber, GlobalErrorCode.NOT_ACCEPTABLE);
+        }
+    }
+
+    /**
+     * Checks the amount of a transfer against the limits of its account without reserving it, so that the
+     * check can be measured without counting towards the limits.
+     *
+     * @param accountNumber the debited account
+     * @param transferType  the type of the transfer
+     * @param amount        the amount of the transfer
+     * @throws TransferLimitExceeded if the amount is over the per-transaction limit, or would take the
+     *                               account over its daily limit
+     */
+    public void check(String accountNumber, TransferType transferType, Money amount) {
+
+        if (perTransactionLimits.get(transferType).isLessThan(amount)) {
+            throw new TransferLimitExceeded("transfer amount exceeds the per-transaction limit of "
+                    + perTransactionLimits.get(transferType), GlobalErrorCode.NOT_ACCEPTABLE);
+        }
+        Money used = Money.of(transferLimitUsageRepository.usedAfter(accountNumber, transferType.name(), currentHour() - HOURS));
+        if (dailyLimits.get(transferType).isLessThan(used.plus(amount))) {
+            throw new TransferLimitExceeded("transfer would exceed the daily limit of " + dailyLimits.get(transferType)
+                    + " for account " + accountNumber, GlobalErrorCode.NOT_ACCEPTABLE);
+        }
+    }
+
+    /**
+     * Reserves the amount of a transfer against the limits of its account, if it fits.
+     *
+     * @param accountNumber the debited account
+     * @param transferType  the type of the transfer
+     * @param amount        the amount of the transfer
+     * @return true if the amount was reserved, false if it is over a limit
+     */
+    public boolean tryReserve(String accountNumber, TransferType transferType, Money amount) {
+
+        if (perTransactionLimits.get(transferType).isLessThan(amount)) {
+            return false;
+        }
+        long hour = currentHour();
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            transferLimitUsageRepository.add(accountNumber, transferType.name(), hour, amount.toBigDecimal());
+            Money used = Money.of(transferLimitUsageRepository.usedAfter(accountNumber, transferType.name(), hour - HOURS));
+            if (dailyLimits.get(transferType).isLessThan(used)) {
+                transferLimitUsageRepository.add(accountNumber, transferType.name(), hour, amount.toBigDecimal().negate());
+                return false;
+            }
+            return true;
+        }));
+    }
+
+    /**
+     * Gives back the amount of a transfer that failed, if it still counts towards the daily limit.
+     *
+     * @param accountNumber the debited account
+     * @param transferType  the type of the transfer
+     * @param amount        the amount of the transfer
+     * @param transferredOn the time the amount was reserved
+     */
+    public void release(String accountNumber, TransferType transferType, Money amount, LocalDateTime transferredOn) {
+        transferLimitUsageRepository.subtract(accountNumber, transferType.name(), epochHour(transferredOn), amount.toBigDecimal());
+    }
+
+    /**
+     * Deletes the usage of the hours that no longer count towards the daily limits.
+     */
+    @Scheduled(initialDelayString = "${fund-transfer.limits.purge-interval-ms:300000}",
+            fixedDelayString = "${fund-transfer.limits.purge-interval-ms:300000}")
+    public void purge() {
+        int purged = transferLimitUsageRepository.deleteUpTo(currentHour() - HOURS);
+        log.debug("{} expired transfer limit usage rows deleted", purged);
+    }
+
+    private void backfill() {
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                transferLimitUsageRepository.lock();
+                if (transferLimitUsageRepository.count() > 0) {
+                    return;
+                }
+                LocalDateTime from = LocalDateTime.now().minusHours(HOURS);
+                Map<UsageKey, Money> usages = new HashMap<>();
+                try (Stream<TransferUsage> transfers = fundTransferRepository.streamUsageSince(from)) {
+                    transfers.forEach(transfer -> usages.merge(new UsageKey(transfer.getFromAccount(), transfer.getTransferType(),
+                            epochHour(transfer.getTransferredOn())), transfer.getAmount(), Money::plus));
+                }
+                transferLimitUsageRepository.saveAll(usages.entrySet().stream()
+                        .map(usage -> TransferLimitUsage.builder()
+                                .accountNumber(usage.getKey().accountNumber())
+                                .transferType(usage.getKey().transferType())
+                                .epochHour(usage.getKey().epochHour())
+                                .amount(usage.getValue()).build())
+                        .toList());
+                log.info("transfer limit usage filled with {} rows from the transfers since {}", usages.size(), from);
+            });
+        } catch (RuntimeException exception) {
+            log.error("transfer limit usage could not be filled from the last day of transfers", exception);
+        }
+    }
+
+    private static long currentHour() {
+        return System.currentTimeMillis() / 3_600_000L;
+    }
+
+    private static long epochHour(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond() / 3600L;
+    }
+
+    private record UsageKey(String accountNumber, TransferType transferType, long epochHour) {
+    }
+}
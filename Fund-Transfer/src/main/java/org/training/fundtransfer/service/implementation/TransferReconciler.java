@@ -0,0 +1,438 @@
+package org.training.fundtransfer.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.fundtransfer.external.TransactionService;
+import org.training.fundtransfer.model.DiscrepancyType;
+import org.training.common.model.Money;
+import org.training.fundtransfer.model.SagaStep;
+import org.training.fundtransfer.model.TransactionStatus;
+import org.training.fundtransfer.model.dto.ReconciliationDiscrepancy;
+import org.training.fundtransfer.model.dto.Transaction;
+import org.training.fundtransfer.model.dto.response.ReconciliationReport;
+import org.training.fundtransfer.model.entity.FundTransfer;
+import org.training.fundtransfer.repository.FundTransferRepository;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checks that every fund transfer of a time range has exactly the ledger entries its status calls for: a
+ * debit of the sending account and a credit of the receiving account for a successful transfer, none for a
+ * failed one. The transfers are streamed from the database and the ledger entries from Transaction-Service,
+ * both ordered by reference, and merged in a single pass, so a day of transfers is checked in constant
+ * memory with one query on each side.
+ *
+ * <p>Ledger entries are written after their transfer, so they are read up to the settle time past the end
+ * of the range. An entry without a transfer in the range is looked up on its own and only reported if its
+ * transfer does not exist at all. Transfer references are UUIDs, which sort the same under
+ * {@link String#compareTo} as under the collation of either database.</p>
+ *
+ * <p>Missing entries of a transfer whose balances are known to have been applied are recorded, and batch
+ * transfers, or transfers whose ledger write was given up on, whose entries turn out to be complete are
+ * marked successful. When both entries of a transfer are missing they are recorded under the idempotency key
+ * of its ledger step, so that a late write of the saga cannot record them a second time. Every repair first moves the
+ * transfer away from the state it was read in with a compare-and-set, so that concurrent runs cannot
+ * repair it twice. The claim records the run and the time it was taken; a claim older than the claim
+ * timeout belongs to a run that died before finishing the repair, and is repaired again like any other
+ * transfer whose ledger entries were not recorded. Entries recorded by a repair carry an idempotency key
+ * made of the entries themselves, so a repair taken over from a run that only seemed dead does not record
+ * them twice. Mismatched, unexpected and orphaned entries are only reported.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransferReconciler {
+
+    static final String RECONCILING = "ledger entries being recorded by reconciliation ";
+
+    private static final String CLAIMED_AT = " at ";
+
+    private final FundTransferRepository fundTransferRepository;
+    private final TransactionService transactionService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    @Value("${fund-transfer.reconciliation.window-ms:86400000}")
+    private long windowMillis;
+
+    @Value("${fund-transfer.reconciliation.settle-ms:300000}")
+    private long settleMillis;
+
+    @Value("${fund-transfer.reconciliation.stuck-after-ms:1800000}")
+    private long stuckAfterMillis;
+
+    @Value("${fund-transfer.reconciliation.max-reported:1000}")
+    private int maxReported;
+
+    @Value("${fund-transfer.reconciliation.max-repairs:1000}")
+    private int maxRepairs;
+
+    @Value("${fund-transfer.reconciliation.claim-timeout-ms:600000}")
+    private long claimTimeoutMillis;
+
+    /**
+     * Reconciles the transfers of the trailing window, leaving out the last few minutes, whose ledger
+     * entries may still be in flight. Successive runs overlap, so whatever one run could not repair is
+     * picked up by the next.
+     */
+    @Scheduled(cron = "${fund-transfer.reconciliation.cron:0 5 * * * *}")
+    public void reconcileRecent() {
+
+        LocalDateTime to = LocalDateTime.now().minus(settleMillis, ChronoUnit.MILLIS);
+        ReconciliationReport report = reconcile(to.minus(windowMillis, ChronoUnit.MILLIS), to);
+        log.info("reconciled {} transfers against {} ledger entries from {} to {}: {} matched, {} discrepancies, {} repaired",
+                report.getTransfers(), report.getLedgerEntries(), report.getFrom(), report.getTo(),
+                report.getMatched(), report.getDiscrepancyCount(), report.getRepaired());
+    }
+
+    /**
+     * Reconciles the transfers made in a time range against the ledger and repairs what can be repaired.
+     *
+     * @param from the earliest transfer time, inclusive
+     * @param to   the latest transfer time, exclusive
+     * @return the counts of the run and its first discrepancies
+     */
+    public ReconciliationReport reconcile(LocalDateTime from, LocalDateTime to) {
+
+        Run run = new Run(from, to);
+        try (feign.Response ledger = transactionService.streamLedgerEntries(from.toString(),
+                to.plus(settleMillis, ChronoUnit.MILLIS).toString())) {
+            if (ledger.status() != 200 || Objects.isNull(ledger.body())) {
+                throw new IllegalStateException("ledger entries could not be read, status " + ledger.status());
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(ledger.body().asInputStream(), StandardCharsets.UTF_8));
+            LedgerReader ledgerReader = new LedgerReader(reader, run);
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<FundTransfer> transfers = fundTransferRepository.streamByTransferredOn(from, to)) {
+                    merge(transfers.iterator(), ledgerReader, run);
+                }
+            });
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        run.repairs.forEach(repair -> repair(repair, run));
+        return run.report();
+    }
+
+    private void merge(Iterator<FundTransfer> transfers, LedgerReader ledger, Run run) {
+
+        String previousReference = null;
+        FundTransfer fundTransfer = transfers.hasNext() ? transfers.next() : null;
+        List<LedgerLine> legs = ledger.nextGroup();
+        while (!Objects.isNull(fundTransfer) || !Objects.isNull(legs)) {
+            if (!Objects.isNull(fundTransfer) && !Objects.isNull(previousReference)
+                    && fundTransfer.getTransactionReference().compareTo(previousReference) < 0) {
+                throw new IllegalStateException("fund transfers are not ordered by reference at " + fundTransfer.getTransactionReference());
+            }
+            int order = Objects.isNull(fundTransfer) ? 1 : Objects.isNull(legs) ? -1
+                    : fundTransfer.getTransactionReference().compareTo(legs.get(0).referenceId());
+            if (order > 0) {
+                orphan(legs, run);
+                legs = ledger.nextGroup();
+                continue;
+            }
+            check(fundTransfer, order == 0 ? legs : List.of(), run);
+            previousReference = fundTransfer.getTransactionReference();
+            entityManager.detach(fundTransfer);
+            fundTransfer = transfers.hasNext() ? transfers.next() : null;
+            if (order == 0) {
+                legs = ledger.nextGroup();
+            }
+        }
+    }
+
+    /**
+     * Compares the ledger entries of a transfer with those its status calls for, and queues a repair where
+     * one is safe.
+     */
+    private void check(FundTransfer fundTransfer, List<LedgerLine> legs, Run run) {
+
+        run.transfers++;
+        String reference = fundTransfer.getTransactionReference();
+        TransactionStatus status = fundTransfer.getStatus();
+        if (status == TransactionStatus.FAILED) {
+            if (legs.isEmpty()) {
+                run.matched++;
+            } else {
+                run.report(reference, DiscrepancyType.UNEXPECTED_LEG, "failed transfer has " + legs.size() + " ledger entries");
+            }
+            return;
+        }
+
+        List<LedgerLine> missing = new ArrayList<>(List.of(
+                new LedgerLine(reference, fundTransfer.getFromAccount(), fundTransfer.getAmount().negate().getMinorUnits()),
+                new LedgerLine(reference, fundTransfer.getToAccount(), fundTransfer.getAmount().getMinorUnits())));
+        List<LedgerLine> unexpected = new ArrayList<>();
+        legs.forEach(leg -> {
+            if (!missing.remove(leg)) {
+                unexpected.add(leg);
+            }
+        });
+        boolean ledgerNotRecorded = status == TransactionStatus.PROCESSING && !Objects.isNull(fundTransfer.getFailureReason())
+                && (fundTransfer.getFailureReason().startsWith(BulkFundTransferProcessor.LEDGER_NOT_RECORDED) || staleClaim(fundTransfer));
+
+        if (!unexpected.isEmpty()) {
+            boolean mismatch = unexpected.stream().anyMatch(leg -> missing.stream().anyMatch(expected -> expected.accountId().equals(leg.accountId())));
+            run.report(reference, mismatch ? DiscrepancyType.AMOUNT_MISMATCH : DiscrepancyType.UNEXPECTED_LEG,
+                    "expected " + describe(missing) + " but found " + describe(unexpected));
+        } else if (missing.isEmpty()) {
+            if (status == TransactionStatus.SUCCESS) {
+                run.matched++;
+            } else if (!Objects.isNull(fundTransfer.getBatchReference()) || ledgerNotRecorded) {
+                run.repair(new Repair(fundTransfer, List.of()), DiscrepancyType.STUCK, "transfer left " + status + " with its ledger entries recorded");
+            } else {
+                stuckOrInFlight(fundTransfer, run);
+            }
+        } else if (status == TransactionStatus.SUCCESS || ledgerNotRecorded) {
+            run.repair(new Repair(fundTransfer, missing), DiscrepancyType.MISSING_LEG, describe(missing) + " not recorded");
+        } else {
+            stuckOrInFlight(fundTransfer, run);
+        }
+    }
+
+    /**
+     * Tells whether a transfer is claimed by a reconciliation that has held the claim for longer than the
+     * claim timeout. A claim whose time cannot be read is judged by the age of the transfer.
+     */
+    private boolean staleClaim(FundTransfer fundTransfer) {
+
+        String reason = fundTransfer.getFailureReason();
+        if (Objects.isNull(reason) || !reason.startsWith(RECONCILING)) {
+            return false;
+        }
+        LocalDateTime claimedAt = fundTransfer.getTransferredOn();
+        int at = reason.lastIndexOf(CLAIMED_AT);
+        if (at >= 0) {
+            try {
+                claimedAt = LocalDateTime.parse(reason.substring(at + CLAIMED_AT.length()));
+            } catch (DateTimeParseException exception) {
+                log.warn("reconciliation claim of fund transfer {} has no readable time: {}", fundTransfer.getTransactionReference(), reason);
+            }
+        }
+        return claimedAt.isBefore(LocalDateTime.now().minus(claimTimeoutMillis, ChronoUnit.MILLIS));
+    }
+
+    /**
+     * A pending or processing transfer without its ledger entries is still being driven by its saga, unless it
+     * has been so for longer than any retry would take. An authorised transfer stays pending until it is
+     * captured or released, however long that takes, and a transfer claimed by a live reconciliation is
+     * being repaired.
+     */
+    private void stuckOrInFlight(FundTransfer fundTransfer, Run run) {
+        if (fundTransfer.getStatus() == TransactionStatus.PENDING && !Objects.isNull(fundTransfer.getHoldReference())) {
+            run.matched++;
+        } else if (!Objects.isNull(fundTransfer.getFailureReason()) && fundTransfer.getFailureReason().startsWith(RECONCILING)) {
+            run.matched++;
+        } else if (fundTransfer.getTransferredOn().isBefore(LocalDateTime.now().minus(stuckAfterMillis, ChronoUnit.MILLIS))) {
+            run.report(fundTransfer.getTransactionReference(), DiscrepancyType.STUCK,
+                    "transfer left " + fundTransfer.getStatus() + (Objects.isNull(fundTransfer.getFailureReason()) ? ""
+                            : ": " + fundTransfer.getFailureReason()));
+        } else {
+            run.matched++;
+        }
+    }
+
+    /**
+     * Reports ledger entries whose transfer is not in the range, unless the transfer exists outside it.
+     */
+    private void orphan(List<LedgerLine> legs, Run run) {
+        String reference = legs.get(0).referenceId();
+        fundTransferRepository.findFundTransferByTransactionReference(reference).ifPresentOrElse(
+                entityManager::detach,
+                () -> run.report(reference, DiscrepancyType.ORPHAN_LEG, describe(legs) + " without a fund transfer"));
+    }
+
+    /**
+     * Applies a queued repair, once the transfer has been claimed from the state it was read in.
+     */
+    private void repair(Repair repair, Run run) {
+
+        FundTransfer fundTransfer = repair.fundTransfer();
+        String readReason = Objects.isNull(fundTransfer.getFailureReason()) ? "" : fundTransfer.getFailureReason();
+        if (repair.missing().isEmpty()) {
+            if (fundTransferRepository.transition(fundTransfer.getFundTransferId(), fundTransfer.getStatus(), readReason,
+                    TransactionStatus.SUCCESS, null) == 1) {
+                run.repaired(fundTransfer.getTransactionReference());
+            }
+            return;
+        }
+
+        String claim = RECONCILING + run.runId + CLAIMED_AT + LocalDateTime.now();
+        if (fundTransferRepository.transition(fundTransfer.getFundTransferId(), fundTransfer.getStatus(), readReason,
+                TransactionStatus.PROCESSING, claim) == 0) {
+            return;
+        }
+        List<Transaction> entries = repair.missing().stream()
+                .map(leg -> Transaction.builder()
+                        .accountId(leg.accountId())
+                        .transactionType("INTERNAL_TRANSFER")
+                        .amount(Money.ofMinor(leg.minorUnits()))
+                        .description("Reconciliation of internal fund transfer from " + fundTransfer.getFromAccount()
+                                + " to " + fundTransfer.getToAccount())
+                        .referenceId(leg.referenceId()).build())
+                .toList();
+        try {
+            transactionService.makeInternalTransactions(entries, fundTransfer.getTransactionReference(), idempotencyKey(fundTransfer, repair.missing()));
+        } catch (RuntimeException exception) {
+            log.error("ledger entries of fund transfer {} could not be recorded by reconciliation",
+                    fundTransfer.getTransactionReference(), exception);
+            fundTransferRepository.transition(fundTransfer.getFundTransferId(), TransactionStatus.PROCESSING, claim,
+                    TransactionStatus.PROCESSING, BulkFundTransferProcessor.LEDGER_NOT_RECORDED + exception.getMessage());
+            return;
+        }
+        fundTransferRepository.transition(fundTransfer.getFundTransferId(), TransactionStatus.PROCESSING, claim,
+                TransactionStatus.SUCCESS, null);
+        run.repaired(fundTransfer.getTransactionReference());
+    }
+
+    /**
+     * The idempotency key of the entries a repair records: that of the ledger step of the saga when both
+     * entries are missing, so that a late write of the saga records nothing, and otherwise one naming the
+     * entries, which every run repairing the same gap computes alike.
+     */
+    private static String idempotencyKey(FundTransfer fundTransfer, List<LedgerLine> missing) {
+        if (missing.size() == 2) {
+            return FundTransferSaga.idempotencyKey(fundTransfer, SagaStep.LEDGER);
+        }
+        return fundTransfer.getTransactionReference() + ":RECONCILE:" + missing.stream()
+                .map(leg -> leg.accountId() + "=" + leg.minorUnits())
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    private static String describe(List<LedgerLine> legs) {
+        return legs.stream()
+                .map(leg -> Money.ofMinor(leg.minorUnits()) + " on " + leg.accountId())
+                .toList().toString();
+    }
+
+    private record LedgerLine(String referenceId, String accountId, long minorUnits) {
+    }
+
+    private record Repair(FundTransfer fundTransfer, List<LedgerLine> missing) {
+    }
+
+    /**
+     * Reads the ledger entries of the response one reference at a time.
+     */
+    private static final class LedgerReader {
+
+        private final BufferedReader reader;
+        private final Run run;
+        private LedgerLine next;
+
+        private LedgerReader(BufferedReader reader, Run run) {
+            this.reader = reader;
+            this.run = run;
+            this.next = read();
+        }
+
+        /**
+         * Returns the entries of the next reference, or null at the end of the ledger.
+         */
+        private List<LedgerLine> nextGroup() {
+
+            if (Objects.isNull(next)) {
+                return null;
+            }
+            List<LedgerLine> group = new ArrayList<>(2);
+            String reference = next.referenceId();
+            while (!Objects.isNull(next) && next.referenceId().equals(reference)) {
+                group.add(next);
+                next = read();
+            }
+            if (!Objects.isNull(next) && next.referenceId().compareTo(reference) < 0) {
+                throw new IllegalStateException("ledger entries are not ordered by reference at " + next.referenceId());
+            }
+            return group;
+        }
+
+        private LedgerLine read() {
+            try {
+                String line = reader.readLine();
+                if (Objects.isNull(line)) {
+                    return null;
+                }
+                String[] fields = line.split(",", -1);
+                run.ledgerEntries++;
+                return new LedgerLine(fields[0], fields[1], Long.parseLong(fields[2]));
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+
+    /**
+     * The counters, first discrepancies and queued repairs of one run.
+     */
+    private final class Run {
+
+        private final String runId = UUID.randomUUID().toString();
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final List<ReconciliationDiscrepancy> discrepancies = new ArrayList<>();
+        private final List<Repair> repairs = new ArrayList<>();
+        private long transfers;
+        private long ledgerEntries;
+        private long matched;
+        private long discrepancyCount;
+        private long repaired;
+
+        private Run(LocalDateTime from, LocalDateTime to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        private void report(String reference, DiscrepancyType type, String detail) {
+            discrepancyCount++;
+            if (discrepancies.size() < maxReported) {
+                discrepancies.add(new ReconciliationDiscrepancy(reference, type, detail, false));
+            }
+        }
+
+        private void repair(Repair repair, DiscrepancyType type, String detail) {
+            report(repair.fundTransfer().getTransactionReference(), type, detail);
+            if (repairs.size() < maxRepairs) {
+                repairs.add(repair);
+            }
+        }
+
+        private void repaired(String reference) {
+            repaired++;
+            discrepancies.stream()
+                    .filter(discrepancy -> discrepancy.getTransactionReference().equals(reference))
+                    .forEach(discrepancy -> discrepancy.setRepaired(true));
+        }
+
+        private ReconciliationReport report() {
+            return ReconciliationReport.builder()
+                    .from(from)
+                    .to(to)
+                    .transfers(transfers)
+                    .ledgerEntries(ledgerEntries)
+                    .matched(matched)
+                    .discrepancyCount(discrepancyCount)
+                    .repaired(repaired)
+                    .discrepancies(discrepancies).build();
+        }
+    }
+}
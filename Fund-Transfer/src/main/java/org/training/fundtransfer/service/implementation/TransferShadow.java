@@ -0,0 +1,86 @@
+package org.training.fundtransfer.service.implementation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mirrors a sampled share of live transfers into a dry run, on a small pool of its own so the live request
+ * never waits for its shadow. A shadow that finds the pool busy is dropped rather than queued without
+ * bound, and the drops are published as a metric; sampling is off unless a rate is configured. Only requests
+ * that passed validation are mirrored, so a shadow never runs the downstream stages for a request the live
+ * path rejected.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransferShadow {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fund-transfer.shadow.sample-rate:0.0}")
+    private double sampleRate;
+
+    @Value("${fund-transfer.shadow.threads:2}")
+    private int threads;
+
+    @Value("${fund-transfer.shadow.queue-capacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    private Counter dropped;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "transfer-shadow-" + count.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        dropped = Counter.builder("fund.transfer.shadow.dropped")
+                .description("Sampled transfers not mirrored because the shadow pool was busy")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs a dry run in the background if the transfer is sampled.
+     *
+     * @param dryRun the dry run of the live transfer
+     */
+    public void mirror(Runnable dryRun) {
+        if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    dryRun.run();
+                } catch (RuntimeException exception) {
+                    log.debug("shadow dry run failed: {}", exception.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            dropped.increment();
+        }
+    }
+}
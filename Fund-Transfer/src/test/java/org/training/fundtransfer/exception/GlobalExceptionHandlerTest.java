@@ -0,0 +1,48 @@
+package org.training.fundtransfer.exception;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler globalExceptionHandler = new GlobalExceptionHandler();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(globalExceptionHandler, "retryAfterSeconds", "2");
+    }
+
+    @Test
+    void handleTransferRejected_ShouldAnswerServiceUnavailable_WithRetryAfter() {
+        // Given
+        TransferRejected rejected = new TransferRejected("too many transfers in progress for the account, retry later",
+                GlobalErrorCode.SERVICE_UNAVAILABLE);
+
+        // When
+        ResponseEntity<Object> response = globalExceptionHandler.handleTransferRejected(rejected);
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        ErrorResponse body = (ErrorResponse) response.getBody();
+        assertNotNull(body);
+        assertEquals(GlobalErrorCode.SERVICE_UNAVAILABLE, body.getMessage());
+    }
+
+    @Test
+    void handleGlobalException_ShouldAnswerBadRequest_WithoutRetryAfter() {
+        // When
+        ResponseEntity<Object> response = globalExceptionHandler.handleGlobalException(
+                new TransferLimitExceeded("transfer amount exceeds the per-transaction limit", GlobalErrorCode.NOT_ACCEPTABLE));
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+}
@@ -0,0 +1,60 @@
+package org.training.fundtransfer.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.training.common.model.Money;
+import org.training.fundtransfer.model.TransactionStatus;
+import org.training.fundtransfer.model.TransferType;
+import org.training.fundtransfer.model.entity.FundTransfer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "spring.jpa.show-sql=false"})
+class FundTransferRepositoryBatchingTest {
+
+    private static final int TRANSFERS = 200;
+
+    @Autowired
+    private FundTransferRepository fundTransferRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void saveAll_insertsInBatches() {
+
+        List<FundTransfer> transfers = IntStream.range(0, TRANSFERS)
+                .mapToObj(i -> FundTransfer.builder()
+                        .transactionReference("reference-" + i)
+                        .fromAccount(String.format("06001%08d", i))
+                        .toAccount(String.format("06002%08d", i))
+                        .amount(Money.of(100))
+                        .status(TransactionStatus.SUCCESS)
+                        .transferType(TransferType.INTERNAL)
+                        .build())
+                .collect(Collectors.toList());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        fundTransferRepository.saveAll(transfers);
+        entityManager.flush();
+
+        assertEquals(TRANSFERS, statistics.getEntityInsertCount());
+        // one statement per batch of 50 inserts and one sequence call per 50 IDs, instead of one insert per transfer
+        assertTrue(statistics.getPrepareStatementCount() <= 10,
+                "expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+    }
+}
@@ -0,0 +1,91 @@
+package org.training.fundtransfer.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.training.common.model.Money;
+import org.training.fundtransfer.model.TransactionStatus;
+import org.training.fundtransfer.model.TransferType;
+import org.training.fundtransfer.model.entity.FundTransfer;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+class FundTransferRepositoryHistoryTest {
+
+    private static final String ACCOUNT = "0600100000001";
+    private static final String OTHER = "0600100000002";
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Autowired
+    private FundTransferRepository fundTransferRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        ids = List.of(
+                save("r1", ACCOUNT, OTHER, NOON.minusHours(1)),
+                save("r2", ACCOUNT, OTHER, NOON),
+                save("r3", ACCOUNT, OTHER, NOON),
+                save("r4", OTHER, ACCOUNT, NOON),
+                save("r5", ACCOUNT, OTHER, NOON.plusHours(1)));
+        entityManager.clear();
+    }
+
+    @Test
+    void findOutgoingPage_ShouldOrderByTimeThenId_AndResumeWithinEqualTimes() {
+        // When
+        List<String> first = references(fundTransferRepository.findOutgoingPage(ACCOUNT, NOON.minusDays(1), NOON.plusDays(1),
+                Long.MIN_VALUE, PageRequest.of(0, 2)));
+        List<String> second = references(fundTransferRepository.findOutgoingPage(ACCOUNT, NOON.minusDays(1), NOON,
+                ids.get(2), PageRequest.of(0, 2)));
+
+        // Then
+        assertEquals(List.of("r5", "r3"), first);
+        assertEquals(List.of("r2", "r1"), second);
+    }
+
+    @Test
+    void findIncomingPage_ShouldKeepToTheRange() {
+        // When
+        List<String> inRange = references(fundTransferRepository.findIncomingPage(ACCOUNT, NOON, NOON.plusHours(1),
+                Long.MIN_VALUE, PageRequest.of(0, 10)));
+        List<String> afterRange = references(fundTransferRepository.findIncomingPage(ACCOUNT, NOON.plusMinutes(1), NOON.plusHours(1),
+                Long.MIN_VALUE, PageRequest.of(0, 10)));
+
+        // Then
+        assertEquals(List.of("r4"), inRange);
+        assertEquals(List.of(), afterRange);
+    }
+
+    private Long save(String reference, String fromAccount, String toAccount, LocalDateTime transferredOn) {
+        FundTransfer fundTransfer = fundTransferRepository.saveAndFlush(FundTransfer.builder()
+                .transactionReference(reference)
+                .fromAccount(fromAccount)
+                .toAccount(toAccount)
+                .amount(Money.of(100))
+                .status(TransactionStatus.SUCCESS)
+                .transferType(TransferType.INTERNAL).build());
+        // the creation timestamp is set on insert, so the time of the transfer is set after it
+        entityManager.createQuery("update FundTransfer f set f.transferredOn = :transferredOn where f.fundTransferId = :id")
+                .setParameter("transferredOn", transferredOn)
+                .setParameter("id", fundTransfer.getFundTransferId())
+                .executeUpdate();
+        return fundTransfer.getFundTransferId();
+    }
+
+    private static List<String> references(List<FundTransfer> fundTransfers) {
+        return fundTransfers.stream().map(FundTransfer::getTransactionReference).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,116 @@
+package org.training.fundtransfer.service.implementation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.training.fundtransfer.external.AccountService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberFilterTest {
+
+    private static final int PAGE_SIZE = 2;
+
+    @Mock
+    private AccountService accountService;
+
+    @InjectMocks
+    private AccountNumberFilter accountNumberFilter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(accountNumberFilter, "expectedAccounts", 1000L);
+        ReflectionTestUtils.setField(accountNumberFilter, "falsePositiveRate", 0.0001);
+        ReflectionTestUtils.setField(accountNumberFilter, "pageSize", PAGE_SIZE);
+    }
+
+    @Test
+    void mightExist_ShouldAcceptEveryAccount_WhenSeedFailed() {
+        // Given
+        when(accountService.readAccountNumbers(any(), anyInt())).thenThrow(new IllegalStateException("connection refused"));
+
+        // When
+        accountNumberFilter.refresh();
+
+        // Then
+        assertTrue(accountNumberFilter.mightExist(number(1)));
+        assertTrue(accountNumberFilter.mightExist("anything"));
+    }
+
+    @Test
+    void mightExist_ShouldRejectUnknownAccountsUpToWatermark_AndAcceptThoseAbove() {
+        // Given
+        page(null, number(1), number(3));
+        page(number(3), number(5));
+
+        // When
+        accountNumberFilter.refresh();
+
+        // Then
+        assertTrue(accountNumberFilter.mightExist(number(1)));
+        assertTrue(accountNumberFilter.mightExist(number(3)));
+        assertTrue(accountNumberFilter.mightExist(number(5)));
+        assertFalse(accountNumberFilter.mightExist(number(2)));
+        assertFalse(accountNumberFilter.mightExist(number(4)));
+        assertTrue(accountNumberFilter.mightExist(number(6)));
+    }
+
+    @Test
+    void refresh_ShouldStartFromPreviousWatermark_SoLateCommittedAccountsAreLoaded() {
+        // Given
+        page(null, number(1));
+        accountNumberFilter.refresh();
+        page(number(1), number(3));
+        accountNumberFilter.refresh();
+        assertFalse(accountNumberFilter.mightExist(number(2)));
+
+        // When
+        page(number(1), number(2), number(3));
+        page(number(3), number(4));
+        accountNumberFilter.refresh();
+
+        // Then
+        assertTrue(accountNumberFilter.mightExist(number(2)));
+        assertTrue(accountNumberFilter.mightExist(number(4)));
+        assertFalse(accountNumberFilter.mightExist(number(0)));
+    }
+
+    @Test
+    void refresh_ShouldSeedFilterTwiceTheSize_WhenCapacityIsExceeded() {
+        // Given
+        ReflectionTestUtils.setField(accountNumberFilter, "expectedAccounts", 2L);
+        page(null, number(1), number(2));
+        page(number(2), number(3));
+        accountNumberFilter.refresh();
+
+        // When
+        accountNumberFilter.refresh();
+
+        // Then
+        verify(accountService, times(2)).readAccountNumbers(null, PAGE_SIZE);
+        BloomFilter filter = (BloomFilter) ReflectionTestUtils.invokeGetterMethod(
+                ReflectionTestUtils.getField(accountNumberFilter, "loaded"), "filter");
+        assertEquals(4, filter.capacity());
+        assertEquals(3, filter.size());
+        assertTrue(accountNumberFilter.mightExist(number(3)));
+    }
+
+    private void page(String after, String... accountNumbers) {
+        lenient().when(accountService.readAccountNumbers(after, PAGE_SIZE)).thenReturn(ResponseEntity.ok(List.of(accountNumbers)));
+    }
+
+    private static String number(int i) {
+        return String.format("0600140%06d", i);
+    }
+}
@@ -0,0 +1,81 @@
+package org.training.fundtransfer.service.implementation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    private static final int CAPACITY = 100_000;
+
+    @Test
+    void mightContain_ShouldNeverRejectAddedString() {
+        // Given
+        BloomFilter filter = new BloomFilter(CAPACITY, 0.01);
+
+        // When
+        IntStream.range(0, CAPACITY).forEach(i -> filter.add(accountNumber(i)));
+
+        // Then
+        IntStream.range(0, CAPACITY).forEach(i -> assertTrue(filter.mightContain(accountNumber(i)), accountNumber(i)));
+        assertEquals(CAPACITY, filter.size());
+        assertEquals(CAPACITY, filter.capacity());
+    }
+
+    @Test
+    void mightContain_ShouldKeepFalsePositivesNearConfiguredRate_WhenFilledToCapacity() {
+        // Given
+        BloomFilter filter = new BloomFilter(CAPACITY, 0.01);
+        IntStream.range(0, CAPACITY).forEach(i -> filter.add(accountNumber(i)));
+
+        // When
+        long falsePositives = IntStream.range(CAPACITY, 2 * CAPACITY)
+                .filter(i -> filter.mightContain(accountNumber(i)))
+                .count();
+
+        // Then
+        double rate = (double) falsePositives / CAPACITY;
+        assertTrue(rate > 0.005 && rate < 0.015, "false positive rate " + rate);
+    }
+
+    @Test
+    void mightContain_ShouldRejectEverything_WhenEmpty() {
+        // Given
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+
+        // Then
+        IntStream.range(0, 1000).forEach(i -> assertFalse(filter.mightContain(accountNumber(i))));
+    }
+
+    @Test
+    void add_ShouldKeepEveryString_WhenAddedConcurrently() throws InterruptedException {
+        // Given
+        BloomFilter filter = new BloomFilter(CAPACITY, 0.01);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // When
+        for (int thread = 0; thread < 4; thread++) {
+            int first = thread;
+            executor.execute(() -> {
+                for (int i = first; i < CAPACITY; i += 4) {
+                    filter.add(accountNumber(i));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        IntStream.range(0, CAPACITY).forEach(i -> assertTrue(filter.mightContain(accountNumber(i)), accountNumber(i)));
+        assertEquals(CAPACITY, filter.size());
+    }
+
+    private static String accountNumber(int i) {
+        return String.format("0600140%06d", i);
+    }
+}
@@ -0,0 +1,240 @@
+package org.training.fundtransfer.service.implementation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.fundtransfer.exception.AccountUpdateException;
+import org.training.fundtransfer.exception.GlobalErrorCode;
+import org.training.fundtransfer.external.AccountService;
+import org.training.fundtransfer.external.TransactionService;
+import org.training.common.model.Money;
+import org.training.fundtransfer.model.TransactionStatus;
+import org.training.fundtransfer.model.TransferType;
+import org.training.fundtransfer.model.dto.Account;
+import org.training.fundtransfer.model.dto.BalanceUpdate;
+import org.training.fundtransfer.model.entity.FundTransfer;
+import org.training.fundtransfer.repository.FundTransferRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkFundTransferProcessorTest {
+
+    private static final String BATCH = "batch-1";
+    private static final String A = "0600140000001";
+    private static final String B = "0600140000002";
+    private static final String C = "0600140000003";
+
+    @Mock
+    private FundTransferRepository fundTransferRepository;
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TransferLimits transferLimits;
+
+    @InjectMocks
+    private BulkFundTransferProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(processor, "lookupChunkSize", 1000);
+        ReflectionTestUtils.setField(processor, "ledgerChunkSize", 500);
+        ReflectionTestUtils.setField(processor, "settleMillis", 60000L);
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<org.springframework.transaction.TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(transferLimits.tryReserve(anyString(), any(), any())).thenReturn(true);
+        lenient().when(accountService.readByAccountNumbers(anyList())).thenReturn(ResponseEntity.ok(List.of(
+                account(A, 150), account(B, 0), account(C, 1000))));
+    }
+
+    @Test
+    void process_ShouldCheckEachTransferAgainstRunningBalance_AndNetAcceptedOnesPerAccount() {
+        // Given
+        FundTransfer first = transfer(1L, A, B, 100);
+        FundTransfer second = transfer(2L, A, C, 100);
+        FundTransfer third = transfer(3L, C, A, 30);
+        FundTransfer fourth = transfer(4L, C, B, 20);
+
+        // When
+        processor.process(List.of(first, second, third, fourth));
+
+        // Then
+        assertEquals(TransactionStatus.FAILED, second.getStatus());
+        assertTrue(second.getFailureReason().contains("insufficient balance"));
+        verify(transferLimits, times(1)).tryReserve(A, TransferType.INTERNAL, Money.of(100));
+        assertEquals(Map.of(A, Money.of(-70), B, Money.of(120), C, Money.of(-50)), netAmounts(updates()));
+        updates().forEach(update -> assertEquals(BATCH + ":" + update.getAccountNumber(), update.getIdempotencyKey()));
+        verify(transactionService).makeInternalTransactions(argThat(entries -> entries.size() == 6), eq(BATCH));
+        verify(fundTransferRepository).updateStatus(List.of(1L, 3L, 4L), TransactionStatus.SUCCESS, null);
+    }
+
+    @Test
+    void process_ShouldFailTransfer_WhenItWouldExceedTheLimit_AndLeaveItsBalanceToOthers() {
+        // Given
+        FundTransfer first = transfer(1L, C, A, 600);
+        FundTransfer second = transfer(2L, C, B, 300);
+        when(transferLimits.tryReserve(C, TransferType.INTERNAL, Money.of(600))).thenReturn(false);
+
+        // When
+        processor.process(List.of(first, second));
+
+        // Then
+        assertEquals(TransactionStatus.FAILED, first.getStatus());
+        assertTrue(first.getFailureReason().contains("transfer limit exceeded"));
+        assertEquals(Map.of(C, Money.of(-300), B, Money.of(300)), netAmounts(updates()));
+        verify(fundTransferRepository).updateStatus(List.of(2L), TransactionStatus.SUCCESS, null);
+    }
+
+    @Test
+    void process_ShouldFailAcceptedTransfers_AndReleaseTheirLimits_WhenBalanceUpdatesAreRefused() {
+        // Given
+        FundTransfer transfer = transfer(1L, A, B, 100);
+        when(accountService.updateBalances(anyList())).thenThrow(new AccountUpdateException("account is blocked", GlobalErrorCode.NOT_ACCEPTABLE));
+
+        // When
+        processor.process(List.of(transfer));
+
+        // Then
+        assertEquals(TransactionStatus.FAILED, transfer.getStatus());
+        verify(transferLimits).release(A, TransferType.INTERNAL, Money.of(100), transfer.getTransferredOn());
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void process_ShouldLeaveAcceptedTransfersProcessing_AndKeepTheirLimits_WhenOutcomeIsUnknown() {
+        // Given
+        FundTransfer transfer = transfer(1L, A, B, 100);
+        when(accountService.updateBalances(anyList())).thenThrow(new IllegalStateException("read timed out"));
+
+        // When
+        processor.process(List.of(transfer));
+
+        // Then
+        assertEquals(TransactionStatus.PROCESSING, transfer.getStatus());
+        assertTrue(transfer.getFailureReason().startsWith(BulkFundTransferProcessor.BALANCE_OUTCOME_UNKNOWN));
+        verify(transferLimits, never()).release(anyString(), any(), any(), any());
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void resolveUnknownOutcomes_ShouldRepeatCallUnderSameKeys_AndRecordTransfers_WhenItSucceeds() {
+        // Given
+        FundTransfer unknown = unknown(transfer(1L, A, B, 100));
+        FundTransfer failed = transfer(2L, A, C, 500);
+        failed.setStatus(TransactionStatus.FAILED);
+        givenUnknownBatch(unknown, failed);
+
+        // When
+        processor.resolveUnknownOutcomes();
+
+        // Then
+        assertEquals(Map.of(A, Money.of(-100), B, Money.of(100)), netAmounts(updates()));
+        assertEquals(List.of(BATCH + ":" + A, BATCH + ":" + B), updates().stream().map(BalanceUpdate::getIdempotencyKey).toList());
+        verify(transactionService).makeInternalTransactions(argThat(entries -> entries.size() == 2), eq(BATCH));
+        verify(fundTransferRepository).updateStatus(List.of(1L), TransactionStatus.SUCCESS, null);
+        assertEquals(TransactionStatus.SUCCESS, unknown.getStatus());
+    }
+
+    @Test
+    void resolveUnknownOutcomes_ShouldFailTransfers_AndReleaseLimits_WhenRepeatedCallIsRefused() {
+        // Given
+        FundTransfer unknown = unknown(transfer(1L, A, B, 100));
+        givenUnknownBatch(unknown);
+        when(accountService.updateBalances(anyList())).thenThrow(new AccountUpdateException("insufficient funds", GlobalErrorCode.NOT_ACCEPTABLE));
+
+        // When
+        processor.resolveUnknownOutcomes();
+
+        // Then
+        assertEquals(TransactionStatus.FAILED, unknown.getStatus());
+        verify(transferLimits).release(A, TransferType.INTERNAL, Money.of(100), unknown.getTransferredOn());
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void resolveUnknownOutcomes_ShouldLeaveTransfersForNextRun_WhenOutcomeIsStillUnknown() {
+        // Given
+        FundTransfer unknown = unknown(transfer(1L, A, B, 100));
+        givenUnknownBatch(unknown);
+        when(accountService.updateBalances(anyList())).thenThrow(new IllegalStateException("connection refused"));
+
+        // When
+        processor.resolveUnknownOutcomes();
+
+        // Then
+        assertEquals(TransactionStatus.PROCESSING, unknown.getStatus());
+        assertEquals(BulkFundTransferProcessor.BALANCE_OUTCOME_UNKNOWN + "connection refused", unknown.getFailureReason());
+        verify(transferLimits, never()).release(anyString(), any(), any(), any());
+    }
+
+    private void givenUnknownBatch(FundTransfer... fundTransfers) {
+        when(fundTransferRepository.findBatchesProcessingWith(eq(BulkFundTransferProcessor.BALANCE_OUTCOME_UNKNOWN), any(LocalDateTime.class)))
+                .thenReturn(List.of(BATCH));
+        when(fundTransferRepository.findFundTransferByBatchReference(BATCH)).thenReturn(List.of(fundTransfers));
+    }
+
+    private List<BalanceUpdate> updates() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BalanceUpdate>> captor = ArgumentCaptor.forClass(List.class);
+        verify(accountService).updateBalances(captor.capture());
+        return captor.getValue();
+    }
+
+    private static Map<String, Money> netAmounts(List<BalanceUpdate> updates) {
+        return updates.stream().collect(Collectors.toMap(BalanceUpdate::getAccountNumber, BalanceUpdate::getAmount));
+    }
+
+    private static FundTransfer unknown(FundTransfer fundTransfer) {
+        fundTransfer.setStatus(TransactionStatus.PROCESSING);
+        fundTransfer.setFailureReason(BulkFundTransferProcessor.BALANCE_OUTCOME_UNKNOWN + "read timed out");
+        return fundTransfer;
+    }
+
+    private static FundTransfer transfer(Long id, String from, String to, long amount) {
+        return FundTransfer.builder()
+                .fundTransferId(id)
+                .transactionReference("r" + id)
+                .fromAccount(from)
+                .toAccount(to)
+                .amount(Money.of(amount))
+                .status(TransactionStatus.PENDING)
+                .transferType(TransferType.INTERNAL)
+                .batchReference(BATCH)
+                .transferredOn(LocalDateTime.now().minusMinutes(5)).build();
+    }
+
+    private static Account account(String accountNumber, long balance) {
+        return Account.builder()
+                .accountNumber(accountNumber)
+                .accountStatus("ACTIVE")
+                .availableBalance(Money.of(balance)).build();
+    }
+}
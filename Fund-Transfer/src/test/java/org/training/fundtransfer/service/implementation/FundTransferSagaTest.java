@@ -0,0 +1,294 @@
+package org.training.fundtransfer.service.implementation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.fundtransfer.exception.GlobalErrorCode;
+import org.training.fundtransfer.exception.GlobalException;
+import org.training.fundtransfer.external.AccountService;
+import org.training.fundtransfer.external.TransactionService;
+import org.training.common.model.Money;
+import org.training.fundtransfer.model.OutboxStatus;
+import org.training.fundtransfer.model.SagaStep;
+import org.training.fundtransfer.model.TransactionStatus;
+import org.training.fundtransfer.model.TransferType;
+import org.training.fundtransfer.model.dto.Account;
+import org.training.fundtransfer.model.dto.BalanceUpdate;
+import org.training.fundtransfer.model.dto.Hold;
+import org.training.fundtransfer.model.entity.FundTransfer;
+import org.training.fundtransfer.model.entity.OutboxEvent;
+import org.training.fundtransfer.repository.FundTransferRepository;
+import org.training.fundtransfer.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FundTransferSagaTest {
+
+    private static final String FROM_ACCOUNT = "0600140000001";
+    private static final String TO_ACCOUNT = "0600140000002";
+    private static final String HOLD_REFERENCE = "hold-1";
+
+    @Mock
+    private FundTransferRepository fundTransferRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CallbackUrlPolicy callbackUrlPolicy;
+
+    @Mock
+    private TransferLimits transferLimits;
+
+    @InjectMocks
+    private FundTransferSaga saga;
+
+    private final Map<Long, OutboxEvent> outbox = new HashMap<>();
+
+    private FundTransfer fundTransfer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(saga, "maxAttempts", 1);
+        ReflectionTestUtils.setField(saga, "retryBackoffMillis", 1000L);
+        fundTransfer = FundTransfer.builder()
+                .fundTransferId(1L)
+                .transactionReference("r1")
+                .fromAccount(FROM_ACCOUNT)
+                .toAccount(TO_ACCOUNT)
+                .amount(Money.of(100))
+                .status(TransactionStatus.PROCESSING)
+                .transferType(TransferType.INTERNAL)
+                .holdReference(HOLD_REFERENCE)
+                .transferredOn(LocalDateTime.now()).build();
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(fundTransferRepository.findById(1L)).thenReturn(Optional.of(fundTransfer));
+        lenient().when(outboxEventRepository.findById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(outbox.get(invocation.<Long>getArgument(0))));
+        lenient().when(outboxEventRepository.save(any(OutboxEvent.class))).thenAnswer(invocation -> {
+            OutboxEvent event = invocation.getArgument(0);
+            if (event.getOutboxEventId() == null) {
+                event.setOutboxEventId((long) outbox.size() + 1);
+            }
+            outbox.put(event.getOutboxEventId(), event);
+            return event;
+        });
+    }
+
+    @Test
+    void handle_ShouldDebitCreditAndRecordLedger_WhenEveryStepSucceeds() {
+        // Given
+        fundTransfer.setHoldReference(null);
+        stubAccounts();
+
+        // When
+        List<SagaStep> steps = run(SagaStep.DEBIT);
+
+        // Then
+        assertEquals(List.of(SagaStep.DEBIT, SagaStep.CREDIT, SagaStep.LEDGER), steps);
+        List<BalanceUpdate> updates = balanceUpdates();
+        assertEquals(Money.of(-100), updates.get(0).getAmount());
+        assertEquals("r1:DEBIT", updates.get(0).getIdempotencyKey());
+        assertEquals(Money.of(100), updates.get(1).getAmount());
+        assertEquals("r1:CREDIT", updates.get(1).getIdempotencyKey());
+        verify(transactionService).makeInternalTransactions(anyList(), eq("r1"), eq("r1:LEDGER"));
+        assertEquals(TransactionStatus.SUCCESS, fundTransfer.getStatus());
+        assertTrue(outbox.values().stream().allMatch(event -> event.getStatus() == OutboxStatus.DONE));
+        verifyNoInteractions(transferLimits);
+    }
+
+    @Test
+    void handle_ShouldFailWithErrorCode_WhenDebitedAccountIsNotFound() {
+        // Given
+        fundTransfer.setHoldReference(null);
+        when(accountService.readByAccountNumber(FROM_ACCOUNT)).thenReturn(ResponseEntity.ok(null));
+
+        // When
+        List<SagaStep> steps = run(SagaStep.DEBIT);
+
+        // Then
+        assertEquals(List.of(SagaStep.DEBIT), steps);
+        verify(accountService, never()).updateBalance(any());
+        assertEquals(TransactionStatus.FAILED, fundTransfer.getStatus());
+        assertEquals(GlobalErrorCode.NOT_FOUND, fundTransfer.getFailureCode());
+        assertEquals(OutboxStatus.FAILED, outbox.get(1L).getStatus());
+        verify(transferLimits).release(FROM_ACCOUNT, TransferType.INTERNAL, Money.of(100), fundTransfer.getTransferredOn());
+    }
+
+    @Test
+    void handle_ShouldReverseCreditThenDebit_WhenCreditRanOutOfRetries() {
+        // Given
+        fundTransfer.setHoldReference(null);
+        stubAccounts();
+        when(accountService.updateBalance(any())).thenAnswer(invocation -> {
+            if (invocation.<BalanceUpdate>getArgument(0).getIdempotencyKey().equals("r1:CREDIT")) {
+                throw new IllegalStateException("read timed out");
+            }
+            return null;
+        });
+
+        // When
+        List<SagaStep> steps = run(SagaStep.DEBIT);
+
+        // Then
+        assertEquals(List.of(SagaStep.DEBIT, SagaStep.CREDIT, SagaStep.REVERSE_CREDIT, SagaStep.REVERSE_DEBIT), steps);
+        List<BalanceUpdate> updates = balanceUpdates();
+        assertEquals("r1:CREDIT", updates.get(2).getReverses());
+        assertEquals(Money.of(-100), updates.get(2).getAmount());
+        assertEquals("r1:DEBIT", updates.get(3).getReverses());
+        assertEquals(Money.of(100), updates.get(3).getAmount());
+        assertEquals(TransactionStatus.FAILED, fundTransfer.getStatus());
+        assertNull(fundTransfer.getFailureCode());
+        assertTrue(fundTransfer.getFailureReason().startsWith("CREDIT failed after 1 attempts"));
+        verify(transactionService, never()).makeInternalTransactions(anyList(), anyString(), anyString());
+        verify(transferLimits).release(FROM_ACCOUNT, TransferType.INTERNAL, Money.of(100), fundTransfer.getTransferredOn());
+    }
+
+    @Test
+    void handle_ShouldCompensateCreditAndDebit_WhenLedgerIsRefused() {
+        // Given
+        fundTransfer.setHoldReference(null);
+        stubAccounts();
+        when(transactionService.makeInternalTransactions(anyList(), anyString(), anyString()))
+                .thenThrow(new GlobalException("invalid ledger entries", GlobalErrorCode.BAD_REQUEST));
+
+        // When
+        List<SagaStep> steps = run(SagaStep.DEBIT);
+
+        // Then
+        assertEquals(List.of(SagaStep.DEBIT, SagaStep.CREDIT, SagaStep.LEDGER, SagaStep.REVERSE_CREDIT, SagaStep.REVERSE_DEBIT), steps);
+        assertEquals(4, balanceUpdates().size());
+        assertEquals(TransactionStatus.FAILED, fundTransfer.getStatus());
+        assertEquals(GlobalErrorCode.BAD_REQUEST, fundTransfer.getFailureCode());
+        verify(transferLimits).release(FROM_ACCOUNT, TransferType.INTERNAL, Money.of(100), fundTransfer.getTransferredOn());
+    }
+
+    @Test
+    void handle_ShouldRefundCapturedHold_WhenCaptureRanOutOfRetries_AndHoldReadsBackCaptured() {
+        // Given
+        when(accountService.captureHold(HOLD_REFERENCE)).thenThrow(new IllegalStateException("read timed out"));
+        when(accountService.readHold(HOLD_REFERENCE)).thenReturn(ResponseEntity.ok(hold("CAPTURED")));
+
+        // When
+        List<SagaStep> steps = run(SagaStep.CAPTURE);
+
+        // Then
+        assertEquals(List.of(SagaStep.CAPTURE, SagaStep.REVERSE_DEBIT), steps);
+        BalanceUpdate refund = balanceUpdates().get(0);
+        assertEquals(FROM_ACCOUNT, refund.getAccountNumber());
+        assertEquals(Money.of(100), refund.getAmount());
+        assertNull(refund.getReverses());
+        assertEquals(TransactionStatus.FAILED, fundTransfer.getStatus());
+        verify(transferLimits).release(FROM_ACCOUNT, TransferType.INTERNAL, Money.of(100), fundTransfer.getTransferredOn());
+    }
+
+    @Test
+    void handle_ShouldFailWithoutRefund_WhenCaptureRanOutOfRetries_AndHoldIsStillHeld() {
+        // Given
+        when(accountService.captureHold(HOLD_REFERENCE)).thenThrow(new IllegalStateException("read timed out"));
+        when(accountService.readHold(HOLD_REFERENCE)).thenReturn(ResponseEntity.ok(hold("HELD")));
+
+        // When
+        List<SagaStep> steps = run(SagaStep.CAPTURE);
+
+        // Then
+        assertEquals(List.of(SagaStep.CAPTURE), steps);
+        verify(accountService, never()).updateBalance(any());
+        assertEquals(TransactionStatus.FAILED, fundTransfer.getStatus());
+        verify(transferLimits).release(FROM_ACCOUNT, TransferType.INTERNAL, Money.of(100), fundTransfer.getTransferredOn());
+    }
+
+    @Test
+    void handle_ShouldRetryCapture_WhenCaptureRanOutOfRetries_AndHoldCannotBeRead() {
+        // Given
+        when(accountService.captureHold(HOLD_REFERENCE)).thenThrow(new IllegalStateException("read timed out"));
+        when(accountService.readHold(HOLD_REFERENCE)).thenThrow(new IllegalStateException("connection refused"));
+
+        // When
+        List<SagaStep> steps = run(SagaStep.CAPTURE);
+
+        // Then
+        assertEquals(List.of(SagaStep.CAPTURE), steps);
+        OutboxEvent capture = outbox.get(1L);
+        assertEquals(OutboxStatus.PENDING, capture.getStatus());
+        assertEquals(1, capture.getAttempts());
+        assertTrue(capture.getAvailableAt().isAfter(LocalDateTime.now()));
+        assertEquals(TransactionStatus.PROCESSING, fundTransfer.getStatus());
+        verify(accountService, never()).updateBalance(any());
+        verifyNoInteractions(transferLimits);
+    }
+
+    /**
+     * Enqueues a claimed step and runs it and every step it leads to, the way a worker owning the transfer does.
+     *
+     * @return the steps run, in order
+     */
+    private List<SagaStep> run(SagaStep first) {
+        List<SagaStep> steps = new ArrayList<>();
+        Long next = outboxEventRepository.save(OutboxEvent.builder()
+                .fundTransferId(1L)
+                .step(first)
+                .status(OutboxStatus.IN_FLIGHT)
+                .availableAt(LocalDateTime.now())
+                .claimedAt(LocalDateTime.now()).build()).getOutboxEventId();
+        while (next != null) {
+            steps.add(outbox.get(next).getStep());
+            next = saga.handle(next);
+        }
+        return steps;
+    }
+
+    private void stubAccounts() {
+        when(accountService.readByAccountNumber(FROM_ACCOUNT)).thenReturn(ResponseEntity.ok(account(FROM_ACCOUNT)));
+        when(accountService.readByAccountNumber(TO_ACCOUNT)).thenReturn(ResponseEntity.ok(account(TO_ACCOUNT)));
+    }
+
+    private static Account account(String accountNumber) {
+        return Account.builder().accountNumber(accountNumber).accountStatus("ACTIVE").availableBalance(Money.of(1000)).build();
+    }
+
+    private List<BalanceUpdate> balanceUpdates() {
+        ArgumentCaptor<BalanceUpdate> captor = ArgumentCaptor.forClass(BalanceUpdate.class);
+        verify(accountService, atLeastOnce()).updateBalance(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static Hold hold(String status) {
+        return Hold.builder()
+                .holdReference(HOLD_REFERENCE)
+                .accountNumber(FROM_ACCOUNT)
+                .amount(Money.of(100))
+                .status(status).build();
+    }
+}
@@ -0,0 +1,269 @@
+package org.training.fundtransfer.service.implementation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.training.common.model.Money;
+import org.training.fundtransfer.exception.GlobalErrorCode;
+import org.training.fundtransfer.exception.InvalidTransferRequest;
+import org.training.fundtransfer.exception.TransferRejected;
+import org.training.fundtransfer.external.AccountService;
+import org.training.fundtransfer.model.AccountLookup;
+import org.training.fundtransfer.model.TransferDirection;
+import org.training.fundtransfer.model.dto.FundTransferDto;
+import org.training.fundtransfer.model.dto.request.FundTransferRequest;
+import org.training.fundtransfer.model.dto.response.DryRunResponse;
+import org.training.fundtransfer.model.dto.response.TransferHistoryResponse;
+import org.training.fundtransfer.model.entity.FundTransfer;
+import org.training.fundtransfer.repository.FundTransferRepository;
+import org.training.fundtransfer.service.SagaStepPublisher;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FundTransferServiceImplTest {
+
+    private static final String DEBITED = "0600100000001";
+    private static final String CREDITED = "0600100000002";
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Mock
+    private FundTransferRepository fundTransferRepository;
+
+    @Mock
+    private FundTransferSaga fundTransferSaga;
+
+    @Mock
+    private SagaStepPublisher sagaStepPublisher;
+
+    @Mock
+    private TransferLimits transferLimits;
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private AccountNumberFilter accountNumberFilter;
+
+    @Mock
+    private TransferShadow transferShadow;
+
+    @Mock
+    private ReactiveFundTransferSaga reactiveFundTransferSaga;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private FundTransferServiceImpl fundTransferService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(fundTransferService, "maxHistoryPageSize", 500);
+        lenient().when(accountNumberFilter.mightExist(anyString())).thenReturn(true);
+    }
+
+    @Test
+    void fundTransfer_ShouldRejectAsUnavailable_WhenLaneOfDebitedAccountIsSaturated() {
+        // Given
+        when(sagaStepPublisher.canAccept(DEBITED)).thenReturn(false);
+
+        // When
+        TransferRejected rejected = assertThrows(TransferRejected.class, () -> fundTransferService.fundTransfer(request()));
+
+        // Then
+        assertEquals(GlobalErrorCode.SERVICE_UNAVAILABLE, rejected.getMessage());
+        verifyNoInteractions(transferLimits, fundTransferSaga, fundTransferRepository);
+        verify(sagaStepPublisher, never()).publish(any());
+    }
+
+    @Test
+    void dryRunFundTransfer_ShouldCheckWithoutReservingOrMovingAnything_WhenLookupIsBlocking() {
+        // Given
+        when(sagaStepPublisher.canAccept(DEBITED)).thenReturn(true);
+
+        // When
+        DryRunResponse response = fundTransferService.dryRunFundTransfer(request(), AccountLookup.BLOCKING);
+
+        // Then
+        assertEquals(List.of("validation", "capacity", "limits", "lookups"), new ArrayList<>(response.getStageMicros().keySet()));
+        verify(transferLimits).check(eq(DEBITED), any(), eq(Money.of(100)));
+        verify(fundTransferSaga).checkAccounts(any());
+        verifyNoMoreInteractions(transferLimits, fundTransferSaga);
+        verify(sagaStepPublisher, never()).publish(any());
+        verifyNoInteractions(fundTransferRepository, accountService, reactiveFundTransferSaga);
+        assertEquals(1, meterRegistry.get("fund.transfer.dry.run").tag("mode", "dry-run").tag("outcome", "passed").timer().count());
+    }
+
+    @Test
+    void dryRunFundTransfer_ShouldReadAccountsAtOnce_WhenLookupIsReactive() {
+        // Given
+        when(sagaStepPublisher.canAccept(DEBITED)).thenReturn(true);
+        when(reactiveFundTransferSaga.checkAccounts(any())).thenReturn(Mono.empty());
+
+        // When
+        fundTransferService.dryRunFundTransfer(request(), AccountLookup.REACTIVE);
+
+        // Then
+        verify(reactiveFundTransferSaga).checkAccounts(any());
+        verifyNoMoreInteractions(reactiveFundTransferSaga);
+        verify(transferLimits, never()).reserve(any(), any(), any());
+        verify(transferLimits, never()).tryReserve(any(), any(), any());
+        verifyNoInteractions(fundTransferSaga, fundTransferRepository, accountService);
+    }
+
+    @Test
+    void dryRunFundTransfer_ShouldRecordFailedOutcome_WhenLaneIsSaturated() {
+        // Given
+        when(sagaStepPublisher.canAccept(DEBITED)).thenReturn(false);
+
+        // When
+        assertThrows(TransferRejected.class, () -> fundTransferService.dryRunFundTransfer(request(), AccountLookup.BLOCKING));
+
+        // Then
+        verifyNoInteractions(transferLimits, fundTransferSaga, fundTransferRepository);
+        assertEquals(1, meterRegistry.get("fund.transfer.dry.run").tag("outcome", "failed").timer().count());
+    }
+
+    @Test
+    void getTransferHistory_ShouldMergeBothDirectionsNewestFirst_AcrossPages() {
+        // Given
+        List<FundTransfer> history = List.of(
+                transfer(1L, DEBITED, CREDITED, NOON.minusHours(3)),
+                transfer(2L, CREDITED, DEBITED, NOON.minusHours(2)),
+                transfer(3L, DEBITED, CREDITED, NOON.minusHours(1)),
+                transfer(4L, CREDITED, DEBITED, NOON),
+                transfer(5L, DEBITED, CREDITED, NOON),
+                transfer(6L, CREDITED, DEBITED, NOON),
+                transfer(7L, DEBITED, CREDITED, NOON.plusHours(1)));
+        givenHistory(history);
+
+        // When
+        List<String> references = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TransferHistoryResponse page = fundTransferService.getTransferHistory(DEBITED, TransferDirection.BOTH, null, null, cursor, 2);
+            assertTrue(page.getTransfers().size() <= 2);
+            page.getTransfers().stream().map(FundTransferDto::getTransactionReference).forEach(references::add);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Then
+        assertEquals(List.of("r7", "r6", "r5", "r4", "r3", "r2", "r1"), references);
+        assertEquals(4, pages);
+    }
+
+    @Test
+    void getTransferHistory_ShouldResumeAfterCursor_WhenTransfersShareTheirTime() {
+        // Given
+        givenHistory(List.of(
+                transfer(4L, CREDITED, DEBITED, NOON),
+                transfer(5L, DEBITED, CREDITED, NOON),
+                transfer(6L, CREDITED, DEBITED, NOON)));
+
+        // When
+        TransferHistoryResponse first = fundTransferService.getTransferHistory(DEBITED, TransferDirection.BOTH, null, null, null, 1);
+        TransferHistoryResponse second = fundTransferService.getTransferHistory(DEBITED, TransferDirection.BOTH, null, null, first.getNextCursor(), 1);
+
+        // Then
+        assertEquals("r6", first.getTransfers().get(0).getTransactionReference());
+        assertEquals(NOON + ",6", new String(Base64.getUrlDecoder().decode(first.getNextCursor()), StandardCharsets.UTF_8));
+        assertEquals("r5", second.getTransfers().get(0).getTransactionReference());
+        verify(fundTransferRepository).findOutgoingPage(eq(DEBITED), any(), eq(NOON), eq(6L), any());
+        verify(fundTransferRepository).findIncomingPage(eq(DEBITED), any(), eq(NOON), eq(6L), any());
+    }
+
+    @Test
+    void getTransferHistory_ShouldReadOneDirection_WhenOnlyOneIsAsked() {
+        // Given
+        givenHistory(List.of(
+                transfer(1L, DEBITED, CREDITED, NOON),
+                transfer(2L, CREDITED, DEBITED, NOON)));
+
+        // When
+        TransferHistoryResponse page = fundTransferService.getTransferHistory(DEBITED, TransferDirection.INCOMING, null, null, null, 10);
+
+        // Then
+        assertEquals(List.of("r2"), page.getTransfers().stream().map(FundTransferDto::getTransactionReference).collect(Collectors.toList()));
+        assertNull(page.getNextCursor());
+        verify(fundTransferRepository, never()).findOutgoingPage(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getTransferHistory_ShouldRejectMalformedCursor() {
+        // Given
+        Function<String, String> encode = text -> Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+
+        // When / Then
+        for (String cursor : List.of("not a cursor!", encode.apply("2026-03-01T12:00"), encode.apply("yesterday,6"),
+                encode.apply("2026-03-01T12:00,six"), encode.apply("2026-03-01T12:00,6,7"))) {
+            InvalidTransferRequest rejected = assertThrows(InvalidTransferRequest.class, () ->
+                    fundTransferService.getTransferHistory(DEBITED, TransferDirection.BOTH, null, null, cursor, 10), cursor);
+            assertEquals(GlobalErrorCode.BAD_REQUEST, rejected.getMessage());
+        }
+        verifyNoInteractions(fundTransferRepository);
+    }
+
+    /**
+     * Answers the page queries from the given transfers as the database would.
+     */
+    private void givenHistory(List<FundTransfer> history) {
+        lenient().when(fundTransferRepository.findOutgoingPage(eq(DEBITED), any(), any(), any(), any())).thenAnswer(invocation ->
+                page(history.stream().filter(transfer -> transfer.getFromAccount().equals(DEBITED)).collect(Collectors.toList()),
+                        invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3), invocation.getArgument(4)));
+        lenient().when(fundTransferRepository.findIncomingPage(eq(DEBITED), any(), any(), any(), any())).thenAnswer(invocation ->
+                page(history.stream().filter(transfer -> transfer.getToAccount().equals(DEBITED)).collect(Collectors.toList()),
+                        invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3), invocation.getArgument(4)));
+    }
+
+    private static List<FundTransfer> page(List<FundTransfer> transfers, LocalDateTime from, LocalDateTime beforeOn, Long beforeId, Pageable pageable) {
+        return transfers.stream()
+                .filter(transfer -> !transfer.getTransferredOn().isBefore(from))
+                .filter(transfer -> transfer.getTransferredOn().isBefore(beforeOn)
+                        || (transfer.getTransferredOn().isEqual(beforeOn) && transfer.getFundTransferId() < beforeId))
+                .sorted(Comparator.comparing(FundTransfer::getTransferredOn).thenComparing(FundTransfer::getFundTransferId).reversed())
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+    }
+
+    private static FundTransfer transfer(Long id, String fromAccount, String toAccount, LocalDateTime transferredOn) {
+        return FundTransfer.builder()
+                .fundTransferId(id)
+                .transactionReference("r" + id)
+                .fromAccount(fromAccount)
+                .toAccount(toAccount)
+                .amount(Money.of(100))
+                .transferredOn(transferredOn).build();
+    }
+
+    private static FundTransferRequest request() {
+        return FundTransferRequest.builder()
+                .fromAccount(DEBITED)
+                .toAccount(CREDITED)
+                .amount(Money.of(100)).build();
+    }
+}
@@ -0,0 +1,122 @@
+package org.training.fundtransfer.service.implementation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LaneSagaStepPublisherTest {
+
+    private static final String DEBITED = "0600100000001";
+    private static final String CREDITED = "0600100000002";
+
+    @Mock
+    private TransferLanes transferLanes;
+
+    @Mock
+    private FundTransferSaga fundTransferSaga;
+
+    @InjectMocks
+    private LaneSagaStepPublisher laneSagaStepPublisher;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(fundTransferSaga.accountOf(1L)).thenReturn(DEBITED);
+        lenient().when(fundTransferSaga.accountOf(2L)).thenReturn(CREDITED);
+    }
+
+    @Test
+    void publish_ShouldRunEveryStepOnTheLaneOfItsAccount() {
+        // Given
+        givenLaneAccepts(DEBITED);
+        givenLaneAccepts(CREDITED);
+        when(fundTransferSaga.handle(1L)).thenReturn(2L);
+        when(fundTransferSaga.handle(2L)).thenReturn(null);
+
+        // When
+        CompletableFuture<Void> done = laneSagaStepPublisher.publish(1L);
+
+        // Then
+        assertNotNull(done);
+        assertTrue(done.isDone());
+        InOrder inOrder = inOrder(transferLanes, fundTransferSaga);
+        inOrder.verify(transferLanes).execute(eq(DEBITED), any());
+        inOrder.verify(fundTransferSaga).handle(1L);
+        inOrder.verify(transferLanes).execute(eq(CREDITED), any());
+        inOrder.verify(fundTransferSaga).handle(2L);
+        verify(fundTransferSaga, never()).release(any());
+    }
+
+    @Test
+    void publish_ShouldReleaseNextStepToRelay_WhenItsLaneIsFull() {
+        // Given
+        givenLaneAccepts(DEBITED);
+        when(transferLanes.execute(eq(CREDITED), any())).thenReturn(false);
+        when(fundTransferSaga.handle(1L)).thenReturn(2L);
+
+        // When
+        CompletableFuture<Void> done = laneSagaStepPublisher.publish(1L);
+
+        // Then
+        assertTrue(done.isDone());
+        verify(fundTransferSaga).release(2L);
+        verify(fundTransferSaga, never()).handle(2L);
+    }
+
+    @Test
+    void publish_ShouldReturnNull_WhenLaneOfFirstStepIsFull() {
+        // Given
+        when(transferLanes.execute(eq(DEBITED), any())).thenReturn(false);
+
+        // When
+        CompletableFuture<Void> done = laneSagaStepPublisher.publish(1L);
+
+        // Then
+        assertNull(done);
+        verify(fundTransferSaga, never()).handle(any());
+    }
+
+    @Test
+    void publish_ShouldComplete_WhenStepCannotBeRecorded() {
+        // Given
+        givenLaneAccepts(DEBITED);
+        when(fundTransferSaga.handle(1L)).thenThrow(new IllegalStateException("database unavailable"));
+
+        // When
+        CompletableFuture<Void> done = laneSagaStepPublisher.publish(1L);
+
+        // Then
+        assertTrue(done.isDone());
+        assertFalse(done.isCompletedExceptionally());
+        verify(fundTransferSaga, never()).release(any());
+    }
+
+    @Test
+    void canAccept_ShouldBeFalse_WhenLaneOfAccountIsSaturated() {
+        // Given
+        when(transferLanes.isSaturated(DEBITED)).thenReturn(true);
+        when(transferLanes.isSaturated(CREDITED)).thenReturn(false);
+
+        // When / Then
+        assertFalse(laneSagaStepPublisher.canAccept(DEBITED));
+        assertTrue(laneSagaStepPublisher.canAccept(CREDITED));
+    }
+
+    private void givenLaneAccepts(String accountNumber) {
+        when(transferLanes.execute(eq(accountNumber), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        });
+    }
+}
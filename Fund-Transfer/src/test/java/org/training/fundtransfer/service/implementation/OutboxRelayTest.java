@@ -0,0 +1,88 @@
+package org.training.fundtransfer.service.implementation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.training.fundtransfer.repository.OutboxEventRepository;
+import org.training.fundtransfer.service.SagaStepPublisher;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private FundTransferSaga fundTransferSaga;
+
+    @Mock
+    private SagaStepPublisher sagaStepPublisher;
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 2);
+        ReflectionTestUtils.setField(outboxRelay, "leaseMillis", 300000L);
+        lenient().when(fundTransferSaga.claim(anyLong())).thenReturn(true);
+        lenient().when(sagaStepPublisher.publish(anyLong())).thenReturn(new CompletableFuture<>());
+    }
+
+    @Test
+    void drain_ShouldPublishEveryDueStep_PageByPage() {
+        // Given
+        when(outboxEventRepository.findDueEventIds(any(), any(), any()))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+
+        // When
+        outboxRelay.drain();
+
+        // Then
+        verify(sagaStepPublisher).publish(1L);
+        verify(sagaStepPublisher).publish(2L);
+        verify(sagaStepPublisher).publish(3L);
+        verify(outboxEventRepository, times(2)).findDueEventIds(any(), any(), any());
+        verify(fundTransferSaga, never()).release(anyLong());
+    }
+
+    @Test
+    void drain_ShouldSkipStep_WhenAnotherWorkerClaimedIt() {
+        // Given
+        when(outboxEventRepository.findDueEventIds(any(), any(), any())).thenReturn(List.of(1L));
+        when(fundTransferSaga.claim(1L)).thenReturn(false);
+
+        // When
+        outboxRelay.drain();
+
+        // Then
+        verify(sagaStepPublisher, never()).publish(anyLong());
+    }
+
+    @Test
+    void drain_ShouldReleaseStepAndStop_WhenTransferLaneIsSaturated() {
+        // Given
+        when(outboxEventRepository.findDueEventIds(any(), any(), any())).thenReturn(List.of(1L, 2L));
+        when(sagaStepPublisher.publish(1L)).thenReturn(null);
+
+        // When
+        outboxRelay.drain();
+
+        // Then
+        verify(fundTransferSaga).release(1L);
+        verify(fundTransferSaga, never()).claim(2L);
+        verify(outboxEventRepository, times(1)).findDueEventIds(any(), any(), any());
+    }
+}
@@ -0,0 +1,235 @@
+package org.training.fundtransfer.service.implementation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.training.common.model.Money;
+import org.training.fundtransfer.exception.AccountUpdateException;
+import org.training.fundtransfer.exception.GlobalException;
+import org.training.fundtransfer.exception.ResourceNotFound;
+import org.training.fundtransfer.external.ReactiveAccountService;
+import org.training.fundtransfer.external.ReactiveTransactionService;
+import org.training.fundtransfer.model.OutboxStatus;
+import org.training.fundtransfer.model.SagaStep;
+import org.training.fundtransfer.model.TransactionStatus;
+import org.training.fundtransfer.model.TransferType;
+import org.training.fundtransfer.model.dto.Account;
+import org.training.fundtransfer.model.dto.BalanceUpdate;
+import org.training.fundtransfer.model.entity.FundTransfer;
+import org.training.fundtransfer.model.entity.OutboxEvent;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Subscribes to the saga with a bounded block, as reactor-test is not part of this build.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactiveFundTransferSagaTest {
+
+    private static final String FROM_ACCOUNT = "0600140000001";
+    private static final String TO_ACCOUNT = "0600140000002";
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @Mock
+    private FundTransferSaga fundTransferSaga;
+
+    @Mock
+    private ReactiveAccountService reactiveAccountService;
+
+    @Mock
+    private ReactiveTransactionService reactiveTransactionService;
+
+    @InjectMocks
+    private ReactiveFundTransferSaga reactiveFundTransferSaga;
+
+    private FundTransfer fundTransfer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reactiveFundTransferSaga, "maxInFlight", 10);
+        ReflectionTestUtils.setField(reactiveFundTransferSaga, "lookupTimeoutMillis", 2000L);
+        ReflectionTestUtils.setField(reactiveFundTransferSaga, "balanceTimeoutMillis", 2000L);
+        ReflectionTestUtils.setField(reactiveFundTransferSaga, "ledgerTimeoutMillis", 2000L);
+        fundTransfer = FundTransfer.builder()
+                .fundTransferId(1L)
+                .transactionReference("r1")
+                .fromAccount(FROM_ACCOUNT)
+                .toAccount(TO_ACCOUNT)
+                .amount(Money.of(100))
+                .status(TransactionStatus.PROCESSING)
+                .transferType(TransferType.INTERNAL)
+                .transferredOn(LocalDateTime.now()).build();
+        lenient().when(reactiveAccountService.readByAccountNumber(FROM_ACCOUNT)).thenReturn(Mono.just(account(FROM_ACCOUNT, "ACTIVE")));
+        lenient().when(reactiveAccountService.readByAccountNumber(TO_ACCOUNT)).thenReturn(Mono.just(account(TO_ACCOUNT, "ACTIVE")));
+    }
+
+    @Test
+    void start_ShouldRunEveryStepAndRecordIt_UntilTransferFinishes() {
+        // Given
+        FundTransferSaga.ClaimedStep debit = givenStep(1L, SagaStep.DEBIT);
+        FundTransferSaga.ClaimedStep credit = givenStep(2L, SagaStep.CREDIT);
+        when(reactiveAccountService.updateBalance(any())).thenReturn(Mono.empty());
+        when(fundTransferSaga.record(debit, null)).thenReturn(2L);
+        when(fundTransferSaga.record(credit, null)).thenReturn(null);
+
+        // When
+        reactiveFundTransferSaga.start(1L).block(WAIT);
+
+        // Then
+        ArgumentCaptor<BalanceUpdate> updates = ArgumentCaptor.forClass(BalanceUpdate.class);
+        verify(reactiveAccountService, times(2)).updateBalance(updates.capture());
+        assertEquals("r1:DEBIT", updates.getAllValues().get(0).getIdempotencyKey());
+        assertEquals("r1:CREDIT", updates.getAllValues().get(1).getIdempotencyKey());
+        verify(fundTransferSaga, never()).release(any());
+    }
+
+    @Test
+    void start_ShouldRecordTimeoutAsTransientFailure_WhenBalanceUpdateHangs() {
+        // Given
+        ReflectionTestUtils.setField(reactiveFundTransferSaga, "balanceTimeoutMillis", 50L);
+        FundTransferSaga.ClaimedStep credit = givenStep(2L, SagaStep.CREDIT);
+        when(reactiveAccountService.updateBalance(any())).thenReturn(Mono.never());
+        ArgumentCaptor<Throwable> failure = ArgumentCaptor.forClass(Throwable.class);
+        when(fundTransferSaga.record(eq(credit), failure.capture())).thenReturn(null);
+
+        // When
+        reactiveFundTransferSaga.start(2L).block(WAIT);
+
+        // Then
+        assertInstanceOf(TimeoutException.class, failure.getValue());
+        assertFalse(failure.getValue() instanceof GlobalException);
+    }
+
+    @Test
+    void start_ShouldRecordTimeoutAsTransientFailure_WhenLedgerHangs() {
+        // Given
+        ReflectionTestUtils.setField(reactiveFundTransferSaga, "ledgerTimeoutMillis", 50L);
+        FundTransferSaga.ClaimedStep ledger = givenStep(3L, SagaStep.LEDGER);
+        when(reactiveTransactionService.makeInternalTransactions(any(), eq("r1"), eq("r1:LEDGER"))).thenReturn(Mono.never());
+        ArgumentCaptor<Throwable> failure = ArgumentCaptor.forClass(Throwable.class);
+        when(fundTransferSaga.record(eq(ledger), failure.capture())).thenReturn(null);
+
+        // When
+        reactiveFundTransferSaga.start(3L).block(WAIT);
+
+        // Then
+        assertInstanceOf(TimeoutException.class, failure.getValue());
+    }
+
+    @Test
+    void start_ShouldReleaseStepToRelay_WhenMaxInFlightIsReached_AndTakeStepsAgainOnceOneEnds() {
+        // Given
+        ReflectionTestUtils.setField(reactiveFundTransferSaga, "maxInFlight", 1);
+        FundTransferSaga.ClaimedStep credit = givenStep(2L, SagaStep.CREDIT);
+        Sinks.Empty<Void> balanceUpdated = Sinks.empty();
+        when(reactiveAccountService.updateBalance(any())).thenReturn(balanceUpdated.asMono(), Mono.empty());
+        when(fundTransferSaga.record(credit, null)).thenReturn(null);
+        Mono<Void> running = reactiveFundTransferSaga.start(2L);
+
+        // When
+        reactiveFundTransferSaga.start(4L).block(WAIT);
+
+        // Then
+        verify(fundTransferSaga).release(4L);
+        verify(fundTransferSaga, never()).load(4L);
+
+        // When
+        balanceUpdated.tryEmitEmpty();
+        running.block(WAIT);
+        awaitNothingInFlight();
+        reactiveFundTransferSaga.start(2L).block(WAIT);
+
+        // Then
+        verify(fundTransferSaga, times(2)).record(credit, null);
+        verify(fundTransferSaga, never()).release(2L);
+    }
+
+    @Test
+    void checkAccounts_ShouldReadBothAccountsAtOnce() {
+        // Given
+        Sinks.One<Account> debited = Sinks.one();
+        when(reactiveAccountService.readByAccountNumber(FROM_ACCOUNT)).thenReturn(debited.asMono());
+        when(reactiveAccountService.readByAccountNumber(TO_ACCOUNT)).thenReturn(Mono.just(account(TO_ACCOUNT, "ACTIVE"))
+                .doOnSubscribe(subscription -> debited.tryEmitValue(account(FROM_ACCOUNT, "ACTIVE"))));
+
+        // When / Then
+        assertDoesNotThrow(() -> reactiveFundTransferSaga.checkAccounts(fundTransfer).block(WAIT));
+    }
+
+    @Test
+    void checkAccounts_ShouldFailAsBusinessFailure_WhenDebitedAccountIsInactive() {
+        // Given
+        when(reactiveAccountService.readByAccountNumber(FROM_ACCOUNT)).thenReturn(Mono.just(account(FROM_ACCOUNT, "PENDING")));
+
+        // When / Then
+        assertThrows(AccountUpdateException.class, () -> reactiveFundTransferSaga.checkAccounts(fundTransfer).block(WAIT));
+    }
+
+    @Test
+    void checkAccounts_ShouldFailAsBusinessFailure_WhenCreditedAccountIsNotFound() {
+        // Given
+        when(reactiveAccountService.readByAccountNumber(TO_ACCOUNT)).thenReturn(Mono.empty());
+
+        // When / Then
+        assertThrows(ResourceNotFound.class, () -> reactiveFundTransferSaga.checkAccounts(fundTransfer).block(WAIT));
+    }
+
+    @Test
+    void checkAccounts_ShouldTimeOut_WhenAnAccountCannotBeRead() {
+        // Given
+        ReflectionTestUtils.setField(reactiveFundTransferSaga, "lookupTimeoutMillis", 50L);
+        when(reactiveAccountService.readByAccountNumber(TO_ACCOUNT)).thenReturn(Mono.never());
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> reactiveFundTransferSaga.checkAccounts(fundTransfer).block(WAIT));
+
+        // Then
+        assertInstanceOf(TimeoutException.class, Exceptions.unwrap(exception));
+    }
+
+    /**
+     * Waits for the slot of the transfers that completed to be given back, which happens just after their
+     * completion is signalled.
+     */
+    private void awaitNothingInFlight() {
+        AtomicInteger inFlight = (AtomicInteger) ReflectionTestUtils.getField(reactiveFundTransferSaga, "inFlight");
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0, inFlight.get());
+    }
+
+    private FundTransferSaga.ClaimedStep givenStep(Long outboxEventId, SagaStep step) {
+        FundTransferSaga.ClaimedStep claimedStep = new FundTransferSaga.ClaimedStep(OutboxEvent.builder()
+                .outboxEventId(outboxEventId)
+                .fundTransferId(1L)
+                .step(step)
+                .status(OutboxStatus.IN_FLIGHT).build(), fundTransfer);
+        lenient().when(fundTransferSaga.load(outboxEventId)).thenReturn(claimedStep);
+        return claimedStep;
+    }
+
+    private static Account account(String accountNumber, String accountStatus) {
+        return Account.builder()
+                .accountNumber(accountNumber)
+                .accountStatus(accountStatus)
+                .availableBalance(Money.of(1000)).build();
+    }
+}
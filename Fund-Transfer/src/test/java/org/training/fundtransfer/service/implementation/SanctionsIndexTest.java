@@ -0,0 +1,118 @@
+package org.training.fundtransfer.service.implementation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SanctionsIndexTest {
+
+    @Test
+    void normalise_ShouldDropAccentsAndCollapsePunctuation() {
+        assertEquals(" JOSE O BRIEN ", SanctionsIndex.normalise("José  O'Brien"));
+        assertEquals(" JOSE O BRIEN ", SanctionsIndex.normalise("  jose-o.brien!! "));
+        assertEquals(" MULLER 3RD ", SanctionsIndex.normalise("Müller, 3rd"));
+        assertEquals(" ", SanctionsIndex.normalise(null));
+    }
+
+    @Test
+    void match_ShouldIgnoreAccentsCaseAndPunctuation() {
+        // Given
+        SanctionsIndex index = SanctionsIndex.build(List.of("José O'Brien"));
+
+        // When
+        String match = index.match("JOSE O BRIEN");
+
+        // Then
+        assertEquals("José O'Brien", match);
+        assertEquals("José O'Brien", index.match("jose-o'brien"));
+    }
+
+    @Test
+    void match_ShouldOnlyMatchWholeWords() {
+        // Given
+        SanctionsIndex index = SanctionsIndex.build(List.of("Anna Lee"));
+
+        // Then
+        assertEquals("Anna Lee", index.match("Mrs Anna Lee Smith"));
+        assertNull(index.match("Johanna Lee"));
+        assertNull(index.match("Anna Leeds"));
+        assertNull(index.match("AnnaLee"));
+    }
+
+    @Test
+    void match_ShouldMatchReorderedNames() {
+        // Given
+        SanctionsIndex index = SanctionsIndex.build(List.of("John Doe"));
+
+        // Then
+        assertEquals("John Doe", index.match("DOE, JOHN"));
+        assertEquals("John Doe", index.match("Doe John"));
+        assertNull(index.match("John Smith"));
+    }
+
+    @Test
+    void match_ShouldReportListedNameEndingFirst_WhenNamesOverlap() {
+        // Given
+        SanctionsIndex index = SanctionsIndex.build(List.of("John Doe Smith", "Doe"));
+
+        // When
+        String match = index.match("John Doe Jones");
+
+        // Then
+        assertEquals("Doe", match);
+        assertEquals("Doe", index.match("John Doe Smith"));
+    }
+
+    @Test
+    void match_ShouldFollowFailureLink_WhenLongerNameStopsMatching() {
+        // Given
+        SanctionsIndex index = SanctionsIndex.build(List.of("Anna Maria Smith", "Maria Jones"));
+
+        // When
+        String match = index.match("Anna Maria Jones");
+
+        // Then
+        assertEquals("Maria Jones", match);
+        assertNull(index.match("Anna Maria Smithson"));
+    }
+
+    @Test
+    void match_ShouldMatchTwoLetterNamesAsWholeWords() {
+        // Given
+        SanctionsIndex index = SanctionsIndex.build(List.of("Wu", "X"));
+
+        // Then
+        assertEquals("Wu", index.match("Wu Lan"));
+        assertEquals("X", index.match("Mr X"));
+        assertNull(index.match("Wulf Lan"));
+    }
+
+    @Test
+    void build_ShouldSkipBlankNames_AndMatchNothingForBlankScreenedNames() {
+        // Given
+        SanctionsIndex index = SanctionsIndex.build(List.of("", "  ", "--", "Jane Roe"));
+
+        // Then
+        assertEquals(1, index.size());
+        assertNull(index.match(""));
+        assertNull(index.match("  -- "));
+        assertNull(index.match(null));
+        assertEquals("Jane Roe", index.match("jane roe"));
+    }
+
+    @Test
+    void match_ShouldFindEveryNameOfLargeList() {
+        // Given
+        List<String> names = IntStream.range(0, 5000).mapToObj(i -> "Name" + i + " Surname" + (i * 7)).collect(Collectors.toList());
+        SanctionsIndex index = SanctionsIndex.build(names);
+
+        // Then
+        assertEquals(5000, index.size());
+        names.forEach(name -> assertEquals(name, index.match("Mr " + name)));
+        assertNull(index.match("Name1 Surname8"));
+    }
+}
@@ -0,0 +1,92 @@
+package org.training.fundtransfer.service.implementation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.training.fundtransfer.exception.SanctionsMatch;
+import org.training.fundtransfer.exception.TransferRejected;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SanctionsScreenerTest {
+
+    @TempDir
+    Path directory;
+
+    private Path listFile;
+
+    private SanctionsScreener screener;
+
+    @BeforeEach
+    void setUp() {
+        listFile = directory.resolve("sanctions.txt");
+        screener = new SanctionsScreener();
+        ReflectionTestUtils.setField(screener, "listFile", listFile.toString());
+    }
+
+    @Test
+    void screen_ShouldFailClosed_BeforeListIsLoaded() {
+        // Given
+        screener.start();
+
+        // Then
+        assertThrows(TransferRejected.class, () -> screener.screen("Jane Roe"));
+    }
+
+    @Test
+    void screen_ShouldRejectListedNames_AndSkipCommentsAndBlankLines() throws IOException {
+        // Given
+        write(List.of("# sanctions list", "", "John Doe", "  "), 1000);
+
+        // When
+        screener.start();
+
+        // Then
+        assertThrows(SanctionsMatch.class, () -> screener.screen("DOE, John"));
+        assertDoesNotThrow(() -> screener.screen("Jane Roe"));
+        assertDoesNotThrow(() -> screener.screen("Sanctions List"));
+    }
+
+    @Test
+    void reload_ShouldReplaceList_WhenFileChanges() throws IOException {
+        // Given
+        write(List.of("John Doe"), 1000);
+        screener.start();
+
+        // When
+        write(List.of("Jane Roe"), 2000);
+        screener.reload();
+
+        // Then
+        assertThrows(SanctionsMatch.class, () -> screener.screen("Jane Roe"));
+        assertDoesNotThrow(() -> screener.screen("John Doe"));
+    }
+
+    @Test
+    void reload_ShouldKeepLoadedList_WhenFileCannotBeRead() throws IOException {
+        // Given
+        write(List.of("John Doe"), 1000);
+        screener.start();
+
+        // When
+        Files.delete(listFile);
+        screener.reload();
+
+        // Then
+        assertThrows(SanctionsMatch.class, () -> screener.screen("John Doe"));
+        assertDoesNotThrow(() -> screener.screen("Jane Roe"));
+    }
+
+    private void write(List<String> lines, long modifiedMillis) throws IOException {
+        Files.write(listFile, lines, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(listFile, FileTime.fromMillis(modifiedMillis));
+    }
+}
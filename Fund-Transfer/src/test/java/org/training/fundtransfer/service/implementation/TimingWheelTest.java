@@ -0,0 +1,136 @@
+package org.training.fundtransfer.service.implementation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long TICK = 10;
+    private static final int SIZE = 4;
+
+    @Test
+    void advance_ShouldReleaseItem_NotBeforeItsDeadline_AndWithinOneTick() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, SIZE, 0);
+        wheel.schedule(25, "a");
+
+        // When
+        List<String> early = advance(wheel, 24);
+        List<String> due = advance(wheel, 30);
+
+        // Then
+        assertEquals(List.of(), early);
+        assertEquals(List.of("a"), due);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedule_ShouldPlaceItemsInTheBucketOfTheirTick_WrappingAroundTheLevel() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, SIZE, 0);
+        advance(wheel, 20);
+        wheel.schedule(35, "same level, bucket 3");
+        wheel.schedule(45, "same level, bucket 0 after wrapping");
+
+        // When
+        List<String> first = advance(wheel, 40);
+        List<String> second = advance(wheel, 50);
+
+        // Then
+        assertEquals(List.of("same level, bucket 3"), first);
+        assertEquals(List.of("same level, bucket 0 after wrapping"), second);
+    }
+
+    @Test
+    void schedule_ShouldReleaseItemsDueWithinTheCurrentTick_OnTheNextAdvance() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, SIZE, 100);
+        wheel.schedule(50, "overdue");
+        wheel.schedule(105, "this tick");
+
+        // When
+        List<String> released = advance(wheel, 105);
+
+        // Then
+        assertEquals(List.of("overdue", "this tick"), released);
+    }
+
+    @Test
+    void advance_ShouldCascadeItemsFromOverflowLevels_AndReleaseThemOnTime() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, SIZE, 0);
+        wheel.schedule(55, "second level");
+        wheel.schedule(175, "third level");
+        wheel.schedule(645, "fourth level");
+        assertEquals(3, wheel.size());
+
+        // When / Then
+        assertEquals(List.of(), advance(wheel, 54));
+        assertEquals(List.of("second level"), advance(wheel, 60));
+        assertEquals(List.of(), advance(wheel, 174));
+        assertEquals(List.of("third level"), advance(wheel, 180));
+        assertEquals(List.of(), advance(wheel, 644));
+        assertEquals(List.of("fourth level"), advance(wheel, 650));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_ShouldReleaseItemsEarliestFirst_WhenSeveralComeDueTogether() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, SIZE, 0);
+        wheel.schedule(95, "late");
+        wheel.schedule(12, "early");
+        wheel.schedule(48, "middle");
+
+        // When
+        List<String> released = advance(wheel, 1000);
+
+        // Then
+        assertEquals(List.of("early", "middle", "late"), released);
+    }
+
+    @Test
+    void cancel_ShouldDropItem_OnEveryLevel() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, SIZE, 0);
+        TimingWheel.Timeout near = wheel.schedule(25, "near");
+        TimingWheel.Timeout far = wheel.schedule(175, "far");
+        wheel.schedule(180, "kept");
+
+        // When
+        boolean nearCancelled = wheel.cancel(near);
+        boolean farCancelled = wheel.cancel(far);
+
+        // Then
+        assertTrue(nearCancelled);
+        assertTrue(farCancelled);
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("kept"), advance(wheel, 1000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancel_ShouldReturnFalse_WhenItemAlreadyReleasedOrCancelled() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, SIZE, 0);
+        TimingWheel.Timeout released = wheel.schedule(15, "released");
+        TimingWheel.Timeout cancelled = wheel.schedule(35, "cancelled");
+        advance(wheel, 20);
+        wheel.cancel(cancelled);
+
+        // When / Then
+        assertFalse(wheel.cancel(released));
+        assertFalse(wheel.cancel(cancelled));
+        assertEquals(0, wheel.size());
+    }
+
+    private static List<String> advance(TimingWheel<String> wheel, long nowMillis) {
+        List<String> released = new ArrayList<>();
+        wheel.advance(nowMillis, released::add);
+        return released;
+    }
+}
@@ -0,0 +1,99 @@
+package org.training.fundtransfer.service.implementation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferLanesTest {
+
+    private static final String ACCOUNT = "0600100000001";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TransferLanes transferLanes = new TransferLanes(meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transferLanes, "laneCount", 4);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        transferLanes.stop();
+    }
+
+    @Test
+    void execute_ShouldRunTasksOfAnAccountOneAtATimeInSubmissionOrder() throws InterruptedException {
+        // Given
+        ReflectionTestUtils.setField(transferLanes, "queueCapacity", 1000);
+        transferLanes.start();
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(500);
+
+        // When
+        for (int i = 0; i < 500; i++) {
+            int task = i;
+            assertTrue(transferLanes.execute(ACCOUNT, () -> {
+                order.add(task);
+                threads.add(Thread.currentThread().getName());
+                done.countDown();
+            }));
+        }
+
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(IntStream.range(0, 500).boxed().collect(Collectors.toList()), order);
+        assertEquals(1, threads.size());
+    }
+
+    @Test
+    void execute_ShouldRejectTask_WhenLaneOfAccountIsFull() throws InterruptedException {
+        // Given
+        ReflectionTestUtils.setField(transferLanes, "queueCapacity", 2);
+        transferLanes.start();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        assertTrue(transferLanes.execute(ACCOUNT, () -> {
+            running.countDown();
+            await(blocked);
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        assertFalse(transferLanes.isSaturated(ACCOUNT));
+        assertTrue(transferLanes.execute(ACCOUNT, () -> { }));
+        assertTrue(transferLanes.execute(ACCOUNT, () -> { }));
+
+        // When
+        boolean queued = transferLanes.execute(ACCOUNT, () -> { });
+
+        // Then
+        assertFalse(queued);
+        assertTrue(transferLanes.isSaturated(ACCOUNT));
+        assertEquals(2.0, meterRegistry.get("fund.transfer.lane.queue.depth").gauges().stream()
+                .mapToDouble(gauge -> gauge.value()).sum());
+        assertEquals(1.0, meterRegistry.get("fund.transfer.lane.rejected").counters().stream()
+                .mapToDouble(counter -> counter.count()).sum());
+        blocked.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
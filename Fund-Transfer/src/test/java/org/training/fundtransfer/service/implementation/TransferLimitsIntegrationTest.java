@@ -0,0 +1,118 @@
+package org.training.fundtransfer.service.implementation;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.training.common.model.Money;
+import org.training.fundtransfer.model.TransferType;
+import org.training.fundtransfer.repository.TransferLimitUsageRepository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the limits against a real PostgreSQL, started in process, as they rely on its upsert and row locks
+ * to keep concurrent reservations of an account under the daily limit. PostgreSQL refuses to run as root.
+ */
+@DisabledIfSystemProperty(named = "user.name", matches = "root")
+@DataJpaTest(properties = {"fund-transfer.limits.per-transaction=100.00", "fund-transfer.limits.daily=500.00", "spring.jpa.show-sql=false"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(TransferLimits.class)
+class TransferLimitsIntegrationTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private TransferLimits transferLimits;
+
+    @Autowired
+    private TransferLimitUsageRepository transferLimitUsageRepository;
+
+    @Test
+    void tryReserve_ShouldStopAtDailyLimit_WhenSameAccountReservesConcurrently() throws Exception {
+        // Given
+        String account = "0600100000001";
+        CountDownLatch start = new CountDownLatch(1);
+        Callable<Boolean> reservation = () -> {
+            start.await();
+            return transferLimits.tryReserve(account, TransferType.INTERNAL, Money.of(100));
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        // When
+        List<Future<Boolean>> reservations;
+        try {
+            reservations = IntStream.range(0, THREADS).mapToObj(i -> executor.submit(reservation)).collect(Collectors.toList());
+            start.countDown();
+            long reserved = 0;
+            for (Future<Boolean> future : reservations) {
+                reserved += future.get() ? 1 : 0;
+            }
+
+            // Then
+            assertEquals(5, reserved);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, new BigDecimal("500.00").compareTo(used(account, TransferType.INTERNAL)));
+    }
+
+    @Test
+    void release_ShouldLetAccountReserveAgain_WhenAtDailyLimit() {
+        // Given
+        String account = "0600100000002";
+        for (int i = 0; i < 5; i++) {
+            assertTrue(transferLimits.tryReserve(account, TransferType.INTERNAL, Money.of(100)));
+        }
+        assertFalse(transferLimits.tryReserve(account, TransferType.INTERNAL, Money.of(1)));
+
+        // When
+        transferLimits.release(account, TransferType.INTERNAL, Money.of(100), LocalDateTime.now());
+
+        // Then
+        assertEquals(0, new BigDecimal("400.00").compareTo(used(account, TransferType.INTERNAL)));
+        assertTrue(transferLimits.tryReserve(account, TransferType.INTERNAL, Money.of(100)));
+        assertFalse(transferLimits.tryReserve(account, TransferType.INTERNAL, Money.of(1)));
+        assertTrue(transferLimits.tryReserve(account, TransferType.EXTERNAL, Money.of(100)));
+        assertTrue(transferLimits.tryReserve("0600100000003", TransferType.INTERNAL, Money.of(100)));
+    }
+
+    private BigDecimal used(String account, TransferType transferType) {
+        return transferLimitUsageRepository.usedAfter(account, transferType.name(), 0);
+    }
+
+    @TestConfiguration
+    static class EmbeddedPostgresConfiguration {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+            return embeddedPostgres.getPostgresDatabase();
+        }
+    }
+}
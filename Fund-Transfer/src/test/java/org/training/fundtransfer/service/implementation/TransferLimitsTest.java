@@ -0,0 +1,139 @@
+package org.training.fundtransfer.service.implementation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.Environment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.common.model.Money;
+import org.training.fundtransfer.exception.TransferLimitExceeded;
+import org.training.fundtransfer.model.TransferType;
+import org.training.fundtransfer.repository.FundTransferRepository;
+import org.training.fundtransfer.repository.TransferLimitUsageRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferLimitsTest {
+
+    private static final String ACCOUNT = "0600100000001";
+
+    @Mock
+    private FundTransferRepository fundTransferRepository;
+
+    @Mock
+    private TransferLimitUsageRepository transferLimitUsageRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private Environment environment;
+
+    @InjectMocks
+    private TransferLimits transferLimits;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transferLimits, "perTransactionLimit", new BigDecimal("100.00"));
+        ReflectionTestUtils.setField(transferLimits, "dailyLimit", new BigDecimal("500.00"));
+        lenient().when(environment.getProperty(anyString(), eq(BigDecimal.class), any(BigDecimal.class)))
+                .thenAnswer(invocation -> invocation.getArgument(2));
+        lenient().when(environment.getProperty("fund-transfer.limits.external.daily", BigDecimal.class, new BigDecimal("500.00")))
+                .thenReturn(new BigDecimal("200.00"));
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        transferLimits.start();
+    }
+
+    @Test
+    void reserve_ShouldKeepAmount_WhenWithinDailyLimit() {
+        // Given
+        when(transferLimitUsageRepository.usedAfter(eq(ACCOUNT), eq("INTERNAL"), anyLong())).thenReturn(new BigDecimal("500.00"));
+
+        // When
+        transferLimits.reserve(ACCOUNT, TransferType.INTERNAL, Money.of(100));
+
+        // Then
+        verify(transferLimitUsageRepository).add(eq(ACCOUNT), eq("INTERNAL"), anyLong(), eq(new BigDecimal("100.00")));
+        verify(transferLimitUsageRepository, never()).add(anyString(), anyString(), anyLong(), eq(new BigDecimal("-100.00")));
+    }
+
+    @Test
+    void reserve_ShouldTakeAmountBack_WhenDailyLimitWouldBeExceeded() {
+        // Given
+        when(transferLimitUsageRepository.usedAfter(eq(ACCOUNT), eq("INTERNAL"), anyLong())).thenReturn(new BigDecimal("500.01"));
+
+        // When
+        assertThrows(TransferLimitExceeded.class, () -> transferLimits.reserve(ACCOUNT, TransferType.INTERNAL, Money.of(100)));
+
+        // Then
+        InOrder inOrder = inOrder(transferLimitUsageRepository);
+        inOrder.verify(transferLimitUsageRepository).add(eq(ACCOUNT), eq("INTERNAL"), anyLong(), eq(new BigDecimal("100.00")));
+        inOrder.verify(transferLimitUsageRepository).usedAfter(eq(ACCOUNT), eq("INTERNAL"), anyLong());
+        inOrder.verify(transferLimitUsageRepository).add(eq(ACCOUNT), eq("INTERNAL"), anyLong(), eq(new BigDecimal("-100.00")));
+    }
+
+    @Test
+    void reserve_ShouldApplyLimitOfTransferType_WhenConfigured() {
+        // Given
+        when(transferLimitUsageRepository.usedAfter(eq(ACCOUNT), eq("EXTERNAL"), anyLong())).thenReturn(new BigDecimal("250.00"));
+
+        // When
+        boolean reserved = transferLimits.tryReserve(ACCOUNT, TransferType.EXTERNAL, Money.of(50));
+
+        // Then
+        assertFalse(reserved);
+        verify(transferLimitUsageRepository).add(eq(ACCOUNT), eq("EXTERNAL"), anyLong(), eq(new BigDecimal("-50.00")));
+    }
+
+    @Test
+    void reserve_ShouldNotTouchUsage_WhenAmountIsOverPerTransactionLimit() {
+        // When
+        assertThrows(TransferLimitExceeded.class, () -> transferLimits.reserve(ACCOUNT, TransferType.INTERNAL, Money.of(new BigDecimal("100.01"))));
+
+        // Then
+        verifyNoInteractions(transferLimitUsageRepository);
+    }
+
+    @Test
+    void check_ShouldNotReserve_WhenWithinDailyLimit() {
+        // Given
+        when(transferLimitUsageRepository.usedAfter(eq(ACCOUNT), eq("INTERNAL"), anyLong())).thenReturn(new BigDecimal("400.00"));
+
+        // When
+        transferLimits.check(ACCOUNT, TransferType.INTERNAL, Money.of(100));
+
+        // Then
+        verify(transferLimitUsageRepository, never()).add(anyString(), anyString(), anyLong(), any());
+        assertThrows(TransferLimitExceeded.class, () -> transferLimits.check(ACCOUNT, TransferType.INTERNAL, Money.of(new BigDecimal("100.01"))));
+    }
+
+    @Test
+    void release_ShouldSubtractFromHourTheAmountWasReservedIn() {
+        // Given
+        LocalDateTime reservedOn = LocalDateTime.of(2026, 3, 1, 10, 30);
+        long epochHour = reservedOn.atZone(ZoneId.systemDefault()).toEpochSecond() / 3600L;
+
+        // When
+        transferLimits.release(ACCOUNT, TransferType.INTERNAL, Money.of(100), reservedOn);
+
+        // Then
+        verify(transferLimitUsageRepository).subtract(ACCOUNT, "INTERNAL", epochHour, new BigDecimal("100.00"));
+    }
+}
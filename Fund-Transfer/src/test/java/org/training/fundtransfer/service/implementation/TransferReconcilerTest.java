@@ -0,0 +1,266 @@
+package org.training.fundtransfer.service.implementation;
+
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.fundtransfer.external.TransactionService;
+import org.training.fundtransfer.model.DiscrepancyType;
+import org.training.common.model.Money;
+import org.training.fundtransfer.model.TransactionStatus;
+import org.training.fundtransfer.model.dto.ReconciliationDiscrepancy;
+import org.training.fundtransfer.model.dto.Transaction;
+import org.training.fundtransfer.model.dto.response.ReconciliationReport;
+import org.training.fundtransfer.model.entity.FundTransfer;
+import org.training.fundtransfer.repository.FundTransferRepository;
+
+import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferReconcilerTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final LocalDateTime TO = FROM.plusDays(1);
+
+    @Mock
+    private FundTransferRepository fundTransferRepository;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private TransferReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reconciler, "settleMillis", 300000L);
+        ReflectionTestUtils.setField(reconciler, "stuckAfterMillis", 1800000L);
+        ReflectionTestUtils.setField(reconciler, "maxReported", 100);
+        ReflectionTestUtils.setField(reconciler, "maxRepairs", 100);
+        ReflectionTestUtils.setField(reconciler, "claimTimeoutMillis", 600000L);
+        doAnswer(invocation -> {
+            invocation.<Consumer<org.springframework.transaction.TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void reconcile_ShouldMergeTransfersWithLedger_AndReportEachKindOfDiscrepancy() {
+        // Given
+        givenTransfers(
+                transfer(1L, "r1", TransactionStatus.SUCCESS, null),
+                transfer(2L, "r2", TransactionStatus.FAILED, null),
+                transfer(3L, "r4", TransactionStatus.FAILED, null),
+                transfer(4L, "r5", TransactionStatus.SUCCESS, null));
+        givenLedger(
+                "r1,A,-1000", "r1,B,1000",
+                "r3,A,-500",
+                "r4,A,-1000",
+                "r5,A,-1000", "r5,B,999");
+        when(fundTransferRepository.findFundTransferByTransactionReference("r3")).thenReturn(Optional.empty());
+
+        // When
+        ReconciliationReport report = reconciler.reconcile(FROM, TO);
+
+        // Then
+        assertEquals(4, report.getTransfers());
+        assertEquals(6, report.getLedgerEntries());
+        assertEquals(2, report.getMatched());
+        assertEquals(Map.of("r3", DiscrepancyType.ORPHAN_LEG, "r4", DiscrepancyType.UNEXPECTED_LEG, "r5", DiscrepancyType.AMOUNT_MISMATCH),
+                types(report));
+        verify(fundTransferRepository, never()).transition(anyLong(), any(), anyString(), any(), any());
+        verifyNoMoreInteractions(ignoreStubs(transactionService));
+    }
+
+    @Test
+    void reconcile_ShouldRecordMissingLeg_OfSuccessfulTransfer_UnderAKeyNamingTheLeg() {
+        // Given
+        FundTransfer fundTransfer = transfer(1L, "r1", TransactionStatus.SUCCESS, null);
+        givenTransfers(fundTransfer);
+        givenLedger("r1,A,-1000");
+        when(fundTransferRepository.transition(eq(1L), eq(TransactionStatus.SUCCESS), eq(""), eq(TransactionStatus.PROCESSING),
+                startsWith(TransferReconciler.RECONCILING))).thenReturn(1);
+
+        // When
+        ReconciliationReport report = reconciler.reconcile(FROM, TO);
+
+        // Then
+        assertEquals(1, report.getRepaired());
+        assertTrue(report.getDiscrepancies().get(0).isRepaired());
+        List<Transaction> entries = recorded("r1:RECONCILE:B=1000");
+        assertEquals(1, entries.size());
+        assertEquals("B", entries.get(0).getAccountId());
+        verify(fundTransferRepository).transition(eq(1L), eq(TransactionStatus.PROCESSING), startsWith(TransferReconciler.RECONCILING),
+                eq(TransactionStatus.SUCCESS), eq(null));
+    }
+
+    @Test
+    void reconcile_ShouldRepairTransfer_WhoseReconciliationClaimIsStale() {
+        // Given
+        String staleClaim = TransferReconciler.RECONCILING + "dead-run at " + LocalDateTime.now().minusHours(1);
+        givenTransfers(transfer(1L, "r1", TransactionStatus.PROCESSING, staleClaim));
+        givenLedger();
+        when(fundTransferRepository.transition(eq(1L), eq(TransactionStatus.PROCESSING), eq(staleClaim), eq(TransactionStatus.PROCESSING),
+                startsWith(TransferReconciler.RECONCILING))).thenReturn(1);
+
+        // When
+        ReconciliationReport report = reconciler.reconcile(FROM, TO);
+
+        // Then
+        assertEquals(Map.of("r1", DiscrepancyType.MISSING_LEG), types(report));
+        assertEquals(1, report.getRepaired());
+        assertEquals(2, recorded("r1:LEDGER").size());
+        verify(fundTransferRepository).transition(eq(1L), eq(TransactionStatus.PROCESSING),
+                argThat(claim -> claim.startsWith(TransferReconciler.RECONCILING) && !claim.equals(staleClaim)),
+                eq(TransactionStatus.SUCCESS), eq(null));
+    }
+
+    @Test
+    void reconcile_ShouldCompleteTransfer_WhoseStaleClaimHadRecordedTheLedger() {
+        // Given
+        String staleClaim = TransferReconciler.RECONCILING + "dead-run at " + LocalDateTime.now().minusHours(1);
+        givenTransfers(transfer(1L, "r1", TransactionStatus.PROCESSING, staleClaim));
+        givenLedger("r1,A,-1000", "r1,B,1000");
+        when(fundTransferRepository.transition(1L, TransactionStatus.PROCESSING, staleClaim, TransactionStatus.SUCCESS, null)).thenReturn(1);
+
+        // When
+        ReconciliationReport report = reconciler.reconcile(FROM, TO);
+
+        // Then
+        assertEquals(Map.of("r1", DiscrepancyType.STUCK), types(report));
+        assertEquals(1, report.getRepaired());
+        verify(transactionService, never()).makeInternalTransactions(anyList(), anyString(), anyString());
+    }
+
+    @Test
+    void reconcile_ShouldLeaveTransferAlone_WhileItsClaimIsFresh() {
+        // Given
+        String freshClaim = TransferReconciler.RECONCILING + "live-run at " + LocalDateTime.now().minusSeconds(5);
+        givenTransfers(transfer(1L, "r1", TransactionStatus.PROCESSING, freshClaim));
+        givenLedger();
+
+        // When
+        ReconciliationReport report = reconciler.reconcile(FROM, TO);
+
+        // Then
+        assertEquals(1, report.getMatched());
+        assertEquals(0, report.getDiscrepancyCount());
+        verify(fundTransferRepository, never()).transition(anyLong(), any(), anyString(), any(), any());
+    }
+
+    @Test
+    void reconcile_ShouldTreatClaimWithoutTime_AsStale_OnceTransferIsOld() {
+        // Given
+        String legacyClaim = TransferReconciler.RECONCILING + "old-run";
+        givenTransfers(transfer(1L, "r1", TransactionStatus.PROCESSING, legacyClaim));
+        givenLedger();
+
+        // When
+        ReconciliationReport report = reconciler.reconcile(FROM, TO);
+
+        // Then
+        assertEquals(Map.of("r1", DiscrepancyType.MISSING_LEG), types(report));
+        verify(fundTransferRepository).transition(eq(1L), eq(TransactionStatus.PROCESSING), eq(legacyClaim), eq(TransactionStatus.PROCESSING),
+                startsWith(TransferReconciler.RECONCILING));
+    }
+
+    @Test
+    void reconcile_ShouldNotRecord_WhenAnotherRunClaimedTheTransferFirst() {
+        // Given
+        givenTransfers(transfer(1L, "r1", TransactionStatus.SUCCESS, null));
+        givenLedger();
+        when(fundTransferRepository.transition(anyLong(), any(), anyString(), any(), any())).thenReturn(0);
+
+        // When
+        ReconciliationReport report = reconciler.reconcile(FROM, TO);
+
+        // Then
+        assertEquals(0, report.getRepaired());
+        verify(transactionService, never()).makeInternalTransactions(anyList(), anyString(), anyString());
+    }
+
+    @Test
+    void reconcile_ShouldReleaseClaimAsNotRecorded_WhenLedgerWriteFails() {
+        // Given
+        givenTransfers(transfer(1L, "r1", TransactionStatus.SUCCESS, null));
+        givenLedger();
+        when(fundTransferRepository.transition(eq(1L), eq(TransactionStatus.SUCCESS), eq(""), eq(TransactionStatus.PROCESSING),
+                startsWith(TransferReconciler.RECONCILING))).thenReturn(1);
+        when(transactionService.makeInternalTransactions(anyList(), anyString(), anyString())).thenThrow(new IllegalStateException("down"));
+
+        // When
+        ReconciliationReport report = reconciler.reconcile(FROM, TO);
+
+        // Then
+        assertEquals(0, report.getRepaired());
+        verify(fundTransferRepository).transition(eq(1L), eq(TransactionStatus.PROCESSING), startsWith(TransferReconciler.RECONCILING),
+                eq(TransactionStatus.PROCESSING), eq(BulkFundTransferProcessor.LEDGER_NOT_RECORDED + "down"));
+    }
+
+    private void givenTransfers(FundTransfer... transfers) {
+        when(fundTransferRepository.streamByTransferredOn(FROM, TO)).thenReturn(Stream.of(transfers));
+    }
+
+    private void givenLedger(String... lines) {
+        String body = lines.length == 0 ? "" : String.join("\n", lines) + "\n";
+        Response response = Response.builder()
+                .status(200)
+                .request(Request.create(Request.HttpMethod.GET, "/transactions/ledger", Map.of(), null, StandardCharsets.UTF_8, null))
+                .body(body, StandardCharsets.UTF_8).build();
+        when(transactionService.streamLedgerEntries(eq(FROM.toString()), anyString())).thenReturn(response);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Transaction> recorded(String idempotencyKey) {
+        ArgumentCaptor<List<Transaction>> entries = ArgumentCaptor.forClass(List.class);
+        verify(transactionService).makeInternalTransactions(entries.capture(), eq("r1"), eq(idempotencyKey));
+        return entries.getValue();
+    }
+
+    private static Map<String, DiscrepancyType> types(ReconciliationReport report) {
+        return report.getDiscrepancies().stream()
+                .collect(Collectors.toMap(ReconciliationDiscrepancy::getTransactionReference, ReconciliationDiscrepancy::getType));
+    }
+
+    private static FundTransfer transfer(Long id, String reference, TransactionStatus status, String failureReason) {
+        return FundTransfer.builder()
+                .fundTransferId(id)
+                .transactionReference(reference)
+                .fromAccount("A")
+                .toAccount("B")
+                .amount(Money.of(10))
+                .status(status)
+                .failureReason(failureReason)
+                .transferredOn(FROM.plusHours(1)).build();
+    }
+}
@@ -0,0 +1,81 @@
+package org.training.fundtransfer.service.implementation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferShadowTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TransferShadow transferShadow = new TransferShadow(meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transferShadow, "threads", 1);
+        ReflectionTestUtils.setField(transferShadow, "queueCapacity", 1);
+        transferShadow.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transferShadow.stop();
+    }
+
+    @Test
+    void mirror_ShouldDropShadowAndCountIt_WhenPoolIsBusy() throws InterruptedException {
+        // Given
+        ReflectionTestUtils.setField(transferShadow, "sampleRate", 1.0);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+        transferShadow.mirror(() -> {
+            running.countDown();
+            await(blocked);
+            ran.incrementAndGet();
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        transferShadow.mirror(ran::incrementAndGet);
+
+        // When
+        transferShadow.mirror(ran::incrementAndGet);
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("fund.transfer.shadow.dropped").counter().count());
+        blocked.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ran.get() < 2 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(2, ran.get());
+    }
+
+    @Test
+    void mirror_ShouldNotRunShadow_WhenSamplingIsOff() throws InterruptedException {
+        // Given
+        CountDownLatch ran = new CountDownLatch(1);
+
+        // When
+        transferShadow.mirror(ran::countDown);
+
+        // Then
+        assertFalse(ran.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(0.0, meterRegistry.get("fund.transfer.shadow.dropped").counter().count());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.training.transactions.configuration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * Creates the trigram index that lets a search match a text anywhere in the comments of a transaction
+ * without reading every row. JPA cannot declare such an index, so it is created here once the schema is
+ * up to date, with the pg_trgm extension it needs. The index is built concurrently on a thread of its own,
+ * partition by partition once the table is partitioned, so neither the startup nor the writes to the table
+ * wait for it on a large table.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class CommentSearchIndex {
+
+    private static final String INDEX = "idx_transaction_comments_trgm";
+    private static final String DEFINITION = "using gin (lower(comments) gin_trgm_ops)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void start() {
+        Thread thread = new Thread(this::create, "comment-search-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void create() {
+        try {
+            long started = System.currentTimeMillis();
+            jdbcTemplate.execute("create extension if not exists pg_trgm");
+            if (jdbcTemplate.queryForList("select 1 from pg_class where relname = 'transaction' and relkind = 'p'").isEmpty()) {
+                jdbcTemplate.execute("create index concurrently if not exists " + INDEX + " on transaction " + DEFINITION);
+            } else {
+                createPartitioned();
+            }
+            log.info("comment search index is ready after {} ms", System.currentTimeMillis() - started);
+        } catch (DataAccessException exception) {
+            log.warn("comment search index could not be created, comment searches scan the transactions", exception);
+        }
+    }
+
+    /**
+     * Creates the index of a partitioned table. An index cannot be built concurrently on a partitioned table,
+     * so it is declared on the table alone, built concurrently on every partition that lacks it and attached
+     * partition by partition; partitions created afterwards get it with the rest of the indexes.
+     */
+    private void createPartitioned() {
+        jdbcTemplate.execute("create index if not exists " + INDEX + " on only transaction " + DEFINITION);
+        List<String> partitions = jdbcTemplate.queryForList("select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid " +
+                "where i.inhparent = 'transaction'::regclass and not exists (select 1 from pg_inherits ii " +
+                "join pg_index x on x.indexrelid = ii.inhrelid where ii.inhparent = '" + INDEX + "'::regclass and x.indrelid = c.oid)", String.class);
+        for (String partition : partitions) {
+            String index = partition + "_comments_trgm";
+            jdbcTemplate.execute("create index concurrently if not exists " + index + " on " + partition + " " + DEFINITION);
+            jdbcTemplate.execute("alter index " + INDEX + " attach partition " + index);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package org.training.transactions.configuration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the transaction table partitioned by month of transaction date, so that queries bounded by date
+ * only read the partitions of their range, and every index and vacuum only works on one month of rows.
+ *
+ * <p>The table is set up before Hibernate updates the schema. A new database gets an empty partitioned
+ * table, to which Hibernate then adds the other columns and the indexes, which every partition inherits. An
+ * existing table is turned into the first partition without copying its rows: a check constraint bounding
+ * its dates and a unique index including the date are added without blocking writes, and the table is then
+ * renamed, a partitioned table with the same columns and indexes takes its name, and it is attached to it as
+ * the partition of every date before the month after next, all in one short transaction.</p>
+ *
+ * <p>Once the table is partitioned, the partitions of the current month and of the configured number of
+ * months ahead are created at startup and daily after. When a retention is configured, partitions whose
+ * months all lie before it are detached and kept as tables of their own; the ledger balances only cover the
+ * partitions still attached, so there is no retention by default.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionPartitions {
+
+    private static final String TABLE = "transaction";
+    private static final String HISTORY = "transaction_history";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'" + TABLE + "_'yyyy_MM");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern BOUNDS = Pattern.compile("FROM \\((.+)\\) TO \\((.+)\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${transaction.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${transaction.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    @PostConstruct
+    public void start() {
+        try {
+            String kind = tableKind();
+            if (kind == null) {
+                jdbcTemplate.execute("create table " + TABLE + " (transaction_id bigint not null, transaction_date timestamp not null, " +
+                        "primary key (transaction_id, transaction_date)) partition by range (transaction_date)");
+                log.info("partitioned transaction table created");
+            } else if (kind.equals("r")) {
+                convert();
+            }
+        } catch (DataAccessException exception) {
+            log.error("transaction table could not be partitioned, it is left as it is", exception);
+            return;
+        }
+        maintain();
+    }
+
+    /**
+     * Creates the partitions of the current month and the months ahead, and detaches the partitions past
+     * the retention if there is one.
+     */
+    @Scheduled(cron = "${transaction.partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        try {
+            if (!"p".equals(tableKind())) {
+                return;
+            }
+            List<Partition> partitions = partitions();
+            LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+            for (LocalDate month = thisMonth; !month.isAfter(thisMonth.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+                LocalDateTime from = month.atStartOfDay();
+                if (partitions.stream().noneMatch(partition -> partition.covers(from))) {
+                    String name = month.format(PARTITION_NAME);
+                    jdbcTemplate.execute("create table if not exists " + name + " partition of " + TABLE + " for values from ('"
+                            + from.format(BOUND) + "') to ('" + from.plusMonths(1).format(BOUND) + "')");
+                    log.info("transaction partition {} created", name);
+                }
+            }
+            if (retentionMonths > 0) {
+                LocalDateTime cutoff = thisMonth.minusMonths(retentionMonths).atStartOfDay();
+                for (Partition partition : partitions) {
+                    if (!partition.to().isAfter(cutoff)) {
+                        jdbcTemplate.execute("alter table " + TABLE + " detach partition " + partition.name());
+                        log.info("transaction partition {} detached, it held the transactions before {}", partition.name(), partition.to());
+                    }
+                }
+            }
+        } catch (DataAccessException exception) {
+            log.error("transaction partitions could not be maintained, retrying on the next run", exception);
+        }
+    }
+
+    /**
+     * Turns the existing transaction table into the first partition of a partitioned table.
+     */
+    private void convert() {
+
+        LocalDateTime boundary = LocalDate.now().withDayOfMonth(1).plusMonths(2).atStartOfDay();
+        long started = System.currentTimeMillis();
+
+        jdbcTemplate.execute("alter table " + TABLE + " drop constraint if exists " + HISTORY + "_range");
+        jdbcTemplate.execute("alter table " + TABLE + " add constraint " + HISTORY + "_range check (transaction_date is not null " +
+                "and transaction_date < '" + boundary.format(BOUND) + "') not valid");
+        jdbcTemplate.execute("alter table " + TABLE + " validate constraint " + HISTORY + "_range");
+        jdbcTemplate.execute("drop index concurrently if exists " + HISTORY + "_pkey");
+        jdbcTemplate.execute("create unique index concurrently " + HISTORY + "_pkey on " + TABLE + " (transaction_id, transaction_date)");
+
+        String primaryKey = jdbcTemplate.queryForObject("select conname from pg_constraint " +
+                "where conrelid = '" + TABLE + "'::regclass and contype = 'p'", String.class);
+        List<Map<String, Object>> indexes = jdbcTemplate.queryForList("select i.relname as name, pg_get_indexdef(i.oid) as definition " +
+                "from pg_index x join pg_class i on i.oid = x.indexrelid where x.indrelid = '" + TABLE + "'::regclass " +
+                "and not x.indisprimary and x.indisvalid and i.relname <> '" + HISTORY + "_pkey'");
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("lock table " + TABLE + " in access exclusive mode");
+                statement.execute("alter table " + TABLE + " rename to " + HISTORY);
+                for (Map<String, Object> index : indexes) {
+                    String name = (String) index.get("name");
+                    statement.execute("alter index " + name + " rename to " + historyName(name));
+                }
+                statement.execute("alter table " + HISTORY + " alter column transaction_date set not null");
+                statement.execute("alter table " + HISTORY + " drop constraint " + primaryKey);
+                statement.execute("alter table " + HISTORY + " add constraint " + HISTORY + "_pkey primary key using index " + HISTORY + "_pkey");
+                statement.execute("create table " + TABLE + " (like " + HISTORY + " including defaults) partition by range (transaction_date)");
+                statement.execute("alter table " + TABLE + " add primary key (transaction_id, transaction_date)");
+                for (Map<String, Object> index : indexes) {
+                    statement.execute((String) index.get("definition"));
+                }
+                statement.execute("alter table " + TABLE + " attach partition " + HISTORY + " for values from (minvalue) to ('"
+                        + boundary.format(BOUND) + "')");
+                connection.commit();
+            } catch (SQLException exception) {
+                rollback(connection);
+                throw exception;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+        log.info("transaction table partitioned in {} ms, its rows before {} are kept in {}",
+                System.currentTimeMillis() - started, boundary, HISTORY);
+    }
+
+    private String tableKind() {
+        List<String> kinds = jdbcTemplate.queryForList("select c.relkind::text from pg_class c join pg_namespace n on n.oid = c.relnamespace " +
+                "where c.relname = '" + TABLE + "' and n.nspname = current_schema()", String.class);
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+
+    private List<Partition> partitions() {
+        List<Partition> partitions = new ArrayList<>();
+        jdbcTemplate.query("select c.relname, pg_get_expr(c.relpartbound, c.oid) from pg_inherits i join pg_class c on c.oid = i.inhrelid " +
+                "where i.inhparent = '" + TABLE + "'::regclass", row -> {
+            Matcher bounds = BOUNDS.matcher(row.getString(2));
+            if (bounds.find()) {
+                partitions.add(new Partition(row.getString(1), bound(bounds.group(1)), bound(bounds.group(2))));
+            }
+        });
+        return partitions;
+    }
+
+    private static LocalDateTime bound(String value) {
+        if (value.equalsIgnoreCase("MINVALUE")) {
+            return LocalDateTime.MIN;
+        }
+        if (value.equalsIgnoreCase("MAXVALUE")) {
+            return LocalDateTime.MAX;
+        }
+        return LocalDateTime.parse(value.replace("'", "").substring(0, 19), BOUND);
+    }
+
+    private static String historyName(String name) {
+        return (name.length() > 55 ? name.substring(0, 55) : name) + "_history";
+    }
+
+    private static void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException exception) {
+            log.error("rollback of the transaction table partitioning failed", exception);
+        }
+    }
+
+    /**
+     * A partition with the range of transaction dates it holds, from inclusive and to exclusive.
+     */
+    private record Partition(String name, LocalDateTime from, LocalDateTime to) {
+
+        private boolean covers(LocalDateTime date) {
+            return !from.isAfter(date) && to.isAfter(date);
+        }
+    }
+
+    /**
+     * Makes Hibernate wait for the table to be partitioned before it updates the schema.
+     */
+    @Component
+    static class EntityManagerFactoryDependsOnTransactionPartitions extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependsOnTransactionPartitions() {
+            super(TransactionPartitions.class);
+        }
+    }
+}
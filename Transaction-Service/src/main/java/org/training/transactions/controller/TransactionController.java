@@ -2,14 +2,23 @@ package org.training.transactions.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.training.transactions.model.dto.TransactionDto;
+import org.training.transactions.model.dto.TransactionSearchCriteria;
+import org.training.transactions.model.response.BulkTransactionResponse;
+import org.training.transactions.model.response.LedgerBalance;
+import org.training.transactions.model.response.MonthlySummary;
 import org.training.transactions.model.response.Response;
 import org.training.transactions.model.response.TransactionRequest;
+import org.training.transactions.model.response.TransactionSearchPage;
 import org.training.transactions.service.TransactionService;
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 @Slf4j
@@ -36,11 +45,25 @@ public class TransactionController {
      *
      * @param transactionDtos       The list of transaction DTOs.
      * @param transactionReference  The transaction reference.
+     * @param idempotencyKey        The key under which the transactions are recorded once; a request
+     *                              delivered again with the same key records nothing. Optional.
      * @return                      The response entity containing the response.
      */
     @PostMapping("/internal")
-    public ResponseEntity<Response> makeInternalTransaction(@RequestBody List<TransactionDto> transactionDtos,@RequestParam String transactionReference) {
-        return new ResponseEntity<>(transactionService.internalTransaction(transactionDtos, transactionReference), HttpStatus.CREATED);
+    public ResponseEntity<Response> makeInternalTransaction(@RequestBody List<TransactionDto> transactionDtos,@RequestParam String transactionReference,
+                                                            @RequestParam(required = false) String idempotencyKey) {
+        return new ResponseEntity<>(transactionService.internalTransaction(transactionDtos, transactionReference, idempotencyKey), HttpStatus.CREATED);
+    }
+
+    /**
+     * Handles a bulk upload of deposits and withdrawals.
+     *
+     * @param transactionDtos The deposits and withdrawals, in upload order.
+     * @return The response entity with the result of every entry.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkTransactionResponse> makeBulkTransaction(@RequestBody List<TransactionDto> transactionDtos) {
+        return new ResponseEntity<>(transactionService.bulkTransaction(transactionDtos), HttpStatus.OK);
     }
 
     /**
@@ -54,6 +77,60 @@ public class TransactionController {
         return new ResponseEntity<>(transactionService.getTransaction(accountId), HttpStatus.OK);
     }
 
+    /**
+     * Searches transactions by account, date range, amount range, type, status and a text in their comments.
+     * Every filter is optional; results are newest first and paged with the cursor returned with each page.
+     *
+     * @param criteria The filters, the cursor of the previous page and the page size.
+     * @return The page of matching transactions.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<TransactionSearchPage> searchTransactions(TransactionSearchCriteria criteria) {
+        return new ResponseEntity<>(transactionService.searchTransactions(criteria), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the ledger balance of every account in a range of account IDs.
+     *
+     * @param fromAccount The first account ID of the range, inclusive, if any.
+     * @param toAccount   The last account ID of the range, exclusive, if any.
+     * @return The ledger balances ordered by account ID.
+     */
+    @GetMapping("/ledger-balances")
+    public ResponseEntity<List<LedgerBalance>> getLedgerBalances(@RequestParam(required = false) String fromAccount,
+                                                                 @RequestParam(required = false) String toAccount) {
+        return new ResponseEntity<>(transactionService.getLedgerBalances(fromAccount, toAccount), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the monthly summaries of an account, one per month and transaction type.
+     *
+     * @param accountId The account ID.
+     * @param from      The first month as yyyy-MM, inclusive, if any.
+     * @param to        The last month as yyyy-MM, inclusive, if any.
+     * @return The summaries ordered by month and transaction type.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<List<MonthlySummary>> getMonthlySummaries(@RequestParam String accountId,
+                                                                    @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                                                    @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        return new ResponseEntity<>(transactionService.getMonthlySummaries(accountId, from, to), HttpStatus.OK);
+    }
+
+    /**
+     * Streams the internal transfer entries recorded in a time range as CSV lines of
+     * referenceId,accountId,amount in minor units, ordered by reference, for reconciliation.
+     *
+     * @param from The earliest transaction date, inclusive.
+     * @param to   The latest transaction date, exclusive.
+     * @return The response entity streaming the ledger entries.
+     */
+    @GetMapping(value = "/ledger", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> getLedgerEntries(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return new ResponseEntity<>(output -> transactionService.writeLedgerEntries(from, to, output), HttpStatus.OK);
+    }
+
     /**
      * Retrieves a list of transaction requests based on the provided transaction reference ID.
      *
@@ -0,0 +1,8 @@
+package org.training.transactions.exception;
+
+public class InvalidTransactionRequest extends GlobalException {
+
+    public InvalidTransactionRequest(String message) {
+        super(message, GlobalErrorCode.BAD_REQUEST);
+    }
+}
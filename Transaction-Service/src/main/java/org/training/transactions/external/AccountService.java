@@ -5,6 +5,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.training.transactions.configuration.FeignClientConfiguration;
 import org.training.transactions.model.external.Account;
+import org.training.transactions.model.external.BalanceUpdate;
 import org.training.transactions.model.response.Response;
 
 @FeignClient(name = "account-service", configuration = FeignClientConfiguration.class)
@@ -28,4 +29,13 @@ public interface AccountService {
      */
     @PutMapping("/accounts")
     ResponseEntity<Response> updateAccount(@RequestParam String accountNumber, @RequestBody Account account);
+
+    /**
+     * Adds a signed amount to the balance of an account.
+     *
+     * @param balanceUpdate The account number and the amount to add, negative for a debit.
+     * @return The response entity containing the response.
+     */
+    @PatchMapping("/accounts/balance")
+    ResponseEntity<Response> updateBalance(@RequestBody BalanceUpdate balanceUpdate);
 }
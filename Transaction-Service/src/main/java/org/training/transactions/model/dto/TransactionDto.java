@@ -5,8 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.training.transactions.model.TransactionType;
-
-import java.math.BigDecimal;
+import org.training.common.model.Money;
 
 @Data
 @AllArgsConstructor
@@ -18,7 +17,9 @@ public class TransactionDto {
 
     private String transactionType;
 
-    private BigDecimal amount;
+    private Money amount;
 
     private String description;
+
+    private String referenceId;
 }
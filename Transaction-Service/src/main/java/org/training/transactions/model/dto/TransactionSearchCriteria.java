@@ -0,0 +1,44 @@
+package org.training.transactions.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.training.transactions.model.TransactionStatus;
+import org.training.transactions.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransactionSearchCriteria {
+
+    private String accountId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    private BigDecimal minAmount;
+
+    private BigDecimal maxAmount;
+
+    private TransactionType transactionType;
+
+    private TransactionStatus status;
+
+    private String comments;
+
+    /**
+     * The cursor returned with the previous page, if any.
+     */
+    private String after;
+
+    private Integer size;
+}
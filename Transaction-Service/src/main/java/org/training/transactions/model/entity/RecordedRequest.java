@@ -0,0 +1,30 @@
+package org.training.transactions.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * The idempotency key of a request whose transactions have been recorded. The key is inserted in the same
+ * database transaction as the transactions, so a request delivered again records nothing.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(indexes = @Index(name = "idx_recorded_request_recorded_on", columnList = "recordedOn"))
+public class RecordedRequest {
+
+    @Id
+    private String idempotencyKey;
+
+    private LocalDateTime recordedOn;
+}
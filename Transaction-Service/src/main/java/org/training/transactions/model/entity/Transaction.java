@@ -7,9 +7,9 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.training.transactions.model.TransactionStatus;
 import org.training.transactions.model.TransactionType;
+import org.training.common.model.Money;
 
 import javax.persistence.*;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -17,10 +17,16 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@Table(indexes = {
+        @Index(name = "idx_transaction_transaction_date", columnList = "transactionDate"),
+        @Index(name = "idx_transaction_account_transaction_date", columnList = "accountId, transactionDate, transactionId"),
+        @Index(name = "idx_transaction_type_transaction_date", columnList = "transactionType, transactionDate, transactionId")
+})
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_id_generator")
+    @SequenceGenerator(name = "transaction_id_generator", sequenceName = "transaction_transaction_id_seq", allocationSize = 50)
     private Long transactionId;
 
     private String referenceId;
@@ -30,7 +36,7 @@ public class Transaction {
     @Enumerated(EnumType.STRING)
     private TransactionType transactionType;
 
-    private BigDecimal amount;
+    private Money amount;
 
     @CreationTimestamp
     private LocalDateTime transactionDate;
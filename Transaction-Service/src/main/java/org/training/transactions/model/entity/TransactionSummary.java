@@ -0,0 +1,33 @@
+package org.training.transactions.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.common.model.Money;
+
+import javax.persistence.*;
+
+/**
+ * The count, sum and extremes of the transaction amounts of one account, month and transaction type. A
+ * summary is updated in the same database transaction as the transactions it counts, so it always agrees
+ * with them.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransactionSummary {
+
+    @EmbeddedId
+    private TransactionSummaryId id;
+
+    private long transactionCount;
+
+    private Money totalAmount;
+
+    private Money minAmount;
+
+    private Money maxAmount;
+}
@@ -0,0 +1,26 @@
+package org.training.transactions.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.transactions.model.TransactionType;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionSummaryId implements Serializable {
+
+    private String accountId;
+
+    /**
+     * The month of the summarised transactions, formatted as yyyy-MM so that months sort in order.
+     */
+    private String yearMonth;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+}
@@ -0,0 +1,25 @@
+package org.training.transactions.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkTransactionResponse {
+
+    private String responseCode;
+
+    private String message;
+
+    private int completed;
+
+    private int rejected;
+
+    private List<BulkTransactionResult> results;
+}
@@ -0,0 +1,27 @@
+package org.training.transactions.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkTransactionResult {
+
+    public static final String COMPLETED = "COMPLETED";
+    public static final String REJECTED = "REJECTED";
+    public static final String UNKNOWN = "UNKNOWN";
+
+    private int index;
+
+    private String accountId;
+
+    private String referenceId;
+
+    private String status;
+
+    private String message;
+}
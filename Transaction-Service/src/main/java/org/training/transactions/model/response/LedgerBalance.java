@@ -0,0 +1,20 @@
+package org.training.transactions.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.common.model.Money;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LedgerBalance {
+
+    private String accountId;
+
+    private Money balance;
+
+    private long transactions;
+}
@@ -0,0 +1,29 @@
+package org.training.transactions.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.training.common.model.Money;
+import org.training.transactions.model.TransactionType;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class MonthlySummary {
+
+    private String accountId;
+
+    private String yearMonth;
+
+    private TransactionType transactionType;
+
+    private long transactions;
+
+    private Money total;
+
+    private Money min;
+
+    private Money max;
+}
@@ -0,0 +1,22 @@
+package org.training.transactions.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransactionSearchPage {
+
+    private List<TransactionRequest> transactions;
+
+    /**
+     * The cursor to pass as after to read the next page, or null if this is the last page.
+     */
+    private String next;
+}
@@ -0,0 +1,36 @@
+package org.training.transactions.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.training.transactions.model.entity.RecordedRequest;
+
+import java.time.LocalDateTime;
+
+public interface RecordedRequestRepository extends JpaRepository<RecordedRequest, String> {
+
+    /**
+     * Records the idempotency key of a request, unless it has been recorded already. A concurrent delivery
+     * of the same key waits for the first to commit or roll back.
+     *
+     * @param idempotencyKey the idempotency key
+     * @return one if the key was recorded, zero if it had been already
+     */
+    @Modifying
+    @Query(value = "insert into recorded_request (idempotency_key, recorded_on) values (:idempotencyKey, now()) " +
+            "on conflict (idempotency_key) do nothing", nativeQuery = true)
+    int record(@Param("idempotencyKey") String idempotencyKey);
+
+    /**
+     * Forgets the requests recorded before a point in time.
+     *
+     * @param before the time the requests were recorded before
+     * @return the number of requests forgotten
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RecordedRequest r where r.recordedOn < :before")
+    int deleteRecordedBefore(@Param("before") LocalDateTime before);
+}
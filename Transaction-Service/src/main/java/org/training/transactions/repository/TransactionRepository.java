@@ -1,11 +1,21 @@
 package org.training.transactions.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.training.transactions.model.entity.Transaction;
+import org.training.transactions.model.response.LedgerBalance;
+import org.training.transactions.model.response.LedgerEntry;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionSearchRepository {
 
     /**
      * Finds transactions by account ID.
@@ -22,4 +32,32 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      * @return The list of transactions that match the reference ID.
      */
     List<Transaction> findTransactionByReferenceId(String referenceId);
+
+    /**
+     * Sums the transaction amounts of every account in a range of account IDs.
+     *
+     * @param fromAccount the first account ID of the range, inclusive, or null for no lower bound
+     * @param toAccount   the last account ID of the range, exclusive, or null for no upper bound
+     * @return the ledger balance of each account in the range, ordered by account ID
+     */
+    @Query("select new org.training.transactions.model.response.LedgerBalance(t.accountId, sum(t.amount), count(t)) " +
+            "from Transaction t where (:fromAccount is null or t.accountId >= :fromAccount) " +
+            "and (:toAccount is null or t.accountId < :toAccount) " +
+            "group by t.accountId order by t.accountId")
+    List<LedgerBalance> sumAmountsByAccountIdRange(@Param("fromAccount") String fromAccount, @Param("toAccount") String toAccount);
+
+    /**
+     * Streams the internal transfer entries recorded in a time range, ordered by reference. The rows are
+     * fetched from the database in batches as the stream is consumed, so the range can be of any size; the
+     * stream must be consumed within a transaction and closed.
+     *
+     * @param from the earliest transaction date, inclusive
+     * @param to   the latest transaction date, exclusive
+     * @return the ledger entries, ordered by reference ID and then transaction ID
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new org.training.transactions.model.response.LedgerEntry(t.referenceId, t.accountId, t.amount) " +
+            "from Transaction t where t.transactionType = org.training.transactions.model.TransactionType.INTERNAL_TRANSFER " +
+            "and t.transactionDate >= :from and t.transactionDate < :to order by t.referenceId, t.transactionId")
+    Stream<LedgerEntry> streamInternalTransfers(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,19 @@
+package org.training.transactions.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.training.transactions.model.entity.Transaction;
+
+import java.util.List;
+
+public interface TransactionSearchRepository {
+
+    /**
+     * Finds the newest transactions matching a specification, ordered by transaction date and then
+     * transaction ID, both descending. Unlike a paged query, no count of all matches is made.
+     *
+     * @param specification the filters the transactions must match
+     * @param limit         the largest number of transactions to return
+     * @return the matching transactions, newest first
+     */
+    List<Transaction> search(Specification<Transaction> specification, int limit);
+}
@@ -0,0 +1,71 @@
+package org.training.transactions.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.training.common.model.Money;
+import org.training.transactions.model.TransactionStatus;
+import org.training.transactions.model.TransactionType;
+import org.training.transactions.model.entity.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Filters on transactions that can be combined into one search. Every factory returns null when it is
+ * given no value, which {@link Specification#where} and {@link Specification#and} skip, so a search is
+ * simply the conjunction of the filters a caller has set.
+ */
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    public static Specification<Transaction> accountId(String accountId) {
+        return accountId == null ? null : (root, query, cb) -> cb.equal(root.get("accountId"), accountId);
+    }
+
+    public static Specification<Transaction> dateFrom(LocalDateTime from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("transactionDate"), from);
+    }
+
+    public static Specification<Transaction> dateTo(LocalDateTime to) {
+        return to == null ? null : (root, query, cb) -> cb.lessThan(root.get("transactionDate"), to);
+    }
+
+    public static Specification<Transaction> amountFrom(Money min) {
+        return min == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amount"), min);
+    }
+
+    public static Specification<Transaction> amountTo(Money max) {
+        return max == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("amount"), max);
+    }
+
+    public static Specification<Transaction> transactionType(TransactionType transactionType) {
+        return transactionType == null ? null : (root, query, cb) -> cb.equal(root.get("transactionType"), transactionType);
+    }
+
+    public static Specification<Transaction> status(TransactionStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * Matches the transactions whose comments contain a text, ignoring case. The comparison is made on the
+     * lower-cased comments, which is what the trigram index on the comments covers.
+     */
+    public static Specification<Transaction> commentsContain(String text) {
+        if (text == null) {
+            return null;
+        }
+        String pattern = "%" + text.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("comments")), pattern, '\\');
+    }
+
+    /**
+     * Matches the transactions that come after a given one in the search order, newest first.
+     */
+    public static Specification<Transaction> before(LocalDateTime transactionDate, Long transactionId) {
+        return transactionDate == null ? null : (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("transactionDate"), transactionDate),
+                cb.and(cb.equal(root.get("transactionDate"), transactionDate), cb.lessThan(root.get("transactionId"), transactionId)));
+    }
+}
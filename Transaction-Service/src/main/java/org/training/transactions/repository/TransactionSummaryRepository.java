@@ -0,0 +1,71 @@
+package org.training.transactions.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.training.transactions.model.entity.TransactionSummary;
+import org.training.transactions.model.entity.TransactionSummaryId;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface TransactionSummaryRepository extends JpaRepository<TransactionSummary, TransactionSummaryId> {
+
+    /**
+     * Adds the totals of a group of transactions to the summary of their account, month and type, creating
+     * the summary if there is none yet. Concurrent additions to the same summary are applied one after the other.
+     *
+     * @param accountId       the account ID
+     * @param yearMonth       the month, formatted as yyyy-MM
+     * @param transactionType the transaction type
+     * @param count           the number of transactions
+     * @param total           the sum of their amounts
+     * @param min             the smallest of their amounts
+     * @param max             the largest of their amounts
+     */
+    @Modifying
+    @Query(value = "insert into transaction_summary " +
+            "(account_id, year_month, transaction_type, transaction_count, total_amount, min_amount, max_amount) " +
+            "values (:accountId, :yearMonth, :transactionType, :count, :total, :min, :max) " +
+            "on conflict (account_id, year_month, transaction_type) do update set " +
+            "transaction_count = transaction_summary.transaction_count + excluded.transaction_count, " +
+            "total_amount = transaction_summary.total_amount + excluded.total_amount, " +
+            "min_amount = least(transaction_summary.min_amount, excluded.min_amount), " +
+            "max_amount = greatest(transaction_summary.max_amount, excluded.max_amount)", nativeQuery = true)
+    void add(@Param("accountId") String accountId, @Param("yearMonth") String yearMonth, @Param("transactionType") String transactionType,
+             @Param("count") long count, @Param("total") BigDecimal total, @Param("min") BigDecimal min, @Param("max") BigDecimal max);
+
+    /**
+     * Finds the summaries of an account in a range of months.
+     *
+     * @param accountId the account ID
+     * @param fromMonth the first month, formatted as yyyy-MM, inclusive
+     * @param toMonth   the last month, formatted as yyyy-MM, inclusive
+     * @return the summaries, ordered by month and transaction type
+     */
+    @Query("select s from TransactionSummary s where s.id.accountId = :accountId " +
+            "and s.id.yearMonth >= :fromMonth and s.id.yearMonth <= :toMonth order by s.id.yearMonth, s.id.transactionType")
+    List<TransactionSummary> findByAccountIdAndMonths(@Param("accountId") String accountId,
+                                                      @Param("fromMonth") String fromMonth, @Param("toMonth") String toMonth);
+
+    /**
+     * Locks the summary table against concurrent writes until the end of the transaction.
+     */
+    @Modifying
+    @Query(value = "lock table transaction_summary in share row exclusive mode", nativeQuery = true)
+    void lock();
+
+    /**
+     * Builds the summaries of every transaction recorded so far. Only meant for an empty summary table.
+     *
+     * @return the number of summaries created
+     */
+    @Modifying
+    @Query(value = "insert into transaction_summary " +
+            "(account_id, year_month, transaction_type, transaction_count, total_amount, min_amount, max_amount) " +
+            "select account_id, to_char(transaction_date, 'YYYY-MM'), transaction_type, count(*), sum(amount), min(amount), max(amount) " +
+            "from transaction where account_id is not null and transaction_date is not null and transaction_type is not null " +
+            "group by account_id, to_char(transaction_date, 'YYYY-MM'), transaction_type", nativeQuery = true)
+    int backfill();
+}
@@ -1,9 +1,18 @@
 package org.training.transactions.service;
 
 import org.training.transactions.model.dto.TransactionDto;
+import org.training.transactions.model.dto.TransactionSearchCriteria;
+import org.training.transactions.model.response.BulkTransactionResponse;
+import org.training.transactions.model.response.LedgerBalance;
+import org.training.transactions.model.response.MonthlySummary;
 import org.training.transactions.model.response.Response;
 import org.training.transactions.model.response.TransactionRequest;
+import org.training.transactions.model.response.TransactionSearchPage;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 public interface TransactionService {
@@ -21,9 +30,18 @@ public interface TransactionService {
      *
      * @param transactionDtos The list of transaction DTOs to process.
      * @param transactionReference The transaction reference.
+     * @param idempotencyKey The key under which the transactions are recorded once, or null.
      * @return The response of the internal transaction.
      */
-    Response internalTransaction(List<TransactionDto> transactionDtos, String transactionReference);
+    Response internalTransaction(List<TransactionDto> transactionDtos, String transactionReference, String idempotencyKey);
+
+    /**
+     * Processes a bulk upload of deposits and withdrawals, with one balance update per account.
+     *
+     * @param transactionDtos The deposits and withdrawals, in upload order.
+     * @return The response with the result of every entry, in upload order.
+     */
+    BulkTransactionResponse bulkTransaction(List<TransactionDto> transactionDtos);
 
     /**
      * Retrieves a list of transaction requests for a given account ID.
@@ -40,4 +58,43 @@ public interface TransactionService {
      * @return A list of transaction requests matching the given transaction reference.
      */
     List<TransactionRequest> getTransactionByTransactionReference(String transactionReference);
+
+    /**
+     * Searches transactions by any combination of account, date range, amount range, type, status and a
+     * text in their comments, newest first, one page at a time.
+     *
+     * @param criteria The filters to apply, with the cursor of the previous page and the page size.
+     * @return The page of matching transactions, with the cursor of the next page.
+     */
+    TransactionSearchPage searchTransactions(TransactionSearchCriteria criteria);
+
+    /**
+     * Retrieves the ledger balance, the sum of all transaction amounts, of every account in a range.
+     *
+     * @param fromAccount The first account ID of the range, inclusive, or null for no lower bound.
+     * @param toAccount   The last account ID of the range, exclusive, or null for no upper bound.
+     * @return The ledger balances ordered by account ID.
+     */
+    List<LedgerBalance> getLedgerBalances(String fromAccount, String toAccount);
+
+    /**
+     * Retrieves the count, sum and extremes of the transaction amounts of an account, per month and transaction type.
+     *
+     * @param accountId The account ID.
+     * @param from      The first month, inclusive, or null for no lower bound.
+     * @param to        The last month, inclusive, or null for no upper bound.
+     * @return The summaries ordered by month and transaction type.
+     */
+    List<MonthlySummary> getMonthlySummaries(String accountId, YearMonth from, YearMonth to);
+
+    /**
+     * Writes the internal transfer entries recorded in a time range as CSV lines of referenceId,accountId,amount
+     * in minor units, ordered by reference.
+     *
+     * @param from   The earliest transaction date, inclusive.
+     * @param to     The latest transaction date, exclusive.
+     * @param output The stream to write to.
+     * @throws IOException If the stream cannot be written.
+     */
+    void writeLedgerEntries(LocalDateTime from, LocalDateTime to, OutputStream output) throws IOException;
 }
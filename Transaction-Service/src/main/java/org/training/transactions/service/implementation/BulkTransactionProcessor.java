@@ -0,0 +1,293 @@
+package org.training.transactions.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.training.transactions.exception.GlobalException;
+import org.training.transactions.external.AccountService;
+import org.training.common.model.Money;
+import org.training.transactions.model.TransactionStatus;
+import org.training.transactions.model.TransactionType;
+import org.training.transactions.model.dto.TransactionDto;
+import org.training.transactions.model.entity.Transaction;
+import org.training.transactions.model.external.Account;
+import org.training.transactions.model.external.BalanceUpdate;
+import org.training.transactions.model.mapper.TransactionMapper;
+import org.training.transactions.model.response.BulkTransactionResult;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes a bulk upload of deposits and withdrawals account by account. The entries of an account are
+ * checked in upload order against a single read of the account, each withdrawal against the balance left by
+ * the entries accepted before it, and the net change of the accepted entries is applied with a single
+ * balance update. Their ledger rows are then saved through the {@link TransactionGroupCommit}, together
+ * with those of the other accounts processed at the same time.
+ *
+ * <p>Accounts are processed concurrently by a fixed number of threads. A ledger row that cannot be saved
+ * after the balance has been updated has its amount taken off the balance again and its entry rejected,
+ * so every completed entry has both its balance change and its ledger row.</p>
+ *
+ * <p>Every balance update carries an idempotency key made of an id of the upload and the account number,
+ * so a failure that leaves its outcome unknown, such as a read timeout, is retried under the same key
+ * without the risk of applying it twice. An update Account-Service refuses rejects its entries. An update
+ * whose outcome is still unknown after the last attempt is undone with a reversal of its key, which
+ * Account-Service applies only if the update was applied and which otherwise stops a late delivery of the
+ * update from being applied, so its entries can then be rejected. Entries whose balance change can neither
+ * be confirmed nor undone are reported as {@link BulkTransactionResult#UNKNOWN} rather than rejected.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BulkTransactionProcessor {
+
+    private final AccountService accountService;
+    private final TransactionGroupCommit transactionGroupCommit;
+
+    private final TransactionMapper transactionMapper = new TransactionMapper();
+
+    @Value("${transaction.bulk.parallelism:8}")
+    private int parallelism;
+
+    @Value("${transaction.bulk.balance-attempts:3}")
+    private int balanceAttempts;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-transaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Processes the entries of a bulk upload.
+     *
+     * @param entries the deposits and withdrawals, in upload order
+     * @return the result of every entry, in upload order
+     */
+    public List<BulkTransactionResult> process(List<TransactionDto> entries) {
+
+        String uploadId = UUID.randomUUID().toString();
+        BulkTransactionResult[] results = new BulkTransactionResult[entries.size()];
+        Map<String, List<Integer>> entriesByAccount = new LinkedHashMap<>();
+        for (int index = 0; index < entries.size(); index++) {
+            TransactionDto entry = entries.get(index);
+            String problem = check(entry);
+            if (Objects.isNull(problem)) {
+                entriesByAccount.computeIfAbsent(entry.getAccountId(), accountId -> new ArrayList<>()).add(index);
+            } else {
+                results[index] = result(index, entry, null, BulkTransactionResult.REJECTED, problem);
+            }
+        }
+        CompletableFuture.allOf(entriesByAccount.entrySet().stream()
+                        .map(account -> CompletableFuture.runAsync(
+                                () -> processAccount(uploadId, account.getKey(), account.getValue(), entries, results), executor))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+        return Arrays.asList(results);
+    }
+
+    private void processAccount(String uploadId, String accountId, List<Integer> indexes, List<TransactionDto> entries, BulkTransactionResult[] results) {
+
+        Account account;
+        try {
+            account = accountService.readByAccountNumber(accountId).getBody();
+        } catch (RuntimeException exception) {
+            log.error("account {} could not be read for a bulk upload", accountId, exception);
+            reject(indexes, entries, results, Objects.requireNonNullElse(exception.getMessage(), "account could not be read"));
+            return;
+        }
+        if (Objects.isNull(account)) {
+            reject(indexes, entries, results, "Requested account not found on the server");
+            return;
+        }
+
+        List<Integer> accepted = new ArrayList<>(indexes.size());
+        Money netChange = Money.ZERO;
+        for (Integer index : indexes) {
+            TransactionDto entry = entries.get(index);
+            if (entry.getTransactionType().equals(TransactionType.DEPOSIT.toString())) {
+                netChange = netChange.plus(entry.getAmount());
+            } else if (!account.getAccountStatus().equals("ACTIVE")) {
+                results[index] = result(index, entry, null, BulkTransactionResult.REJECTED, "account is inactive or closed");
+                continue;
+            } else if (account.getAvailableBalance().plus(netChange).isLessThan(entry.getAmount())) {
+                results[index] = result(index, entry, null, BulkTransactionResult.REJECTED, "Insufficient balance in the account");
+                continue;
+            } else {
+                netChange = netChange.minus(entry.getAmount());
+            }
+            accepted.add(index);
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        String idempotencyKey = uploadId + ":" + accountId;
+        if (!netChange.isZero() && !applyNetChange(accountId, idempotencyKey, netChange, accepted, entries, results)) {
+            return;
+        }
+
+        List<Transaction> transactions = new ArrayList<>(accepted.size());
+        List<CompletableFuture<Void>> committed = new ArrayList<>(accepted.size());
+        for (Integer index : accepted) {
+            Transaction transaction = toTransaction(entries.get(index));
+            transactions.add(transaction);
+            committed.add(transactionGroupCommit.submit(transaction));
+        }
+        Money unrecorded = Money.ZERO;
+        for (int i = 0; i < accepted.size(); i++) {
+            int index = accepted.get(i);
+            Transaction transaction = transactions.get(i);
+            try {
+                committed.get(i).join();
+                results[index] = result(index, entries.get(index), transaction.getReferenceId(),
+                        BulkTransactionResult.COMPLETED, "Transaction completed successfully");
+            } catch (RuntimeException exception) {
+                log.error("transaction {} of account {} could not be recorded", transaction.getReferenceId(), accountId, exception);
+                unrecorded = unrecorded.plus(transaction.getAmount());
+                results[index] = result(index, entries.get(index), null, BulkTransactionResult.REJECTED, "transaction could not be recorded");
+            }
+        }
+        if (!unrecorded.isZero()) {
+            RuntimeException failure = updateBalance(new BalanceUpdate(accountId, unrecorded.negate(), idempotencyKey + ":UNRECORDED", null));
+            if (Objects.nonNull(failure)) {
+                log.error("balance change of {} for unrecorded transactions of account {} could not be reverted", unrecorded, accountId, failure);
+                for (Integer index : accepted) {
+                    if (BulkTransactionResult.REJECTED.equals(results[index].getStatus())) {
+                        results[index] = result(index, entries.get(index), null, BulkTransactionResult.UNKNOWN,
+                                "transaction could not be recorded and its balance change could not be reverted");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the net change of the accepted entries of an account, rejecting them or reporting their outcome
+     * as unknown if it is not applied.
+     *
+     * @return true if the change is applied and the entries are to be recorded
+     */
+    private boolean applyNetChange(String accountId, String idempotencyKey, Money netChange, List<Integer> accepted,
+                                   List<TransactionDto> entries, BulkTransactionResult[] results) {
+
+        RuntimeException failure = updateBalance(new BalanceUpdate(accountId, netChange, idempotencyKey, null));
+        if (Objects.isNull(failure)) {
+            return true;
+        }
+        if (failure instanceof GlobalException) {
+            log.error("balance of account {} could not be updated for a bulk upload", accountId, failure);
+            reject(accepted, entries, results, Objects.requireNonNullElse(failure.getMessage(), "account balance could not be updated"));
+            return false;
+        }
+
+        log.error("balance update {} of account {} has an unknown outcome, reversing it", idempotencyKey, accountId, failure);
+        RuntimeException reversal = updateBalance(new BalanceUpdate(accountId, netChange.negate(), idempotencyKey + ":REVERSE", idempotencyKey));
+        if (Objects.isNull(reversal)) {
+            reject(accepted, entries, results, "account balance could not be updated");
+            return false;
+        }
+        if (reversal instanceof GlobalException) {
+            // a reversal of an update that was not applied changes nothing and cannot be refused, so the update was applied
+            log.warn("balance update {} of account {} was applied and cannot be reversed, recording its entries", idempotencyKey, accountId, reversal);
+            return true;
+        }
+        log.error("balance update {} of account {} could not be reversed", idempotencyKey, accountId, reversal);
+        accepted.forEach(index -> results[index] = result(index, entries.get(index), null, BulkTransactionResult.UNKNOWN,
+                "balance update outcome unknown: " + idempotencyKey));
+        return false;
+    }
+
+    /**
+     * Sends a keyed balance update, retrying it under the same key while its outcome is unknown.
+     *
+     * @return null if the update is applied, the {@link GlobalException} if Account-Service refuses it, or the
+     * last failure if its outcome is still unknown
+     */
+    private RuntimeException updateBalance(BalanceUpdate balanceUpdate) {
+
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= balanceAttempts; attempt++) {
+            try {
+                accountService.updateBalance(balanceUpdate);
+                return null;
+            } catch (GlobalException exception) {
+                return exception;
+            } catch (RuntimeException exception) {
+                log.warn("attempt {} of balance update {} failed", attempt, balanceUpdate.getIdempotencyKey(), exception);
+                failure = exception;
+            }
+        }
+        return failure;
+    }
+
+    private Transaction toTransaction(TransactionDto entry) {
+
+        Transaction transaction = transactionMapper.convertToEntity(entry);
+        TransactionType transactionType = TransactionType.valueOf(entry.getTransactionType());
+        transaction.setTransactionType(transactionType);
+        transaction.setAmount(transactionType == TransactionType.WITHDRAWAL ? entry.getAmount().negate() : entry.getAmount());
+        transaction.setComments(entry.getDescription());
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setReferenceId(Objects.isNull(entry.getReferenceId()) ? UUID.randomUUID().toString() : entry.getReferenceId());
+        return transaction;
+    }
+
+    /**
+     * Checks the fields of an entry on its own.
+     *
+     * @return why the entry is invalid, or null if it is valid
+     */
+    private static String check(TransactionDto entry) {
+
+        if (Objects.isNull(entry) || Objects.isNull(entry.getAccountId()) || entry.getAccountId().isBlank()) {
+            return "account id is required";
+        }
+        if (!TransactionType.DEPOSIT.toString().equals(entry.getTransactionType())
+                && !TransactionType.WITHDRAWAL.toString().equals(entry.getTransactionType())) {
+            return "transaction type must be DEPOSIT or WITHDRAWAL";
+        }
+        if (Objects.isNull(entry.getAmount()) || entry.getAmount().signum() <= 0) {
+            return "amount must be positive";
+        }
+        return null;
+    }
+
+    private void reject(List<Integer> indexes, List<TransactionDto> entries, BulkTransactionResult[] results, String message) {
+        indexes.forEach(index -> results[index] = result(index, entries.get(index), null, BulkTransactionResult.REJECTED, message));
+    }
+
+    private static BulkTransactionResult result(int index, TransactionDto entry, String referenceId, String status, String message) {
+        return BulkTransactionResult.builder()
+                .index(index)
+                .accountId(Objects.isNull(entry) ? null : entry.getAccountId())
+                .referenceId(referenceId)
+                .status(status)
+                .message(message)
+                .build();
+    }
+}
@@ -0,0 +1,152 @@
+package org.training.transactions.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.training.transactions.model.entity.Transaction;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes single transactions in groups, so that many callers share one commit. Transactions are queued as
+ * they arrive and a single writer takes them off the queue in batches, closing a batch once it holds the
+ * configured number of transactions or once the first of them has waited the configured interval, and
+ * saves the whole batch in one database transaction through the {@link TransactionRecorder}. The future of every caller completes once the commit
+ * of its batch has returned.
+ *
+ * <p>There is one writer and batches are saved in queue order, so the transactions of an account are
+ * stored, and become durable, in the order they were submitted. A batch that fails is saved again one
+ * transaction at a time, in order, so only the transactions that cannot be saved fail. The queue is
+ * bounded; a full queue makes callers wait rather than grow without limit.</p>
+ *
+ * <p>If the writer is interrupted, the transactions it has taken off the queue but not saved, and those
+ * still queued, fail, so no caller waits for a commit that will never happen.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionGroupCommit {
+
+    private final TransactionRecorder transactionRecorder;
+
+    @Value("${transaction.group-commit.max-batch-size:200}")
+    private int maxBatchSize;
+
+    @Value("${transaction.group-commit.flush-interval-ms:5}")
+    private long flushIntervalMillis;
+
+    @Value("${transaction.group-commit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<Pending> queue;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::write, "transaction-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Queues a transaction to be saved with the next batch, waiting for room in the queue if it is full.
+     *
+     * @param transaction the transaction to save
+     * @return a future completing once the transaction has been committed, or failing if it could not be saved
+     */
+    public CompletableFuture<Void> submit(Transaction transaction) {
+        if (!running) {
+            throw new IllegalStateException("transaction group commit is stopped");
+        }
+        Pending pending = new Pending(transaction, new CompletableFuture<>());
+        try {
+            queue.put(pending);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while queueing a transaction", exception);
+        }
+        return pending.committed();
+    }
+
+    private void write() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() == maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                running = false;
+                IllegalStateException interrupted = new IllegalStateException("transaction group commit was interrupted", exception);
+                batch.forEach(pending -> pending.committed().completeExceptionally(interrupted));
+                break;
+            } catch (RuntimeException exception) {
+                log.error("transaction group commit failed unexpectedly", exception);
+                batch.forEach(pending -> pending.committed().completeExceptionally(exception));
+            } finally {
+                batch.clear();
+            }
+        }
+        Pending left;
+        while ((left = queue.poll()) != null) {
+            left.committed().completeExceptionally(new IllegalStateException("transaction group commit is stopped"));
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            transactionRecorder.save(batch.stream().map(Pending::transaction).toList());
+            batch.forEach(pending -> pending.committed().complete(null));
+        } catch (RuntimeException exception) {
+            log.warn("batch of {} transactions failed, saving them one at a time: {}", batch.size(), exception.getMessage());
+            for (Pending pending : batch) {
+                try {
+                    pending.transaction().setTransactionId(null);
+                    transactionRecorder.save(List.of(pending.transaction()));
+                    pending.committed().complete(null);
+                } catch (RuntimeException failure) {
+                    pending.committed().completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    private record Pending(Transaction transaction, CompletableFuture<Void> committed) {
+    }
+}
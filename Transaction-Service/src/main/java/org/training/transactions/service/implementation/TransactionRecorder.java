@@ -0,0 +1,143 @@
+package org.training.transactions.service.implementation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.common.model.Money;
+import org.training.transactions.model.entity.Transaction;
+import org.training.transactions.model.entity.TransactionSummaryId;
+import org.training.transactions.repository.RecordedRequestRepository;
+import org.training.transactions.repository.TransactionRepository;
+import org.training.transactions.repository.TransactionSummaryRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Saves transactions together with the monthly summaries of their accounts. Every transaction is saved
+ * through here, so the summaries count every transaction exactly once: the transactions are inserted and
+ * flushed, which also stamps their dates, and their amounts are then added to the summary of their account,
+ * month and type in the same database transaction, with one addition per summary.
+ *
+ * <p>The summaries are added to in a fixed order, so two database transactions adding to the same summaries
+ * never wait on each other in a cycle. When the summary table is found empty at startup, it is built from
+ * the transactions already recorded, with the table locked so that no transaction is counted twice.</p>
+ *
+ * <p>A request that may be delivered more than once saves its transactions under an idempotency key, which
+ * is inserted in the same database transaction; a later delivery of the key finds it and saves nothing. Keys
+ * are forgotten after the configured retention.</p>
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class TransactionRecorder {
+
+    private static final DateTimeFormatter YEAR_MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private static final Comparator<TransactionSummaryId> SUMMARY_ORDER = Comparator
+            .comparing(TransactionSummaryId::getAccountId)
+            .thenComparing(TransactionSummaryId::getYearMonth)
+            .thenComparing(TransactionSummaryId::getTransactionType);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionSummaryRepository transactionSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RecordedRequestRepository recordedRequestRepository;
+
+    @Value("${transaction.idempotency.retention-ms:604800000}")
+    private long keyRetentionMillis;
+
+    @PostConstruct
+    public void backfill() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                transactionSummaryRepository.lock();
+                if (transactionSummaryRepository.count() == 0) {
+                    int summaries = transactionSummaryRepository.backfill();
+                    log.info("transaction summaries built from the recorded transactions: {}", summaries);
+                }
+            });
+        } catch (RuntimeException exception) {
+            log.error("transaction summaries could not be built from the recorded transactions", exception);
+        }
+    }
+
+    /**
+     * Saves transactions and adds them to their monthly summaries, in one database transaction.
+     *
+     * @param transactions the transactions to save
+     * @return the saved transactions
+     */
+    @Transactional
+    public List<Transaction> save(List<Transaction> transactions) {
+
+        List<Transaction> saved = transactionRepository.saveAll(transactions);
+        transactionRepository.flush();
+
+        Map<TransactionSummaryId, Totals> totals = new TreeMap<>(SUMMARY_ORDER);
+        for (Transaction transaction : saved) {
+            if (Objects.isNull(transaction.getAccountId()) || Objects.isNull(transaction.getTransactionType())
+                    || Objects.isNull(transaction.getAmount())) {
+                continue;
+            }
+            TransactionSummaryId id = new TransactionSummaryId(transaction.getAccountId(),
+                    transaction.getTransactionDate().format(YEAR_MONTH), transaction.getTransactionType());
+            totals.merge(id, new Totals(1, transaction.getAmount(), transaction.getAmount(), transaction.getAmount()), Totals::plus);
+        }
+        totals.forEach((id, total) -> transactionSummaryRepository.add(id.getAccountId(), id.getYearMonth(),
+                id.getTransactionType().toString(), total.count(), total.sum().toBigDecimal(),
+                total.min().toBigDecimal(), total.max().toBigDecimal()));
+        return saved;
+    }
+
+    /**
+     * Saves transactions and adds them to their monthly summaries, in one database transaction, unless a
+     * request with the same idempotency key has already saved its transactions.
+     *
+     * @param transactions   the transactions to save
+     * @param idempotencyKey the key of the request, or null to save the transactions unconditionally
+     * @return the saved transactions, empty if the key had already been recorded
+     */
+    @Transactional
+    public List<Transaction> saveOnce(List<Transaction> transactions, String idempotencyKey) {
+        if (!Objects.isNull(idempotencyKey) && recordedRequestRepository.record(idempotencyKey) == 0) {
+            log.info("transactions of request {} have already been recorded", idempotencyKey);
+            return List.of();
+        }
+        return save(transactions);
+    }
+
+    /**
+     * Forgets the idempotency keys recorded before the retention, by which time no delivery of them is
+     * still being retried.
+     */
+    @Scheduled(fixedDelayString = "${transaction.idempotency.purge-interval-ms:3600000}")
+    public void purgeKeys() {
+        int purged = recordedRequestRepository.deleteRecordedBefore(LocalDateTime.now().minus(keyRetentionMillis, ChronoUnit.MILLIS));
+        if (purged > 0) {
+            log.info("forgot {} recorded request keys", purged);
+        }
+    }
+
+    private record Totals(long count, Money sum, Money min, Money max) {
+
+        private Totals plus(Totals other) {
+            return new Totals(count + other.count, sum.plus(other.sum),
+                    min.compareTo(other.min) <= 0 ? min : other.min,
+                    max.compareTo(other.max) >= 0 ? max : other.max);
+        }
+    }
+}
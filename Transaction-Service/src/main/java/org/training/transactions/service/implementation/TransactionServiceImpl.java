@@ -4,28 +4,56 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.training.transactions.exception.AccountStatusException;
 import org.training.transactions.exception.GlobalErrorCode;
 import org.training.transactions.exception.InsufficientBalance;
+import org.training.transactions.exception.InvalidTransactionRequest;
 import org.training.transactions.exception.ResourceNotFound;
 import org.training.transactions.external.AccountService;
+import org.training.common.model.Money;
 import org.training.transactions.model.TransactionStatus;
 import org.training.transactions.model.TransactionType;
 import org.training.transactions.model.dto.TransactionDto;
+import org.training.transactions.model.dto.TransactionSearchCriteria;
 import org.training.transactions.model.entity.Transaction;
 import org.training.transactions.model.external.Account;
+import org.training.transactions.model.external.BalanceUpdate;
 import org.training.transactions.model.mapper.TransactionMapper;
+import org.training.transactions.model.response.BulkTransactionResponse;
+import org.training.transactions.model.response.BulkTransactionResult;
+import org.training.transactions.model.response.LedgerBalance;
+import org.training.transactions.model.response.LedgerEntry;
+import org.training.transactions.model.response.MonthlySummary;
 import org.training.transactions.model.response.Response;
 import org.training.transactions.model.response.TransactionRequest;
+import org.training.transactions.model.response.TransactionSearchPage;
 import org.training.transactions.repository.TransactionRepository;
+import org.training.transactions.repository.TransactionSpecifications;
+import org.training.transactions.repository.TransactionSummaryRepository;
 import org.training.transactions.service.TransactionService;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -33,15 +61,33 @@ import java.util.stream.Collectors;
 public class TransactionServiceImpl implements TransactionService {
 
     private final TransactionRepository transactionRepository;
+    private final TransactionSummaryRepository transactionSummaryRepository;
     private final AccountService accountService;
+    private final TransactionRecorder transactionRecorder;
+    private final TransactionGroupCommit transactionGroupCommit;
+    private final BulkTransactionProcessor bulkTransactionProcessor;
 
     private final TransactionMapper transactionMapper = new TransactionMapper();
 
     @Value("${spring.application.ok}")
     private String ok;
 
+    @Value("${transaction.group-commit.enabled:false}")
+    private boolean groupCommit;
+
+    @Value("${transaction.bulk.max-entries:10000}")
+    private int maxBulkEntries;
+
+    @Value("${transaction.search.default-page-size:50}")
+    private int defaultSearchPageSize;
+
+    @Value("${transaction.search.max-page-size:500}")
+    private int maxSearchPageSize;
+
     /**
-     * Adds a transaction based on the provided TransactionDto.
+     * Adds a transaction based on the provided TransactionDto. With group commit enabled the transaction is
+     * saved together with the transactions submitted at about the same time, and this method returns once
+     * their shared commit has completed.
      *
      * @param  transactionDto  the TransactionDto object containing the transaction details
      * @return                 a Response object indicating the success of the transaction
@@ -58,19 +104,20 @@ public class TransactionServiceImpl implements TransactionService {
         }
         Account account = response.getBody();
         Transaction transaction = transactionMapper.convertToEntity(transactionDto);
+        Money balanceChange = Money.ZERO;
         if(transactionDto.getTransactionType().equals(TransactionType.DEPOSIT.toString())) {
-            account.setAvailableBalance(account.getAvailableBalance().add(transactionDto.getAmount()));
+            balanceChange = transactionDto.getAmount();
         } else if (transactionDto.getTransactionType().equals(TransactionType.WITHDRAWAL.toString())) {
             if(!account.getAccountStatus().equals("ACTIVE")){
                 log.error("account is either inactive/closed, cannot process the transaction");
                 throw new AccountStatusException("account is inactive or closed");
             }
-            if(account.getAvailableBalance().compareTo(transactionDto.getAmount()) < 0){
+            if(account.getAvailableBalance().isLessThan(transactionDto.getAmount())){
                 log.error("insufficient balance in the account");
                 throw new InsufficientBalance("Insufficient balance in the account");
             }
-            transaction.setAmount(transactionDto.getAmount().negate());
-            account.setAvailableBalance(account.getAvailableBalance().subtract(transactionDto.getAmount()));
+            balanceChange = transactionDto.getAmount().negate();
+            transaction.setAmount(balanceChange);
         }
 
         transaction.setTransactionType(TransactionType.valueOf(transactionDto.getTransactionType()));
@@ -78,8 +125,16 @@ public class TransactionServiceImpl implements TransactionService {
         transaction.setStatus(TransactionStatus.COMPLETED);
         transaction.setReferenceId(UUID.randomUUID().toString());
 
-        accountService.updateAccount(transactionDto.getAccountId(), account);
-        transactionRepository.save(transaction);
+        accountService.updateBalance(new BalanceUpdate(transactionDto.getAccountId(), balanceChange));
+        if (groupCommit) {
+            try {
+                transactionGroupCommit.submit(transaction).join();
+            } catch (CompletionException exception) {
+                throw exception.getCause() instanceof RuntimeException cause ? cause : exception;
+            }
+        } else {
+            transactionRecorder.save(List.of(transaction));
+        }
 
         return Response.builder()
                 .message("Transaction completed successfully")
@@ -88,13 +143,17 @@ public class TransactionServiceImpl implements TransactionService {
 
     /**
      * Completes the internal transaction by updating the status of each transaction
-     * and saving them to the transaction repository.
+     * and saving them to the transaction repository. A transaction that carries its own reference
+     * keeps it, so one request can record the entries of many transfers. A request delivered again with
+     * the same idempotency key records nothing.
      *
      * @param transactionDtos the list of transaction DTOs to be processed
+     * @param transactionReference the reference of transactions that carry none of their own
+     * @param idempotencyKey the key under which the transactions are recorded once, or null
      * @return a response indicating the completion of the transaction
      */
     @Override
-    public Response internalTransaction(List<TransactionDto> transactionDtos, String transactionReference) {
+    public Response internalTransaction(List<TransactionDto> transactionDtos, String transactionReference, String idempotencyKey) {
 
         // Convert the list of transaction DTOs to entities
         List<Transaction> transactions = transactionMapper.convertToEntityList(transactionDtos);
@@ -103,11 +162,13 @@ public class TransactionServiceImpl implements TransactionService {
         transactions.forEach(transaction -> {
             transaction.setTransactionType(TransactionType.INTERNAL_TRANSFER);
             transaction.setStatus(TransactionStatus.COMPLETED);
-            transaction.setReferenceId(transactionReference);
+            if (Objects.isNull(transaction.getReferenceId())) {
+                transaction.setReferenceId(transactionReference);
+            }
         });
 
-        // Save all the completed transactions to the transaction repository
-        transactionRepository.saveAll(transactions);
+        // Save all the completed transactions, with their monthly summaries, once per idempotency key
+        transactionRecorder.saveOnce(transactions, idempotencyKey);
 
         // Return the response indicating the completion of the transaction
         return Response.builder()
@@ -115,6 +176,35 @@ public class TransactionServiceImpl implements TransactionService {
                 .message("Transaction completed successfully").build();
     }
 
+    /**
+     * Processes a bulk upload of deposits and withdrawals. Each account is read once and its balance updated
+     * once with the net change of its accepted entries; an entry that is invalid, or a withdrawal the balance
+     * cannot cover, is rejected on its own without failing the rest of the upload.
+     *
+     * @param transactionDtos the deposits and withdrawals, in upload order
+     * @return a response with the result of every entry, in upload order
+     * @throws InvalidTransactionRequest if the upload is empty or has more entries than allowed
+     */
+    @Override
+    public BulkTransactionResponse bulkTransaction(List<TransactionDto> transactionDtos) {
+
+        if (Objects.isNull(transactionDtos) || transactionDtos.isEmpty()) {
+            throw new InvalidTransactionRequest("bulk upload has no transactions");
+        }
+        if (transactionDtos.size() > maxBulkEntries) {
+            throw new InvalidTransactionRequest("bulk upload has more than " + maxBulkEntries + " transactions");
+        }
+
+        List<BulkTransactionResult> results = bulkTransactionProcessor.process(transactionDtos);
+        int completed = (int) results.stream().filter(result -> result.getStatus().equals(BulkTransactionResult.COMPLETED)).count();
+        return BulkTransactionResponse.builder()
+                .responseCode(ok)
+                .message(completed + " of " + results.size() + " transactions completed")
+                .completed(completed)
+                .rejected(results.size() - completed)
+                .results(results).build();
+    }
+
     /**
      * Retrieves a list of transaction requests for a given account ID.
      *
@@ -125,14 +215,7 @@ public class TransactionServiceImpl implements TransactionService {
     public List<TransactionRequest> getTransaction(String accountId) {
 
         return transactionRepository.findTransactionByAccountId(accountId)
-                .stream().map(transaction -> {
-                    TransactionRequest transactionRequest = new TransactionRequest();
-                    BeanUtils.copyProperties(transaction, transactionRequest);
-                    transactionRequest.setTransactionStatus(transaction.getStatus().toString());
-                    transactionRequest.setLocalDateTime(transaction.getTransactionDate());
-                    transactionRequest.setTransactionType(transaction.getTransactionType().toString());
-                    return transactionRequest;
-                }).collect(Collectors.toList());
+                .stream().map(this::toTransactionRequest).collect(Collectors.toList());
     }
 
     /**
@@ -145,13 +228,154 @@ public class TransactionServiceImpl implements TransactionService {
     public List<TransactionRequest> getTransactionByTransactionReference(String transactionReference) {
 
         return transactionRepository.findTransactionByReferenceId(transactionReference)
-                .stream().map(transaction -> {
-                    TransactionRequest transactionRequest = new TransactionRequest();
-                    BeanUtils.copyProperties(transaction, transactionRequest);
-                    transactionRequest.setTransactionStatus(transaction.getStatus().toString());
-                    transactionRequest.setLocalDateTime(transaction.getTransactionDate());
-                    transactionRequest.setTransactionType(transaction.getTransactionType().toString());
-                    return transactionRequest;
-                }).collect(Collectors.toList());
+                .stream().map(this::toTransactionRequest).collect(Collectors.toList());
+    }
+
+    /**
+     * Searches transactions with the filters set in the criteria, newest first. Pages are read with a
+     * keyset rather than an offset: the cursor of a page holds the date and ID of its last transaction and
+     * the next page starts right after it, so every page costs the same however deep it is, and no count of
+     * all matches is made.
+     *
+     * @param criteria the filters, the cursor of the previous page and the page size
+     * @return the page of matching transactions, with the cursor of the next page if there is one
+     * @throws InvalidTransactionRequest if the cursor is not valid or the comments text is too short
+     */
+    @Override
+    public TransactionSearchPage searchTransactions(TransactionSearchCriteria criteria) {
+
+        if (!Objects.isNull(criteria.getComments()) && criteria.getComments().strip().length() < 3) {
+            throw new InvalidTransactionRequest("comments filter needs at least 3 characters");
+        }
+        int size = Math.min(Objects.requireNonNullElse(criteria.getSize(), defaultSearchPageSize), maxSearchPageSize);
+        if (size < 1) {
+            throw new InvalidTransactionRequest("page size must be positive");
+        }
+
+        Specification<Transaction> specification = Specification.where(TransactionSpecifications.accountId(criteria.getAccountId()))
+                .and(TransactionSpecifications.dateFrom(criteria.getFrom()))
+                .and(TransactionSpecifications.dateTo(criteria.getTo()))
+                .and(TransactionSpecifications.amountFrom(amount(criteria.getMinAmount(), "minAmount")))
+                .and(TransactionSpecifications.amountTo(amount(criteria.getMaxAmount(), "maxAmount")))
+                .and(TransactionSpecifications.transactionType(criteria.getTransactionType()))
+                .and(TransactionSpecifications.status(criteria.getStatus()))
+                .and(TransactionSpecifications.commentsContain(Objects.isNull(criteria.getComments()) ? null : criteria.getComments().strip()));
+        if (!Objects.isNull(criteria.getAfter())) {
+            String[] cursor = decodeCursor(criteria.getAfter());
+            try {
+                specification = specification.and(TransactionSpecifications.before(LocalDateTime.parse(cursor[0]), Long.valueOf(cursor[1])));
+            } catch (DateTimeParseException | NumberFormatException exception) {
+                throw new InvalidTransactionRequest("invalid search cursor");
+            }
+        }
+
+        List<Transaction> transactions = transactionRepository.search(specification, size + 1);
+        String next = null;
+        if (transactions.size() > size) {
+            transactions = transactions.subList(0, size);
+            Transaction last = transactions.get(size - 1);
+            next = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.getTransactionDate() + "," + last.getTransactionId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return TransactionSearchPage.builder()
+                .transactions(transactions.stream().map(this::toTransactionRequest).collect(Collectors.toList()))
+                .next(next).build();
+    }
+
+    /**
+     * Retrieves the ledger balance of every account in a range of account IDs, computed by the database
+     * so that only one row per account leaves it.
+     *
+     * @param fromAccount The first account ID of the range, inclusive, or null for no lower bound.
+     * @param toAccount   The last account ID of the range, exclusive, or null for no upper bound.
+     * @return The ledger balances ordered by account ID.
+     */
+    @Override
+    public List<LedgerBalance> getLedgerBalances(String fromAccount, String toAccount) {
+
+        return transactionRepository.sumAmountsByAccountIdRange(fromAccount, toAccount);
+    }
+
+    /**
+     * Retrieves the monthly summaries of an account, read from the summaries kept up to date as transactions
+     * are saved, so the cost grows with the number of months rather than the number of transactions.
+     *
+     * @param accountId The account ID.
+     * @param from      The first month, inclusive, or null for no lower bound.
+     * @param to        The last month, inclusive, or null for no upper bound.
+     * @return The summaries ordered by month and transaction type.
+     */
+    @Override
+    public List<MonthlySummary> getMonthlySummaries(String accountId, YearMonth from, YearMonth to) {
+
+        return transactionSummaryRepository.findByAccountIdAndMonths(accountId,
+                        Objects.isNull(from) ? "0000-01" : from.toString(), Objects.isNull(to) ? "9999-12" : to.toString())
+                .stream().map(summary -> MonthlySummary.builder()
+                        .accountId(summary.getId().getAccountId())
+                        .yearMonth(summary.getId().getYearMonth())
+                        .transactionType(summary.getId().getTransactionType())
+                        .transactions(summary.getTransactionCount())
+                        .total(summary.getTotalAmount())
+                        .min(summary.getMinAmount())
+                        .max(summary.getMaxAmount()).build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Writes the internal transfer entries recorded in a time range as CSV lines, ordered by reference. The
+     * entries are read from the database in batches and written as they are read, so neither side holds
+     * the range in memory.
+     *
+     * @param from   The earliest transaction date, inclusive.
+     * @param to     The latest transaction date, exclusive.
+     * @param output The stream to write to.
+     * @throws IOException If the stream cannot be written.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void writeLedgerEntries(LocalDateTime from, LocalDateTime to, OutputStream output) throws IOException {
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try (Stream<LedgerEntry> entries = transactionRepository.streamInternalTransfers(from, to)) {
+            Iterator<LedgerEntry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                LedgerEntry entry = iterator.next();
+                writer.write(entry.getReferenceId() + "," + entry.getAccountId() + "," + entry.getAmount().getMinorUnits() + "\n");
+            }
+        }
+        writer.flush();
+    }
+
+    private String[] decodeCursor(String after) {
+        try {
+            String[] cursor = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8).split(",");
+            if (cursor.length == 2) {
+                return cursor;
+            }
+        } catch (IllegalArgumentException exception) {
+            log.error("invalid search cursor {}", after);
+        }
+        throw new InvalidTransactionRequest("invalid search cursor");
+    }
+
+    private static Money amount(BigDecimal value, String name) {
+        if (Objects.isNull(value)) {
+            return null;
+        }
+        try {
+            return Money.of(value);
+        } catch (ArithmeticException exception) {
+            throw new InvalidTransactionRequest(name + " must have at most " + Money.SCALE + " decimal places");
+        }
+    }
+
+    private TransactionRequest toTransactionRequest(Transaction transaction) {
+
+        TransactionRequest transactionRequest = new TransactionRequest();
+        BeanUtils.copyProperties(transaction, transactionRequest);
+        transactionRequest.setTransactionStatus(transaction.getStatus().toString());
+        transactionRequest.setLocalDateTime(transaction.getTransactionDate());
+        transactionRequest.setTransactionType(transaction.getTransactionType().toString());
+        return transactionRequest;
     }
 }
@@ -0,0 +1,172 @@
+package org.training.transactions.configuration;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the partitioning against a real PostgreSQL, started in process, as the catalog queries and the
+ * partition DDL cannot be checked against a mock or H2. PostgreSQL refuses to run as root.
+ */
+@DisabledIfSystemProperty(named = "user.name", matches = "root")
+class TransactionPartitionsIntegrationTest {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'transaction_'yyyy_MM");
+
+    private static EmbeddedPostgres postgres;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionPartitions transactionPartitions;
+
+    @BeforeAll
+    static void startPostgres() throws IOException {
+        postgres = EmbeddedPostgres.start();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.execute("drop schema public cascade");
+        jdbcTemplate.execute("create schema public");
+        transactionPartitions = new TransactionPartitions(jdbcTemplate);
+        ReflectionTestUtils.setField(transactionPartitions, "monthsAhead", 3);
+    }
+
+    @Test
+    void start_ShouldCreatePartitionedTable_WhenDatabaseIsNew() {
+        // When
+        transactionPartitions.start();
+
+        // Then
+        assertEquals("p", tableKind("transaction"));
+        assertEquals(monthPartitions(0, 3), partitionNames());
+        jdbcTemplate.update("insert into transaction (transaction_id, transaction_date) values (1, now())");
+        assertEquals(1, count(LocalDate.now().format(PARTITION_NAME)));
+    }
+
+    @Test
+    void start_ShouldKeepRowsAndIndexes_WhenExistingTableIsConverted() {
+        // Given
+        jdbcTemplate.execute("create table transaction (transaction_id bigint primary key, account_id varchar(255), " +
+                "amount numeric(19, 2), transaction_date timestamp)");
+        jdbcTemplate.execute("create index idx_transaction_account_transaction_date on transaction (account_id, transaction_date, transaction_id)");
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 1; id <= 100; id++) {
+            jdbcTemplate.update("insert into transaction values (?, ?, ?, ?)", id, "100" + id % 5, BigDecimal.TEN, now.minusDays(id * 7));
+        }
+
+        // When
+        transactionPartitions.start();
+
+        // Then
+        assertEquals("p", tableKind("transaction"));
+        assertEquals("r", tableKind("transaction_history"));
+        assertEquals(100, count("transaction"));
+        assertEquals(100, count("transaction_history"));
+        List<String> partitions = monthPartitions(2, 3);
+        partitions.add("transaction_history");
+        assertEquals(partitions, partitionNames());
+        assertEquals(List.of("account_id", "amount", "transaction_date", "transaction_id"), jdbcTemplate.queryForList(
+                "select column_name from information_schema.columns where table_name = 'transaction' order by column_name", String.class));
+        assertTrue(indexDefinitions("transaction").stream().anyMatch(index ->
+                index.contains("idx_transaction_account_transaction_date") && index.contains("(account_id, transaction_date, transaction_id)")));
+        assertTrue(indexDefinitions("transaction_history").stream().anyMatch(index ->
+                index.contains("idx_transaction_account_transaction_date_history")));
+        assertEquals("NO", jdbcTemplate.queryForObject("select is_nullable from information_schema.columns " +
+                "where table_name = 'transaction' and column_name = 'transaction_date'", String.class));
+    }
+
+    @Test
+    void start_ShouldRejectDuplicateKeys_WhenExistingTableIsConverted() {
+        // Given
+        jdbcTemplate.execute("create table transaction (transaction_id bigint primary key, transaction_date timestamp)");
+        jdbcTemplate.update("insert into transaction values (1, ?)", LocalDateTime.now().minusDays(1));
+
+        // When
+        transactionPartitions.start();
+
+        // Then
+        LocalDateTime sameDate = jdbcTemplate.queryForObject("select transaction_date from transaction", LocalDateTime.class);
+        assertThrows(RuntimeException.class, () ->
+                jdbcTemplate.update("insert into transaction values (1, ?)", sameDate));
+        jdbcTemplate.update("insert into transaction values (2, ?)", LocalDate.now().withDayOfMonth(1).plusMonths(2).atStartOfDay());
+        assertEquals(1, count(LocalDate.now().plusMonths(2).format(PARTITION_NAME)));
+    }
+
+    @Test
+    void maintain_ShouldCreateMonthsAheadOnce_WhenMonthsAheadGrows() {
+        // Given
+        transactionPartitions.start();
+        ReflectionTestUtils.setField(transactionPartitions, "monthsAhead", 5);
+
+        // When
+        transactionPartitions.maintain();
+        transactionPartitions.maintain();
+
+        // Then
+        assertEquals(monthPartitions(0, 5), partitionNames());
+    }
+
+    @Test
+    void maintain_ShouldDetachPartitionsPastRetention_WhenRetentionIsConfigured() {
+        // Given
+        transactionPartitions.start();
+        LocalDate old = LocalDate.now().withDayOfMonth(1).minusMonths(3);
+        jdbcTemplate.execute("create table " + old.format(PARTITION_NAME) + " partition of transaction for values from ('"
+                + old + "') to ('" + old.plusMonths(1) + "')");
+        ReflectionTestUtils.setField(transactionPartitions, "retentionMonths", 2);
+
+        // When
+        transactionPartitions.maintain();
+
+        // Then
+        assertEquals(monthPartitions(0, 3), partitionNames());
+        assertEquals("r", tableKind(old.format(PARTITION_NAME)));
+    }
+
+    private String tableKind(String table) {
+        return jdbcTemplate.queryForObject("select relkind::text from pg_class where relname = ?", String.class, table);
+    }
+
+    private List<String> partitionNames() {
+        return jdbcTemplate.queryForList("select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid " +
+                "where i.inhparent = 'transaction'::regclass order by c.relname", String.class);
+    }
+
+    private List<String> monthPartitions(int first, int last) {
+        List<String> names = new ArrayList<>();
+        for (int month = first; month <= last; month++) {
+            names.add(LocalDate.now().plusMonths(month).format(PARTITION_NAME));
+        }
+        return names;
+    }
+
+    private List<String> indexDefinitions(String table) {
+        return jdbcTemplate.queryForList("select indexdef from pg_indexes where tablename = ?", String.class, table);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+    }
+}
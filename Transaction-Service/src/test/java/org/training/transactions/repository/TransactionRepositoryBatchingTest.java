@@ -0,0 +1,59 @@
+package org.training.transactions.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.training.common.model.Money;
+import org.training.transactions.model.TransactionStatus;
+import org.training.transactions.model.TransactionType;
+import org.training.transactions.model.entity.Transaction;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "spring.jpa.show-sql=false"})
+class TransactionRepositoryBatchingTest {
+
+    private static final int TRANSACTIONS = 200;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void saveAll_insertsInBatches() {
+
+        List<Transaction> transactions = IntStream.range(0, TRANSACTIONS)
+                .mapToObj(i -> Transaction.builder()
+                        .referenceId("reference-" + i)
+                        .accountId(String.format("06001%08d", i))
+                        .transactionType(TransactionType.DEPOSIT)
+                        .amount(Money.of(100))
+                        .status(TransactionStatus.COMPLETED)
+                        .build())
+                .collect(Collectors.toList());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        transactionRepository.saveAll(transactions);
+        entityManager.flush();
+
+        assertEquals(TRANSACTIONS, statistics.getEntityInsertCount());
+        // one statement per batch of 50 inserts and one sequence call per 50 IDs, instead of one insert per transaction
+        assertTrue(statistics.getPrepareStatementCount() <= 10,
+                "expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+    }
+}
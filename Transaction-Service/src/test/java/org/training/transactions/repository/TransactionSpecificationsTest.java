@@ -0,0 +1,112 @@
+package org.training.transactions.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.training.common.model.Money;
+import org.training.transactions.model.TransactionStatus;
+import org.training.transactions.model.TransactionType;
+import org.training.transactions.model.entity.Transaction;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+class TransactionSpecificationsTest {
+
+    private static final String ACCOUNT = "0600100000001";
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        ids = List.of(
+                save("r1", TransactionType.DEPOSIT, "100.00", "salary 100% paid", NOON.minusHours(1)),
+                save("r2", TransactionType.WITHDRAWAL, "-30.00", "rent_march", NOON),
+                save("r3", TransactionType.WITHDRAWAL, "-100.00", "rentXmarch", NOON),
+                save("r4", TransactionType.DEPOSIT, "50.00", "C:\\Refund", NOON),
+                save("r5", TransactionType.DEPOSIT, "10.00", "SALARY bonus", NOON.plusHours(1)));
+        entityManager.clear();
+    }
+
+    @Test
+    void commentsContain_ShouldMatchWildcardsLiterally_IgnoringCase() {
+        // When / Then
+        assertEquals(List.of("r1"), search(TransactionSpecifications.commentsContain("100%")));
+        assertEquals(List.of("r2"), search(TransactionSpecifications.commentsContain("rent_m")));
+        assertEquals(List.of("r4"), search(TransactionSpecifications.commentsContain("c:\\r")));
+        assertEquals(List.of("r5", "r1"), search(TransactionSpecifications.commentsContain("Salary")));
+        assertEquals(List.of("r1"), search(TransactionSpecifications.commentsContain("%")));
+        assertEquals(List.of("r2"), search(TransactionSpecifications.commentsContain("_")));
+    }
+
+    @Test
+    void amountBounds_ShouldCompareSignedAmounts() {
+        // When / Then
+        assertEquals(List.of("r2"), search(Specification.where(TransactionSpecifications.amountFrom(Money.of(new BigDecimal("-50.00"))))
+                .and(TransactionSpecifications.amountTo(Money.of(new BigDecimal("-10.00"))))));
+        assertEquals(List.of("r3", "r2"), search(TransactionSpecifications.amountTo(Money.of(new BigDecimal("-30.00")))));
+        assertEquals(List.of("r5", "r4", "r1"), search(TransactionSpecifications.amountFrom(Money.of(new BigDecimal("10.00")))));
+        assertEquals(List.of("r4", "r3", "r2"), search(Specification.where(TransactionSpecifications.dateFrom(NOON))
+                .and(TransactionSpecifications.dateTo(NOON.plusHours(1)))));
+    }
+
+    @Test
+    void before_ShouldResumeAfterTransaction_AmongThoseOfTheSameDate() {
+        // When
+        List<String> afterNewest = search(TransactionSpecifications.before(NOON.plusHours(1), ids.get(4)));
+        List<String> afterSecondAtNoon = search(TransactionSpecifications.before(NOON, ids.get(2)));
+
+        // Then
+        assertEquals(List.of("r4", "r3", "r2", "r1"), afterNewest);
+        assertEquals(List.of("r2", "r1"), afterSecondAtNoon);
+    }
+
+    @Test
+    void factories_ShouldBeSkipped_WhenGivenNoValue() {
+        // When
+        Specification<Transaction> specification = Specification.where(TransactionSpecifications.accountId(null))
+                .and(TransactionSpecifications.commentsContain(null))
+                .and(TransactionSpecifications.amountFrom(null))
+                .and(TransactionSpecifications.before(null, null))
+                .and(TransactionSpecifications.transactionType(TransactionType.WITHDRAWAL));
+
+        // Then
+        assertEquals(List.of("r3", "r2"), search(specification));
+    }
+
+    private List<String> search(Specification<Transaction> specification) {
+        return transactionRepository.search(Specification.where(TransactionSpecifications.accountId(ACCOUNT)).and(specification), 10)
+                .stream().map(Transaction::getReferenceId).collect(Collectors.toList());
+    }
+
+    private Long save(String referenceId, TransactionType transactionType, String amount, String comments, LocalDateTime transactionDate) {
+        Transaction transaction = transactionRepository.saveAndFlush(Transaction.builder()
+                .referenceId(referenceId)
+                .accountId(ACCOUNT)
+                .transactionType(transactionType)
+                .amount(Money.of(new BigDecimal(amount)))
+                .status(TransactionStatus.COMPLETED)
+                .comments(comments).build());
+        // the creation timestamp is set on insert, so the date of the transaction is set after it
+        entityManager.createQuery("update Transaction t set t.transactionDate = :transactionDate where t.transactionId = :id")
+                .setParameter("transactionDate", transactionDate)
+                .setParameter("id", transaction.getTransactionId())
+                .executeUpdate();
+        return transaction.getTransactionId();
+    }
+}
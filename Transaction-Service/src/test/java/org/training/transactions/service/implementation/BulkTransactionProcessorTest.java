@@ -0,0 +1,179 @@
+package org.training.transactions.service.implementation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.training.transactions.exception.InsufficientBalance;
+import org.training.transactions.external.AccountService;
+import org.training.common.model.Money;
+import org.training.transactions.model.dto.TransactionDto;
+import org.training.transactions.model.external.Account;
+import org.training.transactions.model.external.BalanceUpdate;
+import org.training.transactions.model.response.BulkTransactionResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkTransactionProcessorTest {
+
+    private static final String ACCOUNT = "0600140000001";
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private TransactionGroupCommit transactionGroupCommit;
+
+    @InjectMocks
+    private BulkTransactionProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(processor, "parallelism", 2);
+        ReflectionTestUtils.setField(processor, "balanceAttempts", 3);
+        processor.start();
+        lenient().when(accountService.readByAccountNumber(ACCOUNT)).thenReturn(ResponseEntity.ok(Account.builder()
+                .accountNumber(ACCOUNT).accountStatus("ACTIVE").availableBalance(Money.of(100)).build()));
+        lenient().when(transactionGroupCommit.submit(any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        processor.stop();
+    }
+
+    @Test
+    void process_ShouldRetryUnderSameKey_WhenBalanceUpdateTimesOut() {
+        // Given
+        when(accountService.updateBalance(any()))
+                .thenThrow(new RuntimeException("Read timed out"))
+                .thenReturn(null);
+
+        // When
+        List<BulkTransactionResult> results = processor.process(List.of(deposit(50), withdrawal(30)));
+
+        // Then
+        assertEquals(List.of(BulkTransactionResult.COMPLETED, BulkTransactionResult.COMPLETED), statuses(results));
+        List<BalanceUpdate> updates = balanceUpdates(2);
+        assertEquals(Money.of(20), updates.get(0).getAmount());
+        assertNotNull(updates.get(0).getIdempotencyKey());
+        assertTrue(updates.get(0).getIdempotencyKey().endsWith(":" + ACCOUNT));
+        assertEquals(updates.get(0), updates.get(1));
+        verify(transactionGroupCommit, times(2)).submit(any());
+    }
+
+    @Test
+    void process_ShouldRejectWithoutReversal_WhenBalanceUpdateIsRefused() {
+        // Given
+        when(accountService.updateBalance(any())).thenThrow(new InsufficientBalance("Insufficient balance in the account"));
+
+        // When
+        List<BulkTransactionResult> results = processor.process(List.of(deposit(50)));
+
+        // Then
+        assertEquals(List.of(BulkTransactionResult.REJECTED), statuses(results));
+        verify(accountService, times(1)).updateBalance(any());
+        verify(transactionGroupCommit, never()).submit(any());
+    }
+
+    @Test
+    void process_ShouldReverseAndReject_WhenOutcomeStaysUnknown() {
+        // Given
+        RuntimeException timeout = new RuntimeException("Read timed out");
+        when(accountService.updateBalance(any()))
+                .thenThrow(timeout, timeout, timeout)
+                .thenReturn(null);
+
+        // When
+        List<BulkTransactionResult> results = processor.process(List.of(deposit(50)));
+
+        // Then
+        assertEquals(List.of(BulkTransactionResult.REJECTED), statuses(results));
+        List<BalanceUpdate> updates = balanceUpdates(4);
+        BalanceUpdate reversal = updates.get(3);
+        assertEquals(updates.get(0).getIdempotencyKey(), reversal.getReverses());
+        assertEquals(Money.of(-50), reversal.getAmount());
+        assertNotEquals(updates.get(0).getIdempotencyKey(), reversal.getIdempotencyKey());
+        verify(transactionGroupCommit, never()).submit(any());
+    }
+
+    @Test
+    void process_ShouldRecordEntries_WhenReversalIsRefusedBecauseUpdateWasApplied() {
+        // Given
+        RuntimeException timeout = new RuntimeException("Read timed out");
+        when(accountService.updateBalance(any()))
+                .thenThrow(timeout, timeout, timeout)
+                .thenThrow(new InsufficientBalance("Insufficient balance in the account"));
+
+        // When
+        List<BulkTransactionResult> results = processor.process(List.of(deposit(50)));
+
+        // Then
+        assertEquals(List.of(BulkTransactionResult.COMPLETED), statuses(results));
+        verify(transactionGroupCommit).submit(any());
+    }
+
+    @Test
+    void process_ShouldReportUnknown_WhenReversalOutcomeIsAlsoUnknown() {
+        // Given
+        when(accountService.updateBalance(any())).thenThrow(new RuntimeException("Read timed out"));
+
+        // When
+        List<BulkTransactionResult> results = processor.process(List.of(deposit(50), withdrawal(10)));
+
+        // Then
+        assertEquals(List.of(BulkTransactionResult.UNKNOWN, BulkTransactionResult.UNKNOWN), statuses(results));
+        verify(accountService, times(6)).updateBalance(any());
+        verify(transactionGroupCommit, never()).submit(any());
+    }
+
+    @Test
+    void process_ShouldReportUnknown_WhenUnrecordedChangeCannotBeReverted() {
+        // Given
+        when(transactionGroupCommit.submit(any()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("batch failed")));
+        when(accountService.updateBalance(any()))
+                .thenReturn(null)
+                .thenThrow(new RuntimeException("Read timed out"));
+
+        // When
+        List<BulkTransactionResult> results = processor.process(List.of(deposit(50), deposit(20)));
+
+        // Then
+        assertEquals(List.of(BulkTransactionResult.COMPLETED, BulkTransactionResult.UNKNOWN), statuses(results));
+        List<BalanceUpdate> updates = balanceUpdates(4);
+        assertEquals(Money.of(-20), updates.get(1).getAmount());
+        assertEquals(updates.get(0).getIdempotencyKey() + ":UNRECORDED", updates.get(1).getIdempotencyKey());
+    }
+
+    private List<BalanceUpdate> balanceUpdates(int count) {
+        ArgumentCaptor<BalanceUpdate> captor = ArgumentCaptor.forClass(BalanceUpdate.class);
+        verify(accountService, times(count)).updateBalance(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static List<String> statuses(List<BulkTransactionResult> results) {
+        return results.stream().map(BulkTransactionResult::getStatus).toList();
+    }
+
+    private static TransactionDto deposit(long amount) {
+        return TransactionDto.builder().accountId(ACCOUNT).transactionType("DEPOSIT").amount(Money.of(amount)).build();
+    }
+
+    private static TransactionDto withdrawal(long amount) {
+        return TransactionDto.builder().accountId(ACCOUNT).transactionType("WITHDRAWAL").amount(Money.of(amount)).build();
+    }
+}
@@ -0,0 +1,92 @@
+package org.training.transactions.service.implementation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.training.common.model.Money;
+import org.training.transactions.model.entity.Transaction;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionGroupCommitTest {
+
+    @Mock
+    private TransactionRecorder transactionRecorder;
+
+    @InjectMocks
+    private TransactionGroupCommit transactionGroupCommit;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transactionGroupCommit, "maxBatchSize", 2);
+        ReflectionTestUtils.setField(transactionGroupCommit, "queueCapacity", 10);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        transactionGroupCommit.stop();
+    }
+
+    @Test
+    void submit_ShouldCompleteOnceBatchIsSaved() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(transactionGroupCommit, "flushIntervalMillis", 5L);
+        transactionGroupCommit.start();
+
+        // When
+        CompletableFuture<Void> first = transactionGroupCommit.submit(transaction());
+        CompletableFuture<Void> second = transactionGroupCommit.submit(transaction());
+
+        // Then
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        verify(transactionRecorder, atLeastOnce()).save(anyList());
+    }
+
+    @Test
+    void submit_ShouldFailTakenTransactions_WhenWriterIsInterrupted() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(transactionGroupCommit, "flushIntervalMillis", 60_000L);
+        transactionGroupCommit.start();
+        CompletableFuture<Void> committed = transactionGroupCommit.submit(transaction());
+        awaitTakenOffQueue();
+
+        // When
+        ((Thread) ReflectionTestUtils.getField(transactionGroupCommit, "writer")).interrupt();
+
+        // Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> committed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        verify(transactionRecorder, never()).save(anyList());
+        assertThrows(IllegalStateException.class, () -> transactionGroupCommit.submit(transaction()));
+    }
+
+    private void awaitTakenOffQueue() throws InterruptedException {
+        Queue<?> queue = (Queue<?>) ReflectionTestUtils.getField(transactionGroupCommit, "queue");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!queue.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    private static Transaction transaction() {
+        Transaction transaction = new Transaction();
+        transaction.setAmount(Money.of(10));
+        return transaction;
+    }
+}
@@ -0,0 +1,197 @@
+package org.training.transactions.service.implementation;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.common.model.Money;
+import org.training.transactions.model.TransactionStatus;
+import org.training.transactions.model.TransactionType;
+import org.training.transactions.model.entity.Transaction;
+import org.training.transactions.model.entity.TransactionSummary;
+import org.training.transactions.repository.RecordedRequestRepository;
+import org.training.transactions.repository.TransactionRepository;
+import org.training.transactions.repository.TransactionSummaryRepository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the recorder against a real PostgreSQL, started in process, as the summaries are kept with its
+ * upsert and built with its date functions and table locks. PostgreSQL refuses to run as root.
+ */
+@DisabledIfSystemProperty(named = "user.name", matches = "root")
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(TransactionRecorder.class)
+class TransactionRecorderIntegrationTest {
+
+    private static final String ACCOUNT = "0600100000001";
+    private static final String OTHER = "0600100000002";
+    private static final String MONTH = YearMonth.now().toString();
+
+    @Autowired
+    private TransactionRecorder transactionRecorder;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionSummaryRepository transactionSummaryRepository;
+
+    @Autowired
+    private RecordedRequestRepository recordedRequestRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionSummaryRepository.deleteAllInBatch();
+        transactionRepository.deleteAllInBatch();
+        recordedRequestRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void save_ShouldAddTransactionsToTheSummaryOfTheirAccountMonthAndType() {
+        // When
+        transactionRecorder.save(List.of(
+                transaction(ACCOUNT, TransactionType.DEPOSIT, "100.00"),
+                transaction(ACCOUNT, TransactionType.DEPOSIT, "50.00"),
+                transaction(ACCOUNT, TransactionType.WITHDRAWAL, "-30.00"),
+                transaction(OTHER, TransactionType.DEPOSIT, "5.00")));
+        transactionRecorder.save(List.of(transaction(ACCOUNT, TransactionType.DEPOSIT, "10.00")));
+
+        // Then
+        List<TransactionSummary> summaries = summaries(ACCOUNT);
+        assertEquals(2, summaries.size());
+        assertSummary(summaries.get(0), TransactionType.DEPOSIT, 3, "160.00", "10.00", "100.00");
+        assertSummary(summaries.get(1), TransactionType.WITHDRAWAL, 1, "-30.00", "-30.00", "-30.00");
+        assertSummary(summaries(OTHER).get(0), TransactionType.DEPOSIT, 1, "5.00", "5.00", "5.00");
+    }
+
+    @Test
+    void save_ShouldCountEveryTransaction_WhenSameSummaryIsAddedToConcurrently() throws Exception {
+        // Given
+        int threads = 8;
+        int saves = 5;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int save = 0; save < saves; save++) {
+                        transactionRecorder.save(List.of(
+                                transaction(ACCOUNT, TransactionType.DEPOSIT, "1.00"),
+                                transaction(OTHER, TransactionType.DEPOSIT, "2.00")));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertSummary(summaries(ACCOUNT).get(0), TransactionType.DEPOSIT, threads * saves, "40.00", "1.00", "1.00");
+        assertSummary(summaries(OTHER).get(0), TransactionType.DEPOSIT, threads * saves, "80.00", "2.00", "2.00");
+    }
+
+    @Test
+    void saveOnce_ShouldCountTransactionsOnce_WhenKeyIsDeliveredAgain() {
+        // When
+        List<Transaction> first = transactionRecorder.saveOnce(List.of(transaction(ACCOUNT, TransactionType.DEPOSIT, "100.00")), "r1:LEDGER");
+        List<Transaction> second = transactionRecorder.saveOnce(List.of(transaction(ACCOUNT, TransactionType.DEPOSIT, "100.00")), "r1:LEDGER");
+
+        // Then
+        assertEquals(1, first.size());
+        assertTrue(second.isEmpty());
+        assertEquals(1, transactionRepository.count());
+        assertSummary(summaries(ACCOUNT).get(0), TransactionType.DEPOSIT, 1, "100.00", "100.00", "100.00");
+    }
+
+    @Test
+    void backfill_ShouldBuildSummariesFromRecordedTransactions_OnlyWhenThereAreNone() {
+        // Given
+        transactionTemplate.executeWithoutResult(status -> transactionRepository.saveAll(List.of(
+                transaction(ACCOUNT, TransactionType.DEPOSIT, "100.00"),
+                transaction(ACCOUNT, TransactionType.DEPOSIT, "20.00"),
+                transaction(ACCOUNT, TransactionType.WITHDRAWAL, "-70.00"))));
+
+        // When
+        transactionRecorder.backfill();
+        transactionRecorder.backfill();
+
+        // Then
+        List<TransactionSummary> summaries = summaries(ACCOUNT);
+        assertEquals(2, summaries.size());
+        assertSummary(summaries.get(0), TransactionType.DEPOSIT, 2, "120.00", "20.00", "100.00");
+        assertSummary(summaries.get(1), TransactionType.WITHDRAWAL, 1, "-70.00", "-70.00", "-70.00");
+    }
+
+    private List<TransactionSummary> summaries(String accountId) {
+        return transactionSummaryRepository.findByAccountIdAndMonths(accountId, MONTH, MONTH).stream()
+                .filter(summary -> summary.getId().getYearMonth().equals(MONTH))
+                .collect(Collectors.toList());
+    }
+
+    private static void assertSummary(TransactionSummary summary, TransactionType transactionType, long count,
+                                      String total, String min, String max) {
+        assertEquals(transactionType, summary.getId().getTransactionType());
+        assertEquals(count, summary.getTransactionCount());
+        assertEquals(Money.of(new BigDecimal(total)), summary.getTotalAmount());
+        assertEquals(Money.of(new BigDecimal(min)), summary.getMinAmount());
+        assertEquals(Money.of(new BigDecimal(max)), summary.getMaxAmount());
+    }
+
+    private static Transaction transaction(String accountId, TransactionType transactionType, String amount) {
+        return Transaction.builder()
+                .accountId(accountId)
+                .transactionType(transactionType)
+                .amount(Money.of(new BigDecimal(amount)))
+                .status(TransactionStatus.COMPLETED).build();
+    }
+
+    @TestConfiguration
+    static class EmbeddedPostgresConfiguration {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+            return embeddedPostgres.getPostgresDatabase();
+        }
+    }
+}
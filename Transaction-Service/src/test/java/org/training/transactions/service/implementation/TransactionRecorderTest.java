@@ -0,0 +1,116 @@
+package org.training.transactions.service.implementation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.training.common.model.Money;
+import org.training.transactions.model.TransactionType;
+import org.training.transactions.model.entity.Transaction;
+import org.training.transactions.repository.RecordedRequestRepository;
+import org.training.transactions.repository.TransactionRepository;
+import org.training.transactions.repository.TransactionSummaryRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionRecorderTest {
+
+    private static final LocalDateTime MARCH = LocalDateTime.of(2026, 3, 15, 12, 0);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionSummaryRepository transactionSummaryRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private RecordedRequestRepository recordedRequestRepository;
+
+    @InjectMocks
+    private TransactionRecorder transactionRecorder;
+
+    @Test
+    void save_ShouldAddOnceToEverySummary_InAFixedOrder() {
+        // Given
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        transactionRecorder.save(List.of(
+                transaction("B", TransactionType.DEPOSIT, "5.00", MARCH),
+                transaction("A", TransactionType.WITHDRAWAL, "-30.00", MARCH),
+                transaction("A", TransactionType.DEPOSIT, "100.00", MARCH),
+                transaction("A", TransactionType.DEPOSIT, "50.00", MARCH.plusMonths(1)),
+                transaction("A", TransactionType.DEPOSIT, "10.00", MARCH),
+                transaction("A", null, "1.00", MARCH)));
+
+        // Then
+        InOrder inOrder = inOrder(transactionRepository, transactionSummaryRepository);
+        inOrder.verify(transactionRepository).flush();
+        inOrder.verify(transactionSummaryRepository).add("A", "2026-03", "DEPOSIT", 2, new BigDecimal("110.00"),
+                new BigDecimal("10.00"), new BigDecimal("100.00"));
+        inOrder.verify(transactionSummaryRepository).add("A", "2026-03", "WITHDRAWAL", 1, new BigDecimal("-30.00"),
+                new BigDecimal("-30.00"), new BigDecimal("-30.00"));
+        inOrder.verify(transactionSummaryRepository).add("A", "2026-04", "DEPOSIT", 1, new BigDecimal("50.00"),
+                new BigDecimal("50.00"), new BigDecimal("50.00"));
+        inOrder.verify(transactionSummaryRepository).add("B", "2026-03", "DEPOSIT", 1, new BigDecimal("5.00"),
+                new BigDecimal("5.00"), new BigDecimal("5.00"));
+        verifyNoMoreInteractions(transactionSummaryRepository);
+    }
+
+    @Test
+    void saveOnce_ShouldSaveNothing_WhenKeyWasAlreadyRecorded() {
+        // Given
+        when(recordedRequestRepository.record("r1:LEDGER")).thenReturn(0);
+
+        // When
+        List<Transaction> saved = transactionRecorder.saveOnce(List.of(transaction("A", TransactionType.DEPOSIT, "1.00", MARCH)), "r1:LEDGER");
+
+        // Then
+        assertTrue(saved.isEmpty());
+        verifyNoInteractions(transactionRepository, transactionSummaryRepository);
+    }
+
+    @Test
+    void backfill_ShouldBuildSummaries_OnlyWhenThereAreNone() {
+        // Given
+        doAnswer(invocation -> {
+            invocation.<Consumer<org.springframework.transaction.TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(transactionSummaryRepository.count()).thenReturn(0L, 3L);
+
+        // When
+        transactionRecorder.backfill();
+        transactionRecorder.backfill();
+
+        // Then
+        verify(transactionSummaryRepository, times(2)).lock();
+        verify(transactionSummaryRepository, times(1)).backfill();
+        verify(transactionSummaryRepository, never()).add(anyString(), anyString(), anyString(), anyLong(), any(), any(), any());
+    }
+
+    private static Transaction transaction(String accountId, TransactionType transactionType, String amount, LocalDateTime transactionDate) {
+        return Transaction.builder()
+                .accountId(accountId)
+                .transactionType(transactionType)
+                .amount(Money.of(new BigDecimal(amount)))
+                .transactionDate(transactionDate).build();
+    }
+}